@@ -0,0 +1,141 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.entities.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Message for invalidating the cache of schema records on all replicas.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class SchemaCacheMessage extends DataResourceMessage {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(SchemaCacheMessage.class);
+  /**
+   * Name of the entity.
+   */
+  public static final String ENTITY_NAME = "schemacache";
+  /**
+   * Action for invalidating the cache.
+   */
+  public static final String ACTION_INVALIDATE = "invalidate";
+  /**
+   * Routing key for binding queues to all messages of the schema cache.
+   */
+  public static final String ROUTING_KEY_PATTERN = ENTITY_NAME + ".#";
+  /**
+   * Holds all URLs and paths of the schema documents (separated by blanks).
+   */
+  public static final String LOCATIONS_PROPERTY = "locations";
+  /**
+   * Holds the identifier of the instance sending the message.
+   */
+  public static final String INSTANCE_PROPERTY = "instance";
+
+  /**
+   * Create message for invalidating all entries of a schema.
+   *
+   * @param schemaId SchemaId (without version, may be null).
+   * @param locations URLs and paths of the schema documents.
+   * @param instanceId Identifier of the sending instance.
+   * @param sender sender of the event.
+   * @return Message for invalidate event.
+   */
+  public static SchemaCacheMessage factoryInvalidateMessage(String schemaId, Collection<String> locations, String instanceId, String sender) {
+    SchemaCacheMessage msg = new SchemaCacheMessage();
+    Map<String, String> properties = new HashMap<>();
+    if (locations != null && !locations.isEmpty()) {
+      properties.put(LOCATIONS_PROPERTY, String.join(" ", locations));
+    }
+    properties.put(INSTANCE_PROPERTY, instanceId);
+    msg.setEntityId(schemaId);
+    msg.setAction(ACTION_INVALIDATE);
+    msg.setSubCategory(SUB_CATEGORY.DATA.getValue());
+    msg.setSender(sender);
+    msg.setMetadata(properties);
+    msg.setCurrentTimestamp();
+    return msg;
+  }
+
+  /**
+   * Parse received message. Only the properties needed for invalidation are
+   * read.
+   *
+   * @param json Message as JSON string.
+   * @return Message or null if message is not parseable.
+   */
+  public static SchemaCacheMessage fromJson(String json) {
+    SchemaCacheMessage msg = null;
+    try {
+      JsonNode node = new ObjectMapper().readTree(json);
+      msg = new SchemaCacheMessage();
+      msg.setEntityId(node.path("entityId").asText(null));
+      msg.setAction(node.path("action").asText(null));
+      msg.setSender(node.path("sender").asText(null));
+      Map<String, String> properties = new HashMap<>();
+      node.path("metadata").fields().forEachRemaining(entry -> properties.put(entry.getKey(), entry.getValue().asText()));
+      msg.setMetadata(properties);
+    } catch (JsonProcessingException | RuntimeException ex) {
+      LOG.warn("Ignore invalid schema cache message: '{}'", json, ex);
+    }
+    return msg;
+  }
+
+  /**
+   * Get identifier of the sending instance.
+   *
+   * @return Identifier or null if not available.
+   */
+  public String getInstanceId() {
+    return (getMetadata() != null) ? getMetadata().get(INSTANCE_PROPERTY) : null;
+  }
+
+  /**
+   * Get URLs and paths of the schema documents.
+   *
+   * @return Set of locations (may be empty).
+   */
+  public Set<String> getLocations() {
+    Set<String> locations = new LinkedHashSet<>();
+    String value = (getMetadata() != null) ? getMetadata().get(LOCATIONS_PROPERTY) : null;
+    if (value != null && !value.isBlank()) {
+      locations.addAll(Arrays.asList(value.trim().split("\\s+")));
+    }
+    return locations;
+  }
+
+  @Override
+  public String getEntityName() {
+    return ENTITY_NAME;
+  }
+}
@@ -25,19 +25,31 @@ import edu.kit.datamanager.metastore2.configuration.ApplicationProperties;
 import edu.kit.datamanager.metastore2.configuration.MetaStoreMonitoringConfiguration;
 import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
 import edu.kit.datamanager.metastore2.configuration.OaiPmhConfiguration;
+import edu.kit.datamanager.metastore2.dao.ICrosswalkDocumentDao;
 import edu.kit.datamanager.metastore2.dao.IDataRecordDao;
+import edu.kit.datamanager.metastore2.dao.IDataResourceSnapshotDao;
 import edu.kit.datamanager.metastore2.dao.IMetadataFormatDao;
 import edu.kit.datamanager.metastore2.dao.ISchemaRecordDao;
 import edu.kit.datamanager.metastore2.dao.IUrl2PathDao;
+import edu.kit.datamanager.metastore2.oaipmh.util.CrosswalkCache;
 import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.metastore2.util.DocumentCodec;
+import edu.kit.datamanager.metastore2.util.DownloadUtil;
+import edu.kit.datamanager.metastore2.util.ExternalSchemaCache;
 import edu.kit.datamanager.metastore2.util.MetadataRecordUtil;
 import edu.kit.datamanager.metastore2.util.MetadataSchemaRecordUtil;
+import edu.kit.datamanager.metastore2.util.MetricsUtil;
+import edu.kit.datamanager.metastore2.util.SchemaRecordCache;
+import edu.kit.datamanager.metastore2.util.VersionSnapshotUtil;
+import edu.kit.datamanager.metastore2.validation.BulkValidator;
+import edu.kit.datamanager.metastore2.validation.CompiledSchemaCache;
 import edu.kit.datamanager.metastore2.validation.IValidator;
 import edu.kit.datamanager.repo.configuration.DateBasedStorageProperties;
 import edu.kit.datamanager.repo.configuration.IdBasedStorageProperties;
 import edu.kit.datamanager.repo.configuration.MonitoringConfiguration;
 import edu.kit.datamanager.repo.configuration.StorageServiceProperties;
 import edu.kit.datamanager.repo.dao.IAllIdentifiersDao;
+import edu.kit.datamanager.repo.dao.IContentInformationDao;
 import edu.kit.datamanager.repo.dao.IDataResourceDao;
 import edu.kit.datamanager.repo.domain.ContentInformation;
 import edu.kit.datamanager.repo.domain.DataResource;
@@ -118,8 +130,14 @@ public class Application {
   @Autowired
   private IAllIdentifiersDao allIdentifiersDao;
   @Autowired
+  private IContentInformationDao contentInformationDao;
+  @Autowired
   private IMetadataFormatDao metadataFormatDao;
   @Autowired
+  private ICrosswalkDocumentDao crosswalkDocumentDao;
+  @Autowired
+  private IDataResourceSnapshotDao dataResourceSnapshotDao;
+  @Autowired
   private List<IValidator> validators;
 
   @Bean
@@ -301,10 +319,22 @@ public class Application {
     DataResourceRecordUtil.setSchemaConfig(rbc);
     DataResourceRecordUtil.setUrl2PathDao(url2PathDao);
     DataResourceRecordUtil.setAllIdentifiersDao(allIdentifiersDao);
+    CompiledSchemaCache.configure(applicationProperties.getSchemaCacheMaxEntries(), applicationProperties.getSchemaCacheMaxSize());
+    SchemaRecordCache.setSchemaRecordDao(schemaRecordDao);
+    SchemaRecordCache.setUrl2PathDao(url2PathDao);
+    SchemaRecordCache.configure(applicationProperties.getSchemaRecordCacheMaxEntries());
+    DownloadUtil.configure(applicationProperties.getDownloadMaxSize());
+    DocumentCodec.setContentInformationDao(contentInformationDao);
+    DocumentCodec.configure(applicationProperties.getStorageCodec());
+    BulkValidator.configure(applicationProperties.getBulkValidationThreads(), applicationProperties.getBulkValidationMaxEntrySize());
+    CrosswalkCache.setCrosswalkDocumentDao(crosswalkDocumentDao);
+    VersionSnapshotUtil.setDataResourceSnapshotDao(dataResourceSnapshotDao);
+    MetricsUtil.configure(metastoreMonitoringConfiguration().getNoOfSchemas());
     MonitoringUtil.setMonitoringConfiguration(monitoringConfiguration());
 
 
     fixBasePath(rbc);
+    ExternalSchemaCache.configure(ExternalSchemaCache.getCacheDirectory(rbc), applicationProperties.getExternalSchemaCacheTtl(), applicationProperties.getExternalSchemaCacheMaxSize());
 
     printSettings(rbc);
     LOG.trace("Content audit service: '{}'", contentAuditService);
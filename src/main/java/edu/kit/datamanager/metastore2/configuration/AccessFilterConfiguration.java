@@ -16,9 +16,11 @@
 package edu.kit.datamanager.metastore2.configuration;
 
 import edu.kit.datamanager.metastore2.filter.AccessLoggingFilter;
+import edu.kit.datamanager.metastore2.filter.MetricsFilter;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
 @Configuration
 public class AccessFilterConfiguration {
@@ -36,4 +38,18 @@ public class AccessFilterConfiguration {
 
     }
 
+    @Bean
+    public FilterRegistrationBean<MetricsFilter> metricsFilter() {
+        FilterRegistrationBean<MetricsFilter> registrationBean = new FilterRegistrationBean<>();
+
+        registrationBean.setFilter(new MetricsFilter());
+
+        registrationBean.addUrlPatterns("/api/*", "/oaipmh/*");
+        // Wrap the whole filter chain (including authentication and rejected requests).
+        registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
+
+        return registrationBean;
+
+    }
+
 }
\ No newline at end of file
@@ -64,6 +64,9 @@ public class ApplicationProperties extends GenericApplicationProperties {
   @Value("${metastore.metadata.storagepattern:dateBased}")
   private String storagePattern;
 
+  @Value("${metastore.metadata.storageCodec:none}")
+  private String storageCodec;
+
   @Value("${metastore.metadata.schemaRegistries: }")
   private List<String> schemaRegistries;
 
@@ -73,4 +76,31 @@ public class ApplicationProperties extends GenericApplicationProperties {
   @Value("${metastore.javers.scope:20}")
   private int maxJaversScope;
 
+  @Value("${metastore.validation.schemaCache.maxEntries:100}")
+  private int schemaCacheMaxEntries;
+
+  @Value("${metastore.validation.schemaCache.maxSize:52428800}")
+  private long schemaCacheMaxSize;
+
+  @Value("${metastore.schemaRecordCache.maxEntries:1000}")
+  private int schemaRecordCacheMaxEntries;
+
+  @Value("${metastore.download.maxSize:104857600}")
+  private long downloadMaxSize;
+
+  @Value("${metastore.externalSchemaCache.ttl:3600}")
+  private long externalSchemaCacheTtl;
+
+  @Value("${metastore.externalSchemaCache.maxSize:104857600}")
+  private long externalSchemaCacheMaxSize;
+
+  @Value("${metastore.validation.bulk.threads:0}")
+  private int bulkValidationThreads;
+
+  @Value("${metastore.validation.bulk.maxEntrySize:10485760}")
+  private long bulkValidationMaxEntrySize;
+
+  @Value("${metastore.ingest.chunkSize:100}")
+  private int batchIngestChunkSize;
+
 }
@@ -42,4 +42,10 @@ public class MetaStoreMonitoringConfiguration {
    * will be monitored for.
    */
   private int noOfSchemas = 10; // 10 schemas
+  /**
+   * Maximum age (in seconds) of the statistics (e.g. number of documents)
+   * before they are read from database again.
+   */
+  @Value("${metastore.monitoring.statisticsMaxAge:300}")
+  private long statisticsMaxAge = 300; // 5 minutes
 }
@@ -15,10 +15,14 @@
  */
 package edu.kit.datamanager.metastore2.configuration;
 
+import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
 import edu.kit.datamanager.metastore2.validation.IValidator;
 import edu.kit.datamanager.repo.configuration.RepoBaseConfiguration;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Holds all properties needed to manage data resources.
@@ -29,6 +33,10 @@ public class MetastoreConfiguration extends RepoBaseConfiguration {
 
   private List<IValidator>validators;
 
+  private Map<MetadataSchemaRecord.SCHEMA_TYPE, IValidator> validatorsBySchemaType = new EnumMap<>(MetadataSchemaRecord.SCHEMA_TYPE.class);
+
+  private final Map<String, IValidator> validatorsByMimetype = new ConcurrentHashMap<>();
+
   /**
    * Get schema registries.
    *
@@ -63,6 +71,54 @@ public class MetastoreConfiguration extends RepoBaseConfiguration {
    */
   public void setValidators(List<IValidator> validators) {
     this.validators = validators;
+    Map<MetadataSchemaRecord.SCHEMA_TYPE, IValidator> bySchemaType = new EnumMap<>(MetadataSchemaRecord.SCHEMA_TYPE.class);
+    if (validators != null) {
+      for (MetadataSchemaRecord.SCHEMA_TYPE type : MetadataSchemaRecord.SCHEMA_TYPE.values()) {
+        for (IValidator validator : validators) {
+          if (validator.supportsSchemaType(type)) {
+            bySchemaType.put(type, validator);
+            break;
+          }
+        }
+      }
+    }
+    validatorsBySchemaType = bySchemaType;
+    validatorsByMimetype.clear();
+  }
+
+  /**
+   * Get validator for given schema type. The validators are shared and
+   * thread-safe.
+   *
+   * @param type Type of the schema.
+   * @return the validator or NULL if no validator supports the type.
+   */
+  public IValidator getValidatorForSchemaType(MetadataSchemaRecord.SCHEMA_TYPE type) {
+    return (type == null) ? null : validatorsBySchemaType.get(type);
+  }
+
+  /**
+   * Get validator for given mimetype. The validators are shared and
+   * thread-safe.
+   *
+   * @param mimetype Mimetype of the schema.
+   * @return the validator or NULL if no validator supports the mimetype.
+   */
+  public IValidator getValidatorForMimetype(String mimetype) {
+    IValidator applicableValidator = null;
+    if (mimetype != null) {
+      applicableValidator = validatorsByMimetype.get(mimetype);
+      if (applicableValidator == null && validators != null) {
+        for (IValidator validator : validators) {
+          if (validator.supportsMimetype(mimetype)) {
+            applicableValidator = validator;
+            validatorsByMimetype.put(mimetype, validator);
+            break;
+          }
+        }
+      }
+    }
+    return applicableValidator;
   }
 
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.configuration;
+
+import edu.kit.datamanager.entities.messaging.SchemaCacheMessage;
+import edu.kit.datamanager.metastore2.util.SchemaRecordCache;
+import edu.kit.datamanager.service.IMessagingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Broadcast invalidations of the schema record cache to all instances. Each
+ * instance listens on its own (anonymous) queue bound to the exchange of the
+ * sender, as the shared receiver queue delivers each message to one instance
+ * only. The connection factory of the listener is closed on shutdown. It is
+ * not exposed as bean to keep the connection factory of the messaging service
+ * unique.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "repo.messaging", name = "enabled", havingValue = "true")
+public class SchemaCacheMessagingConfiguration implements DisposableBean {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(SchemaCacheMessagingConfiguration.class);
+
+  @Value("${repo.messaging.hostname:localhost}")
+  private String hostname;
+
+  @Value("${repo.messaging.port:5672}")
+  private int port;
+
+  @Value("${repo.messaging.username:guest}")
+  private String username;
+
+  @Value("${repo.messaging.password:guest}")
+  private String password;
+
+  @Value("${repo.messaging.sender.exchange:metastore_events}")
+  private String exchange;
+
+  private CachingConnectionFactory connectionFactory;
+
+  /**
+   * Listener for invalidation messages of other instances. Queue and binding
+   * are (re)declared on each (re)connect.
+   *
+   * @param messagingService Service for sending messages.
+   * @return Listener container.
+   */
+  @Bean
+  public SimpleMessageListenerContainer schemaCacheListenerContainer(IMessagingService messagingService) {
+    SchemaRecordCache.setMessagingService(messagingService);
+    connectionFactory = new CachingConnectionFactory(hostname, port);
+    connectionFactory.setUsername(username);
+    connectionFactory.setPassword(password);
+    RabbitAdmin rabbitAdmin = new RabbitAdmin(connectionFactory);
+    Queue queue = new AnonymousQueue();
+    TopicExchange topicExchange = new TopicExchange(exchange);
+    Binding binding = BindingBuilder.bind(queue).to(topicExchange).with(SchemaCacheMessage.ROUTING_KEY_PATTERN);
+    connectionFactory.addConnectionListener(connection -> {
+      rabbitAdmin.declareExchange(topicExchange);
+      rabbitAdmin.declareQueue(queue);
+      rabbitAdmin.declareBinding(binding);
+      LOG.trace("Schema record cache: listen on queue '{}'", queue.getName());
+    });
+    SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+    container.setQueueNames(queue.getName());
+    container.setMissingQueuesFatal(false);
+    container.setMessageListener(message -> SchemaRecordCache.handleMessage(SchemaCacheMessage.fromJson(new String(message.getBody(), StandardCharsets.UTF_8))));
+    return container;
+  }
+
+  /**
+   * Close connections of the listener. The listener container is already
+   * stopped as it depends on this configuration.
+   */
+  @Override
+  public void destroy() {
+    if (connectionFactory != null) {
+      LOG.trace("Schema record cache: close connection factory of listener.");
+      connectionFactory.destroy();
+      connectionFactory = null;
+    }
+  }
+}
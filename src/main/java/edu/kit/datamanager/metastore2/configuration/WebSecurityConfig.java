@@ -105,7 +105,8 @@ public class WebSecurityConfig {
                                 requestMatchers(HttpMethod.POST, "/api/v1/schemas/").hasAnyRole(applicationProperties.getPostEnabledForRole()).
                                 requestMatchers(HttpMethod.POST, "/api/v2/schemas/").hasAnyRole(applicationProperties.getPostEnabledForRole()).
                                 requestMatchers(HttpMethod.POST, "/api/v1/metadata/").hasAnyRole(applicationProperties.getPostEnabledForRole()).
-                                requestMatchers(HttpMethod.POST, "/api/v2/metadata/").hasAnyRole(applicationProperties.getPostEnabledForRole());
+                                requestMatchers(HttpMethod.POST, "/api/v2/metadata/").hasAnyRole(applicationProperties.getPostEnabledForRole()).
+                                requestMatchers(HttpMethod.POST, "/api/v2/metadata/batch").hasAnyRole(applicationProperties.getPostEnabledForRole());
                       }
                       authorize.requestMatchers(EndpointRequest.toAnyEndpoint()).hasAnyRole("ANONYMOUS", "ADMIN", "ACTUATOR", "SERVICE_WRITE").
                               requestMatchers("/**").authenticated();
@@ -19,8 +19,11 @@ import edu.kit.datamanager.metastore2.domain.DataRecord;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,4 +41,58 @@ public interface IDataRecordDao extends JpaRepository<DataRecord, String>, JpaSp
   List<DataRecord>     findBySchemaIdAndLastUpdateBetween(String schemaId, Instant from, Instant until, Pageable pageable);
   long                 countBySchemaIdInAndLastUpdateBetween(List<String> schemaId, Instant from, Instant until);
   long                 countBySchemaIdAndLastUpdateBetween(String schemaId, Instant from, Instant until);
+  long                 countBySchemaIdAndLastUpdateAfter(String schemaId, Instant from);
+
+  /**
+   * Keyset pagination over all records of a schema ordered by (lastUpdate,
+   * id). Returns the records following the given key.
+   *
+   * @param schemaId SchemaId of the records.
+   * @param lastUpdate Last update of the last record already read.
+   * @param id Id of the last record already read.
+   * @param pageable Page holding the maximum number of records (page number
+   * should be 0).
+   * @return List of records following the given key.
+   */
+  @Query("select d from #{#entityName} d where d.schemaId = :schemaId"
+          + " and (d.lastUpdate > :lastUpdate or (d.lastUpdate = :lastUpdate and d.id > :id))"
+          + " order by d.lastUpdate asc, d.id asc")
+  List<DataRecord>     findNextBySchemaId(@Param("schemaId") String schemaId, @Param("lastUpdate") Instant lastUpdate, @Param("id") Long id, Pageable pageable);
+
+  /**
+   * Keyset pagination over all records of the given schemas ordered by
+   * (lastUpdate, id). Returns the records following the given key.
+   *
+   * @param schemaIds SchemaIds of the records.
+   * @param lastUpdate Last update of the last record already read.
+   * @param id Id of the last record already read.
+   * @param pageable Page holding the maximum number of records (page number
+   * should be 0).
+   * @return List of records following the given key.
+   */
+  @Query("select d from #{#entityName} d where d.schemaId in :schemaIds"
+          + " and (d.lastUpdate > :lastUpdate or (d.lastUpdate = :lastUpdate and d.id > :id))"
+          + " order by d.lastUpdate asc, d.id asc")
+  List<DataRecord>     findNextBySchemaIdIn(@Param("schemaIds") Collection<String> schemaIds, @Param("lastUpdate") Instant lastUpdate, @Param("id") Long id, Pageable pageable);
+
+  /**
+   * Keyset pagination over all records of the given schemas updated between
+   * 'from' and 'until' (inclusive) ordered by (lastUpdate, id). Returns the
+   * records following the given key.
+   *
+   * @param schemaIds SchemaIds of the records.
+   * @param from Earliest update date.
+   * @param until Latest update date.
+   * @param lastUpdate Last update of the last record already read.
+   * @param id Id of the last record already read.
+   * @param pageable Page holding the maximum number of records (page number
+   * should be 0).
+   * @return List of records following the given key.
+   */
+  @Query("select d from #{#entityName} d where d.schemaId in :schemaIds"
+          + " and d.lastUpdate >= :from and d.lastUpdate <= :until"
+          + " and (d.lastUpdate > :lastUpdate or (d.lastUpdate = :lastUpdate and d.id > :id))"
+          + " order by d.lastUpdate asc, d.id asc")
+  List<DataRecord>     findNextBySchemaIdInAndLastUpdateBetween(@Param("schemaIds") Collection<String> schemaIds, @Param("from") Instant from, @Param("until") Instant until,
+          @Param("lastUpdate") Instant lastUpdate, @Param("id") Long id, Pageable pageable);
 }
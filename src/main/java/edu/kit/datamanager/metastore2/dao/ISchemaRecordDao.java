@@ -16,9 +16,14 @@
 package edu.kit.datamanager.metastore2.dao;
 
 import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.repo.domain.DataResource;
+import edu.kit.datamanager.repo.domain.RelatedIdentifier;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -36,4 +41,30 @@ public interface ISchemaRecordDao extends JpaRepository<SchemaRecord, String>, J
   List<SchemaRecord> findBySchemaIdStartsWithOrderByVersionDesc(String schemaId);
 
   SchemaRecord findFirstBySchemaIdStartsWithOrderByVersionDesc(String schemaId);
+
+  /**
+   * Count the data resources referencing a schema per schema version. Data
+   * resources reference the schema via the URL of the schema version
+   * (alternateId).
+   *
+   * @param relationType Relation type of the reference to the schema.
+   * @param states Allowed states of the data resources.
+   * @return Number of data resources per schema version (schemaId with
+   * version).
+   */
+  @Query("select s.schemaId as schemaId, count(distinct d.id) as noOfDocuments"
+          + " from DataResource d join d.relatedIdentifiers r, SchemaRecord s"
+          + " where r.relationType = :relationType and r.value = s.alternateId and d.state in :states"
+          + " group by s.schemaId")
+  List<DocumentsPerSchema> countDocumentsPerSchema(@Param("relationType") RelatedIdentifier.RELATION_TYPES relationType, @Param("states") Collection<DataResource.State> states);
+
+  /**
+   * Projection holding the number of documents of a schema version.
+   */
+  interface DocumentsPerSchema {
+
+    String getSchemaId();
+
+    Long getNoOfDocuments();
+  }
 }
@@ -9,6 +9,7 @@ import edu.kit.datamanager.metastore2.domain.Url2Path;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +19,5 @@ import java.util.Optional;
 public interface IUrl2PathDao extends JpaRepository<Url2Path, String>, JpaSpecificationExecutor<Url2Path>{
   Optional<Url2Path>  findByUrl(String url);
   List<Url2Path>      findByPath(String path);
+  List<Url2Path>      findByPathIn(Collection<String> paths);
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Serialized data resource (JSON) of a single version of a schema or metadata
+ * document. Snapshots are identified by resourceId and version and hold
+ * superseded versions only. The current version is always read from the data
+ * resource table.
+ */
+@Entity
+@Data
+@Table(uniqueConstraints = {
+  @UniqueConstraint(columnNames = {"resourceId", "version"})})
+public class DataResourceSnapshot implements Serializable {
+
+  /**
+   * Maximum length of a serialized data resource.
+   */
+  public static final int MAX_DOCUMENT_LENGTH = 1024 * 1024;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+  @NotBlank(message = "The unqiue identifier of the data resource.")
+  private String resourceId;
+  @NotNull(message = "The version number of the data resource.")
+  private Long version;
+  @NotNull(message = "The timestamp of the creation of the snapshot.")
+  private Instant creationDate;
+  @NotNull(message = "The serialized data resource.")
+  @Column(length = MAX_DOCUMENT_LENGTH)
+  private String document;
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Checkpoint of the reindexing of all metadata documents of a schema. The
+ * checkpoint holds the key (lastUpdate, id) of the last data record sent for
+ * indexing. An interrupted reindexing may be resumed from this key.
+ */
+@Entity
+@Data
+public class ReindexCheckpoint {
+
+  /**
+   * SchemaId of the index.
+   */
+  @Id
+  private String schemaId;
+  /**
+   * Update date used as lower bound for the reindexing.
+   */
+  private Instant updateDate;
+  /**
+   * Last update of the last data record sent for indexing.
+   */
+  private Instant lastUpdate;
+  /**
+   * Id of the last data record sent for indexing.
+   */
+  private Long lastId;
+  /**
+   * Number of data records sent for indexing.
+   */
+  private long noOfProcessedRecords;
+  /**
+   * Reindexing of the schema is finished.
+   */
+  private boolean finished;
+}
@@ -15,6 +15,7 @@
  */
 package edu.kit.datamanager.metastore2.domain;
 
+import edu.kit.datamanager.metastore2.listener.SchemaRecordCacheListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -29,6 +30,7 @@ import java.io.Serializable;
  */
 @Entity
 @Data
+@EntityListeners(SchemaRecordCacheListener.class)
 @Table(uniqueConstraints = {
   @UniqueConstraint(columnNames = {"version", "schemaId"})})
 public class SchemaRecord implements Serializable {
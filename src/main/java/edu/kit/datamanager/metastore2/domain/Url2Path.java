@@ -16,7 +16,9 @@
 package edu.kit.datamanager.metastore2.domain;
 
 import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord.SCHEMA_TYPE;
+import edu.kit.datamanager.metastore2.listener.SchemaRecordCacheListener;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
@@ -33,6 +35,7 @@ import java.io.Serializable;
  */
 @Entity
 @Data
+@EntityListeners(SchemaRecordCacheListener.class)
 public class Url2Path implements Serializable {
 
   @Id
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.domain.oaipmh;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Serialized output of a crosswalk (e.g. Dublin Core, DataCite) of a metadata
+ * document for OAI-PMH. The document is identified by metadataId, version and
+ * metadata prefix.
+ */
+@Entity
+@Data
+@Table(uniqueConstraints = {
+  @UniqueConstraint(columnNames = {"metadataId", "version", "metadataPrefix"})})
+public class CrosswalkDocument implements Serializable {
+
+  /**
+   * Maximum length of a cached document.
+   */
+  public static final int MAX_DOCUMENT_LENGTH = 1024 * 1024;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+  @NotBlank(message = "The unqiue identifier of the metadata.")
+  private String metadataId;
+  @NotNull(message = "The version number of the metadata document.")
+  private Long version;
+  @NotBlank(message = "The metadata prefix of the crosswalk.")
+  private String metadataPrefix;
+  @NotNull(message = "The timestamp of the creation of the document.")
+  private Instant creationDate;
+  @NotNull(message = "The serialized XML document.")
+  @Column(length = MAX_DOCUMENT_LENGTH)
+  private String document;
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.filter;
+
+import edu.kit.datamanager.metastore2.util.MetricsUtil;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Filter for recording latency and payload of all requests.
+ * (see MetricsUtil) The filter is registered with highest precedence to
+ * measure the time spent in the security filters and to record rejected
+ * requests (e.g. HTTP 401/403) as well.
+ */
+public class MetricsFilter implements Filter {
+
+  @Override
+  public void doFilter(
+          ServletRequest request,
+          ServletResponse response,
+          FilterChain chain) throws IOException, ServletException {
+    HttpServletRequest req = (HttpServletRequest) request;
+    HttpServletResponse resp = (HttpServletResponse) response;
+    long start = System.nanoTime();
+    int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    try {
+      chain.doFilter(request, response);
+      status = resp.getStatus();
+    } finally {
+      MetricsUtil.recordRequest(req, status, System.nanoTime() - start);
+    }
+  }
+}
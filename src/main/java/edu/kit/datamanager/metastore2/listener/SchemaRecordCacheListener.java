@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.listener;
+
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.metastore2.domain.Url2Path;
+import edu.kit.datamanager.metastore2.util.SchemaRecordCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.util.Arrays;
+
+/**
+ * Entity listener keeping the local cache of schema records consistent with
+ * the database. Each write access to SchemaRecord or Url2Path invalidates the
+ * affected entries of this instance.
+ *
+ * @see SchemaRecordCache
+ */
+public class SchemaRecordCacheListener {
+
+  /**
+   * Invalidate all cached entries of the given entity.
+   *
+   * @param entity SchemaRecord or Url2Path.
+   */
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void invalidate(Object entity) {
+    if (entity instanceof SchemaRecord schemaRecord) {
+      SchemaRecordCache.invalidateLocally(schemaRecord.getSchemaId(), Arrays.asList(schemaRecord.getSchemaDocumentUri(), schemaRecord.getAlternateId()));
+    } else if (entity instanceof Url2Path url2Path) {
+      SchemaRecordCache.invalidateLocally(null, Arrays.asList(url2Path.getUrl(), url2Path.getPath()));
+    }
+  }
+}
@@ -21,16 +21,16 @@ import edu.kit.datamanager.metastore2.dao.IDataRecordDao;
 import edu.kit.datamanager.metastore2.dao.IMetadataFormatDao;
 import edu.kit.datamanager.metastore2.domain.DataRecord;
 import edu.kit.datamanager.metastore2.domain.oaipmh.MetadataFormat;
+import edu.kit.datamanager.metastore2.oaipmh.util.CrosswalkCache;
+import edu.kit.datamanager.metastore2.oaipmh.util.JaxbUtil;
 import edu.kit.datamanager.metastore2.oaipmh.util.OAIPMHBuilder;
+import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.metastore2.util.DocumentCodec;
 import edu.kit.datamanager.repo.util.DataResourceUtils;
 import edu.kit.datamanager.util.xml.DataCiteMapper;
 import edu.kit.datamanager.util.xml.DublinCoreMapper;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
-import jakarta.xml.bind.Marshaller;
 import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.datacite.schema.kernel_4.Resource;
 import org.openarchives.oai._2.*;
 import org.purl.dc.elements._1.ElementContainer;
@@ -39,16 +39,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
@@ -60,9 +57,11 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 /**
  * Simple OAI-PMH repository implementation taking its information from a KIT
@@ -191,6 +190,16 @@ public class MetastoreOAIPMHRepository extends AbstractOAIPMHRepository {
     return exists;
   }
 
+  /**
+   * Test if the metadata prefix is served via crosswalk (Dublin Core, DataCite).
+   *
+   * @param prefix The metadata prefix.
+   * @return true if documents are created on the fly.
+   */
+  private boolean isCrosswalkPrefix(String prefix) {
+    return DC_SCHEMA.getMetadataPrefix().equals(prefix) || DATACITE_SCHEMA.getMetadataPrefix().equals(prefix);
+  }
+
   @Override
   public void identify(OAIPMHBuilder builder) {
     LOGGER.trace("Performing identify().");
@@ -259,7 +268,11 @@ public class MetastoreOAIPMHRepository extends AbstractOAIPMHRepository {
 
     if (resource != null) {
       LOGGER.trace("Adding single record to result.");
-      addRecordEntry(resource, builder);
+      String cachedDocument = null;
+      if (isCrosswalkPrefix(builder.getMetadataPrefix())) {
+        cachedDocument = CrosswalkCache.get(List.of(resource), builder.getMetadataPrefix()).get(resource.getMetadataId());
+      }
+      addRecordEntry(resource, builder, null, cachedDocument);
     } else {
       LOGGER.error("No result obtained. Returning OAI-PMH error ID_DOES_NOT_EXIST.");
       builder.addError(OAIPMHerrorcodeType.ID_DOES_NOT_EXIST, "No object for identifier " + builder.getIdentifier() + " found.");
@@ -279,7 +292,22 @@ public class MetastoreOAIPMHRepository extends AbstractOAIPMHRepository {
       return;
     }
     LOGGER.trace("Adding {} records to result.", results.size());
-    results.stream().forEach(result -> addRecordEntry(result, builder));
+    Map<String, edu.kit.datamanager.repo.domain.DataResource> dataResources = new HashMap<>();
+    Map<String, String> cachedDocuments = new HashMap<>();
+    if (isCrosswalkPrefix(builder.getMetadataPrefix())) {
+      cachedDocuments = CrosswalkCache.get(results, builder.getMetadataPrefix());
+      // Load all data resources of the page which are not cached at once.
+      List<DataRecord> uncachedResults = new ArrayList<>();
+      for (DataRecord result : results) {
+        if (!cachedDocuments.containsKey(result.getMetadataId())) {
+          uncachedResults.add(result);
+        }
+      }
+      dataResources = getDataResources(uncachedResults);
+    }
+    for (DataRecord result : results) {
+      addRecordEntry(result, builder, dataResources.get(result.getMetadataId()), cachedDocuments.get(result.getMetadataId()));
+    }
   }
 
   /**
@@ -295,43 +323,42 @@ public class MetastoreOAIPMHRepository extends AbstractOAIPMHRepository {
    *
    * @param object The object to obtain the metadata document for.
    * @param schemaId The id of the metadata schema.
+   * @param dataResource The already loaded data resource of the object (may be
+   * null).
+   * @param cachedDocument The cached output of the crosswalk (may be null).
    *
    * @return The metadata document or null.
    */
-  private Document getMetadataDocument(DataRecord object, String schemaId) {
+  private Document getMetadataDocument(DataRecord object, String schemaId, edu.kit.datamanager.repo.domain.DataResource dataResource, String cachedDocument) {
     LOGGER.trace("Obtaining metadata document for schema {} and resource identifier {}", schemaId, object.getId());
-    ByteArrayOutputStream bout = new ByteArrayOutputStream();
-    boolean wasError = true;
-    if (DC_SCHEMA.getMetadataPrefix().equals(schemaId)) {
+    Document doc = null;
+    if (cachedDocument != null) {
+      LOGGER.trace("Using cached document for schema {} and resource identifier {}", schemaId, object.getId());
+      try {
+        doc = JaxbUtil.parse(new ByteArrayInputStream(cachedDocument.getBytes(StandardCharsets.UTF_8)));
+      } catch (SAXException | IOException ex) {
+        LOGGER.error("Failed to parse cached document of schema " + schemaId + ".", ex);
+      }
+    } else if (DC_SCHEMA.getMetadataPrefix().equals(schemaId)) {
       //create DC document on the fly
       LOGGER.info("Creating Dublin Core document on the fly.", object.getId());
       //create DC metadata
       try {
-        UnaryOperator<String> dummy;
-        dummy = t -> "dummy" + t;
-        edu.kit.datamanager.repo.domain.DataResource dr = DataResourceUtils.getResourceByIdentifierOrRedirect(metadataConfig, object.getMetadataId(), null, dummy);
+        edu.kit.datamanager.repo.domain.DataResource dr = (dataResource != null) ? dataResource : getDataResource(object);
         ElementContainer container = DublinCoreMapper.dataResourceToDublinCoreContainer(DataResourceUtils.migrateToDataResource(dr));
-        JAXBContext jaxbContext = JAXBContext.newInstance(ElementContainer.class);
-        Marshaller marshaller = jaxbContext.createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        marshaller.marshal(container, bout);
-        wasError = false;
+        doc = JaxbUtil.marshalToDocument(container);
+        CrosswalkCache.put(object, schemaId, JaxbUtil.marshalToString(container, false));
       } catch (JAXBException ex) {
         LOGGER.error("Failed to build Dublin Core document.", ex);
       }
     } else if (DATACITE_SCHEMA.getMetadataPrefix().equals(schemaId)) {
       LOGGER.info("Creating Datacite document on the fly.", object.getId());
       try {
-        UnaryOperator<String> dummy;
-        dummy = t -> "dummy" + t;
-        edu.kit.datamanager.repo.domain.DataResource dr = DataResourceUtils.getResourceByIdentifierOrRedirect(metadataConfig, object.getMetadataId(), null, dummy);
+        edu.kit.datamanager.repo.domain.DataResource dr = (dataResource != null) ? dataResource : getDataResource(object);
         // Todo check for internal related schema identifier switch to URL
         Resource resource = DataCiteMapper.dataResourceToDataciteResource(DataResourceUtils.migrateToDataResource(dr));
-        JAXBContext jaxbContext = JAXBContext.newInstance(Resource.class);
-        Marshaller marshaller = jaxbContext.createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        marshaller.marshal(resource, bout);
-        wasError = false;
+        doc = JaxbUtil.marshalToDocument(resource);
+        CrosswalkCache.put(object, schemaId, JaxbUtil.marshalToString(resource, false));
       } catch (JAXBException ex) {
         LOGGER.error("Failed to build Datacite document.", ex);
       }
@@ -339,32 +366,32 @@ public class MetastoreOAIPMHRepository extends AbstractOAIPMHRepository {
       LOGGER.info("Return stored document of resource '{}'.", object.getMetadataId());
       try {
         URL url = new URI(object.getMetadataDocumentUri()).toURL();
-        byte[] readFileToByteArray = FileUtils.readFileToByteArray(Paths.get(url.toURI()).toFile());
-        try (InputStream inputStream = new ByteArrayInputStream(readFileToByteArray)) {
-          IOUtils.copy(inputStream, bout);
-          wasError = false;
+        try (InputStream inputStream = DocumentCodec.newInputStream(Paths.get(url.toURI()))) {
+          doc = JaxbUtil.parse(inputStream);
         }
       } catch (URISyntaxException | IOException ex) {
         LOGGER.error("Error while reading document", ex);
+      } catch (SAXException ex) {
+        LOGGER.error("Failed to create w3c document from serialized metadata of schema " + schemaId + ".", ex);
       }
     } else {
       LOGGER.error("No valid schema '{}' found for resource '{}'", schemaId, object.getMetadataId());
     }
-
-    Document doc = null;
-    if (!wasError) {
-      try {
-        DocumentBuilderFactory fac = DocumentBuilderFactory.newInstance();
-        fac.setNamespaceAware(true);
-        DocumentBuilder docBuilder = fac.newDocumentBuilder();
-        doc = docBuilder.parse(new ByteArrayInputStream(bout.toByteArray()));
-      } catch (SAXException | IOException | ParserConfigurationException ex) {
-        LOGGER.error("Failed to create w3c document from serialized metadata of schema " + schemaId + ".", ex);
-      }
-    }
     return doc;
   }
 
+  /**
+   * Get the (current) data resource of the provided object.
+   *
+   * @param object The object.
+   * @return The data resource.
+   */
+  private edu.kit.datamanager.repo.domain.DataResource getDataResource(DataRecord object) {
+    UnaryOperator<String> dummy;
+    dummy = t -> "dummy" + t;
+    return DataResourceUtils.getResourceByIdentifierOrRedirect(metadataConfig, object.getMetadataId(), null, dummy);
+  }
+
   /**
    * Add a record entry for the provided digital object to the provided builder.
    * This call tries to obtain the metadata document for the provided object and
@@ -375,10 +402,13 @@ public class MetastoreOAIPMHRepository extends AbstractOAIPMHRepository {
    *
    * @param result The digital object to add a record for.
    * @param builder The OAIPMHBuilder.
+   * @param dataResource The already loaded data resource of the object (may be
+   * null).
+   * @param cachedDocument The cached output of the crosswalk (may be null).
    */
-  private void addRecordEntry(DataRecord result, OAIPMHBuilder builder) {
+  private void addRecordEntry(DataRecord result, OAIPMHBuilder builder, edu.kit.datamanager.repo.domain.DataResource dataResource, String cachedDocument) {
     LOGGER.trace("Adding record for object identifier {} to response.", result.getId());
-    Document doc = getMetadataDocument(result, builder.getMetadataPrefix());
+    Document doc = getMetadataDocument(result, builder.getMetadataPrefix(), dataResource, cachedDocument);
     if (doc != null) {
       LOGGER.trace("Adding record using obtained metadata document.");
       Date resourceDate = new Date(0L);
@@ -421,11 +451,15 @@ public class MetastoreOAIPMHRepository extends AbstractOAIPMHRepository {
    * The list might also be empty. In that case a proper OAI-PMH error must be
    * created by the caller.
    *
+   * The objects are sorted by (lastUpdate, id). The resumption token holds the
+   * key of the last object delivered (keyset pagination), the query parameters
+   * and the size of the complete list which is determined only once for the
+   * first page.
+   *
    * @param builder The OAIPMHBuilder.
    *
    * @return A list of entities which might be empty.
    */
-  @SuppressWarnings("StringSplitter")
   private List<DataRecord> getEntities(OAIPMHBuilder builder) {
     List<DataRecord> results;
 
@@ -433,83 +467,169 @@ public class MetastoreOAIPMHRepository extends AbstractOAIPMHRepository {
     LOGGER.trace("Getting entities for metadata prefix {} from repository.", prefix);
     LOGGER.trace("Checking request for resumption token");
     String resumptionToken = builder.getResumptionToken();
-    int currentCursor = 0;
-    long overallCount;
-    Instant from = builder.getFromDate() != null ? builder.getFromDate().toInstant() : Instant.now().minus(36500, ChronoUnit.DAYS);
-    Instant until = builder.getUntilDate() != null ? builder.getUntilDate().toInstant() : Instant.now().plus(1, ChronoUnit.SECONDS);
+    KeysetToken token;
     //check resumption token
     if (resumptionToken != null) {
-      String tokenValue = new String(Base64.decodeBase64(URLDecoder.decode(resumptionToken, StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
-      LOGGER.trace("Found token with value {}", tokenValue);
-      String[] elements = tokenValue.split("/");
-      if (elements.length != 2) {
+      token = KeysetToken.decode(resumptionToken);
+      if (token == null || !token.prefix.equals(prefix)) {
         LOGGER.error("Invalid resumption token. Returning OAI-PMH error BAD_RESUMPTION_TOKEN.");
         builder.addError(OAIPMHerrorcodeType.BAD_RESUMPTION_TOKEN, null);
         return new ArrayList<>();
       }
-      try {
-        LOGGER.trace("Parsing token values.");
-        currentCursor = Integer.parseInt(elements[0]);
-        overallCount = Integer.parseInt(elements[1]);
-        LOGGER.trace("Obtained {} as current cursor from token. Overall element count is {}.", currentCursor, overallCount);
-      } catch (NumberFormatException ex) {
-        //log error
-        builder.addError(OAIPMHerrorcodeType.BAD_RESUMPTION_TOKEN, null);
-        return new ArrayList<>();
-      }
+      LOGGER.trace("Obtained {} as current cursor from token. Overall element count is {}.", token.cursor, token.completeListSize);
     } else {
       LOGGER.trace("No resumption token found.");
+      Instant from = builder.getFromDate() != null ? builder.getFromDate().toInstant() : Instant.now().minus(36500, ChronoUnit.DAYS);
+      Instant until = builder.getUntilDate() != null ? builder.getUntilDate().toInstant() : Instant.now().plus(1, ChronoUnit.SECONDS);
+      token = new KeysetToken(prefix, from, until);
     }
 
     int maxElementsPerList = pluginConfiguration.getMaxElementsPerList();
 
-    int page = currentCursor / maxElementsPerList;
-    boolean predefinedPrefix = DC_SCHEMA.getMetadataPrefix().equals(prefix) || DATACITE_SCHEMA.getMetadataPrefix().equals(prefix);
+    boolean predefinedPrefix = isCrosswalkPrefix(prefix);
+    List<String> schemaIds;
     if (predefinedPrefix) {
-      List<String> findMetadataPrefix = metadataFormatDao.getAllIds();
+      schemaIds = metadataFormatDao.getAllIds();
       if (LOGGER.isTraceEnabled()) {
-        for (String item : findMetadataPrefix) {
+        for (String item : schemaIds) {
           LOGGER.trace("SchemaID: " + item);
         }
       }
-      LOGGER.trace("findBySchemaIdAndLastUpdateBetween({},{},{}, Page({},{}))", findMetadataPrefix, from, until, page, maxElementsPerList);
-      overallCount = dataRecordDao.countBySchemaIdInAndLastUpdateBetween(findMetadataPrefix, from, until);
-      results = dataRecordDao.findBySchemaIdInAndLastUpdateBetween(findMetadataPrefix, from, until, PageRequest.of(page, maxElementsPerList));
-      LOGGER.trace("Found '" + results.size() + "' elements of '" + dataRecordDao.count() + "' elements in total!");
     } else {
-      LOGGER.trace("findBySchemaIdAndLastUpdateBetween({},{},{}, Page({},{}))", prefix, from, until, page, maxElementsPerList);
-      overallCount = dataRecordDao.countBySchemaIdAndLastUpdateBetween(prefix, from, until);
-      results = dataRecordDao.findBySchemaIdAndLastUpdateBetween(prefix, from, until, PageRequest.of(page, maxElementsPerList));
-      LOGGER.trace("Found '" + results.size() + "' elements of '" + dataRecordDao.count() + "' elements in total!");
+      schemaIds = List.of(prefix);
     }
-    if (LOGGER.isTraceEnabled()) {
-      LOGGER.trace("List top 100 of all items:");
-      List<DataRecord> findAll = dataRecordDao.findAll(PageRequest.of(0, 100)).getContent();
-      for (DataRecord item : findAll) {
-        LOGGER.trace("-> " + item);
-      }
+    if (token.completeListSize < 0) {
+      // Count only once for the first page.
+      token.completeListSize = dataRecordDao.countBySchemaIdInAndLastUpdateBetween(schemaIds, token.from, token.until);
     }
+    LOGGER.trace("findNextBySchemaIdInAndLastUpdateBetween({},{},{}, after ({},{}), {})", schemaIds, token.from, token.until, token.lastUpdate, token.lastId, maxElementsPerList);
+    results = dataRecordDao.findNextBySchemaIdInAndLastUpdateBetween(schemaIds, token.from, token.until, token.lastUpdate, token.lastId, PageRequest.of(0, maxElementsPerList));
+    LOGGER.trace("Found '{}' elements of '{}' elements in total!", results.size(), token.completeListSize);
     LOGGER.trace("Setting next resumption token.");
-    int cursor = currentCursor + results.size();
+    long cursor = token.cursor + results.size();
 
-    if (cursor == overallCount) {
-      LOGGER.debug("New cursor {} exceeds element count {}, no more elements available. Setting resumption token to 'null'.", (currentCursor + maxElementsPerList), overallCount);
-      //lsit complete, add no resumptiontoken
+    if (results.size() < maxElementsPerList || cursor >= token.completeListSize) {
+      LOGGER.debug("New cursor {} reaches element count {}, no more elements available. Setting resumption token to 'null'.", cursor, token.completeListSize);
+      //list complete, add no resumptiontoken
       builder.setResumptionToken(null);
     } else {
-      ResumptionTokenType token = new ResumptionTokenType();
+      DataRecord last = results.get(results.size() - 1);
+      token.cursor = cursor;
+      token.lastUpdate = last.getLastUpdate();
+      token.lastId = last.getId();
+      ResumptionTokenType tokenType = new ResumptionTokenType();
       //set list size
-      token.setCompleteListSize(BigInteger.valueOf(overallCount));
+      tokenType.setCompleteListSize(BigInteger.valueOf(token.completeListSize));
       //set current cursor
-      token.setCursor(BigInteger.valueOf(currentCursor + results.size()));
-      LOGGER.trace("Setting new resumption token with cursor at position {}.", token.getCursor());
+      tokenType.setCursor(BigInteger.valueOf(token.cursor));
+      LOGGER.trace("Setting new resumption token with cursor at position {}.", tokenType.getCursor());
       //we set no expiration as the token never expires
-      String value = token.getCursor().intValue() + "/" + token.getCompleteListSize().intValue();
-      LOGGER.trace("Setting resumption token value to {}.", value);
-      token.setValue(URLEncoder.encode(Base64.encodeBase64String(value.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
-      builder.setResumptionToken(token);
+      tokenType.setValue(token.encode());
+      LOGGER.trace("Setting resumption token value to {}.", tokenType.getValue());
+      builder.setResumptionToken(tokenType);
     }
 
     return results;
   }
+
+  /**
+   * Load the data resources of all given objects at once (if accessible).
+   * Objects missing in the result are loaded separately while creating the
+   * metadata document.
+   *
+   * @param objects The objects.
+   * @return Map holding the data resources with their ids as key.
+   */
+  private Map<String, edu.kit.datamanager.repo.domain.DataResource> getDataResources(List<DataRecord> objects) {
+    Map<String, edu.kit.datamanager.repo.domain.DataResource> dataResources = new HashMap<>();
+    Set<String> ids = new HashSet<>();
+    for (DataRecord object : objects) {
+      ids.add(object.getMetadataId());
+    }
+    if (!ids.isEmpty()) {
+      Specification<edu.kit.datamanager.repo.domain.DataResource> spec = (root, query, criteriaBuilder) -> root.get("id").in(ids);
+      spec = DataResourceRecordUtil.findByAccessRights(spec);
+      spec = DataResourceRecordUtil.findByStateWithAuthorization(spec, edu.kit.datamanager.repo.domain.DataResource.State.FIXED, edu.kit.datamanager.repo.domain.DataResource.State.VOLATILE);
+      for (edu.kit.datamanager.repo.domain.DataResource dataResource : DataResourceRecordUtil.queryDataResources(spec, PageRequest.of(0, ids.size())).getContent()) {
+        dataResources.put(dataResource.getId(), dataResource);
+      }
+      LOGGER.trace("Loaded {} of {} data resources at once.", dataResources.size(), ids.size());
+    }
+    return dataResources;
+  }
+
+  /**
+   * Resumption token for keyset pagination. The token holds the key (lastUpdate,
+   * id) of the last object delivered, the cursor, the size of the complete list
+   * and the query parameters (metadataPrefix, from, until).
+   */
+  private static final class KeysetToken {
+
+    /**
+     * Separator of the token values.
+     */
+    private static final String SEPARATOR = "|";
+
+    private final String prefix;
+    private final Instant from;
+    private final Instant until;
+    private Instant lastUpdate;
+    private Long lastId;
+    private long cursor = 0;
+    private long completeListSize = -1;
+
+    /**
+     * Token for the first page.
+     *
+     * @param prefix Metadata prefix.
+     * @param from From date.
+     * @param until Until date.
+     */
+    KeysetToken(String prefix, Instant from, Instant until) {
+      this.prefix = prefix;
+      this.from = from;
+      this.until = until;
+      // Start key: all entries updated at earliest on 'from'.
+      this.lastUpdate = from;
+      this.lastId = Long.MIN_VALUE;
+    }
+
+    /**
+     * Encode token.
+     *
+     * @return Base64 encoded token.
+     */
+    String encode() {
+      String value = String.join(SEPARATOR, lastUpdate.toString(), lastId.toString(), Long.toString(cursor),
+              Long.toString(completeListSize), from.toString(), until.toString(), prefix);
+      return URLEncoder.encode(Base64.encodeBase64String(value.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decode token.
+     *
+     * @param resumptionToken Base64 encoded token.
+     * @return Token or null if token is invalid.
+     */
+    static KeysetToken decode(String resumptionToken) {
+      KeysetToken token = null;
+      String tokenValue = new String(Base64.decodeBase64(URLDecoder.decode(resumptionToken, StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+      LOGGER.trace("Found token with value {}", tokenValue);
+      String[] elements = tokenValue.split(Pattern.quote(SEPARATOR), 7);
+      if (elements.length == 7) {
+        try {
+          LOGGER.trace("Parsing token values.");
+          token = new KeysetToken(elements[6], Instant.parse(elements[4]), Instant.parse(elements[5]));
+          token.lastUpdate = Instant.parse(elements[0]);
+          token.lastId = Long.valueOf(elements[1]);
+          token.cursor = Long.parseLong(elements[2]);
+          token.completeListSize = Long.parseLong(elements[3]);
+        } catch (DateTimeParseException | NumberFormatException ex) {
+          LOGGER.error("Invalid values in resumption token!", ex);
+          token = null;
+        }
+      }
+      return token;
+    }
+  }
 }
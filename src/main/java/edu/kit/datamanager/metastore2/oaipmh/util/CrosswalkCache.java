@@ -0,0 +1,164 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.oaipmh.util;
+
+import edu.kit.datamanager.metastore2.dao.ICrosswalkDocumentDao;
+import edu.kit.datamanager.metastore2.domain.DataRecord;
+import edu.kit.datamanager.metastore2.domain.oaipmh.CrosswalkDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent cache for the serialized output of the crosswalks (Dublin Core,
+ * DataCite) used by OAI-PMH. Documents are keyed by (metadataId, version,
+ * metadataPrefix) and stored in the database. The cache is filled lazily while
+ * harvesting and invalidated whenever a metadata record is updated or deleted.
+ */
+public final class CrosswalkCache {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(CrosswalkCache.class);
+
+  private static ICrosswalkDocumentDao crosswalkDocumentDao;
+
+  private static final AtomicLong HITS = new AtomicLong();
+
+  private static final AtomicLong MISSES = new AtomicLong();
+
+  /**
+   * Utility class with static methods only.
+   */
+  private CrosswalkCache() {
+  }
+
+  /**
+   * Get cached documents for all given records at once.
+   *
+   * @param dataRecords Records of the metadata documents.
+   * @param metadataPrefix Metadata prefix of the crosswalk.
+   * @return Map holding the cached documents with metadataId as key.
+   */
+  public static Map<String, String> get(Collection<DataRecord> dataRecords, String metadataPrefix) {
+    Map<String, String> documents = new HashMap<>();
+    if (crosswalkDocumentDao == null || dataRecords.isEmpty()) {
+      return documents;
+    }
+    Map<String, Long> versions = new HashMap<>();
+    for (DataRecord dataRecord : dataRecords) {
+      versions.put(dataRecord.getMetadataId(), dataRecord.getVersion());
+    }
+    try {
+      for (CrosswalkDocument item : crosswalkDocumentDao.findByMetadataIdInAndMetadataPrefix(versions.keySet(), metadataPrefix)) {
+        if (Objects.equals(versions.get(item.getMetadataId()), item.getVersion())) {
+          documents.put(item.getMetadataId(), item.getDocument());
+        }
+      }
+    } catch (DataAccessException dae) {
+      LOG.error("Failed to read cached crosswalk documents!", dae);
+    }
+    HITS.addAndGet(documents.size());
+    MISSES.addAndGet((long) versions.size() - documents.size());
+    LOG.trace("Crosswalk cache '{}': {} hit(s), {} miss(es)", metadataPrefix, documents.size(), versions.size() - documents.size());
+    return documents;
+  }
+
+  /**
+   * Put document into cache. Documents exceeding the maximum length are not
+   * cached.
+   *
+   * @param dataRecord Record of the metadata document.
+   * @param metadataPrefix Metadata prefix of the crosswalk.
+   * @param document Serialized output of the crosswalk.
+   */
+  public static void put(DataRecord dataRecord, String metadataPrefix, String document) {
+    if (crosswalkDocumentDao == null || document == null || document.length() > CrosswalkDocument.MAX_DOCUMENT_LENGTH) {
+      return;
+    }
+    CrosswalkDocument crosswalkDocument = new CrosswalkDocument();
+    crosswalkDocument.setMetadataId(dataRecord.getMetadataId());
+    crosswalkDocument.setVersion(dataRecord.getVersion());
+    crosswalkDocument.setMetadataPrefix(metadataPrefix);
+    crosswalkDocument.setCreationDate(Instant.now());
+    crosswalkDocument.setDocument(document);
+    try {
+      crosswalkDocumentDao.save(crosswalkDocument);
+    } catch (DataAccessException dae) {
+      // e.g. document was cached concurrently.
+      LOG.debug("Failed to cache crosswalk document '{}' of '{}'", metadataPrefix, dataRecord.getMetadataId(), dae);
+    }
+  }
+
+  /**
+   * Remove all cached documents of the given metadata document (all versions
+   * and prefixes).
+   *
+   * @param metadataId Identifier of the metadata document.
+   */
+  public static void invalidate(String metadataId) {
+    if (crosswalkDocumentDao != null && metadataId != null) {
+      long noOfDeletedDocuments = crosswalkDocumentDao.deleteByMetadataId(metadataId);
+      LOG.trace("Crosswalk cache: invalidate {} document(s) of '{}'", noOfDeletedDocuments, metadataId);
+    }
+  }
+
+  /**
+   * Get number of cache hits.
+   *
+   * @return the hits
+   */
+  public static long getHits() {
+    return HITS.get();
+  }
+
+  /**
+   * Get number of cache misses.
+   *
+   * @return the misses
+   */
+  public static long getMisses() {
+    return MISSES.get();
+  }
+
+  /**
+   * Get ratio of cache hits to all requests.
+   *
+   * @return hit ratio (0.0 if there was no request yet)
+   */
+  public static double getHitRatio() {
+    long hits = HITS.get();
+    long requests = hits + MISSES.get();
+    return (requests == 0) ? 0.0 : (double) hits / requests;
+  }
+
+  /**
+   * Set the DAO for cached crosswalk documents.
+   *
+   * @param aCrosswalkDocumentDao the crosswalkDocumentDao to set
+   */
+  public static void setCrosswalkDocumentDao(ICrosswalkDocumentDao aCrosswalkDocumentDao) {
+    crosswalkDocumentDao = aCrosswalkDocumentDao;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.oaipmh.util;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.dom.DOMResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Helper class for (un)marshalling XML documents in OAI-PMH responses.
+ * JAXBContexts are thread-safe and expensive to create. Therefore they are
+ * created only once per class. Marshallers and DocumentBuilders are not
+ * thread-safe and are pooled per thread.
+ */
+public final class JaxbUtil {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(JaxbUtil.class);
+  /**
+   * All JAXBContexts created so far.
+   */
+  private static final Map<Class<?>, JAXBContext> CONTEXTS = new ConcurrentHashMap<>();
+  /**
+   * Marshallers of the current thread.
+   */
+  private static final ThreadLocal<Map<Class<?>, Marshaller>> MARSHALLERS = ThreadLocal.withInitial(HashMap::new);
+  /**
+   * Namespace aware DocumentBuilder of the current thread.
+   */
+  private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = new ThreadLocal<>();
+  /**
+   * Factory for DocumentBuilders (only used while holding its lock).
+   */
+  private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+
+  static {
+    DOCUMENT_BUILDER_FACTORY.setNamespaceAware(true);
+  }
+
+  /**
+   * Utility class with static methods only.
+   */
+  private JaxbUtil() {
+  }
+
+  /**
+   * Get JAXBContext for given class. The context is created only once.
+   *
+   * @param type Class bound to the context.
+   * @return JAXBContext
+   * @throws JAXBException Error while creating context.
+   */
+  public static JAXBContext getContext(Class<?> type) throws JAXBException {
+    JAXBContext context = CONTEXTS.get(type);
+    if (context == null) {
+      LOG.trace("Create JAXBContext for '{}'.", type);
+      context = JAXBContext.newInstance(type);
+      JAXBContext existingContext = CONTEXTS.putIfAbsent(type, context);
+      if (existingContext != null) {
+        context = existingContext;
+      }
+    }
+    return context;
+  }
+
+  /**
+   * Get marshaller of the current thread for given class.
+   *
+   * @param type Class to marshal.
+   * @param formattedOutput Format output or not.
+   * @return Marshaller (only valid for the current thread)
+   * @throws JAXBException Error while creating marshaller.
+   */
+  public static Marshaller getMarshaller(Class<?> type, boolean formattedOutput) throws JAXBException {
+    Map<Class<?>, Marshaller> marshallers = MARSHALLERS.get();
+    Marshaller marshaller = marshallers.get(type);
+    if (marshaller == null) {
+      marshaller = getContext(type).createMarshaller();
+      marshallers.put(type, marshaller);
+    }
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formattedOutput);
+    return marshaller;
+  }
+
+  /**
+   * Get namespace aware DocumentBuilder of the current thread. The builder is
+   * reset before it is returned.
+   *
+   * @return DocumentBuilder (only valid for the current thread)
+   */
+  public static DocumentBuilder getDocumentBuilder() {
+    DocumentBuilder documentBuilder = DOCUMENT_BUILDERS.get();
+    if (documentBuilder == null) {
+      try {
+        synchronized (DOCUMENT_BUILDER_FACTORY) {
+          documentBuilder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+        }
+      } catch (ParserConfigurationException ex) {
+        throw new IllegalStateException("Failed to create document builder!", ex);
+      }
+      DOCUMENT_BUILDERS.set(documentBuilder);
+    } else {
+      documentBuilder.reset();
+    }
+    return documentBuilder;
+  }
+
+  /**
+   * Marshal JAXB element directly into a new w3c document.
+   *
+   * @param element JAXB element.
+   * @return w3c document
+   * @throws JAXBException Error while marshalling element.
+   */
+  public static Document marshalToDocument(Object element) throws JAXBException {
+    Document document = getDocumentBuilder().newDocument();
+    getMarshaller(element.getClass(), false).marshal(element, new DOMResult(document));
+    return document;
+  }
+
+  /**
+   * Marshal JAXB element to given stream.
+   *
+   * @param element JAXB element.
+   * @param outputStream Stream to write to.
+   * @param formattedOutput Format output or not.
+   * @throws JAXBException Error while marshalling element.
+   */
+  public static void marshal(Object element, OutputStream outputStream, boolean formattedOutput) throws JAXBException {
+    getMarshaller(element.getClass(), formattedOutput).marshal(element, outputStream);
+  }
+
+  /**
+   * Marshal JAXB element to a string.
+   *
+   * @param element JAXB element.
+   * @param formattedOutput Format output or not.
+   * @return serialized element
+   * @throws JAXBException Error while marshalling element.
+   */
+  public static String marshalToString(Object element, boolean formattedOutput) throws JAXBException {
+    StringWriter writer = new StringWriter();
+    getMarshaller(element.getClass(), formattedOutput).marshal(element, writer);
+    return writer.toString();
+  }
+
+  /**
+   * Parse stream to a w3c document (namespace aware).
+   *
+   * @param inputStream Stream containing XML document.
+   * @return w3c document
+   * @throws SAXException Document is not well-formed.
+   * @throws IOException Error while reading stream.
+   */
+  public static Document parse(InputStream inputStream) throws SAXException, IOException {
+    return getDocumentBuilder().parse(inputStream);
+  }
+}
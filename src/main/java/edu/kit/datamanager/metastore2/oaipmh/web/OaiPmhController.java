@@ -16,13 +16,11 @@
 package edu.kit.datamanager.metastore2.oaipmh.web;
 
 import edu.kit.datamanager.metastore2.oaipmh.service.AbstractOAIPMHRepository;
+import edu.kit.datamanager.metastore2.oaipmh.util.JaxbUtil;
 import edu.kit.datamanager.metastore2.oaipmh.util.OAIPMHBuilder;
 import io.swagger.v3.oas.annotations.Parameter;
-import jakarta.xml.bind.JAXBContext;
-import jakarta.xml.bind.Marshaller;
 import org.apache.http.HttpStatus;
 import org.openarchives.oai._2.OAIPMHerrorcodeType;
-import org.openarchives.oai._2.OAIPMHtype;
 import org.openarchives.oai._2.VerbType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -122,11 +120,8 @@ public class OaiPmhController {
 
       //build the result and return it.
       LOGGER.trace("Building and returning OAI-PMH response.");
-      JAXBContext jaxbContext = JAXBContext.newInstance(OAIPMHtype.class);
-      Marshaller marshaller = jaxbContext.createMarshaller();
-      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
       ByteArrayOutputStream bout = new ByteArrayOutputStream();
-      marshaller.marshal(builder.build(), bout);
+      JaxbUtil.marshal(builder.build(), bout, true);
 
       return ResponseEntity.ok(bout.toString(StandardCharsets.UTF_8));
     } catch (Exception e) {
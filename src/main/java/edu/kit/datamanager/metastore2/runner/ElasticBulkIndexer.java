@@ -0,0 +1,340 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.runner;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.kit.datamanager.exceptions.CustomInternalServerError;
+import edu.kit.datamanager.metastore2.domain.ElasticWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index documents directly via the bulk API of elasticsearch. Documents are
+ * collected and sent if the maximum number of documents or the maximum size of
+ * a bulk request is reached. If elasticsearch responds with 'Too Many
+ * Requests' (HTTP 429) or 'Service Unavailable' (HTTP 503) the request (or the
+ * rejected documents) is resent after an increasing delay (exponential
+ * back-off). All other errors are reported per document (see getFailures) and
+ * don't abort indexing. Documents are indexed with the id of the resource.
+ * Hence only the latest version of a record is kept inside the index. As
+ * versions are added in order of their update, a rejected document is not
+ * resent if a later version of the same record was already indexed. An
+ * instance is not thread-safe and should be used by one worker only.
+ */
+public class ElasticBulkIndexer implements AutoCloseable {
+
+  /**
+   * Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(ElasticBulkIndexer.class);
+  /**
+   * Default for maximum size of a bulk request (5 MB).
+   */
+  public static final long DEFAULT_MAX_BYTES = 5L * 1024L * 1024L;
+  /**
+   * Default for initial delay after HTTP 429 (in milliseconds).
+   */
+  public static final long DEFAULT_INITIAL_BACKOFF = 500;
+  /**
+   * Default for maximum number of retries after HTTP 429.
+   */
+  public static final int DEFAULT_MAX_RETRIES = 8;
+  /**
+   * Maximum number of failures kept for reporting (all failures are counted).
+   */
+  public static final int MAX_REPORTED_FAILURES = 100;
+  /**
+   * Media type of bulk requests.
+   */
+  private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+  /**
+   * Path of the bulk API.
+   */
+  private static final String BULK_PATH = "/_bulk";
+
+  private final String bulkUrl;
+
+  private final int maxActions;
+
+  private final long maxBytes;
+
+  private final ObjectMapper mapper;
+
+  private final RestTemplate restTemplate = new RestTemplate();
+
+  private final List<BulkEntry> actions = new ArrayList<>();
+
+  private final List<String> failures = new ArrayList<>();
+
+  private long currentBytes = 0;
+
+  private long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+
+  private int maxRetries = DEFAULT_MAX_RETRIES;
+
+  private long noOfIndexedDocuments = 0;
+
+  private long noOfFailedDocuments = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param elasticUrl URL of elasticsearch.
+   * @param maxActions Maximum number of documents per bulk request.
+   * @param maxBytes Maximum size of a bulk request in bytes.
+   * @param mapper Mapper for serializing documents.
+   */
+  public ElasticBulkIndexer(String elasticUrl, int maxActions, long maxBytes, ObjectMapper mapper) {
+    this.bulkUrl = elasticUrl.replaceAll("/+$", "") + BULK_PATH;
+    this.maxActions = Math.max(1, maxActions);
+    this.maxBytes = Math.max(1, maxBytes);
+    this.mapper = mapper;
+  }
+
+  /**
+   * Set parameters for back-off after HTTP 429.
+   *
+   * @param initialBackoff Initial delay in milliseconds (doubled with every
+   * retry).
+   * @param maxRetries Maximum number of retries.
+   */
+  public void setBackoff(long initialBackoff, int maxRetries) {
+    this.initialBackoff = initialBackoff;
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * Add document to the bulk request. The bulk request is sent if one of the
+   * limits is reached.
+   *
+   * @param index Name of the index.
+   * @param wrapper Document to index.
+   */
+  public void add(String index, ElasticWrapper wrapper) {
+    ObjectNode action = mapper.createObjectNode();
+    action.putObject("index").put("_index", index).put("_id", wrapper.getId());
+    byte[] entry;
+    try {
+      entry = (mapper.writeValueAsString(action) + "\n" + mapper.writeValueAsString(wrapper) + "\n").getBytes(StandardCharsets.UTF_8);
+    } catch (JsonProcessingException ex) {
+      LOG.error("Error serializing document '" + wrapper.getId() + "'!", ex);
+      addFailure(wrapper.getId(), "serialization failed");
+      return;
+    }
+    if (!actions.isEmpty() && currentBytes + entry.length > maxBytes) {
+      flush();
+    }
+    actions.add(new BulkEntry(wrapper.getId(), entry));
+    currentBytes += entry.length;
+    if (actions.size() >= maxActions || currentBytes >= maxBytes) {
+      flush();
+    }
+  }
+
+  /**
+   * Send all collected documents.
+   */
+  public void flush() {
+    List<BulkEntry> pending = new ArrayList<>(actions);
+    actions.clear();
+    currentBytes = 0;
+    long backoff = initialBackoff;
+    int retry = 0;
+    while (!pending.isEmpty()) {
+      List<BulkEntry> rejected = send(pending);
+      if (!rejected.isEmpty()) {
+        if (retry >= maxRetries) {
+          LOG.error("Elasticsearch still rejects '{}' documents after '{}' retries!", rejected.size(), retry);
+          for (BulkEntry entry : rejected) {
+            addFailure(entry.id, "still rejected after " + retry + " retries");
+          }
+          break;
+        }
+        retry++;
+        LOG.debug("Elasticsearch rejected '{}' documents (HTTP 429/503). Retry #{} in '{}' ms.", rejected.size(), retry, backoff);
+        sleep(backoff);
+        backoff *= 2;
+      }
+      pending = rejected;
+    }
+  }
+
+  /**
+   * Send bulk request. Entries rejected due to back-pressure are dropped if a
+   * later entry of the same document was indexed successfully.
+   *
+   * @param entries Entries (action and document) to send.
+   * @return Entries rejected due to back-pressure (HTTP 429/503).
+   */
+  private List<BulkEntry> send(List<BulkEntry> entries) {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    for (BulkEntry entry : entries) {
+      body.writeBytes(entry.data);
+    }
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(NDJSON);
+    List<BulkEntry> rejected = new ArrayList<>();
+    try {
+      String response = restTemplate.exchange(bulkUrl, HttpMethod.POST, new HttpEntity<>(body.toByteArray(), headers), String.class).getBody();
+      JsonNode result = mapper.readTree(response);
+      JsonNode items = result.path("items");
+      if (!result.path("errors").asBoolean(false) || !items.isArray()) {
+        noOfIndexedDocuments += entries.size();
+      } else {
+        Set<String> indexedLater = new HashSet<>();
+        // Walk backwards to know which documents were indexed by a later entry.
+        for (int index = entries.size() - 1; index >= 0; index--) {
+          BulkEntry entry = entries.get(index);
+          JsonNode item = items.path(index).elements().hasNext() ? items.path(index).elements().next() : null;
+          int status = (item != null) ? item.path("status").asInt(HttpStatus.OK.value()) : HttpStatus.OK.value();
+          if (isRetryable(status)) {
+            if (indexedLater.contains(entry.id)) {
+              LOG.trace("Document '{}' was rejected but is already superseded by a later version.", entry.id);
+            } else {
+              rejected.add(0, entry);
+            }
+          } else if (status >= HttpStatus.MULTIPLE_CHOICES.value()) {
+            LOG.error("Error indexing document '{}': {}", entry.id, item.path("error"));
+            addFailure(entry.id, status + " " + item.path("error").path("type").asText(item.path("error").asText()));
+          } else {
+            noOfIndexedDocuments++;
+            indexedLater.add(entry.id);
+          }
+        }
+      }
+    } catch (HttpStatusCodeException ex) {
+      if (isRetryable(ex.getStatusCode().value())) {
+        rejected.addAll(entries);
+      } else {
+        LOG.error("Bulk request with '{}' documents failed: {}", entries.size(), ex.getMessage());
+        for (BulkEntry entry : entries) {
+          addFailure(entry.id, ex.getStatusCode().value() + " bulk request failed");
+        }
+      }
+    } catch (JsonProcessingException ex) {
+      String message = "Invalid response of elasticsearch bulk request!";
+      LOG.error(message, ex);
+      throw new CustomInternalServerError(message);
+    }
+    return rejected;
+  }
+
+  /**
+   * Test if request (or document) should be resent after a delay.
+   *
+   * @param status HTTP status.
+   * @return true for HTTP 429 and 503.
+   */
+  private static boolean isRetryable(int status) {
+    return status == HttpStatus.TOO_MANY_REQUESTS.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value();
+  }
+
+  /**
+   * Report document which could not be indexed.
+   *
+   * @param id Id of the document.
+   * @param reason Reason of the failure.
+   */
+  private void addFailure(String id, String reason) {
+    noOfFailedDocuments++;
+    if (failures.size() < MAX_REPORTED_FAILURES) {
+      failures.add(id + ": " + reason);
+    }
+  }
+
+  /**
+   * Wait before next retry.
+   *
+   * @param millis Delay in milliseconds.
+   */
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CustomInternalServerError("Bulk indexing interrupted!");
+    }
+  }
+
+  /**
+   * Get number of successfully indexed documents.
+   *
+   * @return the number of indexed documents
+   */
+  public long getNoOfIndexedDocuments() {
+    return noOfIndexedDocuments;
+  }
+
+  /**
+   * Get number of documents which could not be indexed.
+   *
+   * @return the number of failed documents
+   */
+  public long getNoOfFailedDocuments() {
+    return noOfFailedDocuments;
+  }
+
+  /**
+   * Get documents which could not be indexed (id and reason). At most
+   * MAX_REPORTED_FAILURES failures are kept.
+   *
+   * @return the failures
+   */
+  public List<String> getFailures() {
+    return Collections.unmodifiableList(failures);
+  }
+
+  /**
+   * Send all remaining documents.
+   */
+  @Override
+  public void close() {
+    flush();
+  }
+
+  /**
+   * Entry of the bulk request (action and document).
+   */
+  private static final class BulkEntry {
+
+    private final String id;
+
+    private final byte[] data;
+
+    BulkEntry(String id, byte[] data) {
+      this.id = id;
+      this.data = data;
+    }
+  }
+}
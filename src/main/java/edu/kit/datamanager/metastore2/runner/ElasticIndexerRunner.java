@@ -17,16 +17,20 @@ package edu.kit.datamanager.metastore2.runner;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.kit.datamanager.clients.SimpleServiceClient;
 import edu.kit.datamanager.configuration.SearchConfiguration;
 import edu.kit.datamanager.entities.RepoServiceRole;
 import edu.kit.datamanager.entities.messaging.MetadataResourceMessage;
+import edu.kit.datamanager.exceptions.ResourceNotFoundException;
 import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
 import edu.kit.datamanager.metastore2.dao.IDataRecordDao;
+import edu.kit.datamanager.metastore2.dao.IReindexCheckpointDao;
 import edu.kit.datamanager.metastore2.dao.ISchemaRecordDao;
 import edu.kit.datamanager.metastore2.dao.IUrl2PathDao;
 import edu.kit.datamanager.metastore2.domain.*;
 import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.metastore2.util.DocumentCodec;
 import edu.kit.datamanager.metastore2.web.impl.MetadataControllerImplV2;
 import edu.kit.datamanager.metastore2.web.impl.SchemaRegistryControllerImplV2;
 import edu.kit.datamanager.repo.dao.spec.dataresource.ResourceTypeSpec;
@@ -46,6 +50,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.MediaType;
@@ -53,7 +58,17 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static edu.kit.datamanager.metastore2.util.DataResourceRecordUtil.SCHEMA_SUFFIX;
 import static edu.kit.datamanager.metastore2.util.DataResourceRecordUtil.queryDataResources;
@@ -62,7 +77,9 @@ import static edu.kit.datamanager.metastore2.util.DataResourceRecordUtil.queryDa
  * This class contains 3 runners:
  * <ul><li>Runner for indexing all metadata documents of given schemas Arguments
  * have to start with at least 'reindex' followed by all indices which have to
- * be reindexed. If no indices are given all indices will be reindexed.</li>
+ * be reindexed. If no indices are given all indices will be reindexed. The
+ * documents are read in batches and the schemas are reindexed in parallel. An
+ * interrupted reindexing may be resumed ('--resume').</li>
  * <li>Runner for migrating dataresources from version 1 to version2.</li>
  * <li>Runner for purging schema/metadata documents and it's linked database
  * entries.</li>
@@ -85,7 +102,7 @@ public class ElasticIndexerRunner implements CommandLineRunner {
   /**
    * Start migration to version 2
    */
-  @Parameter(names = {"--prefixIndices", "-p"}, description = "Parameter for 'migrate2Datacite': Prefix used for the indices inside elastic.")
+  @Parameter(names = {"--prefixIndices", "-p"}, description = "Parameter for 'migrate2Datacite' and 'reindex --bulk': Prefix used for the indices inside elastic.")
   String prefixIndices;
 
   /**
@@ -108,6 +125,33 @@ public class ElasticIndexerRunner implements CommandLineRunner {
    */
   @Parameter(names = {"--updateDate", "-u"}, description = "Parameter for 'reindex': Starting reindexing only for documents updated at earliest on update date.")
   Date updateDate;
+  /**
+   * Number of records read and sent at once.
+   */
+  @Parameter(names = {"--batchSize", "-b"}, description = "Parameter for 'reindex': Number of documents read from database and sent at once.")
+  int batchSize;
+  /**
+   * Number of schemas reindexed in parallel.
+   */
+  @Parameter(names = {"--threads", "-t"}, description = "Parameter for 'reindex': Number of schemas reindexed in parallel.")
+  int noOfThreads;
+  /**
+   * Resume reindexing from last checkpoint.
+   */
+  @Parameter(names = {"--resume"}, description = "Parameter for 'reindex': Resume an interrupted reindexing from the last checkpoint "
+          + "(same indices and update date required).")
+  boolean resume;
+  /**
+   * Index documents directly via bulk API of elasticsearch.
+   */
+  @Parameter(names = {"--bulk"}, description = "Parameter for 'reindex': Index JSON documents directly via bulk API of elasticsearch "
+          + "instead of sending messages (requires enabled search).")
+  boolean bulkIndexing;
+  /**
+   * Maximum size of a bulk request.
+   */
+  @Parameter(names = {"--bulkMaxBytes"}, description = "Parameter for 'reindex --bulk': Maximum size of a bulk request in bytes.")
+  long bulkMaxBytes;
 
   /**
    * ***************************************************************************
@@ -127,6 +171,19 @@ public class ElasticIndexerRunner implements CommandLineRunner {
           + "'all' will remove all resources with state 'GONE'.")
   Set<String> purgeIds;
 
+  /**
+   * ***************************************************************************
+   * Parameter for creating snapshots of superseded versions. This should be
+   * executed only once.
+   * ***************************************************************************
+   */
+  /**
+   * Start creating snapshots of all superseded versions.
+   */
+  @Parameter(names = {"--backfillSnapshots"}, description = "Create snapshots of all superseded versions of schema and metadata documents. "
+          + "Number of documents read at once: '--batchSize'.")
+  boolean doBackfillSnapshots;
+
   /**
    * Determine the baseUrl of the service.
    */
@@ -135,6 +192,34 @@ public class ElasticIndexerRunner implements CommandLineRunner {
    * Logger.
    */
   private static final Logger LOG = LoggerFactory.getLogger(ElasticIndexerRunner.class);
+  /**
+   * Default number of records read and sent at once.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+  /**
+   * Default number of schemas reindexed in parallel.
+   */
+  public static final int DEFAULT_NO_OF_THREADS = 4;
+  /**
+   * Interval for logging the progress of reindexing (in seconds).
+   */
+  private static final long PROGRESS_INTERVAL = 10;
+  /**
+   * Final state of a schema which was reindexed successfully.
+   */
+  private static final String SCHEMA_FINISHED = "FINISHED";
+  /**
+   * Final state of a schema which was already reindexed in a previous run.
+   */
+  private static final String SCHEMA_SKIPPED = "SKIPPED";
+  /**
+   * Final state of a schema which could not be reindexed.
+   */
+  private static final String SCHEMA_FAILED = "FAILED";
+  /**
+   * Marker in work queue signaling the end of work (no valid schemaId).
+   */
+  private static final String END_OF_WORK = "";
 
   /**
    * DAO for all schema records.
@@ -151,11 +236,31 @@ public class ElasticIndexerRunner implements CommandLineRunner {
    */
   @Autowired
   private IUrl2PathDao url2PathDao;
+  /**
+   * DAO for checkpoints of reindexing.
+   */
+  @Autowired
+  private IReindexCheckpointDao reindexCheckpointDao;
+  /**
+   * Progress of reindexing.
+   */
+  @Autowired
+  private ReindexProgress reindexProgress;
   /**
    * Instance of schema repository.
    */
   @Autowired
   private MetastoreConfiguration schemaConfig;
+  /**
+   * Instance of metadata repository.
+   */
+  @Autowired
+  private MetastoreConfiguration metadataConfig;
+  /**
+   * Mapper for serializing documents for bulk indexing.
+   */
+  @Autowired
+  private ObjectMapper objectMapper;
 
   /**
    * Optional messagingService bean may or may not be available, depending on a
@@ -168,6 +273,8 @@ public class ElasticIndexerRunner implements CommandLineRunner {
   private Migration2V2Runner migrationTool;
   @Autowired
   private PurgeRunner cleanUpTool;
+  @Autowired
+  private SnapshotBackfillRunner snapshotTool;
 
   @Autowired
   private SearchConfiguration searchConfiguration;
@@ -186,9 +293,15 @@ public class ElasticIndexerRunner implements CommandLineRunner {
     prefixIndices = "metastore-";
     updateDate = new Date(0);
     indices = new HashSet<>();
+    batchSize = DEFAULT_BATCH_SIZE;
+    noOfThreads = DEFAULT_NO_OF_THREADS;
+    resume = false;
+    bulkIndexing = false;
+    bulkMaxBytes = ElasticBulkIndexer.DEFAULT_MAX_BYTES;
     doMigration2DataCite = false;
     doPurgeRepo = false;
     purgeIds = new HashSet<>();
+    doBackfillSnapshots = false;
 
     JCommander argueParser = JCommander.newBuilder()
             .addObject(this)
@@ -201,8 +314,14 @@ public class ElasticIndexerRunner implements CommandLineRunner {
       LOG.trace("Update index: '{}'", updateIndex);
       LOG.trace("update date: '{}'", updateDate.toString());
       LOG.trace("indices: '{}'", indices);
+      LOG.trace("batch size: '{}'", batchSize);
+      LOG.trace("threads: '{}'", noOfThreads);
+      LOG.trace("resume: '{}'", resume);
+      LOG.trace("bulk indexing: '{}'", bulkIndexing);
+      LOG.trace("bulk max bytes: '{}'", bulkMaxBytes);
       LOG.trace("doPurgeRepo: '{}'", doPurgeRepo);
       LOG.trace("remove IDs: '{}'", purgeIds);
+      LOG.trace("doBackfillSnapshots: '{}'", doBackfillSnapshots);
       LOG.trace("Find all schemas...");
       // Try to determine baseUrl 
       List<Url2Path> findAllSchemas = url2PathDao.findAll(PageRequest.of(0, 1)).getContent();
@@ -229,6 +348,9 @@ public class ElasticIndexerRunner implements CommandLineRunner {
       if (doPurgeRepo) {
         cleanUpTool.removeResources(purgeIds);
       }
+      if (doBackfillSnapshots) {
+        snapshotTool.backfillAllSnapshots(batchSize);
+      }
     } catch (Exception ex) {
       LOG.error("Error while executing runner!", ex);
       argueParser.usage();
@@ -238,90 +360,300 @@ public class ElasticIndexerRunner implements CommandLineRunner {
 
   /**
    * Start runner to reindex dataresources according to the given parameters.
+   * The schemas are reindexed in parallel by a bounded pool of workers. The
+   * progress is logged periodically.
    *
    * @throws InterruptedException Something went wrong.
    */
   private void updateElasticsearchIndex() throws InterruptedException {
     LOG.info("Start ElasticIndexer Runner for indices '{}' and update date '{}'", indices, updateDate);
     LOG.info("No of schemas: '{}'", schemaRecordDao.count());
-    // Try to determine URL of repository
+    if (batchSize <= 0 || noOfThreads <= 0) {
+      throw new IllegalArgumentException("Batch size and number of threads have to be greater than 0!");
+    }
+    if (bulkIndexing && !searchConfiguration.isSearchEnabled()) {
+      LOG.warn("Search is disabled -> bulk indexing not possible. Send messages instead.");
+      bulkIndexing = false;
+    }
+    reindexProgress.start();
+    BlockingQueue<String> workQueue = new LinkedBlockingQueue<>();
+    ExecutorService executor = Executors.newFixedThreadPool(noOfThreads);
+    try {
+      for (int worker = 0; worker < noOfThreads; worker++) {
+        executor.submit(() -> drainWorkQueue(workQueue));
+      }
+      try {
+        determineIndices(indices, workQueue::add);
+      } finally {
+        // Signal end of work to all workers.
+        for (int worker = 0; worker < noOfThreads; worker++) {
+          workQueue.add(END_OF_WORK);
+        }
+      }
+      executor.shutdown();
+      while (!executor.awaitTermination(PROGRESS_INTERVAL, TimeUnit.SECONDS)) {
+        LOG.info(reindexProgress.getSummary());
+      }
+    } finally {
+      executor.shutdownNow();
+      reindexProgress.finish();
+    }
+    LOG.info(reindexProgress.getSummary());
+    LOG.trace("Finished ElasticIndexerRunner!");
+  }
 
-    determineIndices(indices);
-    for (String index : indices) {
+  /**
+   * Reindex schemas taken from the work queue until the end of work is
+   * signaled.
+   *
+   * @param workQueue Queue holding the schemaIds of the indices.
+   */
+  private void drainWorkQueue(BlockingQueue<String> workQueue) {
+    try {
+      String index = workQueue.take();
+      while (!END_OF_WORK.equals(index)) {
+        reindexSchema(index);
+        index = workQueue.take();
+      }
+    } catch (InterruptedException ex) {
+      LOG.error("Reindexing interrupted!", ex);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Reindex all metadata documents of a schema. The data records are read in
+   * batches using keyset pagination on (lastUpdate, id). After each batch the
+   * checkpoint is persisted. If bulk indexing is enabled the batch is indexed
+   * before the checkpoint is persisted.
+   *
+   * @param index SchemaId of the index.
+   */
+  private void reindexSchema(String index) {
+    try (ElasticBulkIndexer bulkIndexer = bulkIndexing ? new ElasticBulkIndexer(searchConfiguration.getUrl(), batchSize, bulkMaxBytes, objectMapper) : null) {
+      ReindexCheckpoint checkpoint = getCheckpoint(index);
+      if (checkpoint.isFinished()) {
+        LOG.info("Reindex '{}' skipped (already finished).", index);
+        reindexProgress.finishSchema(index, SCHEMA_SKIPPED);
+        return;
+      }
       LOG.info("Reindex '{}'", index);
-      List<DataRecord> findBySchemaId = dataRecordDao.findBySchemaIdAndLastUpdateAfter(index, updateDate.toInstant());
-      LOG.trace("Search for documents for schema '{}' and update date '{}'", index, updateDate);
-      LOG.trace("No of documents: '{}'", findBySchemaId.size());
-      for (DataRecord item : findBySchemaId) {
-        MetadataRecord result = toMetadataRecord(item, baseUrl);
-        LOG.trace("Sending CREATE event.");
-        messagingService.orElse(new LogfileMessagingService()).
-                send(MetadataResourceMessage.factoryCreateMetadataMessage(result, this.getClass().toString(), ControllerUtils.getLocalHostname()));
+      long noOfRecords = dataRecordDao.countBySchemaIdAndLastUpdateAfter(index, updateDate.toInstant()) - checkpoint.getNoOfProcessedRecords();
+      reindexProgress.startSchema(index, Math.max(0, noOfRecords), checkpoint.getNoOfProcessedRecords());
+      Pageable batch = PageRequest.of(0, batchSize);
+      List<DataRecord> records;
+      do {
+        records = dataRecordDao.findNextBySchemaId(index, checkpoint.getLastUpdate(), checkpoint.getLastId(), batch);
+        LOG.trace("Search for documents for schema '{}' after '{}'/'{}' -> '{}' documents", index, checkpoint.getLastUpdate(), checkpoint.getLastId(), records.size());
+        for (DataRecord item : records) {
+          indexDocument(item, index, bulkIndexer);
+        }
+        if (bulkIndexer != null) {
+          bulkIndexer.flush();
+        }
+        if (!records.isEmpty()) {
+          DataRecord last = records.get(records.size() - 1);
+          checkpoint.setLastUpdate(last.getLastUpdate());
+          checkpoint.setLastId(last.getId());
+          checkpoint.setNoOfProcessedRecords(checkpoint.getNoOfProcessedRecords() + records.size());
+          reindexCheckpointDao.save(checkpoint);
+          reindexProgress.addProcessedRecords(index, records.size());
+        }
+      } while (records.size() == batchSize);
+      indexAlternativeSchemaIds(index, baseUrl, bulkIndexer);
+      checkpoint.setFinished(true);
+      reindexCheckpointDao.save(checkpoint);
+      reindexProgress.finishSchema(index, SCHEMA_FINISHED);
+      LOG.info("Reindex '{}' finished! No of documents: '{}'", index, checkpoint.getNoOfProcessedRecords());
+      if (bulkIndexer != null) {
+        LOG.info("Bulk indexing '{}': '{}' documents indexed, '{}' documents failed.", index, bulkIndexer.getNoOfIndexedDocuments(), bulkIndexer.getNoOfFailedDocuments());
+        if (!bulkIndexer.getFailures().isEmpty()) {
+          LOG.warn("Bulk indexing '{}': failed documents (max. {}): {}", index, ElasticBulkIndexer.MAX_REPORTED_FAILURES, bulkIndexer.getFailures());
+        }
       }
-      indexAlternativeSchemaIds(index, baseUrl);
+    } catch (RuntimeException ex) {
+      LOG.error("Error while reindexing '" + index + "'!", ex);
+      reindexProgress.finishSchema(index, SCHEMA_FAILED);
     }
-    Thread.sleep(5000);
+  }
 
-    LOG.trace("Finished ElasticIndexerRunner!");
+  /**
+   * Get checkpoint for given schema. If reindexing should be resumed the
+   * persisted checkpoint is used if it belongs to the same update date.
+   * Otherwise a new checkpoint is created.
+   *
+   * @param index SchemaId of the index.
+   * @return Checkpoint for reindexing.
+   */
+  private ReindexCheckpoint getCheckpoint(String index) {
+    Instant from = updateDate.toInstant();
+    if (resume) {
+      Optional<ReindexCheckpoint> checkpoint = reindexCheckpointDao.findById(index);
+      if (checkpoint.isPresent() && from.equals(checkpoint.get().getUpdateDate())) {
+        LOG.info("Resume reindexing of '{}' after '{}' documents.", index, checkpoint.get().getNoOfProcessedRecords());
+        return checkpoint.get();
+      }
+      LOG.info("No checkpoint found for '{}' and update date '{}'.", index, updateDate);
+    }
+    ReindexCheckpoint checkpoint = new ReindexCheckpoint();
+    checkpoint.setSchemaId(index);
+    checkpoint.setUpdateDate(from);
+    // Start key: all records updated after update date.
+    checkpoint.setLastUpdate(from);
+    checkpoint.setLastId(Long.MAX_VALUE);
+    checkpoint.setNoOfProcessedRecords(0);
+    checkpoint.setFinished(false);
+    return reindexCheckpointDao.save(checkpoint);
   }
 
   /**
-   * Determine all indices if an empty set is provided. Otherwise return
-   * provided set without any change.
+   * Index metadata document of given data record. If bulk indexing is enabled
+   * JSON documents are added to the bulk request. Otherwise (or for all other
+   * documents) a CREATE event is sent.
    *
-   * @param indices Indices which should be reindexed.
+   * @param dataRecord Data record of the metadata document.
+   * @param index SchemaId of the index.
+   * @param bulkIndexer Bulk indexer (may be null).
    */
-  private void determineIndices(Set<String> indices) {
-    if (indices.isEmpty()) {
-      LOG.info("Reindex all indices!");
-      // Search for all indices...
-      // Build Specification
-      Specification<DataResource> spec = DataResourceRecordUtil.findByResourceType(null, DataResourceRecordUtil.SCHEMA_SUFFIX);
-      spec = DataResourceRecordUtil.findByUpdateDates(spec, updateDate.toInstant(), null);
-      // Hide revoked and gone data resources. 
-      spec = DataResourceRecordUtil.findByStateWithAuthorization(spec, DataResource.State.FIXED, DataResource.State.VOLATILE);
-      int entriesPerPage = 20;
-      int page = 0;
-      LOG.debug("Performing query for records.");
-      Pageable pgbl = PageRequest.of(page, entriesPerPage);
-      Page<DataResource> records = DataResourceRecordUtil.queryDataResources(spec, pgbl);
-      int noOfEntries = records.getNumberOfElements();
-      int noOfPages = records.getTotalPages();
-
-      LOG.debug("Find '{}' schemas!", noOfEntries);
-      // add also the schema registered in the schema registry
-      for (page = 0; page < noOfPages; page++) {
-        for (DataResource schema : records.getContent()) {
-          indices.add(schema.getId());
+  private void indexDocument(DataRecord dataRecord, String index, ElasticBulkIndexer bulkIndexer) {
+    ElasticWrapper wrapper = null;
+    if (bulkIndexer != null) {
+      wrapper = createElasticWrapper(dataRecord);
+    }
+    if (wrapper != null) {
+      bulkIndexer.add((prefixIndices + index).toLowerCase(Locale.ROOT), wrapper);
+    } else {
+      sendCreateMessage(toMetadataRecord(dataRecord, baseUrl));
+    }
+  }
+
+  /**
+   * Build document for elasticsearch from local record, ACL and metadata
+   * document. Only JSON documents are supported as XML documents have to be
+   * transformed by the indexing service.
+   *
+   * @param dataRecord Data record of the metadata document.
+   * @return Document for elasticsearch or null if not supported.
+   */
+  private ElasticWrapper createElasticWrapper(DataRecord dataRecord) {
+    ElasticWrapper wrapper = null;
+    try {
+      DataResource metadataRecord = DataResourceRecordUtil.getMetadataRecordByIdAndVersion(metadataConfig, dataRecord.getMetadataId(), dataRecord.getVersion());
+      if (DataResourceRecordUtil.JSON_METADATA_TYPE.equals(metadataRecord.getResourceType().getValue())) {
+        Path metadataDocumentPath = DataResourceRecordUtil.getMetadataDocumentByIdAndVersion(metadataConfig, dataRecord.getMetadataId(), dataRecord.getVersion());
+        DataResourceRecordUtil.fixSchemaUrl(metadataRecord);
+        wrapper = new ElasticWrapper(metadataRecord);
+        try (InputStream inputStream = DocumentCodec.newInputStream(metadataDocumentPath)) {
+          wrapper.setMetadataDocument(objectMapper.readTree(inputStream));
         }
       }
+    } catch (ResourceNotFoundException | IOException ex) {
+      LOG.warn("Metadata document '{}' (version '{}') not available locally -> send message instead. ({})", dataRecord.getMetadataId(), dataRecord.getVersion(), ex.getMessage());
+      wrapper = null;
     }
+    return wrapper;
   }
 
-  private void indexAlternativeSchemaIds(String index, String baseUrl) {
-    LOG.trace("Search for alternative schemaId (given as URL)");
-    List<SchemaRecord> findSchemaBySchemaId = schemaRecordDao.findBySchemaIdStartsWithOrderByVersionDesc(index + "/");
-    DataRecord templateRecord = new DataRecord();
-    for (SchemaRecord debug : findSchemaBySchemaId) {
-      templateRecord.setSchemaId(debug.getSchemaIdWithoutVersion());
-      templateRecord.setSchemaVersion(debug.getVersion());
-      List<Url2Path> findByPath1 = url2PathDao.findByPath(debug.getSchemaDocumentUri());
-      for (Url2Path path : findByPath1) {
-        LOG.trace("SchemaRecord: '{}'", debug);
-        List<DataRecord> findBySchemaUrl = dataRecordDao.findBySchemaIdAndLastUpdateAfter(path.getUrl(), updateDate.toInstant());
-        LOG.trace("Search for documents for schema '{}' and update date '{}'", path.getUrl(), updateDate);
-        LOG.trace("No of documents: '{}'", findBySchemaUrl.size());
-        for (DataRecord item : findBySchemaUrl) {
-          templateRecord.setMetadataId(item.getMetadataId());
-          templateRecord.setVersion(item.getVersion());
-          MetadataRecord result = toMetadataRecord(templateRecord, baseUrl);
-          LOG.trace("Sending CREATE event (alternativeSchemaId: '{}').", index);
-          messagingService.orElse(new LogfileMessagingService()).
-                  send(MetadataResourceMessage.factoryCreateMetadataMessage(result, this.getClass().toString(), ControllerUtils.getLocalHostname()));
+  /**
+   * Send CREATE event for given metadata record.
+   *
+   * @param metadataRecord Metadata record.
+   */
+  private void sendCreateMessage(MetadataRecord metadataRecord) {
+    LOG.trace("Sending CREATE event.");
+    messagingService.orElse(new LogfileMessagingService()).
+            send(MetadataResourceMessage.factoryCreateMetadataMessage(metadataRecord, this.getClass().toString(), ControllerUtils.getLocalHostname()));
+  }
+
+  /**
+   * Determine all indices if an empty set is provided. Otherwise the provided
+   * indices are used without any change. All schemas are read page by page and
+   * passed to the consumer (e.g. a work queue) immediately.
+   *
+   * @param indices Indices which should be reindexed.
+   * @param consumer Consumer of the indices.
+   */
+  private void determineIndices(Set<String> indices, Consumer<String> consumer) {
+    if (!indices.isEmpty()) {
+      indices.forEach(consumer);
+      return;
+    }
+    LOG.info("Reindex all indices!");
+    // Search for all indices...
+    // Build Specification
+    Specification<DataResource> spec = DataResourceRecordUtil.findByResourceType(null, DataResourceRecordUtil.SCHEMA_SUFFIX);
+    spec = DataResourceRecordUtil.findByUpdateDates(spec, updateDate.toInstant(), null);
+    // Hide revoked and gone data resources. 
+    spec = DataResourceRecordUtil.findByStateWithAuthorization(spec, DataResource.State.FIXED, DataResource.State.VOLATILE);
+    int entriesPerPage = 20;
+    int page = 0;
+    Page<DataResource> records;
+    do {
+      LOG.debug("Performing query for schemas (page '{}').", page);
+      Pageable pgbl = PageRequest.of(page, entriesPerPage, Sort.by("id"));
+      records = DataResourceRecordUtil.queryDataResources(spec, pgbl);
+      for (DataResource schema : records.getContent()) {
+        if (indices.add(schema.getId())) {
+          consumer.accept(schema.getId());
         }
       }
-    }
+      page++;
+    } while (records.hasNext());
+    LOG.debug("Find '{}' schemas!", indices.size());
+  }
 
+  /**
+   * Index all metadata documents referencing the given schema via URL
+   * (alternative schemaId). All versions of the schema, their URLs and the
+   * data records are determined with one query each. The data records are
+   * read in batches.
+   *
+   * @param index SchemaId of the index.
+   * @param baseUrl Base URL for accessing service.
+   * @param bulkIndexer Bulk indexer (may be null).
+   */
+  private void indexAlternativeSchemaIds(String index, String baseUrl, ElasticBulkIndexer bulkIndexer) {
+    LOG.trace("Search for alternative schemaId (given as URL)");
+    Map<String, SchemaRecord> schemaRecordByPath = new HashMap<>();
+    for (SchemaRecord schemaRecord : schemaRecordDao.findBySchemaIdStartsWithOrderByVersionDesc(index + "/")) {
+      schemaRecordByPath.putIfAbsent(schemaRecord.getSchemaDocumentUri(), schemaRecord);
+    }
+    if (schemaRecordByPath.isEmpty()) {
+      return;
+    }
+    Map<String, SchemaRecord> schemaRecordByUrl = new HashMap<>();
+    for (Url2Path path : url2PathDao.findByPathIn(schemaRecordByPath.keySet())) {
+      schemaRecordByUrl.put(path.getUrl(), schemaRecordByPath.get(path.getPath()));
+    }
+    if (schemaRecordByUrl.isEmpty()) {
+      return;
+    }
+    LOG.trace("Search for documents for schema URLs '{}' and update date '{}'", schemaRecordByUrl.keySet(), updateDate);
+    Pageable batch = PageRequest.of(0, batchSize);
+    Instant lastUpdate = updateDate.toInstant();
+    Long lastId = Long.MAX_VALUE;
+    List<DataRecord> records;
+    do {
+      records = dataRecordDao.findNextBySchemaIdIn(schemaRecordByUrl.keySet(), lastUpdate, lastId, batch);
+      LOG.trace("No of documents: '{}'", records.size());
+      for (DataRecord item : records) {
+        SchemaRecord schemaRecord = schemaRecordByUrl.get(item.getSchemaId());
+        DataRecord templateRecord = new DataRecord();
+        templateRecord.setSchemaId(schemaRecord.getSchemaIdWithoutVersion());
+        templateRecord.setSchemaVersion(schemaRecord.getVersion());
+        templateRecord.setMetadataId(item.getMetadataId());
+        templateRecord.setVersion(item.getVersion());
+        LOG.trace("Alternative schemaId: '{}'", index);
+        indexDocument(templateRecord, index, bulkIndexer);
+      }
+      if (!records.isEmpty()) {
+        lastUpdate = records.get(records.size() - 1).getLastUpdate();
+        lastId = records.get(records.size() - 1).getId();
+      }
+    } while (records.size() == batchSize);
+    if (bulkIndexer != null) {
+      bulkIndexer.flush();
+    }
   }
 
   /**
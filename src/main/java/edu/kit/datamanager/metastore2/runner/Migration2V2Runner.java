@@ -18,6 +18,7 @@ package edu.kit.datamanager.metastore2.runner;
 import edu.kit.datamanager.entities.Identifier;
 import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
 import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.metastore2.util.VersionSnapshotUtil;
 import edu.kit.datamanager.metastore2.web.impl.MetadataControllerImplV2;
 import edu.kit.datamanager.metastore2.web.impl.SchemaRegistryControllerImplV2;
 import edu.kit.datamanager.repo.dao.IDataResourceDao;
@@ -110,6 +111,7 @@ public class Migration2V2Runner {
     LOG.trace("Persisting created schema document resource.");
     DataResource migratedDataResource = dataResourceDao.save(recordByIdAndVersion);
     dataResourceDao.flush();
+    VersionSnapshotUtil.invalidate(id);
 
     //Capture state change
     LOG.trace("Capturing audit information.");
@@ -168,6 +170,7 @@ public class Migration2V2Runner {
     // Save migrated version
     LOG.trace("Persisting created metadata document resource.");
     DataResource migratedDataResource = dataResourceDao.save(recordByIdAndVersion);
+    VersionSnapshotUtil.invalidate(id);
 
     //capture state change
     LOG.trace("Capturing audit information.");
@@ -16,6 +16,7 @@
 package edu.kit.datamanager.metastore2.runner;
 
 import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
+import edu.kit.datamanager.metastore2.service.MetaStoreStatistics;
 import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
 import edu.kit.datamanager.repo.dao.spec.dataresource.StateSpecification;
 import edu.kit.datamanager.repo.domain.DataResource;
@@ -52,6 +53,11 @@ public class PurgeRunner {
    */
   @Autowired
   private MetastoreConfiguration metadataConfig;
+  /**
+   * Statistics of the repository.
+   */
+  @Autowired
+  private MetaStoreStatistics metaStoreStatistics;
 
   /**
    * Remove all database entries regarding given id. Migrate metadata of schema
@@ -74,6 +80,7 @@ public class PurgeRunner {
     LOG.debug("Performing query for records.");
     Page<DataResource> queryDataResources;
     boolean incrementPage = true;
+    int noOfPurgedResources = 0;
     do {
       queryDataResources = DataResourceRecordUtil.queryDataResources(spec, pgbl);
       LOG.trace("Found '{}' of '{}' resources marked as 'GONE'. Page: '{}', ", queryDataResources.getSize(), queryDataResources.getTotalElements(), queryDataResources.getPageable());
@@ -86,6 +93,7 @@ public class PurgeRunner {
           DataResource copyDataResource = DataResourceUtils.copyDataResource(dataResourceToRemove);
 
           DataResourceRecordUtil.cleanUpDataResource(copyDataResource);
+          noOfPurgedResources++;
           incrementPage = false;
         }
       }
@@ -95,5 +103,9 @@ public class PurgeRunner {
       }
       incrementPage = true;
     } while (page < queryDataResources.getTotalPages());
+    if (noOfPurgedResources > 0) {
+      // Purged documents are no longer counted.
+      metaStoreStatistics.invalidate();
+    }
   }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.runner;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the reindexing of elasticsearch. The progress (processed
+ * records, records per second, estimated time remaining) is available via the
+ * actuator endpoint 'reindex'.
+ */
+@Component
+@Endpoint(id = "reindex")
+public class ReindexProgress {
+
+  /**
+   * State of the reindexing.
+   */
+  public enum STATE {
+    IDLE,
+    RUNNING,
+    FINISHED
+  }
+
+  private final Map<String, SchemaProgress> schemas = new ConcurrentSkipListMap<>();
+
+  private final AtomicLong noOfExpectedRecords = new AtomicLong();
+
+  private final AtomicLong noOfProcessedRecords = new AtomicLong();
+
+  private volatile STATE state = STATE.IDLE;
+
+  private volatile Instant startTime;
+
+  private volatile Instant endTime;
+
+  /**
+   * Start new reindexing. All previous progress is removed.
+   */
+  public void start() {
+    schemas.clear();
+    noOfExpectedRecords.set(0);
+    noOfProcessedRecords.set(0);
+    startTime = Instant.now();
+    endTime = null;
+    state = STATE.RUNNING;
+  }
+
+  /**
+   * Start reindexing of a schema.
+   *
+   * @param schemaId SchemaId of the index.
+   * @param noOfRecords Number of records still to be processed.
+   * @param noOfAlreadyProcessedRecords Number of records processed in a
+   * previous (interrupted) run.
+   */
+  public void startSchema(String schemaId, long noOfRecords, long noOfAlreadyProcessedRecords) {
+    SchemaProgress progress = new SchemaProgress(noOfRecords, noOfAlreadyProcessedRecords);
+    schemas.put(schemaId, progress);
+    noOfExpectedRecords.addAndGet(noOfRecords);
+  }
+
+  /**
+   * Add processed records of a schema.
+   *
+   * @param schemaId SchemaId of the index.
+   * @param noOfRecords Number of records processed.
+   */
+  public void addProcessedRecords(String schemaId, long noOfRecords) {
+    SchemaProgress progress = schemas.get(schemaId);
+    if (progress != null) {
+      progress.processed.addAndGet(noOfRecords);
+    }
+    noOfProcessedRecords.addAndGet(noOfRecords);
+  }
+
+  /**
+   * Finish reindexing of a schema.
+   *
+   * @param schemaId SchemaId of the index.
+   * @param finalState Final state of the schema (e.g. 'FINISHED', 'SKIPPED',
+   * 'FAILED').
+   */
+  public void finishSchema(String schemaId, String finalState) {
+    SchemaProgress progress = schemas.computeIfAbsent(schemaId, key -> new SchemaProgress(0, 0));
+    progress.state = finalState;
+  }
+
+  /**
+   * Finish reindexing.
+   */
+  public void finish() {
+    endTime = Instant.now();
+    state = STATE.FINISHED;
+  }
+
+  /**
+   * Get state of the reindexing.
+   *
+   * @return the state
+   */
+  public STATE getState() {
+    return state;
+  }
+
+  /**
+   * Get number of records processed in the current run.
+   *
+   * @return the number of processed records
+   */
+  public long getNoOfProcessedRecords() {
+    return noOfProcessedRecords.get();
+  }
+
+  /**
+   * Get number of records expected in the current run.
+   *
+   * @return the number of expected records
+   */
+  public long getNoOfExpectedRecords() {
+    return noOfExpectedRecords.get();
+  }
+
+  /**
+   * Get throughput of the current run.
+   *
+   * @return records per second
+   */
+  public double getRecordsPerSecond() {
+    double recordsPerSecond = 0.0;
+    if (startTime != null) {
+      Instant end = (endTime != null) ? endTime : Instant.now();
+      long millis = Duration.between(startTime, end).toMillis();
+      if (millis > 0) {
+        recordsPerSecond = noOfProcessedRecords.get() * 1000.0 / millis;
+      }
+    }
+    return recordsPerSecond;
+  }
+
+  /**
+   * Get estimated time remaining for the current run.
+   *
+   * @return estimated time remaining or null if not predictable.
+   */
+  public Duration getEstimatedTimeRemaining() {
+    Duration eta = null;
+    if (state == STATE.FINISHED) {
+      eta = Duration.ZERO;
+    } else {
+      double recordsPerSecond = getRecordsPerSecond();
+      if (recordsPerSecond > 0.0) {
+        long remaining = Math.max(0, noOfExpectedRecords.get() - noOfProcessedRecords.get());
+        eta = Duration.ofSeconds((long) Math.ceil(remaining / recordsPerSecond));
+      }
+    }
+    return eta;
+  }
+
+  /**
+   * Get short summary of the progress for logging.
+   *
+   * @return summary
+   */
+  public String getSummary() {
+    Duration eta = getEstimatedTimeRemaining();
+    return String.format("Reindexed %d/%d records (%.1f records/s, ETA: %s)",
+            getNoOfProcessedRecords(),
+            getNoOfExpectedRecords(),
+            getRecordsPerSecond(),
+            (eta != null) ? eta.toString() : "unknown");
+  }
+
+  /**
+   * Read operation of the actuator endpoint.
+   *
+   * @return Progress of the reindexing.
+   */
+  @ReadOperation
+  public Map<String, Object> progress() {
+    Map<String, Object> progress = new LinkedHashMap<>();
+    progress.put("state", state);
+    progress.put("startTime", startTime);
+    progress.put("endTime", endTime);
+    progress.put("processedRecords", getNoOfProcessedRecords());
+    progress.put("expectedRecords", getNoOfExpectedRecords());
+    progress.put("recordsPerSecond", getRecordsPerSecond());
+    Duration eta = getEstimatedTimeRemaining();
+    progress.put("estimatedTimeRemaining", (eta != null) ? eta.toString() : null);
+    Map<String, Object> schemaProgress = new LinkedHashMap<>();
+    for (Map.Entry<String, SchemaProgress> entry : schemas.entrySet()) {
+      Map<String, Object> details = new LinkedHashMap<>();
+      details.put("state", entry.getValue().state);
+      details.put("processedRecords", entry.getValue().processed.get());
+      details.put("expectedRecords", entry.getValue().expected);
+      details.put("processedInPreviousRuns", entry.getValue().processedBefore);
+      schemaProgress.put(entry.getKey(), details);
+    }
+    progress.put("schemas", schemaProgress);
+    return progress;
+  }
+
+  /**
+   * Progress of a single schema.
+   */
+  private static final class SchemaProgress {
+
+    private final long expected;
+    private final long processedBefore;
+    private final AtomicLong processed = new AtomicLong();
+    private volatile String state = STATE.RUNNING.name();
+
+    SchemaProgress(long expected, long processedBefore) {
+      this.expected = expected;
+      this.processedBefore = processedBefore;
+    }
+  }
+}
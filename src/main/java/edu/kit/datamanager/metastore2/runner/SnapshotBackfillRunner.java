@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.runner;
+
+import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
+import edu.kit.datamanager.metastore2.dao.IDataResourceSnapshotDao;
+import edu.kit.datamanager.metastore2.domain.DataResourceSnapshot;
+import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.metastore2.util.VersionSnapshotUtil;
+import edu.kit.datamanager.repo.dao.IDataResourceDao;
+import edu.kit.datamanager.repo.domain.DataResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class contains 1 runner:
+ * <ul><li>Runner for creating snapshots of all superseded versions of schema
+ * and metadata documents which were created before snapshots were introduced.
+ * Existing snapshots are skipped, so the runner may be restarted at any
+ * time.</li></ul>
+ */
+@Component
+public class SnapshotBackfillRunner {
+
+  /**
+   * Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(SnapshotBackfillRunner.class);
+  /**
+   * DAO for all data resources.
+   */
+  @Autowired
+  private IDataResourceDao dataResourceDao;
+  /**
+   * DAO for all snapshots.
+   */
+  @Autowired
+  private IDataResourceSnapshotDao dataResourceSnapshotDao;
+  /**
+   * Instance of metadata repository.
+   */
+  @Autowired
+  private MetastoreConfiguration metadataConfig;
+
+  /**
+   * Create missing snapshots for all data resources.
+   *
+   * @param pageSize Number of data resources read at once.
+   * @return Number of created snapshots.
+   */
+  public long backfillAllSnapshots(int pageSize) {
+    LOG.info("Start creating snapshots of all superseded versions.");
+    long noOfResources = 0;
+    long noOfSnapshots = 0;
+    Pageable pgbl = PageRequest.of(0, pageSize, Sort.by("id"));
+    Page<DataResource> page;
+    do {
+      page = dataResourceDao.findAll(pgbl);
+      for (DataResource dataResource : page.getContent()) {
+        noOfSnapshots += backfillSnapshots(dataResource);
+        noOfResources++;
+      }
+      LOG.info("Snapshots: {} of {} resources processed, {} snapshot(s) created.", noOfResources, page.getTotalElements(), noOfSnapshots);
+      pgbl = pgbl.next();
+    } while (page.hasNext());
+    LOG.info("Finished creating snapshots: {} snapshot(s) created.", noOfSnapshots);
+    return noOfSnapshots;
+  }
+
+  /**
+   * Create missing snapshots of all superseded versions of a data resource.
+   *
+   * @param dataResource Current version of the data resource.
+   * @return Number of created snapshots.
+   */
+  public long backfillSnapshots(DataResource dataResource) {
+    long noOfSnapshots = 0;
+    String id = dataResource.getId();
+    try {
+      long currentVersion = Long.parseLong(dataResource.getVersion());
+      Set<Long> existingVersions = new HashSet<>();
+      for (DataResourceSnapshot snapshot : dataResourceSnapshotDao.findByResourceIdAndVersionBetweenOrderByVersionDesc(id, 1L, currentVersion - 1)) {
+        existingVersions.add(snapshot.getVersion());
+      }
+      if (existingVersions.size() < currentVersion - 1) {
+        Map<Long, DataResource> auditVersions = DataResourceRecordUtil.findVersionsInAuditLog(metadataConfig, id, 1L, currentVersion - 1);
+        for (long version = 1; version < currentVersion; version++) {
+          if (!existingVersions.contains(version)) {
+            DataResource supersededVersion = auditVersions.get(version);
+            if (supersededVersion != null) {
+              VersionSnapshotUtil.put(supersededVersion);
+              noOfSnapshots++;
+            } else {
+              LOG.warn("Version '{}' of '{}' not found in audit log.", version, id);
+            }
+          }
+        }
+      }
+    } catch (RuntimeException ex) {
+      LOG.error("Error creating snapshots for '" + id + "'!", ex);
+    }
+    LOG.trace("Created {} snapshot(s) for '{}'.", noOfSnapshots, id);
+    return noOfSnapshots;
+  }
+}
@@ -16,9 +16,15 @@
 package edu.kit.datamanager.metastore2.service;
 
 import edu.kit.datamanager.metastore2.configuration.MetaStoreMonitoringConfiguration;
-import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.metastore2.oaipmh.util.CrosswalkCache;
+import edu.kit.datamanager.metastore2.util.ExternalSchemaCache;
+import edu.kit.datamanager.metastore2.util.SchemaRecordCache;
+import edu.kit.datamanager.metastore2.validation.CompiledSchemaCache;
+import edu.kit.datamanager.metastore2.validation.impl.JsonValidator;
+import edu.kit.datamanager.metastore2.validation.impl.XmlValidator;
 import edu.kit.datamanager.repo.configuration.MonitoringConfiguration;
 import io.micrometer.common.lang.NonNull;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
@@ -27,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,27 +60,95 @@ public class MetaStoreMonitoringService implements MeterBinder {
    * Label for metrics of documents per schema.
    */
   public static final String LABEL_DOCUMENTS_PER_SCHEMA = "_documents_per_schema";
+  /**
+   * Label for metrics of compiled schema cache hits.
+   */
+  public static final String LABEL_SCHEMA_CACHE_HITS = "_schema_cache_hits";
+  /**
+   * Label for metrics of compiled schema cache misses.
+   */
+  public static final String LABEL_SCHEMA_CACHE_MISSES = "_schema_cache_misses";
+  /**
+   * Label for metrics of compiled schema cache evictions.
+   */
+  public static final String LABEL_SCHEMA_CACHE_EVICTIONS = "_schema_cache_evictions";
+  /**
+   * Label for metrics of compiled schema cache size.
+   */
+  public static final String LABEL_SCHEMA_CACHE_SIZE = "_schema_cache_size";
+  /**
+   * Label for metrics of crosswalk cache hits.
+   */
+  public static final String LABEL_CROSSWALK_CACHE_HITS = "_crosswalk_cache_hits";
+  /**
+   * Label for metrics of crosswalk cache misses.
+   */
+  public static final String LABEL_CROSSWALK_CACHE_MISSES = "_crosswalk_cache_misses";
+  /**
+   * Label for metrics of crosswalk cache hit ratio.
+   */
+  public static final String LABEL_CROSSWALK_CACHE_HIT_RATIO = "_crosswalk_cache_hit_ratio";
+  /**
+   * Label for metrics of schema record cache hits.
+   */
+  public static final String LABEL_SCHEMA_RECORD_CACHE_HITS = "_schema_record_cache_hits";
+  /**
+   * Label for metrics of schema record cache misses.
+   */
+  public static final String LABEL_SCHEMA_RECORD_CACHE_MISSES = "_schema_record_cache_misses";
+  /**
+   * Label for metrics of schema record cache invalidations.
+   */
+  public static final String LABEL_SCHEMA_RECORD_CACHE_INVALIDATIONS = "_schema_record_cache_invalidations";
+  /**
+   * Label for metrics of schema record cache size.
+   */
+  public static final String LABEL_SCHEMA_RECORD_CACHE_SIZE = "_schema_record_cache_size";
+  /**
+   * Label for metrics of external schema cache hits.
+   */
+  public static final String LABEL_EXTERNAL_SCHEMA_CACHE_HITS = "_external_schema_cache_hits";
+  /**
+   * Label for metrics of external schema cache downloads.
+   */
+  public static final String LABEL_EXTERNAL_SCHEMA_CACHE_DOWNLOADS = "_external_schema_cache_downloads";
+  /**
+   * Label for metrics of external schema cache revalidations.
+   */
+  public static final String LABEL_EXTERNAL_SCHEMA_CACHE_REVALIDATIONS = "_external_schema_cache_revalidations";
+  /**
+   * Label for metrics of external schema cache evictions.
+   */
+  public static final String LABEL_EXTERNAL_SCHEMA_CACHE_EVICTIONS = "_external_schema_cache_evictions";
+  /**
+   * Label for metrics of cache name.
+   */
+  public static final String LABEL_CACHE = "_cache";
 
   /**
    * Logger.
    */
   private static final Logger LOG = LoggerFactory.getLogger(MetaStoreMonitoringService.class);
   private final Set<String> registeredSchemas = ConcurrentHashMap.newKeySet();
-  private Map<String, Long> documentsPerSchema = null;
   private MeterRegistry meterRegistry;
 
   private final MetaStoreMonitoringConfiguration metaStoreMonitoringConfiguration;
   private final MonitoringConfiguration monitoringConfiguration;
+  private final MetaStoreStatistics metaStoreStatistics;
 
   /**
    * Constructor.
    *
+   * @param monitoringConfiguration Configuration for monitoring (repo-core).
    * @param metaStoreMonitoringConfiguration Configuration for monitoring.
+   * @param metaStoreStatistics Statistics of the repository.
    */
   public MetaStoreMonitoringService(@org.springframework.lang.NonNull MonitoringConfiguration monitoringConfiguration,
-                                    @org.springframework.lang.NonNull MetaStoreMonitoringConfiguration metaStoreMonitoringConfiguration) {
+                                    @org.springframework.lang.NonNull MetaStoreMonitoringConfiguration metaStoreMonitoringConfiguration,
+                                    @org.springframework.lang.NonNull MetaStoreStatistics metaStoreStatistics) {
     this.monitoringConfiguration = monitoringConfiguration;
     this.metaStoreMonitoringConfiguration = metaStoreMonitoringConfiguration;
+    this.metaStoreStatistics = metaStoreStatistics;
     PREFIX_METRICS = monitoringConfiguration.getServiceName();
   }
 
@@ -83,7 +158,10 @@ public class MetaStoreMonitoringService implements MeterBinder {
       this.meterRegistry = meterRegistry;
       Gauge.builder(PREFIX_METRICS + LABEL_METADATA_DOCUMENTS, this::countMetadataDocuments).register(meterRegistry);
       Gauge.builder(PREFIX_METRICS + LABEL_METADATA_SCHEMAS, this::countMetadataSchemas).register(meterRegistry);
-      getDocumentsPerSchema();
+      registerSchemaCacheMetrics();
+      registerCrosswalkCacheMetrics();
+      registerSchemaRecordCacheMetrics();
+      registerExternalSchemaCacheMetrics();
       // Register the initial set of schemas
       updateMetrics();
     } else {
@@ -93,12 +171,14 @@ public class MetaStoreMonitoringService implements MeterBinder {
 
   /**
    * Initialize and update the metrics for the metastore in regular manner.
+   * The statistics are reconciled with the database.
    */
   public void updateMetrics() {
     if (monitoringConfiguration.isEnabled() && meterRegistry != null) {
       LOG.info("Updating metrics for the metastore");
 
-      Map<String, Long> documentsPerSchema = getDocumentsPerSchema();
+      metaStoreStatistics.reconcile();
+      Map<String, Long> documentsPerSchema = metaStoreStatistics.getDocumentsPerSchema();
       LOG.trace("Documents per schema: {}", documentsPerSchema);
       documentsPerSchema.
               entrySet().
@@ -109,8 +189,8 @@ public class MetaStoreMonitoringService implements MeterBinder {
                 String schemaId = entry.getKey();
                 if (registeredSchemas.add(schemaId)) {
                   Gauge.builder(PREFIX_METRICS + LABEL_DOCUMENTS_PER_SCHEMA,
-                                  this,
-                                  ddm -> ddm.getDocumentsPerSchema(schemaId)).
+                                  metaStoreStatistics,
+                                  statistics -> statistics.getNoOfDocuments(schemaId)).
                           tags(Tags.of(LABEL_SCHEMA_ID, schemaId)).
                           register(meterRegistry);
                 }
@@ -121,39 +201,85 @@ public class MetaStoreMonitoringService implements MeterBinder {
   }
 
   /**
-   * Count the number of metadata schemas in the repository.
-   *
-   * @return The number of metadata schemas.
+   * Register metrics (hits, misses, evictions, size) for all caches of compiled
+   * schemas.
    */
-  int countMetadataSchemas() {
-    return (int) DataResourceRecordUtil.getNoOfSchemaDocuments();
+  private void registerSchemaCacheMetrics() {
+    for (CompiledSchemaCache<?> cache : List.of(XmlValidator.getSchemaCache(), JsonValidator.getSchemaCache())) {
+      Tags tags = Tags.of(LABEL_CACHE, cache.getName());
+      FunctionCounter.builder(PREFIX_METRICS + LABEL_SCHEMA_CACHE_HITS, cache, CompiledSchemaCache::getHits).
+              tags(tags).
+              register(meterRegistry);
+      FunctionCounter.builder(PREFIX_METRICS + LABEL_SCHEMA_CACHE_MISSES, cache, CompiledSchemaCache::getMisses).
+              tags(tags).
+              register(meterRegistry);
+      FunctionCounter.builder(PREFIX_METRICS + LABEL_SCHEMA_CACHE_EVICTIONS, cache, CompiledSchemaCache::getEvictions).
+              tags(tags).
+              register(meterRegistry);
+      Gauge.builder(PREFIX_METRICS + LABEL_SCHEMA_CACHE_SIZE, cache, CompiledSchemaCache::getSize).
+              tags(tags).
+              register(meterRegistry);
+    }
   }
 
   /**
-   * Count the number of metadata documents in the repository.
-   *
-   * @return The number of metadata documents.
+   * Register metrics (hits, misses, hit ratio) for the cache of crosswalk
+   * documents used by OAI-PMH.
    */
-  int countMetadataDocuments() {
-    return (int) DataResourceRecordUtil.getNoOfMetadataDocuments();
+  private void registerCrosswalkCacheMetrics() {
+    FunctionCounter.builder(PREFIX_METRICS + LABEL_CROSSWALK_CACHE_HITS, this, service -> CrosswalkCache.getHits()).
+            register(meterRegistry);
+    FunctionCounter.builder(PREFIX_METRICS + LABEL_CROSSWALK_CACHE_MISSES, this, service -> CrosswalkCache.getMisses()).
+            register(meterRegistry);
+    Gauge.builder(PREFIX_METRICS + LABEL_CROSSWALK_CACHE_HIT_RATIO, CrosswalkCache::getHitRatio).
+            register(meterRegistry);
+  }
+
+  /**
+   * Register metrics (hits, misses, invalidations, size) for the cache of
+   * schema records.
+   */
+  private void registerSchemaRecordCacheMetrics() {
+    FunctionCounter.builder(PREFIX_METRICS + LABEL_SCHEMA_RECORD_CACHE_HITS, this, service -> SchemaRecordCache.getHits()).
+            register(meterRegistry);
+    FunctionCounter.builder(PREFIX_METRICS + LABEL_SCHEMA_RECORD_CACHE_MISSES, this, service -> SchemaRecordCache.getMisses()).
+            register(meterRegistry);
+    FunctionCounter.builder(PREFIX_METRICS + LABEL_SCHEMA_RECORD_CACHE_INVALIDATIONS, this, service -> SchemaRecordCache.getInvalidations()).
+            register(meterRegistry);
+    Gauge.builder(PREFIX_METRICS + LABEL_SCHEMA_RECORD_CACHE_SIZE, SchemaRecordCache::getSize).
+            register(meterRegistry);
+  }
+
+  /**
+   * Register metrics (hits, downloads, revalidations, evictions) for the cache
+   * of schema documents referenced by URL.
+   */
+  private void registerExternalSchemaCacheMetrics() {
+    FunctionCounter.builder(PREFIX_METRICS + LABEL_EXTERNAL_SCHEMA_CACHE_HITS, this, service -> ExternalSchemaCache.getHits()).
+            register(meterRegistry);
+    FunctionCounter.builder(PREFIX_METRICS + LABEL_EXTERNAL_SCHEMA_CACHE_DOWNLOADS, this, service -> ExternalSchemaCache.getDownloads()).
+            register(meterRegistry);
+    FunctionCounter.builder(PREFIX_METRICS + LABEL_EXTERNAL_SCHEMA_CACHE_REVALIDATIONS, this, service -> ExternalSchemaCache.getRevalidations()).
+            register(meterRegistry);
+    FunctionCounter.builder(PREFIX_METRICS + LABEL_EXTERNAL_SCHEMA_CACHE_EVICTIONS, this, service -> ExternalSchemaCache.getEvictions()).
+            register(meterRegistry);
   }
 
   /**
-   * Get the number of documents per schema.
+   * Count the number of metadata schemas in the repository.
    *
-   * @return The number of documents per schema.
+   * @return The number of metadata schemas.
    */
-  private Map<String, Long> getDocumentsPerSchema() {
-    documentsPerSchema = DataResourceRecordUtil.collectDocumentsPerSchema();
-    return documentsPerSchema;
+  int countMetadataSchemas() {
+    return (int) metaStoreStatistics.getNoOfSchemaDocuments();
   }
 
   /**
-   * Get the number of documents per schema.
-   * @param schemaId The schema ID for which to get the number of documents.
-   * @return The number of documents per schema.
+   * Count the number of metadata documents in the repository.
+   *
+   * @return The number of metadata documents.
    */
-  private Long getDocumentsPerSchema(String schemaId) {
-    return documentsPerSchema.getOrDefault(schemaId, 0L);
+  int countMetadataDocuments() {
+    return (int) metaStoreStatistics.getNoOfMetadataDocuments();
   }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.service;
+
+import edu.kit.datamanager.metastore2.configuration.MetaStoreMonitoringConfiguration;
+import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.repo.domain.DataResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the repository (number of metadata documents, number of
+ * schemas and number of documents per schema) held in memory. The counters
+ * are updated by the controllers while creating or deleting records and
+ * reconciled with the database regularly (see MonitoringScheduler). If the
+ * statistics are older than the configured maximum age they are read from
+ * the database on next access. Deviations caused by concurrent updates
+ * during a reconciliation are corrected with the next reconciliation.
+ */
+@Component
+public class MetaStoreStatistics {
+
+  /**
+   * Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(MetaStoreStatistics.class);
+
+  private final MetaStoreMonitoringConfiguration metaStoreMonitoringConfiguration;
+
+  private final AtomicLong noOfMetadataDocuments = new AtomicLong();
+
+  private final AtomicLong noOfSchemaDocuments = new AtomicLong();
+
+  private final Map<String, AtomicLong> documentsPerSchema = new ConcurrentHashMap<>();
+
+  private volatile Instant lastReconciliation = null;
+
+  /**
+   * Constructor.
+   *
+   * @param metaStoreMonitoringConfiguration Configuration for monitoring.
+   */
+  public MetaStoreStatistics(MetaStoreMonitoringConfiguration metaStoreMonitoringConfiguration) {
+    this.metaStoreMonitoringConfiguration = metaStoreMonitoringConfiguration;
+  }
+
+  /**
+   * Read all statistics from database.
+   */
+  public synchronized void reconcile() {
+    LOG.trace("Reconcile statistics with database.");
+    long metadataDocuments = DataResourceRecordUtil.getNoOfMetadataDocuments();
+    long schemaDocuments = DataResourceRecordUtil.getNoOfSchemaDocuments();
+    Map<String, Long> documentsPerSchemaFromDatabase = DataResourceRecordUtil.collectDocumentsPerSchema();
+    noOfMetadataDocuments.set(metadataDocuments);
+    noOfSchemaDocuments.set(schemaDocuments);
+    documentsPerSchema.keySet().retainAll(documentsPerSchemaFromDatabase.keySet());
+    documentsPerSchemaFromDatabase.forEach((schemaId, noOfDocuments) -> documentsPerSchema.computeIfAbsent(schemaId, key -> new AtomicLong()).set(noOfDocuments));
+    lastReconciliation = Instant.now();
+    LOG.trace("Statistics: {} metadata document(s), {} schema(s), documents per schema: {}", metadataDocuments, schemaDocuments, documentsPerSchemaFromDatabase);
+  }
+
+  /**
+   * Force reading all statistics from database on next access.
+   */
+  public void invalidate() {
+    lastReconciliation = null;
+  }
+
+  /**
+   * Get the number of metadata documents.
+   *
+   * @return The number of metadata documents.
+   */
+  public long getNoOfMetadataDocuments() {
+    reconcileIfStale();
+    return noOfMetadataDocuments.get();
+  }
+
+  /**
+   * Get the number of schema documents.
+   *
+   * @return The number of schema documents.
+   */
+  public long getNoOfSchemaDocuments() {
+    reconcileIfStale();
+    return noOfSchemaDocuments.get();
+  }
+
+  /**
+   * Get the number of documents per schema.
+   *
+   * @return Copy of the number of documents per schema.
+   */
+  public Map<String, Long> getDocumentsPerSchema() {
+    reconcileIfStale();
+    Map<String, Long> copy = new HashMap<>();
+    documentsPerSchema.forEach((schemaId, noOfDocuments) -> copy.put(schemaId, noOfDocuments.get()));
+    return copy;
+  }
+
+  /**
+   * Get the number of documents of a schema.
+   *
+   * @param schemaId The schema ID for which to get the number of documents.
+   * @return The number of documents.
+   */
+  public long getNoOfDocuments(String schemaId) {
+    reconcileIfStale();
+    AtomicLong noOfDocuments = documentsPerSchema.get(schemaId);
+    return (noOfDocuments != null) ? noOfDocuments.get() : 0L;
+  }
+
+  /**
+   * Count created metadata document.
+   *
+   * @param dataResource Created metadata record.
+   */
+  public void metadataDocumentCreated(DataResource dataResource) {
+    if (isInitialized()) {
+      noOfMetadataDocuments.incrementAndGet();
+      addDocumentsOfSchema(dataResource, 1);
+    }
+  }
+
+  /**
+   * Count revoked metadata document. The document is still available but not
+   * counted for its schema any longer. Deleted documents (state 'GONE') are
+   * still counted until they are purged (see PurgeRunner).
+   *
+   * @param dataResource Metadata record before deletion.
+   */
+  public void metadataDocumentRevoked(DataResource dataResource) {
+    if (isInitialized()) {
+      addDocumentsOfSchema(dataResource, -1);
+    }
+  }
+
+  /**
+   * Count created schema document.
+   */
+  public void schemaDocumentCreated() {
+    if (isInitialized()) {
+      noOfSchemaDocuments.incrementAndGet();
+    }
+  }
+
+  private void addDocumentsOfSchema(DataResource dataResource, long delta) {
+    try {
+      String schemaId = DataResourceRecordUtil.getSchemaIdOfMetadataRecord(dataResource);
+      if (schemaId != null) {
+        documentsPerSchema.computeIfAbsent(schemaId, key -> new AtomicLong()).addAndGet(delta);
+      }
+    } catch (RuntimeException ex) {
+      LOG.warn("Unable to determine schema of '{}' -> reconcile statistics on next access.", dataResource.getId());
+      invalidate();
+    }
+  }
+
+  private boolean isInitialized() {
+    return lastReconciliation != null;
+  }
+
+  private void reconcileIfStale() {
+    Instant last = lastReconciliation;
+    Duration maxAge = Duration.ofSeconds(metaStoreMonitoringConfiguration.getStatisticsMaxAge());
+    if ((last == null) || last.plus(maxAge).isBefore(Instant.now())) {
+      synchronized (this) {
+        if (last == lastReconciliation) {
+          reconcile();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,624 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.kit.datamanager.exceptions.BadArgumentException;
+import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.metastore2.validation.BulkValidator;
+import edu.kit.datamanager.repo.domain.ContentInformation;
+import edu.kit.datamanager.repo.domain.DataResource;
+import edu.kit.datamanager.repo.domain.RelatedIdentifier;
+import edu.kit.datamanager.repo.util.ContentDataUtils;
+import edu.kit.datamanager.repo.util.DataResourceUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Ingest many metadata documents (record and document) at once. Items are
+ * processed in chunks:
+ * <ol>
+ * <li>Records are parsed and the referenced schemas are resolved (once per
+ * schema and ingest) in parallel.</li>
+ * <li>Documents are validated and spooled in parallel. The first document of
+ * each schema is validated up front, so each schema is compiled only
+ * once.</li>
+ * <li>All valid items of a chunk are stored within one transaction. If the
+ * transaction fails, the items of the chunk are stored one by one.</li>
+ * <li>Created records are published and the status of each item is written as
+ * a single line of JSON (NDJSON).</li>
+ * </ol>
+ * <pre>
+ * {"index":0,"name":"a","status":201,"id":"...","version":"1","etag":"..."}
+ * {"index":1,"name":"b","status":422,"error":"..."}
+ * {"summary":true,"total":2,"created":1,"failed":1}
+ * </pre>
+ */
+public class BatchIngester {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(BatchIngester.class);
+  /**
+   * Default for number of items stored within one transaction.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 100;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final MetastoreConfiguration configuration;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final int chunkSize;
+
+  private final Consumer<DataResource> onCreated;
+
+  /**
+   * Schema records resolved during this ingest.
+   */
+  private final Map<String, SchemaRecord> schemaRecords = new ConcurrentHashMap<>();
+  /**
+   * Schemas already used for validation during this ingest.
+   */
+  private final Set<String> compiledSchemas = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor.
+   *
+   * @param configuration Configuration of the metadata repository.
+   * @param transactionManager Transaction manager.
+   * @param chunkSize Number of items stored within one transaction.
+   * @param onCreated Called for each created record (e.g. for sending
+   * messages).
+   */
+  public BatchIngester(MetastoreConfiguration configuration,
+          PlatformTransactionManager transactionManager,
+          int chunkSize,
+          Consumer<DataResource> onCreated) {
+    this.configuration = configuration;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = (chunkSize > 0) ? chunkSize : DEFAULT_CHUNK_SIZE;
+    this.onCreated = onCreated;
+  }
+
+  /**
+   * Ingest all items and write the status of each item as NDJSON.
+   *
+   * @param items Items to ingest.
+   * @param outputStream Stream for the status of the items.
+   * @return Summary of the ingest.
+   * @throws IOException Error writing status.
+   */
+  public Summary ingest(ItemReader items, OutputStream outputStream) throws IOException {
+    List<Item> chunk = new ArrayList<>(chunkSize);
+    int index = 0;
+    int created = 0;
+    String readError = null;
+    while (true) {
+      Item item;
+      try {
+        item = items.next();
+      } catch (IOException | RuntimeException ex) {
+        LOG.error("Error reading items!", ex);
+        readError = "Error reading item " + index + ": " + ex.getMessage();
+        break;
+      }
+      if (item == null) {
+        break;
+      }
+      item.index = index++;
+      chunk.add(item);
+      if (chunk.size() >= chunkSize) {
+        created += processChunk(chunk, outputStream);
+        chunk.clear();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      created += processChunk(chunk, outputStream);
+    }
+    Summary summary = new Summary(index, created);
+    ObjectNode summaryNode = MAPPER.createObjectNode();
+    summaryNode.put("summary", true);
+    summaryNode.put("total", summary.getTotal());
+    summaryNode.put("created", summary.getCreated());
+    summaryNode.put("failed", summary.getFailed());
+    if (readError != null) {
+      summaryNode.put("error", readError);
+    }
+    writeLine(outputStream, summaryNode);
+    LOG.info("Batch ingest finished: {}", summaryNode);
+    return summary;
+  }
+
+  private int processChunk(List<Item> chunk, OutputStream outputStream) throws IOException {
+    LOG.trace("Process chunk with {} item(s).", chunk.size());
+    runParallel(chunk, this::prepare);
+    // Validate the first document of each new schema before all others.
+    List<Item> pendingItems = new ArrayList<>();
+    for (Item item : chunk) {
+      if (item.error == null) {
+        if (compiledSchemas.add(item.schemaKey)) {
+          runParallel(List.of(item), this::validate);
+        } else {
+          pendingItems.add(item);
+        }
+      }
+    }
+    runParallel(pendingItems, this::validate);
+    List<Item> validItems = chunk.stream().filter(item -> item.error == null).toList();
+    if (!validItems.isEmpty()) {
+      try {
+        transactionTemplate.executeWithoutResult(status -> validItems.forEach(this::store));
+      } catch (RuntimeException ex) {
+        LOG.warn("Storing chunk failed -> store items one by one. Reason: {}", ex.getMessage());
+        validItems.forEach(BatchIngester::removeStoredDocument);
+        validItems.forEach(this::storeSingleItem);
+      }
+    }
+    int created = 0;
+    for (Item item : chunk) {
+      item.close();
+      if (item.error == null) {
+        created++;
+        DataResourceRecordUtil.fixSchemaUrl(item.created);
+        try {
+          onCreated.accept(item.created);
+        } catch (RuntimeException ex) {
+          LOG.error("Error publishing record '" + item.created.getId() + "'!", ex);
+        }
+      }
+      writeLine(outputStream, getStatus(item));
+    }
+    return created;
+  }
+
+  /**
+   * Parse record and resolve schema.
+   *
+   * @param item Item to prepare.
+   */
+  private void prepare(Item item) {
+    item.dataResource = DataResourceRecordUtil.getDataResource4Create(item.record, item.document);
+    RelatedIdentifier schemaIdentifier = DataResourceRecordUtil.getSchemaIdentifier(item.dataResource);
+    DataResource dataResource = item.dataResource;
+    item.schemaKey = schemaIdentifier.getIdentifierType() + ":" + schemaIdentifier.getValue();
+    item.schemaRecord = schemaRecords.computeIfAbsent(item.schemaKey, key -> DataResourceRecordUtil.getSchemaRecord4Create(dataResource));
+  }
+
+  /**
+   * Validate and spool document.
+   *
+   * @param item Item to validate.
+   */
+  private void validate(Item item) {
+    item.spooledDocument = DataResourceRecordUtil.validateAndSpool4Create(configuration, item.dataResource, item.document, item.schemaRecord);
+  }
+
+  /**
+   * Store record and document. Has to be called inside a transaction.
+   *
+   * @param item Item to store.
+   */
+  private void store(Item item) {
+    DataResource createResource = MetricsUtil.recordStorage(MetricsUtil.STEP_RECORD, item.schemaRecord, () -> DataResourceUtils.createResource(configuration, item.dataResource));
+    item.contentInformation = MetricsUtil.recordStorage(MetricsUtil.STEP_CONTENT, item.schemaRecord, () -> DocumentCodec.encode(ContentDataUtils.addFile(configuration, createResource, item.spooledDocument, item.spooledDocument.getOriginalFilename(), null, true, t -> "somethingStupid")));
+    item.created = createResource;
+  }
+
+  /**
+   * Store a single item within its own transaction. The item is prepared again
+   * as the entities of the failed transaction are no longer usable.
+   *
+   * @param item Item to store.
+   */
+  private void storeSingleItem(Item item) {
+    item.close();
+    try {
+      prepare(item);
+      validate(item);
+      transactionTemplate.executeWithoutResult(status -> store(item));
+    } catch (RuntimeException ex) {
+      LOG.error("Error storing item '" + item.name + "'!", ex);
+      removeStoredDocument(item);
+      item.error = ex;
+    }
+  }
+
+  /**
+   * Remove document stored by a rolled back transaction.
+   *
+   * @param item Item holding stored document.
+   */
+  private static void removeStoredDocument(Item item) {
+    if (item.contentInformation != null && item.contentInformation.getContentUri() != null) {
+      try {
+        DownloadUtil.removeFile(Paths.get(URI.create(item.contentInformation.getContentUri())));
+      } catch (RuntimeException ex) {
+        LOG.warn("Can't remove document '{}': {}", item.contentInformation.getContentUri(), ex.getMessage());
+      }
+    }
+    item.contentInformation = null;
+    item.created = null;
+  }
+
+  /**
+   * Run task for all items (without error) on the bounded executor and wait for
+   * all tasks. Errors are assigned to the items.
+   *
+   * @param items Items to process.
+   * @param task Task to execute.
+   * @throws IOException Processing was interrupted.
+   */
+  private static void runParallel(List<Item> items, Consumer<Item> task) throws IOException {
+    ExecutorService executor = BulkValidator.getExecutor();
+    List<Future<?>> futures = new ArrayList<>(items.size());
+    for (Item item : items) {
+      if (item.error == null) {
+        futures.add(executor.submit(() -> {
+          try {
+            task.accept(item);
+          } catch (RuntimeException ex) {
+            LOG.trace("Item '{}' rejected: {}", item.name, ex.getMessage());
+            item.error = ex;
+          }
+        }));
+      }
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Batch ingest interrupted!");
+    } catch (ExecutionException ex) {
+      throw new IOException("Error processing items!", ex);
+    }
+  }
+
+  private static ObjectNode getStatus(Item item) {
+    ObjectNode status = MAPPER.createObjectNode();
+    status.put("index", item.index);
+    status.put("name", item.name);
+    if (item.error == null) {
+      status.put("status", HttpStatus.CREATED.value());
+      status.put("id", item.created.getId());
+      status.put("version", item.created.getVersion());
+      status.put("etag", item.created.getEtag());
+    } else {
+      status.put("status", getHttpStatus(item.error));
+      status.put("error", (item.error.getMessage() != null) ? item.error.getMessage() : item.error.toString());
+    }
+    return status;
+  }
+
+  /**
+   * Get HTTP status for exception.
+   *
+   * @param ex Exception.
+   * @return HTTP status code.
+   */
+  static int getHttpStatus(RuntimeException ex) {
+    if (ex instanceof ResponseStatusException responseStatusException) {
+      return responseStatusException.getStatusCode().value();
+    }
+    ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(ex.getClass(), ResponseStatus.class);
+    return (responseStatus != null) ? responseStatus.code().value() : HttpStatus.INTERNAL_SERVER_ERROR.value();
+  }
+
+  private static void writeLine(OutputStream outputStream, ObjectNode line) throws IOException {
+    outputStream.write(MAPPER.writeValueAsBytes(line));
+    outputStream.write('\n');
+    outputStream.flush();
+  }
+
+  /**
+   * Create reader for a multipart batch. Records and documents are paired by
+   * their order.
+   *
+   * @param records All records.
+   * @param documents All documents.
+   * @return Reader for all items.
+   */
+  public static ItemReader fromMultipart(List<MultipartFile> records, List<MultipartFile> documents) {
+    if (records.size() != documents.size()) {
+      String message = "Number of records (" + records.size() + ") and documents (" + documents.size() + ") differs!";
+      LOG.error(message);
+      throw new BadArgumentException(message);
+    }
+    int[] position = {0};
+    return () -> {
+      Item item = null;
+      if (position[0] < records.size()) {
+        MultipartFile document = documents.get(position[0]);
+        String name = (document.getOriginalFilename() != null) ? document.getOriginalFilename() : document.getName();
+        item = new Item(name, records.get(position[0]), document);
+        position[0]++;
+      }
+      return item;
+    };
+  }
+
+  /**
+   * Create reader for NDJSON. Each line holds one item:
+   * <pre>
+   * {"name":"optional name","record":{...},"document":"&lt;xml...&gt;"}
+   * </pre> The document may be a string or (for JSON documents) an object.
+   *
+   * @param inputStream Stream of NDJSON.
+   * @return Reader for all items.
+   */
+  public static ItemReader fromNdjson(InputStream inputStream) {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    int[] lineNumber = {0};
+    return () -> {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber[0]++;
+        if (!line.isBlank()) {
+          return parseLine(line, lineNumber[0]);
+        }
+      }
+      return null;
+    };
+  }
+
+  /**
+   * Parse single line of NDJSON.
+   *
+   * @param line Line holding record and document.
+   * @param lineNumber Number of the line.
+   * @return Item (with error if line is not valid).
+   */
+  static Item parseLine(String line, int lineNumber) {
+    String name = "line " + lineNumber;
+    try {
+      JsonNode node = MAPPER.readTree(line);
+      name = node.path("name").asText(name);
+      byte[] record = node.has("record") ? MAPPER.writeValueAsBytes(node.get("record")) : new byte[0];
+      JsonNode documentNode = node.path("document");
+      byte[] document;
+      String filename;
+      String contentType;
+      if (documentNode.isTextual()) {
+        document = documentNode.asText().getBytes(StandardCharsets.UTF_8);
+        boolean isXml = documentNode.asText().trim().startsWith("<");
+        filename = isXml ? "document.xml" : "document.json";
+        contentType = isXml ? MediaType.APPLICATION_XML_VALUE : MediaType.APPLICATION_JSON_VALUE;
+      } else if (documentNode.isContainerNode()) {
+        document = MAPPER.writeValueAsBytes(documentNode);
+        filename = "document.json";
+        contentType = MediaType.APPLICATION_JSON_VALUE;
+      } else {
+        document = new byte[0];
+        filename = "document";
+        contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+      }
+      filename = node.path("filename").asText(filename);
+      return new Item(name,
+              new ByteArrayDocument("record", "record.json", MediaType.APPLICATION_JSON_VALUE, record),
+              new ByteArrayDocument("document", filename, contentType, document));
+    } catch (JsonProcessingException ex) {
+      Item item = new Item(name, null, null);
+      item.error = new BadArgumentException("Invalid JSON in line " + lineNumber + ": " + ex.getOriginalMessage());
+      return item;
+    }
+  }
+
+  /**
+   * Reader for items to ingest.
+   */
+  @FunctionalInterface
+  public interface ItemReader {
+
+    /**
+     * Read next item.
+     *
+     * @return next item or null if there are no more items.
+     * @throws IOException Error reading item.
+     */
+    Item next() throws IOException;
+  }
+
+  /**
+   * Single item (record and document) to ingest.
+   */
+  public static final class Item {
+
+    private final String name;
+
+    private final MultipartFile record;
+
+    private final MultipartFile document;
+
+    private int index;
+
+    private DataResource dataResource;
+
+    private String schemaKey;
+
+    private SchemaRecord schemaRecord;
+
+    private SpooledDocument spooledDocument;
+
+    private ContentInformation contentInformation;
+
+    private DataResource created;
+
+    private RuntimeException error;
+
+    Item(String name, MultipartFile record, MultipartFile document) {
+      this.name = name;
+      this.record = record;
+      this.document = document;
+    }
+
+    /**
+     * Get name of the item.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return name;
+    }
+
+    private void close() {
+      if (spooledDocument != null) {
+        spooledDocument.close();
+        spooledDocument = null;
+      }
+    }
+  }
+
+  /**
+   * Summary of a batch ingest.
+   */
+  public static final class Summary {
+
+    private final int total;
+
+    private final int created;
+
+    Summary(int total, int created) {
+      this.total = total;
+      this.created = created;
+    }
+
+    /**
+     * Get number of items.
+     *
+     * @return the total
+     */
+    public int getTotal() {
+      return total;
+    }
+
+    /**
+     * Get number of created records.
+     *
+     * @return the created
+     */
+    public int getCreated() {
+      return created;
+    }
+
+    /**
+     * Get number of rejected items.
+     *
+     * @return the failed
+     */
+    public int getFailed() {
+      return total - created;
+    }
+  }
+
+  /**
+   * Document held in memory.
+   */
+  private static final class ByteArrayDocument implements MultipartFile {
+
+    private final String name;
+
+    private final String originalFilename;
+
+    private final String contentType;
+
+    private final byte[] content;
+
+    ByteArrayDocument(String name, String originalFilename, String contentType, byte[] content) {
+      this.name = name;
+      this.originalFilename = originalFilename;
+      this.contentType = contentType;
+      this.content = content;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+      return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+      return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return content.length == 0;
+    }
+
+    @Override
+    public long getSize() {
+      return content.length;
+    }
+
+    @Override
+    public byte[] getBytes() {
+      return content;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+      Files.write(dest.toPath(), content);
+    }
+  }
+}
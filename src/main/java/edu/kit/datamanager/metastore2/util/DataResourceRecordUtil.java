@@ -28,7 +28,11 @@ import edu.kit.datamanager.metastore2.dao.IUrl2PathDao;
 import edu.kit.datamanager.metastore2.domain.*;
 import edu.kit.datamanager.metastore2.domain.ResourceIdentifier.IdentifierType;
 import edu.kit.datamanager.metastore2.domain.oaipmh.MetadataFormat;
+import edu.kit.datamanager.metastore2.oaipmh.util.CrosswalkCache;
+import edu.kit.datamanager.metastore2.validation.BulkValidator;
+import edu.kit.datamanager.metastore2.validation.CompiledSchemaCache;
 import edu.kit.datamanager.metastore2.validation.IValidator;
+import edu.kit.datamanager.metastore2.validation.ValidationResult;
 import edu.kit.datamanager.metastore2.web.impl.MetadataControllerImplV2;
 import edu.kit.datamanager.metastore2.web.impl.SchemaRegistryControllerImplV2;
 import edu.kit.datamanager.repo.configuration.RepoBaseConfiguration;
@@ -41,8 +45,11 @@ import edu.kit.datamanager.repo.util.ContentDataUtils;
 import edu.kit.datamanager.repo.util.DataResourceUtils;
 import edu.kit.datamanager.util.AuthenticationHelper;
 import edu.kit.datamanager.util.ControllerUtils;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.core.util.Json;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -62,12 +69,14 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 import static edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord.SCHEMA_TYPE.JSON;
 import static edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord.SCHEMA_TYPE.XML;
@@ -99,6 +108,22 @@ public class DataResourceRecordUtil {
    * Separator for separating schemaId and schemaVersion.
    */
   public static final String SCHEMA_VERSION_SEPARATOR = "/";
+  /**
+   * Separator between algorithm and value of a hash.
+   */
+  public static final String HASH_SEPARATOR = ":";
+  /**
+   * Name of the timer for reading records by id and version.
+   */
+  public static final String METRIC_RECORD_LOOKUP = "metastore_record_lookup";
+  /**
+   * Lookup of the current version (database).
+   */
+  private static final String LOOKUP_CURRENT = "current";
+  /**
+   * Lookup of an older version (audit log).
+   */
+  private static final String LOOKUP_VERSION = "version";
   /**
    * Logger for messages.
    */
@@ -209,9 +234,9 @@ public class DataResourceRecordUtil {
     metadataRecord.setVersion(Long.toString(1));
     // create record.
     DataResource dataResource = metadataRecord;
-    DataResource createResource = DataResourceUtils.createResource(applicationProperties, dataResource);
+    DataResource createResource = MetricsUtil.recordStorage(MetricsUtil.STEP_RECORD, null, () -> DataResourceUtils.createResource(applicationProperties, dataResource));
     // store document
-    ContentInformation contentInformation = ContentDataUtils.addFile(applicationProperties, createResource, document, document.getOriginalFilename(), null, true, t -> "somethingStupid");
+    ContentInformation contentInformation = MetricsUtil.recordStorage(MetricsUtil.STEP_CONTENT, null, () -> ContentDataUtils.addFile(applicationProperties, createResource, document, document.getOriginalFilename(), null, true, t -> "somethingStupid"));
     // Create schema record
     SchemaRecord schemaRecord = createSchemaRecord(dataResource, contentInformation);
     MetadataSchemaRecordUtil.saveNewSchemaRecord(schemaRecord);
@@ -262,19 +287,113 @@ public class DataResourceRecordUtil {
     // End of parameter checks
     // Fix internal references, of necessary
     fixRelatedSchemaIfNeeded(dataResource);
-    // validate schema document / determine or correct resource type
-    validateMetadataDocument(applicationProperties, dataResource, document);
-
-    dataResource.setVersion(getSchemaRecordFromDataResource(dataResource).getVersion().toString());
-    // create record.
-    DataResource createResource = DataResourceUtils.createResource(applicationProperties, dataResource);
-    // store document
-    ContentDataUtils.addFile(applicationProperties, createResource, document, document.getOriginalFilename(), null, true, t -> "somethingStupid");
+    // validate and spool metadata document / determine or correct resource type
+    try (SpooledDocument spooledDocument = validateAndSpoolMetadataDocument(applicationProperties, dataResource, document)) {
+      dataResource.setVersion(getSchemaRecordFromDataResource(dataResource).getVersion().toString());
+      // create record.
+      DataResource dataResource4Create = dataResource;
+      DataResource createResource = MetricsUtil.recordStorage(MetricsUtil.STEP_RECORD, null, () -> DataResourceUtils.createResource(applicationProperties, dataResource4Create));
+      // store document
+      MetricsUtil.recordStorage(MetricsUtil.STEP_CONTENT, null, () -> DocumentCodec.encode(ContentDataUtils.addFile(applicationProperties, createResource, spooledDocument, spooledDocument.getOriginalFilename(), null, true, t -> "somethingStupid")));
+    }
     dataResource = DataResourceRecordUtil.getMetadataRecordByIdAndVersion(applicationProperties, dataResource.getId(), Long.valueOf(dataResource.getVersion()));
 
     return dataResource;
   }
 
+  /**
+   * Parse and check metadata record for creating a new metadata document.
+   * Schemas referenced by URL are replaced by internal references.
+   *
+   * @param recordDocument Record of the metadata.
+   * @param document Metadata document.
+   * @return Checked metadata record.
+   */
+  public static DataResource getDataResource4Create(MultipartFile recordDocument, MultipartFile document) {
+    DataResource dataResource = checkParameters(recordDocument, document, true);
+    Objects.requireNonNull(dataResource);
+    validateRelatedResources4MetadataDocuments(dataResource);
+    resolveSchemaIdentifier4Create(dataResource);
+    if (dataResource.getId() != null) {
+      // Optional id set. Check for valid ID
+      check4validId(dataResource, true);
+    }
+    return dataResource;
+  }
+
+  /**
+   * Replace schema referenced by URL with internal reference. Only URLs of
+   * registered schemas are supported.
+   *
+   * @param metadataRecord Metadata record holding schema identifier.
+   */
+  public static void resolveSchemaIdentifier4Create(DataResource metadataRecord) {
+    LOG.debug("Test for existing metadata record for given schema and resource");
+    RelatedIdentifier schemaIdentifier;
+    schemaIdentifier = getSchemaIdentifier(metadataRecord);
+    switch (schemaIdentifier.getIdentifierType()) {
+      case INTERNAL:
+        // nothing to do
+        break;
+      case URL:
+        SchemaRecord schemaRecord = SchemaRecordCache.findByAlternateId(schemaIdentifier.getValue());
+        if (schemaRecord == null) {
+          String message = "External URLs are not supported yet!\n"
+                  + "But '" + schemaIdentifier.getValue() + "' seems not to be an internal one!\n"
+                  + "Hint: Maybe version number is missing (e.g.: [...]?version=1";
+          LOG.error(message);
+          throw new ResourceNotFoundException(message);
+        }
+        schemaIdentifier.setValue(schemaRecord.getSchemaId());
+        schemaIdentifier.setIdentifierType(Identifier.IDENTIFIER_TYPE.INTERNAL);
+        break;
+      default:
+        throw new UnprocessableEntityException("Schema referenced by '" + schemaIdentifier.getIdentifierType().toString() + "' is not supported yet!");
+    }
+  }
+
+  /**
+   * Get schema record referenced by metadata record.
+   *
+   * @param dataResource Metadata record.
+   * @return Record of the schema.
+   */
+  public static SchemaRecord getSchemaRecord4Create(DataResource dataResource) {
+    SchemaRecord schemaRecord = getSchemaRecordFromDataResource(dataResource);
+    if (schemaRecord == null) {
+      RelatedIdentifier relatedIdentifier = getSchemaIdentifier(dataResource);
+      String identifier = relatedIdentifier != null ? relatedIdentifier.getValue() : "is not defined and therefor";
+      throw new UnprocessableEntityException("Schema '" + identifier + "' is not known!");
+    }
+    return schemaRecord;
+  }
+
+  /**
+   * Validate metadata document with the given (already resolved) schema while
+   * spooling it to local disc. Reference to schema and resource type of the
+   * metadata record are set accordingly.
+   *
+   * @param metastoreProperties Configuration for accessing services
+   * @param dataResource Metadata record (see getDataResource4Create).
+   * @param document Metadata document.
+   * @param schemaRecord Record of the schema.
+   * @return Spooled (and valid) document. Has to be closed by the caller.
+   */
+  public static SpooledDocument validateAndSpool4Create(MetastoreConfiguration metastoreProperties,
+          DataResource dataResource,
+          MultipartFile document,
+          SchemaRecord schemaRecord) {
+    RelatedIdentifier relatedIdentifier = getSchemaIdentifier(dataResource);
+    if (relatedIdentifier != null && relatedIdentifier.getIdentifierType() == Identifier.IDENTIFIER_TYPE.INTERNAL) {
+      relatedIdentifier.setIdentifierType(Identifier.IDENTIFIER_TYPE.URL);
+      relatedIdentifier.setValue(schemaRecord.getAlternateId());
+    }
+    SpooledDocument spooledDocument = spoolMetadataDocument(metastoreProperties, document, schemaRecord);
+    dataResource.setResourceType(ResourceType.createResourceType(schemaRecord.getType() + METADATA_SUFFIX, ResourceType.TYPE_GENERAL.MODEL));
+    dataResource.setVersion(schemaRecord.getVersion().toString());
+    return spooledDocument;
+  }
+
   /**
    * Update a digital object with given metadata record and/or metadata
    * document.
@@ -311,6 +430,7 @@ public class DataResourceRecordUtil {
     DataResource oldDataResource = applicationProperties.getDataResourceService().findById(resourceId);
     ControllerUtils.checkEtag(eTag, oldDataResource);
     LOG.trace("ETag: '{}'", oldDataResource.getEtag());
+    DataResource previousVersion = DataResourceUtils.copyDataResource(oldDataResource);
     DataResource mergedDataResource = mergeDataResource(oldDataResource, givenDataResource);
     updatedDataResource = fixRelatedSchemaIfNeeded(mergedDataResource);
 
@@ -323,8 +443,7 @@ public class DataResourceRecordUtil {
       if (info != null) {
         Path metadataDocumentPath = testForRegularFile(info.getContentUri());
         // test if document is still valid for updated(?) schema.
-        try {
-          InputStream inputStream = Files.newInputStream(metadataDocumentPath);
+        try (InputStream inputStream = DocumentCodec.newInputStream(metadataDocumentPath)) {
           SchemaRecord schemaRecord = DataResourceRecordUtil.getSchemaRecordFromDataResource(updatedDataResource);
           MetadataSchemaRecordUtil.validateMetadataDocument(applicationProperties, inputStream, schemaRecord);
         } catch (IOException ex) {
@@ -335,7 +454,9 @@ public class DataResourceRecordUtil {
       }
 
     }
-    oldDataResource = DataResourceUtils.updateResource(applicationProperties, resourceId, updatedDataResource, eTag, supplier);
+    oldDataResource = MetricsUtil.recordStorage(MetricsUtil.STEP_RECORD, null, () -> DataResourceUtils.updateResource(applicationProperties, resourceId, updatedDataResource, eTag, supplier));
+    VersionSnapshotUtil.putIfSuperseded(previousVersion, oldDataResource);
+    CrosswalkCache.invalidate(resourceId);
 
     return oldDataResource;
   }
@@ -392,6 +513,7 @@ public class DataResourceRecordUtil {
           String eTag,
           UnaryOperator<String> supplier) {
     DataResourceUtils.deleteResource(applicationProperties, id, eTag, supplier);
+    CrosswalkCache.invalidate(id);
     try {
       DataResourceUtils.getResourceByIdentifierOrRedirect(applicationProperties, id, null, supplier);
     } catch (ResourceNotFoundException rnfe) {
@@ -526,43 +648,71 @@ public class DataResourceRecordUtil {
           MultipartFile document,
           SchemaRecord schemaRecord) {
     LOG.trace("validateMetadataDocument (schemaRecord) {},{}, {}", metastoreProperties, schemaRecord, document);
+    checkForMissingDocument(document);
+    try (InputStream inputStream = document.getInputStream()) {
+      validateMetadataDocument(metastoreProperties, inputStream, schemaRecord);
+    } catch (IOException ex) {
+      String message = LOG_ERROR_READ_METADATA_DOCUMENT;
+      LOG.error(message, ex);
+      throw new UnprocessableEntityException(message);
+    }
+  }
+
+  /**
+   * Spool metadata document to local disc and validate it with given schema
+   * while spooling. The document is read only once.
+   *
+   * @param metastoreProperties Configuration for accessing services
+   * @param document document
+   * @param schemaRecord metadata of the schema document.
+   * @return Spooled (and valid) document. Has to be closed by the caller.
+   */
+  private static SpooledDocument spoolMetadataDocument(MetastoreConfiguration metastoreProperties,
+          MultipartFile document,
+          SchemaRecord schemaRecord) {
+    LOG.trace("spoolMetadataDocument (schemaRecord) {},{}, {}", metastoreProperties, schemaRecord, document);
+    checkForMissingDocument(document);
+    MetricsUtil.setSchema(schemaRecord);
+    SpooledDocument spooledDocument = SpooledDocument.spool(metastoreProperties, document, inputStream -> validateMetadataDocument(metastoreProperties, inputStream, schemaRecord));
+    MetricsUtil.recordDocumentSize(schemaRecord, spooledDocument.getSize());
+    return spooledDocument;
+  }
+
+  /**
+   * Check for missing or empty document.
+   *
+   * @param document document
+   */
+  private static void checkForMissingDocument(MultipartFile document) {
     if (document == null || document.isEmpty()) {
       String message = "Missing metadata document in body. Returning HTTP BAD_REQUEST.";
       LOG.error(message);
       throw new BadArgumentException(message);
     }
+  }
+
+  /**
+   * Validate metadata document with given schema.
+   *
+   * @param metastoreProperties Configuration for accessing services
+   * @param document Stream of the document.
+   * @param schemaRecord metadata of the schema document.
+   */
+  private static void validateMetadataDocument(MetastoreConfiguration metastoreProperties,
+          InputStream document,
+          SchemaRecord schemaRecord) {
     URI pathToSchemaFile = URI.create(schemaRecord.getSchemaDocumentUri());
     try {
       switch (pathToSchemaFile.getScheme()) {
         case "file":
           // check file
           Path schemaDocumentPath = testForRegularFile(schemaRecord.getSchemaDocumentUri());
-
-          byte[] schemaDocument = FileUtils.readFileToByteArray(schemaDocumentPath.toFile());
-          IValidator applicableValidator;
-          String mediaType = null;
-          switch (schemaRecord.getType()) {
-            case JSON:
-              mediaType = MediaType.APPLICATION_JSON_VALUE;
-              break;
-            case XML:
-              mediaType = MediaType.APPLICATION_XML_VALUE;
-              break;
-            default:
-              LOG.error("Unkown schema type: '" + schemaRecord.getType() + "'");
-          }
-          applicableValidator = getValidatorForRecord(metastoreProperties, mediaType, schemaDocument);
-          if (applicableValidator == null) {
-            String message = "No validator found for schema type " + mediaType;
-            LOG.error(message);
-            throw new UnprocessableEntityException(message);
-          } else {
-            LOG.trace("Validator found.");
-            LOG.trace("Performing validation of metadata document using schema {}, version {} and validator {}.", schemaRecord.getSchemaId(), schemaRecord.getVersion(), applicableValidator);
-            if (!applicableValidator.validateMetadataDocument(schemaDocumentPath.toFile(), document.getInputStream())) {
-              LOG.warn("Metadata document validation failed. -> " + applicableValidator.getErrorMessage());
-              throw new UnprocessableEntityException(applicableValidator.getErrorMessage());
-            }
+          IValidator applicableValidator = getValidatorForSchemaRecord(metastoreProperties, schemaRecord, schemaDocumentPath);
+          LOG.trace("Performing validation of metadata document using schema {}, version {} and validator {}.", schemaRecord.getSchemaId(), schemaRecord.getVersion(), applicableValidator);
+          ValidationResult validationResult = MetricsUtil.recordValidation(schemaRecord, () -> applicableValidator.validateMetadataDocument(schemaRecord, schemaDocumentPath.toFile(), document));
+          if (!validationResult.isValid()) {
+            LOG.warn("Metadata document validation failed. -> " + validationResult.getErrorMessage());
+            throw new UnprocessableEntityException(validationResult.getErrorMessage());
           }
           LOG.trace("Metadata document validation succeeded.");
           break;
@@ -577,6 +727,45 @@ public class DataResourceRecordUtil {
     }
   }
 
+  /**
+   * Get validator for given schema.
+   *
+   * @param metastoreProperties Configuration for accessing services
+   * @param schemaRecord metadata of the schema document.
+   * @param schemaDocumentPath Path to the schema document.
+   * @return Applicable validator.
+   * @throws IOException Error reading schema document.
+   */
+  private static IValidator getValidatorForSchemaRecord(MetastoreConfiguration metastoreProperties,
+          SchemaRecord schemaRecord,
+          Path schemaDocumentPath) throws IOException {
+    byte[] schemaDocument = null;
+    IValidator applicableValidator;
+    String mediaType = null;
+    switch (schemaRecord.getType()) {
+      case JSON:
+        mediaType = MediaType.APPLICATION_JSON_VALUE;
+        break;
+      case XML:
+        mediaType = MediaType.APPLICATION_XML_VALUE;
+        break;
+      default:
+        LOG.error("Unkown schema type: '" + schemaRecord.getType() + "'");
+    }
+    if (mediaType == null) {
+      // Schema document is only needed to guess the type.
+      schemaDocument = FileUtils.readFileToByteArray(schemaDocumentPath.toFile());
+    }
+    applicableValidator = getValidatorForRecord(metastoreProperties, mediaType, schemaDocument);
+    if (applicableValidator == null) {
+      String message = "No validator found for schema type " + mediaType;
+      LOG.error(message);
+      throw new UnprocessableEntityException(message);
+    }
+    LOG.trace("Validator found.");
+    return applicableValidator;
+  }
+
   public static DataResource getRecordById(MetastoreConfiguration metastoreProperties,
           String recordId) throws ResourceNotFoundException {
     return getRecordByIdAndVersion(metastoreProperties, recordId, null);
@@ -602,36 +791,188 @@ public class DataResourceRecordUtil {
 
   public static DataResource getRecordByIdAndVersion(MetastoreConfiguration metastoreProperties,
           String recordId, Long version) throws ResourceNotFoundException {
+    return getRecordByIdAndVersion(metastoreProperties, recordId, version, "Document");
+  }
+
+  /**
+   * Get data resource by id and version. The current version is read directly
+   * from the database. Older versions are read from the snapshots or (if not
+   * available) from the audit log (one single version instead of all
+   * versions). The duration of the lookup is recorded by timer
+   * 'metastore_record_lookup' (tag 'lookup': 'current' or 'version').
+   *
+   * @param metastoreProperties Configuration.
+   * @param recordId Id of the record.
+   * @param version Version of the record (null for current version).
+   * @param documentLabel Label of the document used for error messages.
+   * @return Copy of the data resource.
+   * @throws ResourceNotFoundException Record or version doesn't exist.
+   */
+  static DataResource getRecordByIdAndVersion(MetastoreConfiguration metastoreProperties,
+          String recordId, Long version, String documentLabel) throws ResourceNotFoundException {
     LOG.trace("Obtaining record with id {} and version {}.", recordId, version);
     //if security enabled, check permission -> if not matching, return HTTP UNAUTHORIZED or FORBIDDEN
-    long nano = System.nanoTime() / 1000000;
-    long nano2;
-    Page<DataResource> dataResource;
+    Timer.Sample sample = Timer.start();
+    String lookup = LOOKUP_CURRENT;
     try {
-      dataResource = metastoreProperties.getDataResourceService().findAllVersions(recordId, null);
-      if (LOG.isTraceEnabled()) {
-        for (DataResource item : dataResource.getContent()) {
-          LOG.trace("Id: '{}' - Version: '{}' -> Type: '{}'", item.getId(), item.getVersion(), item.getResourceType().toString());
-        }
+      DataResource currentResource;
+      if (dataResourceDao != null) {
+        currentResource = dataResourceDao.findById(recordId).orElse(null);
+      } else {
+        currentResource = findCurrentResource(metastoreProperties, recordId);
       }
-    } catch (ResourceNotFoundException ex) {
-      ex.setDetail("Document with ID '" + recordId + "' doesn't exist!");
-      throw ex;
+      if (currentResource == null) {
+        String message = documentLabel + " with ID '" + recordId + "' doesn't exist!";
+        LOG.error(message);
+        ResourceNotFoundException rnfe = new ResourceNotFoundException(message);
+        rnfe.setDetail(message);
+        throw rnfe;
+      }
+      long currentVersion = Long.parseLong(currentResource.getVersion());
+      if (version == null || version == currentVersion) {
+        return DataResourceUtils.copyDataResource(currentResource);
+      }
+      lookup = LOOKUP_VERSION;
+      if (version <= 0 || version > currentVersion) {
+        String message = String.format("Version '%d' of ID '%s' doesn't exist!", version, recordId);
+        LOG.error(message);
+        throw new ResourceNotFoundException(message);
+      }
+      Optional<DataResource> snapshot = VersionSnapshotUtil.get(recordId, version);
+      return snapshot.isPresent() ? snapshot.get() : getSupersededVersionFromAudit(metastoreProperties, recordId, version);
+    } finally {
+      sample.stop(Timer.builder(METRIC_RECORD_LOOKUP).
+              description("Duration of reading a record by id and version.").
+              tag("lookup", lookup).
+              register(Metrics.globalRegistry));
     }
-    nano2 = System.nanoTime() / 1000000;
-    Stream<DataResource> stream = dataResource.get();
-    if (version != null) {
-      stream = stream.filter(resource -> Long.parseLong(resource.getVersion()) == version);
+  }
+
+  /**
+   * Get all versions of a data resource in descending order starting with the
+   * given version. Superseded versions are read from the snapshots with a
+   * single query. Missing snapshots are created from the audit log.
+   *
+   * @param metastoreProperties Configuration.
+   * @param currentResource Current version of the data resource.
+   * @param highestVersion Highest version to return.
+   * @param maxNoOfVersions Maximum number of versions to return.
+   * @return List of versions (highest version first).
+   */
+  public static List<DataResource> getRecordVersions(MetastoreConfiguration metastoreProperties,
+          DataResource currentResource, long highestVersion, long maxNoOfVersions) {
+    String recordId = currentResource.getId();
+    long currentVersion = Long.parseLong(currentResource.getVersion());
+    long highest = Math.min(highestVersion, currentVersion);
+    long lowest = Math.max(1L, highest - maxNoOfVersions + 1);
+    List<DataResource> versions = new ArrayList<>();
+    Map<Long, DataResource> snapshots = VersionSnapshotUtil.getVersions(recordId, lowest, Math.min(highest, currentVersion - 1));
+    Map<Long, DataResource> auditVersions = null;
+    for (long version = highest; version >= lowest; version--) {
+      DataResource dataResource;
+      if (version == currentVersion) {
+        dataResource = DataResourceUtils.copyDataResource(currentResource);
+      } else if (snapshots.containsKey(version)) {
+        dataResource = snapshots.get(version);
+      } else {
+        if (auditVersions == null) {
+          // Read all missing versions with one pass through the audit log.
+          auditVersions = findVersionsInAuditLog(metastoreProperties, recordId, lowest, version);
+        }
+        dataResource = getSupersededVersionFromAudit(auditVersions, recordId, version);
+      }
+      versions.add(dataResource);
     }
-    Optional<DataResource> findFirst = stream.findFirst();
-    if (findFirst.isEmpty()) {
+    return versions;
+  }
+
+  /**
+   * Get superseded version from audit log and store snapshot of it.
+   *
+   * @param metastoreProperties Configuration.
+   * @param recordId Id of the record.
+   * @param version Version of the record.
+   * @return Data resource.
+   * @throws ResourceNotFoundException Version doesn't exist.
+   */
+  private static DataResource getSupersededVersionFromAudit(MetastoreConfiguration metastoreProperties,
+          String recordId, long version) throws ResourceNotFoundException {
+    return getSupersededVersionFromAudit(findVersionsInAuditLog(metastoreProperties, recordId, version, version), recordId, version);
+  }
+
+  /**
+   * Get superseded version from versions read from audit log and store
+   * snapshot of it.
+   *
+   * @param auditVersions Versions read from audit log.
+   * @param recordId Id of the record.
+   * @param version Version of the record.
+   * @return Data resource.
+   * @throws ResourceNotFoundException Version doesn't exist.
+   */
+  private static DataResource getSupersededVersionFromAudit(Map<Long, DataResource> auditVersions,
+          String recordId, long version) throws ResourceNotFoundException {
+    DataResource result = auditVersions.get(version);
+    if (result == null) {
       String message = String.format("Version '%d' of ID '%s' doesn't exist!", version, recordId);
       LOG.error(message);
       throw new ResourceNotFoundException(message);
     }
-    long nano3 = System.nanoTime() / 1000000;
-    LOG.info("getRecordByIdAndVersion {}, {}, {}", nano, (nano2 - nano), (nano3 - nano));
-    return findFirst.get();
+    VersionSnapshotUtil.put(result);
+    return result;
+  }
+
+  /**
+   * Get versions of a data resource from the audit log. The audit log holds
+   * one entry per update but an update of the metadata only doesn't change the
+   * version of the data resource. Therefore the audit log is read backwards and
+   * the latest entry of each version is taken.
+   *
+   * @param metastoreProperties Configuration.
+   * @param recordId Id of the record.
+   * @param lowestVersion Lowest version (inclusive).
+   * @param highestVersion Highest version (inclusive).
+   * @return Map holding the versions found in audit log with version as key.
+   */
+  public static Map<Long, DataResource> findVersionsInAuditLog(MetastoreConfiguration metastoreProperties,
+          String recordId, long lowestVersion, long highestVersion) {
+    return MetricsUtil.recordStorage(MetricsUtil.STEP_AUDIT, null, () -> {
+      Map<Long, DataResource> versions = new HashMap<>();
+      long expectedVersions = highestVersion - lowestVersion + 1;
+      long auditVersion = metastoreProperties.getAuditService().getCurrentVersion(recordId);
+      for (; auditVersion > 0 && versions.size() < expectedVersions; auditVersion--) {
+        Optional<DataResource> resourceByVersion = metastoreProperties.getAuditService().getResourceByVersion(recordId, auditVersion);
+        if (resourceByVersion.isEmpty() || resourceByVersion.get().getVersion() == null) {
+          continue;
+        }
+        long version = Long.parseLong(resourceByVersion.get().getVersion());
+        if (version < lowestVersion) {
+          break;
+        }
+        if (version <= highestVersion) {
+          versions.putIfAbsent(version, resourceByVersion.get());
+        }
+      }
+      LOG.trace("Found {} version(s) of '{}' in audit log.", versions.size(), recordId);
+      return versions;
+    });
+  }
+
+  /**
+   * Get current version of data resource via service (if DAO is not
+   * available).
+   *
+   * @param metastoreProperties Configuration.
+   * @param recordId Id of the record.
+   * @return Current version or null if not available.
+   */
+  private static DataResource findCurrentResource(MetastoreConfiguration metastoreProperties, String recordId) {
+    try {
+      return metastoreProperties.getDataResourceService().findById(recordId);
+    } catch (ResourceNotFoundException rnfe) {
+      LOG.trace("Record '{}' not found.", recordId);
+      return null;
+    }
   }
 
   public static ContentInformation getContentInformationByIdAndVersion(MetastoreConfiguration metastoreProperties,
@@ -1017,11 +1358,11 @@ public class DataResourceRecordUtil {
         case 2:
           schemaId = tokenizer.nextToken();
           version = Long.parseLong(tokenizer.nextToken());
-          schemaRecord = schemaRecordDao.findBySchemaId(schemaId + SCHEMA_VERSION_SEPARATOR + version);
+          schemaRecord = SchemaRecordCache.findBySchemaId(schemaId + SCHEMA_VERSION_SEPARATOR + version);
           break;
         case 1:
           schemaId = tokenizer.nextToken();
-          schemaRecord = schemaRecordDao.findFirstBySchemaIdStartsWithOrderByVersionDesc(schemaId + SCHEMA_VERSION_SEPARATOR);
+          schemaRecord = SchemaRecordCache.findLatestVersion(schemaId);
           break;
         default:
           throw new CustomInternalServerError("Invalid schemaId!");
@@ -1115,6 +1456,18 @@ public class DataResourceRecordUtil {
     return getRelatedIdentifier(dataResourceRecord, DataResourceRecordUtil.RELATED_SCHEMA_TYPE);
   }
 
+  /**
+   * Get schemaId (without version) of the schema referenced by a metadata
+   * record.
+   *
+   * @param dataResourceRecord Metadata record holding schema identifier.
+   * @return SchemaId or null if schema is not registered.
+   */
+  public static String getSchemaIdOfMetadataRecord(DataResource dataResourceRecord) {
+    SchemaRecord schemaRecord = getSchemaRecordFromDataResource(dataResourceRecord);
+    return (schemaRecord != null) ? schemaRecord.getSchemaIdWithoutVersion() : null;
+  }
+
   /**
    * Transform schema identifier to global available identifier (if neccessary).
    *
@@ -1208,7 +1561,7 @@ public class DataResourceRecordUtil {
         LOG.trace("Validator found. Checking provided schema file.");
         LOG.trace("Performing validation of metadata document using schema {}, version {} and validator {}.", dataResource.getId(), dataResource.getVersion(), applicableValidator);
         try (InputStream inputStream = new ByteArrayInputStream(document)) {
-          if (!applicableValidator.isSchemaValid(inputStream)) {
+          if (!applicableValidator.validateSchemaDocument(inputStream).isValid()) {
             String message = "Metadata schema document validation failed. Returning HTTP UNPROCESSABLE_ENTITY.";
             LOG.warn(message);
             if (LOG.isTraceEnabled()) {
@@ -1248,12 +1601,9 @@ public class DataResourceRecordUtil {
         LOG.debug("Automatically detected mimetype of schema: '{}' -> '{}'.", formatDetected, type);
       }
     }
-    for (IValidator validator : metastoreProperties.getValidators()) {
-      if (validator.supportsMimetype(mimeType)) {
-        applicableValidator = validator.getInstance();
-        LOG.trace("Found validator for mime type: '{}'", mimeType);
-        return applicableValidator;
-      }
+    applicableValidator = metastoreProperties.getValidatorForMimetype(mimeType);
+    if (applicableValidator != null) {
+      LOG.trace("Found validator for mime type: '{}'", mimeType);
     }
     return applicableValidator;
   }
@@ -1280,12 +1630,9 @@ public class DataResourceRecordUtil {
       }
     }
     String schemaType = schemaRecord.getResourceType().getValue().replace(SCHEMA_SUFFIX, "").replace(METADATA_SUFFIX, "");
-    for (IValidator validator : metastoreProperties.getValidators()) {
-      if (validator.supportsSchemaType(MetadataSchemaRecord.SCHEMA_TYPE.valueOf(schemaType))) {
-        applicableValidator = validator.getInstance();
-        LOG.trace("Found validator for schema: '{}'", schemaType);
-        return applicableValidator;
-      }
+    applicableValidator = metastoreProperties.getValidatorForSchemaType(MetadataSchemaRecord.SCHEMA_TYPE.valueOf(schemaType));
+    if (applicableValidator != null) {
+      LOG.trace("Found validator for schema: '{}'", schemaType);
     }
     return applicableValidator;
   }
@@ -1345,6 +1692,49 @@ public class DataResourceRecordUtil {
           String schemaId,
           Long version) {
     LOG.trace("validateMetadataDocument (schemaId) {},SchemaID {}, Version {}, {}", metastoreProperties, schemaId, version, document);
+    SchemaRecord schemaRecord = getSchemaRecord(metastoreProperties, schemaId, version);
+    validateMetadataDocument(metastoreProperties, document, schemaRecord);
+  }
+
+  /**
+   * Create validator for validating many metadata documents with the given
+   * schema. The schema is resolved only once.
+   *
+   * @param metastoreProperties Configuration for accessing services
+   * @param schemaId SchemaId of schema.
+   * @param version Version of the schema (may be null for the latest version).
+   * @return Validator for many documents.
+   */
+  public static BulkValidator createBulkValidator(MetastoreConfiguration metastoreProperties,
+          String schemaId,
+          Long version) {
+    LOG.trace("createBulkValidator {},SchemaID {}, Version {}", metastoreProperties, schemaId, version);
+    SchemaRecord schemaRecord = getSchemaRecord(metastoreProperties, schemaId, version);
+    URI pathToSchemaFile = URI.create(schemaRecord.getSchemaDocumentUri());
+    if (!"file".equals(pathToSchemaFile.getScheme())) {
+      throw new CustomInternalServerError("Protocol of schema ('" + pathToSchemaFile.getScheme() + "') is not supported yet!");
+    }
+    Path schemaDocumentPath = testForRegularFile(schemaRecord.getSchemaDocumentUri());
+    try {
+      IValidator applicableValidator = getValidatorForSchemaRecord(metastoreProperties, schemaRecord, schemaDocumentPath);
+      return new BulkValidator(schemaRecord, applicableValidator, schemaDocumentPath.toFile());
+    } catch (IOException ex) {
+      LOG.error("Error reading schema document!", ex);
+      throw new CustomInternalServerError("Schema '" + pathToSchemaFile + "' is not accessible!");
+    }
+  }
+
+  /**
+   * Get schema record for given schemaId and version.
+   *
+   * @param metastoreProperties Configuration for accessing services
+   * @param schemaId SchemaId of schema.
+   * @param version Version of the schema (may be null for the latest version).
+   * @return Record of the schema.
+   */
+  private static SchemaRecord getSchemaRecord(MetastoreConfiguration metastoreProperties,
+          String schemaId,
+          Long version) {
     SchemaRecord schemaRecord;
     DataResource dataResource = DataResourceRecordUtil.getRecordById(metastoreProperties, schemaId);
     if (dataResource == null) {
@@ -1354,16 +1744,16 @@ public class DataResourceRecordUtil {
     }
     schemaId = dataResource.getId();
     if (version != null) {
-      schemaRecord = schemaRecordDao.findBySchemaId(schemaId + SCHEMA_VERSION_SEPARATOR + version);
+      schemaRecord = SchemaRecordCache.findBySchemaId(schemaId + SCHEMA_VERSION_SEPARATOR + version);
     } else {
-      schemaRecord = schemaRecordDao.findBySchemaIdStartsWithOrderByVersionDesc(schemaId + SCHEMA_VERSION_SEPARATOR).get(0);
+      schemaRecord = SchemaRecordCache.findLatestVersion(schemaId);
     }
     if (schemaRecord == null) {
       String message = "Unknown version '" + version + "' for schemaID '" + schemaId + "'!";
       LOG.error(message);
       throw new ResourceNotFoundException(message);
     }
-    validateMetadataDocument(metastoreProperties, document, schemaRecord);
+    return schemaRecord;
   }
 
   private static SchemaRecord getSchemaRecordFromDataResource(DataResource dataResource) {
@@ -1375,15 +1765,15 @@ public class DataResourceRecordUtil {
       LOG.trace("getSchemaRecordFromDataResource: '{}'", schemaId);
       switch (schemaIdentifier.getIdentifierType()) {
         case URL:
-          schemaRecord = schemaRecordDao.findByAlternateId(schemaIdentifier.getValue());
+          schemaRecord = SchemaRecordCache.findByAlternateId(schemaIdentifier.getValue());
           break;
         case INTERNAL:
           String[] split;
           split = schemaId.split(SCHEMA_VERSION_SEPARATOR, -1);
           if (split.length == 1) {
-            schemaRecord = schemaRecordDao.findFirstBySchemaIdStartsWithOrderByVersionDesc(schemaId + SCHEMA_VERSION_SEPARATOR);
+            schemaRecord = SchemaRecordCache.findLatestVersion(schemaId);
           } else {
-            schemaRecord = schemaRecordDao.findBySchemaId(schemaId);
+            schemaRecord = SchemaRecordCache.findBySchemaId(schemaId);
           }
           break;
         default:
@@ -1452,13 +1842,16 @@ public class DataResourceRecordUtil {
     LOG.trace("Checking provided ETag.");
     ControllerUtils.checkEtag(eTag, oldDataResource);
     LOG.trace("ETag: '{}'", oldDataResource.getEtag());
+    DataResource previousVersion = DataResourceUtils.copyDataResource(oldDataResource);
     updatedDataResource = mergeDataResource(oldDataResource, givenDataResource);
     if (schemaDocument != null) {
       updateSchemaDocument(applicationProperties, updatedDataResource, schemaDocument, supplier);
     } else {
       updateOnlyMetadata4SchemaDocument(applicationProperties, updatedDataResource);
     }
-    updatedDataResource = DataResourceUtils.updateResource(applicationProperties, updatedDataResource.getId(), updatedDataResource, eTag, supplier);
+    DataResource dataResource4Update = updatedDataResource;
+    updatedDataResource = MetricsUtil.recordStorage(MetricsUtil.STEP_RECORD, null, () -> DataResourceUtils.updateResource(applicationProperties, dataResource4Update.getId(), dataResource4Update, eTag, supplier));
+    VersionSnapshotUtil.putIfSuperseded(previousVersion, updatedDataResource);
 
     return updatedDataResource;
   }
@@ -1468,24 +1861,24 @@ public class DataResourceRecordUtil {
           MultipartFile document,
           UnaryOperator<String> supplier) {
     SchemaRecord schemaRecord = getSchemaRecordFromDataResource(updatedDataResource);
-    validateMetadataDocument(applicationProperties, document, schemaRecord);
-
-    ContentInformation info;
-    String fileName;
-    info = getContentInformationOfResource(applicationProperties, updatedDataResource);
-    fileName = (info != null) ? info.getRelativePath() : document.getOriginalFilename();
-    boolean noChanges = checkDocumentForChanges(info, document);
-
-    if (!noChanges) {
-      // Everything seems to be fine update document and increment version
-      LOG.trace("Updating schema document (and increment version)...");
-      String version = updatedDataResource.getVersion();
-      if (version == null) {
-        version = "0";
+    try (SpooledDocument spooledDocument = spoolMetadataDocument(applicationProperties, document, schemaRecord)) {
+      ContentInformation info;
+      String fileName;
+      info = getContentInformationOfResource(applicationProperties, updatedDataResource);
+      fileName = (info != null) ? info.getRelativePath() : spooledDocument.getOriginalFilename();
+      boolean noChanges = checkDocumentForChanges(info, spooledDocument);
+
+      if (!noChanges) {
+        // Everything seems to be fine update document and increment version
+        LOG.trace("Updating schema document (and increment version)...");
+        String version = updatedDataResource.getVersion();
+        if (version == null) {
+          version = "0";
+        }
+        updatedDataResource.setVersion(Long.toString(Long.parseLong(version) + 1L));
+        addProvenance(updatedDataResource);
+        MetricsUtil.recordStorage(MetricsUtil.STEP_CONTENT, schemaRecord, () -> DocumentCodec.encode(ContentDataUtils.addFile(applicationProperties, updatedDataResource, spooledDocument, fileName, null, true, supplier)));
       }
-      updatedDataResource.setVersion(Long.toString(Long.parseLong(version) + 1L));
-      addProvenance(updatedDataResource);
-      ContentDataUtils.addFile(applicationProperties, updatedDataResource, document, fileName, null, true, supplier);
     }
   }
 
@@ -1512,7 +1905,7 @@ public class DataResourceRecordUtil {
         updatedDataResource.setVersion(Long.toString(Long.parseLong(version) + 1L));
       }
       addProvenance(updatedDataResource);
-      ContentInformation contentInformation = ContentDataUtils.addFile(applicationProperties, updatedDataResource, schemaDocument, fileName, null, true, supplier);
+      ContentInformation contentInformation = MetricsUtil.recordStorage(MetricsUtil.STEP_CONTENT, null, () -> ContentDataUtils.addFile(applicationProperties, updatedDataResource, schemaDocument, fileName, null, true, supplier));
       SchemaRecord schemaRecord = createSchemaRecord(updatedDataResource, contentInformation);
       MetadataSchemaRecordUtil.saveNewSchemaRecord(schemaRecord);
     }
@@ -1643,24 +2036,37 @@ public class DataResourceRecordUtil {
     return updatedDataResource;
   }
 
+  /**
+   * Check if the given document differs from the current document. If a hash
+   * is available for the current document only the hash of the new document
+   * is calculated (or taken from spooled document). The current document is
+   * only read from disc if no hash is available.
+   *
+   * @param info Content information of the current document.
+   * @param document New document.
+   * @return true if documents are equal.
+   */
   public static boolean checkDocumentForChanges(ContentInformation info, MultipartFile document) {
-    boolean noChanges = true;
+    boolean noChanges;
     if (info != null) {
       // Check for changes...
       try {
-        byte[] currentFileContent;
-        File file = new File(URI.create(info.getContentUri()));
-        if (document.getSize() == Files.size(file.toPath())) {
-          currentFileContent = FileUtils.readFileToByteArray(file);
-          byte[] newFileContent = document.getBytes();
-          for (int index = 0; index < currentFileContent.length; index++) {
-            if (currentFileContent[index] != newFileContent[index]) {
-              noChanges = false;
-              break;
+        String currentHash = info.getHash();
+        if (currentHash != null && currentHash.contains(HASH_SEPARATOR)) {
+          String newHash = getDocumentHash(document, currentHash.substring(0, currentHash.indexOf(HASH_SEPARATOR)));
+          LOG.trace("Compare hash of current document '{}' with hash of new document '{}'", currentHash, newHash);
+          noChanges = currentHash.equalsIgnoreCase(newHash);
+        } else {
+          LOG.trace("No hash available for current document -> Compare content.");
+          File file = new File(URI.create(info.getContentUri()));
+          // Size of compressed documents differs from size of the document.
+          noChanges = DocumentCodec.isEncoded(file.toPath()) || (document.getSize() == Files.size(file.toPath()));
+          if (noChanges) {
+            try (InputStream currentFileContent = DocumentCodec.newInputStream(file.toPath());
+                    InputStream newFileContent = document.getInputStream()) {
+              noChanges = IOUtils.contentEquals(currentFileContent, newFileContent);
             }
           }
-        } else {
-          noChanges = false;
         }
       } catch (IOException ex) {
         LOG.error("Error reading current file!", ex);
@@ -1671,7 +2077,77 @@ public class DataResourceRecordUtil {
     }
     return noChanges;
   }
-  // Check for changes...
+
+  /**
+   * Check if the current metadata document of given resource has the given
+   * hash. Neither the new nor the current document is read.
+   *
+   * @param metastoreProperties Configuration properties.
+   * @param dataResource Data resource of the current document.
+   * @param documentHashes Hashes of the new document (e.g. from header
+   * 'If-None-Match'). ETags of compressed documents are also accepted.
+   * @return true if hash of current document is one of the given hashes.
+   */
+  public static boolean isDocumentHashUnchanged(MetastoreConfiguration metastoreProperties,
+          DataResource dataResource,
+          String documentHashes) {
+    boolean unchanged = false;
+    if (documentHashes != null) {
+      ContentInformation info = getContentInformationOfResource(metastoreProperties, dataResource);
+      if (info != null && info.getHash() != null) {
+        for (String hash : documentHashes.split(",")) {
+          String documentHash = DocumentResponseUtil.getHashOfETag(hash);
+          if (info.getHash().equalsIgnoreCase(documentHash)) {
+            LOG.trace("Document of resource '{}' is unchanged ('{}').", dataResource.getId(), documentHash);
+            unchanged = true;
+            break;
+          }
+        }
+      }
+    }
+    return unchanged;
+  }
+
+  /**
+   * Calculate hash of given document in one pass. For spooled documents the
+   * hash is already available.
+   *
+   * @param document Document.
+   * @param algorithm Algorithm used as prefix of the hash (e.g. 'sha1').
+   * @return Hash in format '&lt;algorithm&gt;:&lt;hex&gt;'
+   * @throws IOException Error reading document.
+   */
+  private static String getDocumentHash(MultipartFile document, String algorithm) throws IOException {
+    String hash;
+    if (document instanceof SpooledDocument spooledDocument && spooledDocument.getHash().startsWith(algorithm + HASH_SEPARATOR)) {
+      hash = spooledDocument.getHash();
+    } else {
+      try (InputStream inputStream = document.getInputStream()) {
+        MessageDigest digest = MessageDigest.getInstance(getDigestAlgorithm(algorithm));
+        DigestInputStream digestInputStream = new DigestInputStream(inputStream, digest);
+        IOUtils.consume(digestInputStream);
+        hash = algorithm + HASH_SEPARATOR + HexFormat.of().formatHex(digest.digest());
+      } catch (NoSuchAlgorithmException ex) {
+        LOG.error("Unknown hash algorithm '" + algorithm + "'!", ex);
+        throw new CustomInternalServerError("Unknown hash algorithm '" + algorithm + "'!");
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Map prefix of hash to name of the algorithm (e.g. 'sha1' -&gt; 'SHA-1').
+   *
+   * @param algorithm Prefix of hash.
+   * @return Name of algorithm for MessageDigest.
+   */
+  private static String getDigestAlgorithm(String algorithm) {
+    String digestAlgorithm = algorithm.toUpperCase();
+    if (digestAlgorithm.matches("SHA\\d+")) {
+      digestAlgorithm = "SHA-" + digestAlgorithm.substring(3);
+    }
+    return digestAlgorithm;
+  }
 
   /**
    * Migrate schema from INTERNAL type to URL type (if necessary)
@@ -1696,29 +2172,27 @@ public class DataResourceRecordUtil {
   }
 
   /**
-   * Validate metadata document with given schema. Determine type if not already
-   * given or check type.
+   * Validate metadata document with given schema while spooling it to local
+   * disc. Determine type if not already given or check type.
    *
    * @param metastoreProperties Configuration for accessing services
    * @param dataResource Data resource record of the document.
    * @param document Document of data resource.
+   * @return Spooled (and valid) document. Has to be closed by the caller.
    */
-  private static void validateMetadataDocument(MetastoreConfiguration metastoreProperties,
+  private static SpooledDocument validateAndSpoolMetadataDocument(MetastoreConfiguration metastoreProperties,
           DataResource dataResource,
           MultipartFile document) {
-    LOG.trace("validateMetadataDocument (dataresource) {},{}, {}", metastoreProperties, dataResource, document);
-    if (document == null || document.isEmpty()) {
-      String message = "Missing metadata document in body. Returning HTTP BAD_REQUEST.";
-      LOG.error(message);
-      throw new BadArgumentException(message);
-    }
+    LOG.trace("validateAndSpoolMetadataDocument (dataresource) {},{}, {}", metastoreProperties, dataResource, document);
+    checkForMissingDocument(document);
+    SpooledDocument spooledDocument = null;
     boolean validationSuccess = false;
     StringBuilder errorMessage = new StringBuilder();
     SchemaRecord findByAlternateId;
     findByAlternateId = getSchemaRecordFromDataResource(dataResource);
     if (findByAlternateId != null) {
       try {
-        validateMetadataDocument(metastoreProperties, document, findByAlternateId);
+        spooledDocument = spoolMetadataDocument(metastoreProperties, document, findByAlternateId);
         validationSuccess = true;
         // After successful validation set type for metadata document resource.
         MetadataSchemaRecord.SCHEMA_TYPE type = findByAlternateId.getType();
@@ -1739,6 +2213,7 @@ public class DataResourceRecordUtil {
       LOG.error(errorMessage.toString());
       throw new UnprocessableEntityException(errorMessage.toString());
     }
+    return spooledDocument;
   }
 
   /**
@@ -1911,29 +2386,23 @@ public class DataResourceRecordUtil {
     return records;
   }
   /**
-   * Count the number of linked metadata documents per schema.
+   * Count the number of linked metadata documents per schema. All schemas are
+   * counted with one aggregate query. Documents which are deleted or gone are
+   * ignored. Schemas without any document are not listed.
+   *
    * @return A map with the number of linked metadata documents per schema.
    */
   public static Map<String, Long> collectDocumentsPerSchema() {
     Map<String, Long> documentsPerSchema = new HashMap<>();
-    // Search for resource type of MetadataSchemaRecord
-    Specification<DataResource> spec = DataResourceRecordUtil.findByMimetypes(null, null);
-    // Ignore all records that are deleted or gone
-    spec = DataResourceRecordUtil.findByStateWithAuthorization(spec, DataResource.State.FIXED, DataResource.State.VOLATILE);
-
-    LOG.debug("Performing query for records.");
-    Pageable pageable = PageRequest.of(0, 10);
-    Page<DataResource> records = DataResourceRecordUtil.queryDataResources(spec, pageable);
-    for (DataResource record : records.getContent()) {
-      String schemaId = record.getId();
-      // Get no of documents per schema
-      spec = DataResourceRecordUtil.findBySchemaId(null, Arrays.asList(schemaId));
-      // Ignore all records that are deleted or gone
-      spec = DataResourceRecordUtil.findByStateWithAuthorization(spec, DataResource.State.FIXED, DataResource.State.VOLATILE);
-      Page<DataResource> documents = DataResourceRecordUtil.queryDataResources(spec, pageable);
-      documentsPerSchema.put(schemaId,
-              documents.getTotalElements());
+    LOG.debug("Performing query for documents per schema.");
+    List<ISchemaRecordDao.DocumentsPerSchema> documentsPerSchemaVersion = schemaRecordDao.countDocumentsPerSchema(RELATED_SCHEMA_TYPE,
+            Arrays.asList(DataResource.State.FIXED, DataResource.State.VOLATILE));
+    for (ISchemaRecordDao.DocumentsPerSchema item : documentsPerSchemaVersion) {
+      // Sum up all versions of a schema.
+      String schemaId = item.getSchemaId().split(SCHEMA_VERSION_SEPARATOR, -1)[0];
+      documentsPerSchema.merge(schemaId, item.getNoOfDocuments(), Long::sum);
     }
+    LOG.trace("Documents per schema: {}", documentsPerSchema);
 
     return documentsPerSchema;
   }
@@ -1970,6 +2439,7 @@ public class DataResourceRecordUtil {
 
       LOG.trace("Delete data resource: '{}'", dataResourceToRemove.getId());
       dataResourceDao.delete(dataResourceToRemove);
+      VersionSnapshotUtil.invalidate(dataResourceId);
       List<AllIdentifiers> findByIdentifierIn = allIdentifiersDao.findByIdentifierIn(uniqueIdentifiers);
       for (AllIdentifiers identifier : findByIdentifierIn) {
         LOG.trace("AllIdentifiers remove: '{}'", identifier);
@@ -1981,15 +2451,25 @@ public class DataResourceRecordUtil {
   private static void cleanUpHelperTables(String dataResourceId, String contentUri) {
     // if data resource is a schema there are some helper tables...
     List<SchemaRecord> allSchemaIds = schemaRecordDao.findBySchemaIdStartsWithOrderByVersionDesc(dataResourceId);
+    List<String> locations = new ArrayList<>();
     for (SchemaRecord schemaRecord : allSchemaIds) {
       LOG.trace("Delete schemaRecord: '{}'", schemaRecord);
       schemaRecordDao.delete(schemaRecord);
+      locations.add(schemaRecord.getSchemaDocumentUri());
+    }
+    if (!allSchemaIds.isEmpty()) {
+      CompiledSchemaCache.invalidateSchema(dataResourceId);
     }
     List<Url2Path> findByPath = url2PathDao.findByPath(contentUri);
     for (Url2Path entity : findByPath) {
       url2PathDao.delete(entity);
+      locations.add(entity.getUrl());
       LOG.trace("Delete url2Path: '{}'", entity);
     }
+    if (!locations.isEmpty()) {
+      locations.add(contentUri);
+      SchemaRecordCache.invalidate(allSchemaIds.isEmpty() ? null : dataResourceId, locations);
+    }
     for (MetadataFormat entity : metadataFormatDao.findAll()) {
       if (entity.getMetadataPrefix().equalsIgnoreCase(dataResourceId)) {
         metadataFormatDao.delete(entity);
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.repo.dao.IContentInformationDao;
+import edu.kit.datamanager.repo.domain.ContentInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Optional codec for stored metadata documents. If enabled documents are
+ * compressed after they are stored. Hash and size of the content information
+ * still refer to the uncompressed document. The codec is also recorded in the
+ * metadata of the content information, but only for information: restored
+ * versions or documents stored before the codec was enabled may lack it.
+ * Therefore stored documents are always detected by their magic bytes and
+ * decompressed lazily while reading.
+ */
+public final class DocumentCodec {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(DocumentCodec.class);
+  /**
+   * Documents are stored uncompressed.
+   */
+  public static final String CODEC_NONE = "none";
+  /**
+   * Documents are stored gzip compressed.
+   */
+  public static final String CODEC_GZIP = "gzip";
+  /**
+   * Key of the codec inside the metadata of the content information.
+   */
+  public static final String CODEC_KEY = "storageCodec";
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final int GZIP_MAGIC_1 = 0x1f;
+
+  private static final int GZIP_MAGIC_2 = 0x8b;
+
+  private static final String ENCODE_SUFFIX = ".encode";
+
+  private static String codec = CODEC_NONE;
+
+  private static IContentInformationDao contentInformationDao;
+
+  private DocumentCodec() {
+    //Utility class
+  }
+
+  /**
+   * Configure codec for new documents. Unknown codecs disable compression.
+   *
+   * @param aCodec Codec ('none' or 'gzip').
+   */
+  public static void configure(String aCodec) {
+    String newCodec = (aCodec == null) ? CODEC_NONE : aCodec.trim().toLowerCase(Locale.ROOT);
+    if (!CODEC_GZIP.equals(newCodec) && !CODEC_NONE.equals(newCodec)) {
+      LOG.warn("Unsupported storage codec '{}' -> store documents uncompressed.", aCodec);
+      newCodec = CODEC_NONE;
+    }
+    codec = newCodec;
+    LOG.info("Storage codec for metadata documents: '{}'", codec);
+  }
+
+  /**
+   * Get codec used for new documents.
+   *
+   * @return the codec
+   */
+  public static String getCodec() {
+    return codec;
+  }
+
+  /**
+   * Set DAO for content information.
+   *
+   * @param aContentInformationDao the contentInformationDao to set
+   */
+  public static void setContentInformationDao(IContentInformationDao aContentInformationDao) {
+    contentInformationDao = aContentInformationDao;
+  }
+
+  /**
+   * Get DAO for content information.
+   *
+   * @return the contentInformationDao
+   */
+  static IContentInformationDao getContentInformationDao() {
+    return contentInformationDao;
+  }
+
+  /**
+   * Encode stored document with the configured codec and record the codec in
+   * the content information. If compression fails the document stays
+   * uncompressed. As the codec is detected from the stored document, failing
+   * to record it doesn't harm.
+   *
+   * @param contentInformation Content information of the stored document.
+   * @return (Updated) content information.
+   */
+  public static ContentInformation encode(ContentInformation contentInformation) {
+    ContentInformation result = contentInformation;
+    if (CODEC_GZIP.equals(codec) && contentInformation != null && contentInformation.getContentUri() != null) {
+      Path documentPath = Paths.get(URI.create(contentInformation.getContentUri()));
+      boolean compressed = false;
+      try {
+        if (!isEncoded(documentPath)) {
+          compress(documentPath);
+        }
+        compressed = true;
+      } catch (IOException ex) {
+        LOG.warn("Failed to compress document '{}' -> stored uncompressed. ({})", documentPath, ex.getMessage());
+      }
+      if (compressed) {
+        if (contentInformation.getMetadata() == null) {
+          contentInformation.setMetadata(new HashMap<>());
+        }
+        contentInformation.getMetadata().put(CODEC_KEY, codec);
+        try {
+          if (contentInformationDao != null) {
+            result = contentInformationDao.save(contentInformation);
+          }
+        } catch (RuntimeException ex) {
+          LOG.warn("Failed to record codec of document '{}'. ({})", documentPath, ex.getMessage());
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get codec of a stored document (magic bytes).
+   *
+   * @param documentPath Path of the document.
+   * @return Codec or 'none' if document is stored uncompressed.
+   * @throws IOException Error reading document.
+   */
+  public static String getCodec(Path documentPath) throws IOException {
+    return isEncoded(documentPath) ? CODEC_GZIP : CODEC_NONE;
+  }
+
+  /**
+   * Test if client accepts codec (header 'Accept-Encoding').
+   *
+   * @param documentCodec Codec of the document.
+   * @param acceptEncoding Value of header 'Accept-Encoding' (may be null).
+   * @return true if compressed document may be sent directly.
+   */
+  public static boolean isAccepted(String documentCodec, String acceptEncoding) {
+    Boolean accepted = null;
+    Boolean wildcard = null;
+    if (acceptEncoding != null && !CODEC_NONE.equals(documentCodec)) {
+      for (String coding : acceptEncoding.split(",")) {
+        String[] parts = coding.split(";");
+        String name = parts[0].trim().toLowerCase(Locale.ROOT);
+        boolean allowed = true;
+        for (int index = 1; index < parts.length; index++) {
+          String parameter = parts[index].trim();
+          if (parameter.startsWith("q=")) {
+            allowed = !parameter.substring(2).trim().matches("0(\\.0*)?");
+          }
+        }
+        if (name.equals(documentCodec)) {
+          accepted = allowed;
+        } else if (name.equals("*")) {
+          wildcard = allowed;
+        }
+      }
+    }
+    if (accepted == null) {
+      accepted = Boolean.TRUE.equals(wildcard);
+    }
+    return accepted;
+  }
+
+  /**
+   * Test if stored document is compressed (magic bytes).
+   *
+   * @param documentPath Path of the document.
+   * @return true if document is compressed.
+   * @throws IOException Error reading document.
+   */
+  public static boolean isEncoded(Path documentPath) throws IOException {
+    try (InputStream inputStream = Files.newInputStream(documentPath)) {
+      return inputStream.read() == GZIP_MAGIC_1 && inputStream.read() == GZIP_MAGIC_2;
+    }
+  }
+
+  /**
+   * Open stored document. Compressed documents are decompressed while
+   * reading.
+   *
+   * @param documentPath Path of the document.
+   * @return Stream of the uncompressed document.
+   * @throws IOException Error reading document.
+   */
+  public static InputStream newInputStream(Path documentPath) throws IOException {
+    InputStream inputStream = new BufferedInputStream(Files.newInputStream(documentPath), BUFFER_SIZE);
+    try {
+      inputStream.mark(2);
+      boolean encoded = inputStream.read() == GZIP_MAGIC_1 && inputStream.read() == GZIP_MAGIC_2;
+      inputStream.reset();
+      if (encoded) {
+        inputStream = new GZIPInputStream(inputStream, BUFFER_SIZE);
+      }
+    } catch (IOException ex) {
+      inputStream.close();
+      throw ex;
+    }
+    return inputStream;
+  }
+
+  /**
+   * Compress document in place. The compressed document replaces the
+   * original one atomically (if supported by file system).
+   *
+   * @param documentPath Path of the document.
+   * @throws IOException Error compressing document.
+   */
+  static void compress(Path documentPath) throws IOException {
+    Path encodedPath = documentPath.resolveSibling(documentPath.getFileName() + ENCODE_SUFFIX);
+    try {
+      try (InputStream inputStream = Files.newInputStream(documentPath);
+              OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(encodedPath), BUFFER_SIZE)) {
+        inputStream.transferTo(outputStream);
+      }
+      try {
+        Files.move(encodedPath, documentPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException amnse) {
+        LOG.trace("Atomic move not supported -> move file.", amnse);
+        Files.move(encodedPath, documentPath, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      DownloadUtil.removeFile(encodedPath);
+    }
+  }
+}
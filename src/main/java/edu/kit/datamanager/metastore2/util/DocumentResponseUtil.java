@@ -0,0 +1,302 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.exceptions.CustomInternalServerError;
+import edu.kit.datamanager.repo.domain.ContentInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Utility class for serving stored (metadata or schema) documents. The
+ * stored hash of the document is used as (strong) ETag. Conditional requests
+ * ('If-None-Match') are answered before reading the document. Versioned
+ * documents are immutable and may be cached by clients. Range requests are
+ * handled by Spring for the returned resource. If supported by the servlet
+ * container (e.g. Tomcat) complete documents are transferred via sendfile.
+ * Compressed documents (see DocumentCodec) are detected by their magic bytes
+ * and sent as they are if the client accepts the codec. Otherwise they are decompressed while sending. As the
+ * same URL also serves record, ACL or landing page depending on the 'Accept'
+ * header, all responses vary by 'Accept'.
+ */
+public final class DocumentResponseUtil {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(DocumentResponseUtil.class);
+  /**
+   * Max age of versioned documents (1 year).
+   */
+  public static final Duration MAX_AGE_VERSIONED = Duration.ofDays(365);
+  /**
+   * Minimum size of a document transferred via sendfile. Smaller documents are
+   * written directly.
+   */
+  static final long SENDFILE_MIN_SIZE = 48L * 1024L;
+  /**
+   * Request attributes of the servlet container for sendfile support.
+   */
+  static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+  static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+  static final String SENDFILE_FILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+  static final String SENDFILE_FILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+  private DocumentResponseUtil() {
+    //Utility class
+  }
+
+  /**
+   * Create response for a stored document.
+   *
+   * @param contentInformation Content information of the document.
+   * @param contentType Media type of the document (if null media type is
+   * determined by file extension).
+   * @param version Requested version (null for current version).
+   * @param authEnabled Is authentication enabled (documents are cached
+   * privately only).
+   * @param request Web request.
+   * @return Response with document, or 'Not Modified' if document is
+   * unchanged.
+   */
+  public static ResponseEntity<?> createDocumentResponse(ContentInformation contentInformation,
+          MediaType contentType,
+          Long version,
+          boolean authEnabled,
+          WebRequest request) {
+    Path documentPath = Paths.get(URI.create(contentInformation.getContentUri()));
+    BasicFileAttributes attributes = readAttributes(documentPath);
+    String codec = getCodec(documentPath);
+    boolean encoded = !DocumentCodec.CODEC_NONE.equals(codec);
+    boolean sendEncoded = DocumentCodec.isAccepted(codec, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    String etag = getETag(contentInformation, sendEncoded ? codec : null);
+    CacheControl cacheControl = getCacheControl(version, authEnabled);
+    List<String> vary = getVary(encoded);
+    if (etag != null && request.checkNotModified(etag)) {
+      LOG.trace("Document '{}' is unchanged. Returning HTTP NOT_MODIFIED.", contentInformation.getContentUri());
+      // ETag is already set by checkNotModified.
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).
+              cacheControl(cacheControl).
+              varyBy(vary.toArray(String[]::new)).
+              build();
+    }
+
+    HttpHeaders headers = new HttpHeaders();
+    if (etag != null) {
+      headers.setETag(etag);
+    }
+    headers.setLastModified(attributes.lastModifiedTime().toMillis());
+    headers.setCacheControl(cacheControl);
+    headers.setVary(vary);
+    if (contentType != null) {
+      headers.setContentType(contentType);
+    }
+    FileSystemResource resource = new FileSystemResource(documentPath);
+    if (encoded) {
+      if (!sendEncoded) {
+        LOG.trace("Client doesn't accept codec '{}' -> decompress document '{}'.", codec, documentPath);
+        return createDecodedResponse(headers, resource, contentInformation.getSize());
+      }
+      headers.set(HttpHeaders.CONTENT_ENCODING, codec);
+    }
+    headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+    if (isSendfileApplicable(request, attributes.size())) {
+      LOG.trace("Transfer document '{}' via sendfile.", documentPath);
+      request.setAttribute(SENDFILE_FILENAME_ATTR, documentPath.toAbsolutePath().toString(), RequestAttributes.SCOPE_REQUEST);
+      request.setAttribute(SENDFILE_FILE_START_ATTR, 0L, RequestAttributes.SCOPE_REQUEST);
+      request.setAttribute(SENDFILE_FILE_END_ATTR, attributes.size(), RequestAttributes.SCOPE_REQUEST);
+      if (contentType == null) {
+        headers.setContentType(MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM));
+      }
+      headers.setContentLength(attributes.size());
+      return ResponseEntity.ok().headers(headers).build();
+    }
+    return ResponseEntity.ok().headers(headers).body(resource);
+  }
+
+  /**
+   * Create response with decompressed document. Range requests are not
+   * supported for decompressed documents.
+   *
+   * @param headers Headers of the response.
+   * @param resource Compressed document.
+   * @param size Size of the uncompressed document (if available).
+   * @return Response with decompressed document.
+   */
+  private static ResponseEntity<?> createDecodedResponse(HttpHeaders headers, FileSystemResource resource, long size) {
+    if (headers.getContentType() == null) {
+      headers.setContentType(MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM));
+    }
+    if (size > 0) {
+      headers.setContentLength(size);
+    }
+    try {
+      return ResponseEntity.ok().headers(headers).body(new InputStreamResource(DocumentCodec.newInputStream(resource.getFile().toPath())));
+    } catch (IOException ex) {
+      LOG.error("Error reading document '{}'!", resource.getPath(), ex);
+      throw new CustomInternalServerError("Error reading document from server.");
+    }
+  }
+
+  /**
+   * Get (strong) ETag of document. The hash of the uncompressed document is
+   * used. If the document is sent compressed the codec is appended.
+   *
+   * @param contentInformation Content information of the document.
+   * @param codec Codec of the sent document (null if sent uncompressed).
+   * @return ETag or null if no hash is available.
+   */
+  static String getETag(ContentInformation contentInformation, String codec) {
+    String etag = null;
+    if (contentInformation.getHash() != null) {
+      etag = "\"" + contentInformation.getHash() + ((codec != null) ? "-" + codec : "") + "\"";
+    }
+    return etag;
+  }
+
+  /**
+   * Get hash of the document from an ETag created by getETag. Weak
+   * indicator, quotes and codec suffix are removed.
+   *
+   * @param etag ETag (e.g. from header 'If-None-Match').
+   * @return Hash of the (uncompressed) document.
+   */
+  public static String getHashOfETag(String etag) {
+    String hash = etag.trim();
+    if (hash.startsWith("W/")) {
+      hash = hash.substring(2);
+    }
+    hash = hash.replace("\"", "");
+    String codecSuffix = "-" + DocumentCodec.CODEC_GZIP;
+    if (hash.endsWith(codecSuffix)) {
+      hash = hash.substring(0, hash.length() - codecSuffix.length());
+    }
+    return hash;
+  }
+
+  /**
+   * Get cache control for document. Versioned documents never change.
+   * Current version has to be revalidated on each request.
+   *
+   * @param version Requested version (null for current version).
+   * @param authEnabled Is authentication enabled.
+   * @return Cache control.
+   */
+  static CacheControl getCacheControl(Long version, boolean authEnabled) {
+    CacheControl cacheControl;
+    if (version != null) {
+      cacheControl = CacheControl.maxAge(MAX_AGE_VERSIONED).immutable();
+      cacheControl = authEnabled ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+    } else {
+      cacheControl = CacheControl.noCache();
+      if (authEnabled) {
+        cacheControl = cacheControl.cachePrivate();
+      }
+    }
+    return cacheControl;
+  }
+
+  /**
+   * Get the request headers the response depends on. Representation of the
+   * resource is selected by 'Accept'. Compressed documents additionally
+   * depend on 'Accept-Encoding'.
+   *
+   * @param encoded Is document stored compressed.
+   * @return Request headers for 'Vary'.
+   */
+  static List<String> getVary(boolean encoded) {
+    return encoded ? List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING) : List.of(HttpHeaders.ACCEPT);
+  }
+
+  /**
+   * Get codec of the stored document. The codec is detected from the document
+   * itself as the codec recorded in the content information may be missing
+   * (e.g. for restored versions).
+   *
+   * @param documentPath Path of the document.
+   * @return Codec of the document.
+   */
+  private static String getCodec(Path documentPath) {
+    try {
+      return DocumentCodec.getCodec(documentPath);
+    } catch (IOException ex) {
+      LOG.warn("Error reading document '{}'. Returning HTTP INTERNAL_SERVER_ERROR.", documentPath, ex);
+      throw new CustomInternalServerError("Error reading document from server.");
+    }
+  }
+
+  /**
+   * Read attributes of the document with a single access to the file system.
+   *
+   * @param documentPath Path of the document.
+   * @return Attributes of the document.
+   */
+  private static BasicFileAttributes readAttributes(Path documentPath) {
+    BasicFileAttributes attributes = null;
+    try {
+      attributes = Files.readAttributes(documentPath, BasicFileAttributes.class);
+    } catch (IOException ex) {
+      LOG.trace("Error reading attributes of '{}'.", documentPath, ex);
+    }
+    if (attributes == null || !attributes.isRegularFile()) {
+      LOG.warn("Document at path {} either does not exist or is no file or is not readable. Returning HTTP INTERNAL_SERVER_ERROR.", documentPath);
+      throw new CustomInternalServerError("Document on server either does not exist or is no file or is not readable.");
+    }
+    return attributes;
+  }
+
+  /**
+   * Test if document may be transferred via sendfile. Only complete documents
+   * (no range requests) of GET requests are transferred if container supports
+   * sendfile.
+   *
+   * @param request Web request.
+   * @param size Size of the document.
+   * @return true if sendfile is applicable.
+   */
+  private static boolean isSendfileApplicable(WebRequest request, long size) {
+    boolean applicable = false;
+    if (size >= SENDFILE_MIN_SIZE
+            && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR, RequestAttributes.SCOPE_REQUEST))
+            && request.getHeader(HttpHeaders.RANGE) == null) {
+      HttpMethod method = (request instanceof ServletWebRequest servletWebRequest)
+              ? HttpMethod.valueOf(servletWebRequest.getRequest().getMethod()) : null;
+      applicable = HttpMethod.GET.equals(method);
+    }
+    return applicable;
+  }
+}
@@ -15,27 +15,33 @@
  */
 package edu.kit.datamanager.metastore2.util;
 
-import edu.kit.datamanager.clients.SimpleServiceClient;
 import edu.kit.datamanager.exceptions.CustomInternalServerError;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Utility class for downloading resources from internet.
+ * Utility class for downloading resources from internet. Resources are
+ * streamed to disc. Only the first bytes are kept in memory to guess the type
+ * of the resource.
  */
 public class DownloadUtil {
 
@@ -47,20 +53,48 @@ public class DownloadUtil {
    * Default value for prefix of temporary files.
    */
   public static final String DEFAULT_PREFIX = "DownloadUtil_";
+  /**
+   * Default for maximum size of a downloaded resource (100 MB).
+   */
+  public static final long DEFAULT_MAX_SIZE = 100L * 1024L * 1024L;
   /**
    * Logger for this class.
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(DownloadUtil.class);
 
-  private static final int MAX_LENGTH_OF_HEADER = 100;
+  static final int MAX_LENGTH_OF_HEADER = 100;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Client shared by all downloads.
+   */
+  static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+          .followRedirects(HttpClient.Redirect.NORMAL)
+          .connectTimeout(Duration.ofSeconds(10))
+          .build();
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
 
   private static final Pattern JSON_FIRST_BYTE = Pattern.compile("(\\R\\s)*\\s*\\{\\s*\"(.|\\s)*", Pattern.MULTILINE);
   private static final Pattern XML_FIRST_BYTE = Pattern.compile("((.|\\s)*<\\?xml[^<]*)?\\s*<\\s*(\\w+:)?\\w+(.|\\s)*", Pattern.MULTILINE);
 
+  private static long maxSize = DEFAULT_MAX_SIZE;
+
   DownloadUtil() {
     // Utility class
   }
 
+  /**
+   * Configure maximum size of a downloaded resource.
+   *
+   * @param aMaxSize Maximum size in bytes (less or equal to 0 means no limit).
+   */
+  public static void configure(long aMaxSize) {
+    maxSize = aMaxSize;
+    LOGGER.info("Download: max. size: '{}' bytes", maxSize);
+  }
+
   /**
    * Downloads or copy the file behind the given URI and returns its path on
    * local disc. You should delete or move the file to another location
@@ -70,36 +104,127 @@ public class DownloadUtil {
    * @return the path to the created file.
    */
   public static Optional<Path> downloadResource(URI resourceURL) {
-    String content = null;
     Path downloadedFile = null;
     try {
       if (resourceURL != null) {
         String suffix = FilenameUtils.getExtension(resourceURL.getPath());
         suffix = suffix.trim().isEmpty() ? DEFAULT_SUFFIX : "." + suffix;
+        byte[] head;
         if (resourceURL.getHost() != null) {
-          content = SimpleServiceClient
-                  .create(resourceURL.toString())
-                  .accept(MediaType.TEXT_PLAIN)
-                  .getResource(String.class);
           downloadedFile = createTempFile("download", suffix);
-          FileUtils.writeStringToFile(downloadedFile.toFile(), content, StandardCharsets.UTF_8);
+          head = download(resourceURL, downloadedFile);
         } else {
           // copy local file to new place.
-          File srcFile = new File(resourceURL.getPath());
-          File destFile = DownloadUtil.createTempFile("local", suffix).toFile();
-          FileUtils.copyFile(srcFile, destFile);
-          downloadedFile = destFile.toPath();
+          Path srcFile = Paths.get(resourceURL.getPath());
+          checkSize(Files.size(srcFile));
+          downloadedFile = DownloadUtil.createTempFile("local", suffix);
+          copyFile(srcFile, downloadedFile);
+          head = readHead(downloadedFile);
         }
+        downloadedFile = fixFileExtension(downloadedFile, head);
       }
     } catch (Throwable tw) {
       LOGGER.error("Error reading URI '" + resourceURL + "'", tw);
+      if (downloadedFile != null) {
+        removeQuietly(downloadedFile);
+      }
       throw new CustomInternalServerError("Error downloading resource from '" + resourceURL + "'!");
     }
-    downloadedFile = fixFileExtension(downloadedFile);
 
     return Optional.ofNullable(downloadedFile);
   }
 
+  /**
+   * Stream resource to the given file.
+   *
+   * @param resourceURL URL of the resource.
+   * @param target File the content is written to.
+   * @return first bytes of the resource.
+   * @throws IOException Error while downloading or resource too large.
+   * @throws InterruptedException Download was interrupted.
+   */
+  private static byte[] download(URI resourceURL, Path target) throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(resourceURL).timeout(REQUEST_TIMEOUT).GET().build();
+    HttpResponse<InputStream> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    try (InputStream inputStream = response.body()) {
+      int status = response.statusCode();
+      if (status < 200 || status >= 300) {
+        throw new IOException("HTTP status " + status);
+      }
+      checkSize(response.headers().firstValueAsLong("Content-Length").orElse(-1L));
+      return writeToFile(inputStream, target);
+    }
+  }
+
+  /**
+   * Write stream to file. The size of the content is limited by the
+   * configured maximum size.
+   *
+   * @param inputStream Stream holding the content.
+   * @param target File the content is written to.
+   * @return first bytes of the content.
+   * @throws IOException Error while writing or content too large.
+   */
+  static byte[] writeToFile(InputStream inputStream, Path target) throws IOException {
+    byte[] head = new byte[MAX_LENGTH_OF_HEADER];
+    int headLength = 0;
+    long size = 0;
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (OutputStream outputStream = Files.newOutputStream(target)) {
+      int length;
+      while ((length = inputStream.read(buffer)) >= 0) {
+        size += length;
+        checkSize(size);
+        if (headLength < head.length) {
+          int noOfBytes = Math.min(length, head.length - headLength);
+          System.arraycopy(buffer, 0, head, headLength, noOfBytes);
+          headLength += noOfBytes;
+        }
+        outputStream.write(buffer, 0, length);
+      }
+    }
+    return Arrays.copyOf(head, headLength);
+  }
+
+  /**
+   * Copy local file. A hard link is used if possible, otherwise the file is
+   * copied by the file system.
+   *
+   * @param source Source file.
+   * @param target Target file (will be replaced).
+   * @throws IOException Error while copying.
+   */
+  private static void copyFile(Path source, Path target) throws IOException {
+    try {
+      Files.deleteIfExists(target);
+      Files.createLink(target, source);
+      LOGGER.trace("Linked '{}' -> '{}'", source, target);
+    } catch (IOException | UnsupportedOperationException | SecurityException ex) {
+      LOGGER.trace("Hard link not possible -> copy '{}' to '{}'", source, target);
+      Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void checkSize(long size) throws IOException {
+    if (maxSize > 0 && size > maxSize) {
+      throw new IOException("Resource exceeds maximum size of " + maxSize + " bytes!");
+    }
+  }
+
+  private static byte[] readHead(Path pathToFile) throws IOException {
+    try (InputStream inputStream = Files.newInputStream(pathToFile)) {
+      return inputStream.readNBytes(MAX_LENGTH_OF_HEADER);
+    }
+  }
+
+  private static void removeQuietly(Path pathToFile) {
+    try {
+      Files.deleteIfExists(pathToFile);
+    } catch (IOException ex) {
+      LOGGER.trace("Failed to remove '{}'", pathToFile, ex);
+    }
+  }
+
   /**
    * Fix extension of file if possible.
    *
@@ -108,16 +233,32 @@ public class DownloadUtil {
    */
   public static Path fixFileExtension(Path pathToFile) {
     Path returnFile = pathToFile;
-    Path renamedFile = pathToFile;
     try {
       if ((pathToFile != null) && pathToFile.toFile().exists()) {
-        String contentOfFile = FileUtils.readFileToString(pathToFile.toFile(), StandardCharsets.UTF_8);
-        String newExtension = guessFileExtension(contentOfFile.getBytes(StandardCharsets.UTF_8));
-        if ((newExtension != null) && !pathToFile.toString().endsWith(newExtension)) {
-          renamedFile = Paths.get(pathToFile + newExtension);
-          FileUtils.moveFile(pathToFile.toFile(), renamedFile.toFile());
-          returnFile = renamedFile;
-        }
+        returnFile = fixFileExtension(pathToFile, readHead(pathToFile));
+      }
+    } catch (IOException ex) {
+      LOGGER.error("Error reading file '{}'.", pathToFile);
+    }
+    return returnFile;
+  }
+
+  /**
+   * Fix extension of file using the first bytes of its content.
+   *
+   * @param pathToFile the given file
+   * @param head first bytes of the file
+   * @return the path to the (renamed) file.
+   */
+  private static Path fixFileExtension(Path pathToFile, byte[] head) {
+    Path returnFile = pathToFile;
+    Path renamedFile = pathToFile;
+    try {
+      String newExtension = guessFileExtension(head);
+      if ((newExtension != null) && !pathToFile.toString().endsWith(newExtension)) {
+        renamedFile = Paths.get(pathToFile + newExtension);
+        Files.move(pathToFile, renamedFile);
+        returnFile = renamedFile;
       }
     } catch (IOException ex) {
       LOGGER.error("Error moving file '{}' to '{}'.", pathToFile, renamedFile);
@@ -160,7 +301,7 @@ public class DownloadUtil {
     }
   }
 
-  private static String guessFileExtension(byte[] schema) {
+  static String guessFileExtension(byte[] schema) {
     // Cut schema to a maximum of MAX_LENGTH_OF_HEADER characters.
     int length = schema.length > MAX_LENGTH_OF_HEADER ? MAX_LENGTH_OF_HEADER : schema.length;
     String schemaAsString = new String(schema, 0, length, StandardCharsets.UTF_8);
@@ -0,0 +1,502 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.exceptions.CustomInternalServerError;
+import edu.kit.datamanager.repo.configuration.RepoBaseConfiguration;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent cache on local disc for schema documents referenced by URL (and
+ * not registered at this instance). Cached documents are used without any
+ * request until the TTL expires. Afterwards they are revalidated via a
+ * conditional request (ETag/Last-Modified). The cache is limited by the
+ * accumulated size of all documents. Least recently used documents are evicted
+ * first. Concurrent requests for the same URL result in a single download.
+ * The cache is located inside the schema folder and survives restarts.
+ */
+public final class ExternalSchemaCache {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(ExternalSchemaCache.class);
+  /**
+   * Name of the directory holding the cache (relative to base path).
+   */
+  public static final String CACHE_DIRECTORY = ".external";
+  /**
+   * Default for time to live (in seconds).
+   */
+  public static final long DEFAULT_TTL = 3600;
+  /**
+   * Default for maximum size of all cached documents (100 MB).
+   */
+  public static final long DEFAULT_MAX_SIZE = 100L * 1024L * 1024L;
+  /**
+   * Documents used within this period are not evicted (in milliseconds).
+   */
+  private static final long EVICTION_GRACE_PERIOD = 60_000L;
+
+  private static final String META_SUFFIX = ".properties";
+
+  private static final String PROPERTY_URL = "url";
+
+  private static final String PROPERTY_FILE = "file";
+
+  private static final String PROPERTY_ETAG = "etag";
+
+  private static final String PROPERTY_LAST_MODIFIED = "lastModified";
+
+  private static final String PROPERTY_FETCHED = "fetched";
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+  private static final Map<String, CacheEntry> ENTRIES = new ConcurrentHashMap<>();
+
+  private static final Map<String, CompletableFuture<Path>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+  private static final AtomicLong HITS = new AtomicLong();
+
+  private static final AtomicLong DOWNLOADS = new AtomicLong();
+
+  private static final AtomicLong REVALIDATIONS = new AtomicLong();
+
+  private static final AtomicLong EVICTIONS = new AtomicLong();
+
+  private static Path cacheDirectory = null;
+
+  private static long ttl = DEFAULT_TTL;
+
+  private static long maxSize = DEFAULT_MAX_SIZE;
+
+  /**
+   * Utility class with static methods only.
+   */
+  private ExternalSchemaCache() {
+  }
+
+  /**
+   * Configure cache. Documents already cached in the directory are reused.
+   *
+   * @param aCacheDirectory Directory of the cache (null disables the cache).
+   * @param aTtl Time to live in seconds before a document is revalidated.
+   * @param aMaxSize Maximum size of all cached documents (0 disables the
+   * cache).
+   */
+  public static synchronized void configure(Path aCacheDirectory, long aTtl, long aMaxSize) {
+    cacheDirectory = (aMaxSize > 0) ? aCacheDirectory : null;
+    ttl = aTtl;
+    maxSize = aMaxSize;
+    ENTRIES.clear();
+    LOG.info("External schema cache: '{}', TTL: '{}' s, max. size: '{}' bytes", cacheDirectory, ttl, maxSize);
+    if (cacheDirectory != null && Files.isDirectory(cacheDirectory)) {
+      try (DirectoryStream<Path> metaFiles = Files.newDirectoryStream(cacheDirectory, "*" + META_SUFFIX)) {
+        for (Path metaFile : metaFiles) {
+          CacheEntry entry = readEntry(metaFile);
+          if (entry != null) {
+            ENTRIES.put(entry.url, entry);
+          }
+        }
+      } catch (IOException ex) {
+        LOG.warn("Failed to read external schema cache '{}'", cacheDirectory, ex);
+      }
+      LOG.info("External schema cache: {} document(s) available.", ENTRIES.size());
+      evict();
+    }
+  }
+
+  /**
+   * Get directory of the cache for the given repository. The cache is located
+   * inside the base path.
+   *
+   * @param configuration Configuration of the repository.
+   * @return Path to cache directory.
+   */
+  public static Path getCacheDirectory(RepoBaseConfiguration configuration) {
+    try {
+      return Paths.get(configuration.getBasepath().toURI()).resolve(CACHE_DIRECTORY);
+    } catch (URISyntaxException ex) {
+      String message = "Invalid base path '" + configuration.getBasepath() + "'!";
+      LOG.error(message, ex);
+      throw new CustomInternalServerError(message);
+    }
+  }
+
+  /**
+   * Get local file for the schema document behind the given URL. If the cache
+   * is disabled or the URL is not a http(s) URL the document is downloaded to a
+   * temporary file which has to be removed afterwards.
+   *
+   * @param resourceUrl URL of the schema document.
+   * @return Path to local file.
+   * @see #isCachedFile(java.nio.file.Path)
+   */
+  public static Path getResource(URI resourceUrl) {
+    if (cacheDirectory == null || !isRemote(resourceUrl)) {
+      return DownloadUtil.downloadResource(resourceUrl).orElse(null);
+    }
+    String url = resourceUrl.toString();
+    CacheEntry entry = ENTRIES.get(url);
+    if (entry != null && !entry.isExpired() && Files.isReadable(entry.path)) {
+      LOG.trace("External schema cache: hit for '{}'", url);
+      HITS.incrementAndGet();
+      entry.lastAccess = System.currentTimeMillis();
+      return entry.path;
+    }
+    CompletableFuture<Path> future = new CompletableFuture<>();
+    CompletableFuture<Path> running = IN_FLIGHT.putIfAbsent(url, future);
+    if (running != null) {
+      LOG.trace("External schema cache: wait for running download of '{}'", url);
+      try {
+        return running.join();
+      } catch (CompletionException ce) {
+        throw (ce.getCause() instanceof RuntimeException re) ? re : ce;
+      }
+    }
+    try {
+      Path path = fetch(resourceUrl, ENTRIES.get(url));
+      future.complete(path);
+      return path;
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      IN_FLIGHT.remove(url, future);
+    }
+  }
+
+  /**
+   * Test if cache is enabled.
+   *
+   * @return true if documents are cached.
+   */
+  public static boolean isEnabled() {
+    return cacheDirectory != null;
+  }
+
+  /**
+   * Test if file is managed by the cache (and therefore must not be removed).
+   *
+   * @param path Path to file.
+   * @return true if file is located inside the cache directory.
+   */
+  public static boolean isCachedFile(Path path) {
+    Path directory = cacheDirectory;
+    return directory != null && path != null && path.toAbsolutePath().normalize().startsWith(directory.toAbsolutePath().normalize());
+  }
+
+  /**
+   * Download document or revalidate cached document.
+   *
+   * @param resourceUrl URL of the schema document.
+   * @param entry Cached entry (may be null).
+   * @return Path to local file.
+   */
+  private static Path fetch(URI resourceUrl, CacheEntry entry) {
+    String url = resourceUrl.toString();
+    boolean revalidate = entry != null && Files.isReadable(entry.path);
+    HttpRequest.Builder builder = HttpRequest.newBuilder(resourceUrl).timeout(REQUEST_TIMEOUT).GET();
+    if (revalidate) {
+      if (entry.etag != null) {
+        builder.header("If-None-Match", entry.etag);
+      }
+      if (entry.lastModified != null) {
+        builder.header("If-Modified-Since", entry.lastModified);
+      }
+    }
+    Path tempFile = null;
+    try {
+      Files.createDirectories(cacheDirectory);
+      tempFile = Files.createTempFile(cacheDirectory, "download_", DownloadUtil.DEFAULT_SUFFIX);
+      HttpResponse<InputStream> response = DownloadUtil.HTTP_CLIENT.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+      byte[] head;
+      try (InputStream inputStream = response.body()) {
+        int status = response.statusCode();
+        if (revalidate && status == 304) {
+          LOG.trace("External schema cache: '{}' not modified.", url);
+          REVALIDATIONS.incrementAndGet();
+          entry.fetched = System.currentTimeMillis();
+          entry.lastAccess = entry.fetched;
+          writeEntry(entry);
+          return entry.path;
+        }
+        if (status < 200 || status >= 300) {
+          throw new IOException("HTTP status " + status);
+        }
+        // Streamed to disc with the same size limit as other downloads.
+        head = DownloadUtil.writeToFile(inputStream, tempFile);
+      }
+      CacheEntry newEntry = new CacheEntry(url, cacheDirectory.resolve(getFileName(resourceUrl, head)));
+      newEntry.etag = response.headers().firstValue("ETag").orElse(null);
+      newEntry.lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+      newEntry.fetched = System.currentTimeMillis();
+      newEntry.lastAccess = newEntry.fetched;
+      moveFile(tempFile, newEntry.path);
+      newEntry.size = Files.size(newEntry.path);
+      writeEntry(newEntry);
+      CacheEntry old = ENTRIES.put(url, newEntry);
+      if (old != null && !old.path.equals(newEntry.path)) {
+        Files.deleteIfExists(old.path);
+      }
+      DOWNLOADS.incrementAndGet();
+      LOG.trace("External schema cache: downloaded '{}' -> '{}' ({} bytes)", url, newEntry.path, newEntry.size);
+      evict();
+      return newEntry.path;
+    } catch (IOException ex) {
+      return handleFetchError(url, entry, revalidate, ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return handleFetchError(url, entry, revalidate, ex);
+    } finally {
+      if (tempFile != null) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException ex) {
+          LOG.trace("Failed to remove '{}'", tempFile, ex);
+        }
+      }
+    }
+  }
+
+  private static Path handleFetchError(String url, CacheEntry entry, boolean revalidate, Exception ex) {
+    if (revalidate) {
+      // Use outdated document if server is not available.
+      LOG.warn("Failed to revalidate '{}' -> use cached document: {}", url, ex.getMessage());
+      return entry.path;
+    }
+    LOG.error("Error reading URI '" + url + "'", ex);
+    throw new CustomInternalServerError("Error downloading resource from '" + url + "'!");
+  }
+
+  /**
+   * Evict least recently used documents until the size limit is reached.
+   * Documents used recently are not evicted as they may be in use.
+   */
+  private static synchronized void evict() {
+    long totalSize = getSize();
+    if (totalSize <= maxSize) {
+      return;
+    }
+    List<CacheEntry> entries = new ArrayList<>(ENTRIES.values());
+    entries.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+    long now = System.currentTimeMillis();
+    for (CacheEntry entry : entries) {
+      if (totalSize <= maxSize) {
+        break;
+      }
+      if (now - entry.lastAccess < EVICTION_GRACE_PERIOD) {
+        continue;
+      }
+      if (ENTRIES.remove(entry.url, entry)) {
+        LOG.trace("External schema cache: evict '{}'", entry.url);
+        totalSize -= entry.size;
+        EVICTIONS.incrementAndGet();
+        try {
+          Files.deleteIfExists(entry.path);
+          Files.deleteIfExists(getMetaFile(entry));
+        } catch (IOException ex) {
+          LOG.warn("Failed to remove '{}' from external schema cache", entry.path, ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get name of the file inside the cache (SHA-1 of the URL plus extension).
+   *
+   * @param resourceUrl URL of the schema document.
+   * @param head First bytes of the schema document.
+   * @return name of the file.
+   */
+  static String getFileName(URI resourceUrl, byte[] head) {
+    String suffix = FilenameUtils.getExtension(resourceUrl.getPath());
+    suffix = suffix.trim().isEmpty() ? DownloadUtil.DEFAULT_SUFFIX : "." + suffix;
+    String guessedExtension = DownloadUtil.guessFileExtension(head);
+    if (guessedExtension != null && !suffix.endsWith(guessedExtension)) {
+      suffix = suffix + guessedExtension;
+    }
+    return getHash(resourceUrl.toString()) + suffix;
+  }
+
+  static String getHash(String url) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new CustomInternalServerError("SHA-1 not available!");
+    }
+  }
+
+  private static Path getMetaFile(CacheEntry entry) {
+    return cacheDirectory.resolve(getHash(entry.url) + META_SUFFIX);
+  }
+
+  private static void writeEntry(CacheEntry entry) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty(PROPERTY_URL, entry.url);
+    properties.setProperty(PROPERTY_FILE, entry.path.getFileName().toString());
+    if (entry.etag != null) {
+      properties.setProperty(PROPERTY_ETAG, entry.etag);
+    }
+    if (entry.lastModified != null) {
+      properties.setProperty(PROPERTY_LAST_MODIFIED, entry.lastModified);
+    }
+    properties.setProperty(PROPERTY_FETCHED, Long.toString(entry.fetched));
+    Path tempFile = Files.createTempFile(cacheDirectory, "meta_", DownloadUtil.DEFAULT_SUFFIX);
+    try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+      properties.store(outputStream, null);
+    }
+    moveFile(tempFile, getMetaFile(entry));
+  }
+
+  private static CacheEntry readEntry(Path metaFile) {
+    CacheEntry entry = null;
+    Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(metaFile)) {
+      properties.load(inputStream);
+      String url = properties.getProperty(PROPERTY_URL);
+      String file = properties.getProperty(PROPERTY_FILE);
+      if (url != null && file != null && Files.isReadable(cacheDirectory.resolve(file))) {
+        entry = new CacheEntry(url, cacheDirectory.resolve(file));
+        entry.etag = properties.getProperty(PROPERTY_ETAG);
+        entry.lastModified = properties.getProperty(PROPERTY_LAST_MODIFIED);
+        entry.fetched = Long.parseLong(properties.getProperty(PROPERTY_FETCHED, "0"));
+        entry.lastAccess = Files.getLastModifiedTime(metaFile).toMillis();
+        entry.size = Files.size(entry.path);
+      } else {
+        LOG.trace("Remove incomplete entry '{}' from external schema cache.", metaFile);
+        Files.deleteIfExists(metaFile);
+      }
+    } catch (IOException | NumberFormatException ex) {
+      LOG.warn("Failed to read '{}' of external schema cache", metaFile, ex);
+    }
+    return entry;
+  }
+
+  private static boolean isRemote(URI resourceUri) {
+    return resourceUri != null
+            && resourceUri.isAbsolute()
+            && ("http".equalsIgnoreCase(resourceUri.getScheme()) || "https".equalsIgnoreCase(resourceUri.getScheme()));
+  }
+
+  private static void moveFile(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException amnse) {
+      LOG.trace("Atomic move not supported -> move file.", amnse);
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Get number of cache hits (without any request).
+   *
+   * @return the hits
+   */
+  public static long getHits() {
+    return HITS.get();
+  }
+
+  /**
+   * Get number of downloaded documents.
+   *
+   * @return the downloads
+   */
+  public static long getDownloads() {
+    return DOWNLOADS.get();
+  }
+
+  /**
+   * Get number of successful revalidations (HTTP 304).
+   *
+   * @return the revalidations
+   */
+  public static long getRevalidations() {
+    return REVALIDATIONS.get();
+  }
+
+  /**
+   * Get number of evicted documents.
+   *
+   * @return the evictions
+   */
+  public static long getEvictions() {
+    return EVICTIONS.get();
+  }
+
+  /**
+   * Get accumulated size of all cached documents.
+   *
+   * @return size in bytes
+   */
+  public static long getSize() {
+    return ENTRIES.values().stream().mapToLong(entry -> entry.size).sum();
+  }
+
+  /**
+   * Entry of the cache.
+   */
+  private static final class CacheEntry {
+
+    private final String url;
+    private final Path path;
+    private String etag;
+    private String lastModified;
+    private long size;
+    private volatile long fetched;
+    private volatile long lastAccess;
+
+    CacheEntry(String url, Path path) {
+      this.url = url;
+      this.path = path;
+    }
+
+    boolean isExpired() {
+      return System.currentTimeMillis() - fetched >= ttl * 1000L;
+    }
+  }
+}
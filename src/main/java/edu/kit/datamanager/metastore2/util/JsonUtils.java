@@ -17,20 +17,22 @@ package edu.kit.datamanager.metastore2.util;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.networknt.schema.*;
 import com.networknt.schema.SpecVersion.VersionFlag;
-import edu.kit.datamanager.clients.SimpleServiceClient;
 import edu.kit.datamanager.metastore2.exception.JsonValidationException;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
 
 import java.io.InputStream;
-import java.net.URI;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for handling json documents
@@ -53,9 +55,34 @@ public class JsonUtils {
    */
   private static final String ENCODING = "UTF-8";
   /**
-   * Mapper for parsing json.
+   * Reader for parsing json. ObjectReader is immutable and therefore may be
+   * used by several threads without any locking.
    */
-  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final ObjectReader READER = new ObjectMapper().reader();
+  /**
+   * Mapping of the URIs of the meta schemas to the copies bundled on the
+   * classpath (e.g. 'https://json-schema.org/draft/2020-12/schema' to
+   * 'classpath:draft/2020-12/schema').
+   */
+  private static final Map<String, String> META_SCHEMA_LOCATIONS = Map.of(
+          "https://json-schema.org/", "classpath:",
+          "http://json-schema.org/", "classpath:");
+  /**
+   * Prefix of locations on the classpath.
+   */
+  private static final String CLASSPATH_PREFIX = "classpath:";
+  /**
+   * Supported versions of JSON schema.
+   */
+  private static final List<VersionFlag> SUPPORTED_VERSIONS = List.of(VersionFlag.V4, VersionFlag.V6, VersionFlag.V7, VersionFlag.V201909, VersionFlag.V202012);
+  /**
+   * Factories for JSON schemas (one per version).
+   */
+  private static final Map<VersionFlag, JsonSchemaFactory> SCHEMA_FACTORIES = new ConcurrentHashMap<>();
+  /**
+   * Compiled meta schemas (one per version).
+   */
+  private static final Map<VersionFlag, JsonSchema> META_SCHEMAS = new ConcurrentHashMap<>();
   
   JsonUtils() {
     //Utility class
@@ -117,7 +144,7 @@ public class JsonUtils {
     boolean valid = true;
     try {
       // validate schema with meta schema.
-      validateJson(jsonSchema, getSchema(version));
+      validateJson(jsonSchema, getMetaSchema(version));
       getJsonSchemaFromString(jsonSchema, version);
     } catch (Exception ex) {
       LOG.error("Unknown error", ex);
@@ -138,10 +165,10 @@ public class JsonUtils {
    * @return true if valid (throws JsonValidationException if not)
    */
   public static boolean validateJson(InputStream jsonDocumentStream, InputStream jsonSchemaStream) {
-    String jsonDocument = transformStreamToString(jsonDocumentStream);
     String jsonSchema = transformStreamToString(jsonSchemaStream);
+    VersionFlag version = determineSchemaVersion(jsonSchema);
 
-    return validateJson(jsonDocument, jsonSchema);
+    return validateJson(jsonDocumentStream, compileJsonSchema(jsonSchema, version));
   }
 
   /**
@@ -166,10 +193,9 @@ public class JsonUtils {
    * @return true if valid (throws JsonValidationException if not)
    */
   public static boolean validateJson(InputStream jsonDocumentStream, InputStream jsonSchemaStream, VersionFlag version) {
-    String jsonDocument = transformStreamToString(jsonDocumentStream);
     String jsonSchema = transformStreamToString(jsonSchemaStream);
 
-    return validateJson(jsonDocument, jsonSchema, version);
+    return validateJson(jsonDocumentStream, compileJsonSchema(jsonSchema, version));
   }
 
   /**
@@ -181,12 +207,57 @@ public class JsonUtils {
    * @return true if valid (throws JsonValidationException if not)
    */
   public static boolean validateJson(String jsonDocument, String jsonSchema, VersionFlag version) {
+    return validateJson(jsonDocument, compileJsonSchema(jsonSchema, version));
+  }
+
+  /**
+   * Validate json document by given (compiled) json schema.
+   *
+   * @param jsonDocumentStream json document.
+   * @param jsonSchema compiled json schema.
+   * @return true if valid (throws JsonValidationException if not)
+   */
+  public static boolean validateJson(InputStream jsonDocumentStream, JsonSchema jsonSchema) {
+    return validateJsonNode(() -> READER.readTree(jsonDocumentStream), jsonSchema);
+  }
+
+  /**
+   * Validate json document by given (compiled) json schema.
+   *
+   * @param jsonDocument json document.
+   * @param jsonSchema compiled json schema.
+   * @return true if valid (throws JsonValidationException if not)
+   */
+  public static boolean validateJson(String jsonDocument, JsonSchema jsonSchema) {
+    return validateJsonNode(() -> getJsonNodeFromString(jsonDocument), jsonSchema);
+  }
+
+  /**
+   * Validate json document by given (compiled) json schema. The document is
+   * parsed directly from the given bytes.
+   *
+   * @param jsonDocument json document (UTF-8).
+   * @param jsonSchema compiled json schema.
+   * @return true if valid (throws JsonValidationException if not)
+   */
+  public static boolean validateJson(byte[] jsonDocument, JsonSchema jsonSchema) {
+    return validateJsonNode(() -> READER.readTree(jsonDocument), jsonSchema);
+  }
+
+  /**
+   * Parse json document and validate it by given (compiled) json schema. No
+   * lock is held while parsing or validating.
+   *
+   * @param parser parses the json document.
+   * @param jsonSchema compiled json schema.
+   * @return true if valid (throws JsonValidationException if not)
+   */
+  private static boolean validateJsonNode(Callable<JsonNode> parser, JsonSchema jsonSchema) {
     boolean returnValue = false;
     StringBuilder errorMessage = new StringBuilder(ERROR_VALIDATING_JSON_DOCUMENT);
     try {
-      JsonSchema jsonSchemaFromString = getJsonSchemaFromString(jsonSchema, version);
-      JsonNode jsonNode = getJsonNodeFromString(jsonDocument);
-      Set<ValidationMessage> validate = jsonSchemaFromString.validate(jsonNode);
+      JsonNode jsonNode = parser.call();
+      Set<ValidationMessage> validate = jsonSchema.validate(jsonNode);
       for (ValidationMessage message : validate) {
         LOG.debug(message.getMessage());
         errorMessage.append("\n").append(message.getMessage());
@@ -203,6 +274,38 @@ public class JsonUtils {
     return returnValue;
   }
 
+  /**
+   * Compile json schema. The version is detected from the schema document. The
+   * compiled schema is thread-safe and may be reused for several validations.
+   *
+   * @param jsonSchemaStream json schema.
+   * @return compiled json schema.
+   * @throws JsonValidationException Not a valid json schema.
+   */
+  public static JsonSchema compileJsonSchema(InputStream jsonSchemaStream) throws JsonValidationException {
+    String jsonSchema = transformStreamToString(jsonSchemaStream);
+    VersionFlag version = determineSchemaVersion(jsonSchema);
+
+    return compileJsonSchema(jsonSchema, version);
+  }
+
+  /**
+   * Compile json schema with given version.
+   *
+   * @param jsonSchema json schema.
+   * @param version version of the schema.
+   * @return compiled json schema.
+   * @throws JsonValidationException Not a valid json schema.
+   */
+  private static JsonSchema compileJsonSchema(String jsonSchema, VersionFlag version) throws JsonValidationException {
+    try {
+      return getJsonSchemaFromString(jsonSchema, version);
+    } catch (Exception ex) {
+      LOG.error("Error compiling json schema! ", ex);
+      throw new JsonValidationException(ERROR_VALIDATING_JSON_DOCUMENT + "\n" + ex.getMessage());
+    }
+  }
+
   /**
    * Extract schema version from json schema.
    *
@@ -235,7 +338,7 @@ public class JsonUtils {
    * @throws Exception Not a valid schema.
    */
   protected static JsonSchema getJsonSchemaFromString(String schemaContent, VersionFlag version) throws Exception {
-    JsonSchemaFactory factory = JsonSchemaFactory.getInstance(version);
+    JsonSchemaFactory factory = getSchemaFactory(version);
     JsonSchema schema = factory.getSchema(schemaContent);
     checkSchema(schema);
     Optional<VersionFlag> optionalVersionFound = SpecVersionDetector.detectOptionalVersion(schema.getSchemaNode(), false);
@@ -257,8 +360,8 @@ public class JsonUtils {
    * @return JsonNode represented by String
    * @throws Exception Not a valid json document.
    */
-  protected static synchronized JsonNode getJsonNodeFromString(String content) throws Exception {
-    return mapper.readTree(content);
+  protected static JsonNode getJsonNodeFromString(String content) throws Exception {
+    return READER.readTree(content);
   }
 
   /**
@@ -290,14 +393,44 @@ public class JsonUtils {
   }
 
   /**
-   * Downloads the meta schema of the given version.
+   * Get factory for JSON schemas of the given version. The factory is created
+   * only once per version. Meta schemas are resolved from the classpath.
+   *
+   * @param version the given version
+   * @return factory for JSON schemas.
+   */
+  protected static JsonSchemaFactory getSchemaFactory(VersionFlag version) {
+    return SCHEMA_FACTORIES.computeIfAbsent(version, key -> JsonSchemaFactory.getInstance(key,
+            builder -> builder.schemaMappers(schemaMappers -> META_SCHEMA_LOCATIONS.forEach(schemaMappers::mapPrefix))));
+  }
+
+  /**
+   * Get compiled meta schema of the given version. The meta schema is
+   * compiled only once per version.
+   *
+   * @param version the given version
+   * @return Compiled meta schema.
+   * @throws Exception Error compiling meta schema.
+   */
+  protected static JsonSchema getMetaSchema(VersionFlag version) throws Exception {
+    JsonSchema metaSchema = (version != null) ? META_SCHEMAS.get(version) : null;
+    if (metaSchema == null) {
+      String content = getSchema(version);
+      metaSchema = getJsonSchemaFromString(content, version);
+      META_SCHEMAS.put(version, metaSchema);
+    }
+    return metaSchema;
+  }
+
+  /**
+   * Reads the meta schema of the given version from the classpath.
    *
    * @param version the given version
    * @return Content of the meta schema as String.
    */
   protected static String getSchema(VersionFlag version) {
     String content = null;
-    URI resourceUrl = null;
+    String resource = null;
 
     try {
       switch (version) {
@@ -306,23 +439,58 @@ public class JsonUtils {
         case V7:
         case V201909:
         case V202012:
-          resourceUrl = new URI(version.getId());
+          resource = getMetaSchemaLocation(version.getId()).substring(CLASSPATH_PREFIX.length());
           break;
         default:
           String message = String.format(UNKNOWN_JSON_SCHEMA + " '%s'", version);
           LOG.error(message);
           throw new JsonValidationException(message);
       }
-      content = SimpleServiceClient
-              .create(resourceUrl.toString())
-              .accept(MediaType.TEXT_PLAIN)
-              .getResource(String.class);
+      try (InputStream inputStream = JsonUtils.class.getClassLoader().getResourceAsStream(resource)) {
+        content = IOUtils.toString(Objects.requireNonNull(inputStream, "Resource not found!"), ENCODING);
+      }
     } catch (Throwable tw) {
-      LOG.error("Error reading URI '" + resourceUrl + "'", tw);
-      throw new JsonValidationException("Error downloading resource from '" + resourceUrl + "'! -> " + tw.getMessage(), tw);
+      LOG.error("Error reading meta schema '" + resource + "'", tw);
+      throw new JsonValidationException("Error reading meta schema from '" + resource + "'! -> " + tw.getMessage(), tw);
     }
 
     return content;
   }
 
+  /**
+   * Map URI of a meta schema to its location on the classpath.
+   *
+   * @param uri URI of the meta schema (e.g.
+   * 'https://json-schema.org/draft/2020-12/schema')
+   * @return location on the classpath (e.g. 'classpath:draft/2020-12/schema')
+   */
+  protected static String getMetaSchemaLocation(String uri) {
+    String location = uri;
+    int fragment = location.indexOf('#');
+    if (fragment >= 0) {
+      location = location.substring(0, fragment);
+    }
+    for (Map.Entry<String, String> entry : META_SCHEMA_LOCATIONS.entrySet()) {
+      if (location.startsWith(entry.getKey())) {
+        return entry.getValue() + location.substring(entry.getKey().length());
+      }
+    }
+    return location;
+  }
+
+  /**
+   * Create factories and compile meta schemas for all supported versions. This
+   * avoids any delay for the first validations.
+   */
+  public static void warmUp() {
+    for (VersionFlag version : SUPPORTED_VERSIONS) {
+      try {
+        getMetaSchema(version);
+        LOG.trace("JSON schema factory for '{}' is ready.", version);
+      } catch (Exception ex) {
+        LOG.warn("Failed to prepare JSON schema factory for '" + version + "'!", ex);
+      }
+    }
+  }
+
 }
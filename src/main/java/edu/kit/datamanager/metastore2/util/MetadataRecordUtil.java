@@ -23,6 +23,7 @@ import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
 import edu.kit.datamanager.metastore2.dao.IDataRecordDao;
 import edu.kit.datamanager.metastore2.domain.*;
 import edu.kit.datamanager.metastore2.domain.ResourceIdentifier.IdentifierType;
+import edu.kit.datamanager.metastore2.oaipmh.util.CrosswalkCache;
 import edu.kit.datamanager.metastore2.web.impl.MetadataControllerImplV2;
 import edu.kit.datamanager.repo.configuration.RepoBaseConfiguration;
 import edu.kit.datamanager.repo.domain.Date;
@@ -34,7 +35,6 @@ import edu.kit.datamanager.repo.util.DataResourceUtils;
 import io.swagger.v3.core.util.Json;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.HttpStatus;
@@ -50,7 +50,6 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.UnaryOperator;
-import java.util.stream.Stream;
 
 /**
  * Utility class for handling json documents
@@ -155,7 +154,7 @@ public class MetadataRecordUtil {
     DataResource createResource = DataResourceUtils.createResource(applicationProperties, dataResource);
     long nano5 = System.nanoTime() / 1000000;
     // store document
-    ContentInformation contentInformation = ContentDataUtils.addFile(applicationProperties, createResource, document, document.getOriginalFilename(), null, true, t -> "somethingStupid");
+    ContentInformation contentInformation = DocumentCodec.encode(ContentDataUtils.addFile(applicationProperties, createResource, document, document.getOriginalFilename(), null, true, t -> "somethingStupid"));
     long nano6 = System.nanoTime() / 1000000;
     // Create additional metadata record for faster access
     DataRecord dataRecord = new DataRecord();
@@ -233,6 +232,7 @@ public class MetadataRecordUtil {
           String eTag,
           UnaryOperator<String> supplier) {
     DataResourceUtils.deleteResource(applicationProperties, id, eTag, supplier);
+    CrosswalkCache.invalidate(id);
     try {
       DataResourceUtils.getResourceByIdentifierOrRedirect(applicationProperties, id, null, supplier);
     } catch (ResourceNotFoundException rnfe) {
@@ -580,31 +580,8 @@ public class MetadataRecordUtil {
   public static MetadataRecord getRecordByIdAndVersion(MetastoreConfiguration metastoreProperties,
           String recordId, Long version, boolean supportEtag) throws ResourceNotFoundException {
     //if security enabled, check permission -> if not matching, return HTTP UNAUTHORIZED or FORBIDDEN
-    long nano = System.nanoTime() / 1000000;
-    long nano2;
-    MetadataRecord result = null;
-    Page<DataResource> dataResource;
-    try {
-      dataResource = metastoreProperties.getDataResourceService().findAllVersions(recordId, null);
-    } catch (ResourceNotFoundException ex) {
-      ex.setDetail("Metadata document with ID '" + recordId + "' doesn't exist!");
-      throw ex;
-    }
-    nano2 = System.nanoTime() / 1000000;
-    Stream<DataResource> stream = dataResource.get();
-    if (version != null) {
-      stream = stream.filter(resource -> Long.parseLong(resource.getVersion()) == version);
-    }
-    Optional<DataResource> findFirst = stream.findFirst();
-    if (findFirst.isPresent()) {
-      result = migrateToMetadataRecord(metastoreProperties, findFirst.get(), supportEtag);
-    } else {
-      String message = String.format("Version '%d' of ID '%s' doesn't exist!", version, recordId);
-      LOG.error(message);
-      throw new ResourceNotFoundException(message);
-    }
-    long nano3 = System.nanoTime() / 1000000;
-    LOG.info("getRecordByIdAndVersion {}, {}, {}", nano, (nano2 - nano), (nano3 - nano));
+    DataResource dataResource = DataResourceRecordUtil.getRecordByIdAndVersion(metastoreProperties, recordId, version, "Metadata document");
+    MetadataRecord result = migrateToMetadataRecord(metastoreProperties, dataResource, supportEtag);
     return result;
   }
 
@@ -31,7 +31,9 @@ import static edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord.SCHEMA_
 import static edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord.SCHEMA_TYPE.XML;
 import edu.kit.datamanager.metastore2.domain.ResourceIdentifier.IdentifierType;
 import edu.kit.datamanager.metastore2.domain.oaipmh.MetadataFormat;
+import edu.kit.datamanager.metastore2.validation.CompiledSchemaCache;
 import edu.kit.datamanager.metastore2.validation.IValidator;
+import edu.kit.datamanager.metastore2.validation.ValidationResult;
 import edu.kit.datamanager.repo.configuration.RepoBaseConfiguration;
 import edu.kit.datamanager.repo.domain.Date;
 import edu.kit.datamanager.repo.domain.*;
@@ -62,7 +64,6 @@ import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.UnaryOperator;
-import java.util.stream.Stream;
 
 import static edu.kit.datamanager.metastore2.util.MetadataRecordUtil.mergeAcl;
 import static edu.kit.datamanager.metastore2.util.MetadataRecordUtil.mergeEntry;
@@ -240,14 +241,19 @@ public class MetadataSchemaRecordUtil {
     }
     DataResourceUtils.deleteResource(applicationProperties, id, eTag, supplier);
     listOfSchemaIds = schemaRecordDao.findBySchemaIdStartsWithOrderByVersionDesc(id + "/");
+    List<String> locations = new ArrayList<>();
     for (SchemaRecord item : listOfSchemaIds) {
       LOG.trace("Delete entry for path '{}'", item.getSchemaDocumentUri());
+      locations.add(item.getSchemaDocumentUri());
       List<Url2Path> findByPath = url2PathDao.findByPath(item.getSchemaDocumentUri());
       for (Url2Path entry : findByPath) {
         url2PathDao.delete(entry);
+        locations.add(entry.getUrl());
       }
     }
     schemaRecordDao.deleteAll(listOfSchemaIds);
+    CompiledSchemaCache.invalidateSchema(id);
+    SchemaRecordCache.invalidate(id, locations);
   }
 
   private static void checkForAtLeastOneDocumentAvailable(MultipartFile recordDocument,
@@ -479,7 +485,7 @@ public class MetadataSchemaRecordUtil {
       SchemaRecord schemaRecord;
       try {
         LOG.debug("findByIDAndVersion {},{}", dataResource.getId(), metadataSchemaRecord.getSchemaVersion());
-        schemaRecord = schemaRecordDao.findBySchemaId(dataResource.getId() + "/" + metadataSchemaRecord.getSchemaVersion());
+        schemaRecord = SchemaRecordCache.findBySchemaId(dataResource.getId() + "/" + metadataSchemaRecord.getSchemaVersion());
         metadataSchemaRecord.setSchemaDocumentUri(schemaRecord.getSchemaDocumentUri());
         metadataSchemaRecord.setSchemaHash(schemaRecord.getDocumentHash());
       } catch (NullPointerException npe) {
@@ -594,16 +600,16 @@ public class MetadataSchemaRecordUtil {
           throw new BadArgumentException(message);
         }
         if (version != null) {
-          schemaRecord = schemaRecordDao.findBySchemaId(schemaId + "/" + version);
+          schemaRecord = SchemaRecordCache.findBySchemaId(schemaId + "/" + version);
         } else {
-          schemaRecord = schemaRecordDao.findFirstBySchemaIdStartsWithOrderByVersionDesc(schemaId + "/");
+          schemaRecord = SchemaRecordCache.findLatestVersion(schemaId);
         }
         break;
       case URL:
         String url = identifier.getIdentifier();
         Path pathToFile;
         SCHEMA_TYPE type = null;
-        Optional<Url2Path> findByUrl = url2PathDao.findByUrl(url);
+        Optional<Url2Path> findByUrl = SchemaRecordCache.findByUrl(url);
         if (findByUrl.isPresent()) {
           url = findByUrl.get().getPath();
           type = findByUrl.get().getType();
@@ -617,8 +623,8 @@ public class MetadataSchemaRecordUtil {
             LOG.error(message, ex);
             throw new BadArgumentException(message);
           }
-          Optional<Path> path = DownloadUtil.downloadResource(resourceUrl);
-          pathToFile = path.get();
+          // Cached persistently for http(s) URLs, otherwise a temporary file.
+          pathToFile = ExternalSchemaCache.getResource(resourceUrl);
         }
         schemaRecord = new SchemaRecord();
         schemaRecord.setSchemaDocumentUri(pathToFile.toUri().toString());
@@ -655,7 +661,7 @@ public class MetadataSchemaRecordUtil {
       LOG.error(message);
     } else {
       String pathToSchemaDocument = fixRelativeURI(schemaRecord.getSchemaDocumentUri());
-      List<Url2Path> findByUrl = url2PathDao.findByPath(pathToSchemaDocument);
+      List<Url2Path> findByUrl = SchemaRecordCache.findByPath(pathToSchemaDocument);
       if (findByUrl.isEmpty()) {
         if (LOG.isTraceEnabled()) {
           LOG.trace(LOG_SEPARATOR);
@@ -665,10 +671,12 @@ public class MetadataSchemaRecordUtil {
           page.getContent().forEach(item -> LOG.trace("- {}", item));
           LOG.trace(LOG_SEPARATOR);
         }
-        // Remove downloaded file
+        // Remove downloaded file (if not cached)
         String uri = schemaRecord.getSchemaDocumentUri();
         Path pathToFile = Paths.get(URI.create(uri));
-        DownloadUtil.removeFile(pathToFile);
+        if (!ExternalSchemaCache.isCachedFile(pathToFile)) {
+          DownloadUtil.removeFile(pathToFile);
+        }
       }
     }
   }
@@ -744,13 +752,11 @@ public class MetadataSchemaRecordUtil {
           SchemaRecord schemaRecord) throws IOException {
     LOG.trace("validateMetadataInputStream {},{}, {}", metastoreProperties, schemaRecord, inputStream);
 
-    long nano1 = System.nanoTime() / 1000000;
     if (schemaRecord == null || schemaRecord.getSchemaDocumentUri() == null || schemaRecord.getSchemaDocumentUri().trim().isEmpty()) {
       String message = "Missing or invalid schema record. Returning HTTP BAD_REQUEST.";
       LOG.error(message + " -> '{}'", schemaRecord);
       throw new BadArgumentException(message);
     }
-    long nano2 = System.nanoTime() / 1000000;
     LOG.trace("Checking local schema file.");
     Path schemaDocumentPath = Paths.get(URI.create(schemaRecord.getSchemaDocumentUri()));
 
@@ -766,7 +772,6 @@ public class MetadataSchemaRecordUtil {
     } else {
       applicableValidator = getValidatorForRecord(metastoreProperties, schemaRecord, null);
     }
-    long nano3 = System.nanoTime() / 1000000;
 
     if (applicableValidator == null) {
       String message = "No validator found for schema type " + schemaRecord.getType();
@@ -776,13 +781,11 @@ public class MetadataSchemaRecordUtil {
       LOG.trace("Validator found.");
 
       LOG.trace("Performing validation of metadata document using schema {}, version {} and validator {}.", schemaRecord.getSchemaIdWithoutVersion(), schemaRecord.getVersion(), applicableValidator);
-      long nano4 = System.nanoTime() / 1000000;
-      if (!applicableValidator.validateMetadataDocument(schemaDocumentPath.toFile(), inputStream)) {
-        LOG.warn("Metadata document validation failed. -> " + applicableValidator.getErrorMessage());
-        throw new UnprocessableEntityException(applicableValidator.getErrorMessage());
+      ValidationResult validationResult = MetricsUtil.recordValidation(schemaRecord, () -> applicableValidator.validateMetadataDocument(schemaRecord, schemaDocumentPath.toFile(), inputStream));
+      if (!validationResult.isValid()) {
+        LOG.warn("Metadata document validation failed. -> " + validationResult.getErrorMessage());
+        throw new UnprocessableEntityException(validationResult.getErrorMessage());
       }
-      long nano5 = System.nanoTime() / 1000000;
-      LOG.info("Validate document(schemaRecord), {}, {}, {}, {}, {}, {}", nano1, nano2 - nano1, nano3 - nano1, nano4 - nano1, nano5 - nano1);
     }
     LOG.trace("Metadata document validation succeeded.");
   }
@@ -800,30 +803,8 @@ public class MetadataSchemaRecordUtil {
   public static MetadataSchemaRecord getRecordByIdAndVersion(MetastoreConfiguration metastoreProperties,
           String recordId, Long version, boolean supportEtag) throws ResourceNotFoundException {
     //if security enabled, check permission -> if not matching, return HTTP UNAUTHORIZED or FORBIDDEN
-    long nano = System.nanoTime() / 1000000;
-    MetadataSchemaRecord result = null;
-    Page<DataResource> dataResource;
-    try {
-      dataResource = metastoreProperties.getDataResourceService().findAllVersions(recordId, null);
-    } catch (ResourceNotFoundException rnfe) {
-      rnfe.setDetail("Schema document with ID '" + recordId + "' doesn't exist!");
-      throw rnfe;
-    }
-    long nano2 = System.nanoTime() / 1000000;
-    Stream<DataResource> stream = dataResource.get();
-    if (version != null) {
-      stream = stream.filter(resource -> Long.parseLong(resource.getVersion()) == version);
-    }
-    Optional<DataResource> findFirst = stream.findFirst();
-    if (findFirst.isPresent()) {
-      result = migrateToMetadataSchemaRecord(metastoreProperties, findFirst.get(), supportEtag);
-    } else {
-      String message = String.format("Version '%d' of ID '%s' doesn't exist!", version, recordId);
-      LOG.error(message);
-      throw new ResourceNotFoundException(message);
-    }
-    long nano3 = System.nanoTime() / 1000000;
-    LOG.info("getRecordByIdAndVersion {}, {}, {}", nano, (nano2 - nano), (nano3 - nano));
+    DataResource dataResource = DataResourceRecordUtil.getRecordByIdAndVersion(metastoreProperties, recordId, version, "Schema document");
+    MetadataSchemaRecord result = migrateToMetadataSchemaRecord(metastoreProperties, dataResource, supportEtag);
     return result;
   }
 
@@ -900,7 +881,7 @@ public class MetadataSchemaRecordUtil {
         LOG.trace("Validator found. Checking provided schema file.");
         LOG.trace("Performing validation of metadata document using schema {}, version {} and validator {}.", schemaRecord.getSchemaIdWithoutVersion(), schemaRecord.getVersion(), applicableValidator);
         try (InputStream inputStream = new ByteArrayInputStream(document)) {
-          if (!applicableValidator.isSchemaValid(inputStream)) {
+          if (!applicableValidator.validateSchemaDocument(inputStream).isValid()) {
             String message = "Metadata schema document validation failed. Returning HTTP UNPROCESSABLE_ENTITY.";
             LOG.warn(message);
             if (LOG.isTraceEnabled()) {
@@ -932,12 +913,9 @@ public class MetadataSchemaRecordUtil {
         LOG.debug("Automatically detected schema type {}.", schemaRecord.getType());
       }
     }
-    for (IValidator validator : metastoreProperties.getValidators()) {
-      if (validator.supportsSchemaType(schemaRecord.getType())) {
-        applicableValidator = validator.getInstance();
-        LOG.trace("Found validator for schema: '{}'", schemaRecord.getType().name());
-        break;
-      }
+    applicableValidator = metastoreProperties.getValidatorForSchemaType(schemaRecord.getType());
+    if (applicableValidator != null) {
+      LOG.trace("Found validator for schema: '{}'", schemaRecord.getType().name());
     }
     return applicableValidator;
   }
@@ -992,6 +970,8 @@ public class MetadataSchemaRecordUtil {
           schemaRecord.setSchemaId(schemaRecord.getSchemaId() + "/" + schemaRecord.getVersion());
         }
         schemaRecordDao.save(schemaRecord);
+        // Latest version has changed.
+        SchemaRecordCache.invalidate(schemaRecord.getSchemaIdWithoutVersion(), Arrays.asList(schemaRecord.getSchemaDocumentUri(), schemaRecord.getAlternateId()));
       } catch (Exception npe) {
         LOG.error("Can't save schema record: " + schemaRecord, npe);
       }
@@ -1035,7 +1015,7 @@ public class MetadataSchemaRecordUtil {
       page.getContent().forEach(item -> LOG.trace("- {}", item));
       LOG.trace(LOG_SEPARATOR);
     }
-    List<Url2Path> findByPath = url2PathDao.findByPath(metadataSchemaRecord.getSchemaDocumentUri());
+    List<Url2Path> findByPath = SchemaRecordCache.findByPath(metadataSchemaRecord.getSchemaDocumentUri());
     if (findByPath.isEmpty()) {
       throw new CustomInternalServerError("Unknown schemaID '" + metadataSchemaRecord.getSchemaId() + "'!");
     }
@@ -1074,7 +1054,7 @@ public class MetadataSchemaRecordUtil {
       msr = MetadataRecordUtil.getCurrentInternalSchemaRecord(metastoreProperties, schema.getIdentifier());
     } else {
       msr = new MetadataSchemaRecord();
-      Optional<Url2Path> url2path = url2PathDao.findByUrl(schema.getIdentifier());
+      Optional<Url2Path> url2path = SchemaRecordCache.findByUrl(schema.getIdentifier());
       Long version = 1L;
       if (url2path.isPresent()) {
         version = url2path.get().getVersion();
@@ -1163,6 +1143,7 @@ public class MetadataSchemaRecordUtil {
       url2Path.setType(schemaRecord.getType());
       url2Path.setVersion(schemaRecord.getSchemaVersion());
       url2PathDao.save(url2Path);
+      SchemaRecordCache.invalidate(null, Arrays.asList(url2Path.getUrl(), url2Path.getPath()));
     }
   }
 
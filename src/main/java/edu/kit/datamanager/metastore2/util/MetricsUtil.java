@@ -0,0 +1,310 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.metastore2.validation.ValidationResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Metrics for requests, validation and storage of documents. All meters are
+ * registered at the global registry and tagged by schema id and schema type.
+ * The number of distinct schema ids is limited (see
+ * 'metastore.monitoring.noOfSchemas'), all further schemas are tagged as
+ * 'other'. Schema id and type are also stored as attributes of the current
+ * request to tag the request metrics. The schema id of the request path is
+ * only used for successful requests. Otherwise arbitrary (e.g. unknown) schema
+ * ids would occupy the limited number of schema ids.
+ */
+public final class MetricsUtil {
+
+  /**
+   * Logger for messages.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(MetricsUtil.class);
+  /**
+   * Timer for requests.
+   */
+  public static final String METRIC_REQUEST = "metastore_request";
+  /**
+   * Distribution summary for the payload of requests (bytes).
+   */
+  public static final String METRIC_REQUEST_SIZE = "metastore_request_size";
+  /**
+   * Distribution summary for the size of documents (bytes).
+   */
+  public static final String METRIC_DOCUMENT_SIZE = "metastore_document_size";
+  /**
+   * Timer for validation of documents.
+   */
+  public static final String METRIC_VALIDATION = "metastore_validation";
+  /**
+   * Timer for storing records/documents and reading the audit log.
+   */
+  public static final String METRIC_STORAGE = "metastore_storage";
+  /**
+   * Tag for endpoint (method and path pattern).
+   */
+  public static final String TAG_ENDPOINT = "endpoint";
+  /**
+   * Tag for schema id.
+   */
+  public static final String TAG_SCHEMA_ID = "schema_id";
+  /**
+   * Tag for schema type.
+   */
+  public static final String TAG_SCHEMA_TYPE = "schema_type";
+  /**
+   * Tag for outcome.
+   */
+  public static final String TAG_OUTCOME = "outcome";
+  /**
+   * Tag for storage step.
+   */
+  public static final String TAG_STEP = "step";
+  /**
+   * Storage step: Writing the record (including audit information).
+   */
+  public static final String STEP_RECORD = "record";
+  /**
+   * Storage step: Writing the document.
+   */
+  public static final String STEP_CONTENT = "content";
+  /**
+   * Storage step: Reading the audit log.
+   */
+  public static final String STEP_AUDIT = "audit";
+  /**
+   * Value for schemas exceeding the maximum number of schema ids.
+   */
+  public static final String OTHER = "other";
+  /**
+   * Value for unknown tags.
+   */
+  public static final String NONE = "none";
+  /**
+   * Default for maximum number of distinct schema ids.
+   */
+  public static final int DEFAULT_MAX_NO_OF_SCHEMA_IDS = 10;
+
+  private static final String ATTRIBUTE_SCHEMA_ID = MetricsUtil.class.getName() + ".schemaId";
+
+  private static final String ATTRIBUTE_SCHEMA_TYPE = MetricsUtil.class.getName() + ".schemaType";
+
+  private static final String PATH_VARIABLE_SCHEMA_ID = "schemaId";
+
+  private static final Set<String> SCHEMA_IDS = ConcurrentHashMap.newKeySet();
+
+  private static int maxNoOfSchemaIds = DEFAULT_MAX_NO_OF_SCHEMA_IDS;
+
+  private MetricsUtil() {
+    //Utility class
+  }
+
+  /**
+   * Configure maximum number of distinct schema ids used as tag.
+   *
+   * @param aMaxNoOfSchemaIds Maximum number of schema ids.
+   */
+  public static void configure(int aMaxNoOfSchemaIds) {
+    maxNoOfSchemaIds = aMaxNoOfSchemaIds;
+    SCHEMA_IDS.clear();
+    LOG.info("Metrics: max. number of schema ids: '{}'", maxNoOfSchemaIds);
+  }
+
+  /**
+   * Store schema id and type as attributes of the current request (if any).
+   *
+   * @param schemaRecord Record of the schema.
+   */
+  public static void setSchema(SchemaRecord schemaRecord) {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes != null && schemaRecord != null) {
+      requestAttributes.setAttribute(ATTRIBUTE_SCHEMA_ID, schemaRecord.getSchemaIdWithoutVersion(), RequestAttributes.SCOPE_REQUEST);
+      if (schemaRecord.getType() != null) {
+        requestAttributes.setAttribute(ATTRIBUTE_SCHEMA_TYPE, schemaRecord.getType().name(), RequestAttributes.SCOPE_REQUEST);
+      }
+    }
+  }
+
+  /**
+   * Record latency and payload of a request. If no schema was resolved while
+   * processing the request, the schema id of the path is used for successful
+   * requests only.
+   *
+   * @param request Request (already processed).
+   * @param status HTTP status of the response.
+   * @param durationInNanos Duration of the request.
+   */
+  public static void recordRequest(HttpServletRequest request, int status, long durationInNanos) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String endpoint = request.getMethod() + " " + ((pattern != null) ? pattern : NONE);
+    Outcome outcome = Outcome.forStatus(status);
+    Object schemaId = request.getAttribute(ATTRIBUTE_SCHEMA_ID);
+    if (schemaId == null && outcome == Outcome.SUCCESS && request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> pathVariables) {
+      schemaId = pathVariables.get(PATH_VARIABLE_SCHEMA_ID);
+    }
+    Object schemaType = request.getAttribute(ATTRIBUTE_SCHEMA_TYPE);
+    Tags tags = Tags.of(TAG_ENDPOINT, endpoint,
+            TAG_SCHEMA_ID, getSchemaIdTag((schemaId != null) ? schemaId.toString() : null),
+            TAG_SCHEMA_TYPE, (schemaType != null) ? schemaType.toString() : NONE);
+    Timer.builder(METRIC_REQUEST).
+            tags(tags).
+            tag(TAG_OUTCOME, outcome.name()).
+            publishPercentileHistogram().
+            register(Metrics.globalRegistry).
+            record(durationInNanos, TimeUnit.NANOSECONDS);
+    long contentLength = request.getContentLengthLong();
+    if (contentLength > 0) {
+      DistributionSummary.builder(METRIC_REQUEST_SIZE).
+              baseUnit("bytes").
+              tags(tags).
+              publishPercentileHistogram().
+              register(Metrics.globalRegistry).
+              record(contentLength);
+    }
+  }
+
+  /**
+   * Record size of a (metadata) document.
+   *
+   * @param schemaRecord Record of the schema (may be null).
+   * @param size Size of the document in bytes.
+   */
+  public static void recordDocumentSize(SchemaRecord schemaRecord, long size) {
+    DistributionSummary.builder(METRIC_DOCUMENT_SIZE).
+            baseUnit("bytes").
+            tags(getSchemaTags(schemaRecord)).
+            publishPercentileHistogram().
+            register(Metrics.globalRegistry).
+            record(size);
+  }
+
+  /**
+   * Validate a document and record the duration of the validation.
+   *
+   * @param schemaRecord Record of the schema.
+   * @param validation Validation of the document.
+   * @return Result of the validation.
+   */
+  public static ValidationResult recordValidation(SchemaRecord schemaRecord, Supplier<ValidationResult> validation) {
+    long start = System.nanoTime();
+    String outcome = "error";
+    try {
+      ValidationResult validationResult = validation.get();
+      outcome = validationResult.isValid() ? "valid" : "invalid";
+      return validationResult;
+    } finally {
+      Timer.builder(METRIC_VALIDATION).
+              tags(getSchemaTags(schemaRecord)).
+              tag(TAG_OUTCOME, outcome).
+              publishPercentileHistogram().
+              register(Metrics.globalRegistry).
+              record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Execute a storage step and record its duration.
+   *
+   * @param <T> Type of the result.
+   * @param step Storage step (e.g. STEP_RECORD).
+   * @param schemaRecord Record of the schema (may be null).
+   * @param storage Storage step to execute.
+   * @return Result of the storage step.
+   */
+  public static <T> T recordStorage(String step, SchemaRecord schemaRecord, Supplier<T> storage) {
+    long start = System.nanoTime();
+    String outcome = "error";
+    try {
+      T result = storage.get();
+      outcome = "success";
+      return result;
+    } finally {
+      Timer.builder(METRIC_STORAGE).
+              tags(getSchemaTags(schemaRecord)).
+              tag(TAG_STEP, step).
+              tag(TAG_OUTCOME, outcome).
+              publishPercentileHistogram().
+              register(Metrics.globalRegistry).
+              record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Get tags for schema id and type. If no schema record is given the schema
+   * stored in the current request (if any) is used.
+   *
+   * @param schemaRecord Record of the schema (may be null).
+   * @return Tags for schema id and type.
+   */
+  static Tags getSchemaTags(SchemaRecord schemaRecord) {
+    String schemaId = null;
+    String schemaType = null;
+    if (schemaRecord != null) {
+      schemaId = schemaRecord.getSchemaIdWithoutVersion();
+      schemaType = (schemaRecord.getType() != null) ? schemaRecord.getType().name() : null;
+    } else {
+      RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+      if (requestAttributes != null) {
+        schemaId = (String) requestAttributes.getAttribute(ATTRIBUTE_SCHEMA_ID, RequestAttributes.SCOPE_REQUEST);
+        schemaType = (String) requestAttributes.getAttribute(ATTRIBUTE_SCHEMA_TYPE, RequestAttributes.SCOPE_REQUEST);
+      }
+    }
+    return Tags.of(TAG_SCHEMA_ID, getSchemaIdTag(schemaId), TAG_SCHEMA_TYPE, (schemaType != null) ? schemaType : NONE);
+  }
+
+  /**
+   * Get value of the schema id tag. Only the first schema ids (up to the
+   * configured maximum) are used as tag, all others are mapped to 'other'.
+   *
+   * @param schemaId Schema id (may be null).
+   * @return Value of the tag.
+   */
+  static String getSchemaIdTag(String schemaId) {
+    String tag = NONE;
+    if (schemaId != null) {
+      tag = OTHER;
+      if (SCHEMA_IDS.contains(schemaId)) {
+        tag = schemaId;
+      } else if (SCHEMA_IDS.size() < maxNoOfSchemaIds) {
+        synchronized (SCHEMA_IDS) {
+          if (SCHEMA_IDS.size() < maxNoOfSchemaIds) {
+            SCHEMA_IDS.add(schemaId);
+            tag = schemaId;
+          }
+        }
+      }
+    }
+    return tag;
+  }
+}
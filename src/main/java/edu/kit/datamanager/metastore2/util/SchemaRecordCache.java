@@ -0,0 +1,478 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.entities.messaging.SchemaCacheMessage;
+import edu.kit.datamanager.metastore2.dao.ISchemaRecordDao;
+import edu.kit.datamanager.metastore2.dao.IUrl2PathDao;
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.metastore2.domain.Url2Path;
+import edu.kit.datamanager.service.IMessagingService;
+import edu.kit.datamanager.util.ControllerUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache in front of ISchemaRecordDao and IUrl2PathDao.
+ * Schema records are cached by schemaId and version, by schemaId (latest
+ * version) and by alternateId. Url2Path entries are cached by URL and by path.
+ * Only existing entries are cached. All entries of a schema are invalidated
+ * when a schema (version) is stored or removed. The invalidation is repeated
+ * after commit and broadcast to all other instances via messaging (if
+ * available). Cached entities are copied, so callers may modify them.
+ */
+public final class SchemaRecordCache {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(SchemaRecordCache.class);
+  /**
+   * Default for maximum number of entries.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 1000;
+  /**
+   * Identifier of this instance (used to ignore own messages).
+   */
+  public static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+  private static final String SCHEMA_VERSION_SEPARATOR = "/";
+
+  private static final String KEY_SCHEMA_ID = "id:";
+
+  private static final String KEY_LATEST = "latest:";
+
+  private static final String KEY_ALTERNATE_ID = "alternateId:";
+
+  private static final String KEY_URL = "url:";
+
+  private static final String KEY_PATH = "path:";
+
+  private static final LinkedHashMap<String, CacheEntry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+
+  private static final AtomicLong HITS = new AtomicLong();
+
+  private static final AtomicLong MISSES = new AtomicLong();
+
+  private static final AtomicLong INVALIDATIONS = new AtomicLong();
+
+  /**
+   * Incremented on each invalidation. Entries loaded concurrently to an
+   * invalidation are not cached.
+   */
+  private static final AtomicLong GENERATION = new AtomicLong();
+
+  private static int maxEntries = DEFAULT_MAX_ENTRIES;
+
+  private static ISchemaRecordDao schemaRecordDao;
+
+  private static IUrl2PathDao url2PathDao;
+
+  private static IMessagingService messagingService;
+
+  /**
+   * Utility class with static methods only.
+   */
+  private SchemaRecordCache() {
+  }
+
+  /**
+   * Get schema record by schemaId and version.
+   *
+   * @param schemaIdWithVersion SchemaId with version (e.g. 'schema/1').
+   * @return Schema record or null if not found.
+   */
+  public static SchemaRecord findBySchemaId(String schemaIdWithVersion) {
+    return copy(get(KEY_SCHEMA_ID + schemaIdWithVersion,
+            () -> schemaRecordDao.findBySchemaId(schemaIdWithVersion),
+            SchemaRecordCache::createSchemaRecordEntry));
+  }
+
+  /**
+   * Get schema record of the latest version of a schema.
+   *
+   * @param schemaId SchemaId without version.
+   * @return Schema record or null if not found.
+   */
+  public static SchemaRecord findLatestVersion(String schemaId) {
+    return copy(get(KEY_LATEST + schemaId,
+            () -> schemaRecordDao.findFirstBySchemaIdStartsWithOrderByVersionDesc(schemaId + SCHEMA_VERSION_SEPARATOR),
+            SchemaRecordCache::createSchemaRecordEntry));
+  }
+
+  /**
+   * Get schema record by alternate id (URL of the schema document).
+   *
+   * @param alternateId Alternate id of the schema record.
+   * @return Schema record or null if not found.
+   */
+  public static SchemaRecord findByAlternateId(String alternateId) {
+    return copy(get(KEY_ALTERNATE_ID + alternateId,
+            () -> schemaRecordDao.findByAlternateId(alternateId),
+            SchemaRecordCache::createSchemaRecordEntry));
+  }
+
+  /**
+   * Get Url2Path entry by URL.
+   *
+   * @param url URL of the schema document.
+   * @return Url2Path entry (if found).
+   */
+  public static Optional<Url2Path> findByUrl(String url) {
+    return Optional.ofNullable(copy(get(KEY_URL + url,
+            () -> url2PathDao.findByUrl(url).orElse(null),
+            SchemaRecordCache::createUrl2PathEntry)));
+  }
+
+  /**
+   * Get all Url2Path entries linked to the given path.
+   *
+   * @param path Path of the schema document.
+   * @return List of Url2Path entries (may be empty).
+   */
+  public static List<Url2Path> findByPath(String path) {
+    Url2Path[] url2Paths = get(KEY_PATH + path,
+            () -> {
+              List<Url2Path> result = url2PathDao.findByPath(path);
+              return result.isEmpty() ? null : result.toArray(Url2Path[]::new);
+            },
+            SchemaRecordCache::createUrl2PathsEntry);
+    List<Url2Path> result = new ArrayList<>();
+    if (url2Paths != null) {
+      for (Url2Path url2Path : url2Paths) {
+        result.add(copy(url2Path));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Invalidate all entries of the given schema and/or of the given locations.
+   * The invalidation is repeated after the current transaction is completed
+   * and broadcast to all other instances.
+   *
+   * @param schemaId SchemaId (with or without version, may be null).
+   * @param locations URLs and/or paths of the schema documents (may be null).
+   */
+  public static void invalidate(String schemaId, Collection<String> locations) {
+    String pureSchemaId = getSchemaIdWithoutVersion(schemaId);
+    Set<String> allLocations = new HashSet<>();
+    if (locations != null) {
+      locations.stream().filter(Objects::nonNull).forEach(allLocations::add);
+    }
+    invalidateLocally(pureSchemaId, allLocations);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // Entries read by other threads before commit may be outdated.
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          invalidateLocally(pureSchemaId, allLocations);
+          broadcast(pureSchemaId, allLocations);
+        }
+      });
+    } else {
+      broadcast(pureSchemaId, allLocations);
+    }
+  }
+
+  /**
+   * Invalidate all entries of the given schema and/or of the given locations
+   * on this instance only.
+   *
+   * @param schemaId SchemaId (with or without version, may be null).
+   * @param locations URLs and/or paths of the schema documents (may be null).
+   */
+  public static void invalidateLocally(String schemaId, Collection<String> locations) {
+    String pureSchemaId = getSchemaIdWithoutVersion(schemaId);
+    GENERATION.incrementAndGet();
+    synchronized (ENTRIES) {
+      Iterator<Map.Entry<String, CacheEntry>> iterator = ENTRIES.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<String, CacheEntry> entry = iterator.next();
+        if (entry.getValue().matches(pureSchemaId, locations)) {
+          LOG.trace("Schema record cache: invalidate '{}'", entry.getKey());
+          iterator.remove();
+          INVALIDATIONS.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove all entries from cache.
+   */
+  public static void invalidateAll() {
+    GENERATION.incrementAndGet();
+    synchronized (ENTRIES) {
+      INVALIDATIONS.addAndGet(ENTRIES.size());
+      ENTRIES.clear();
+    }
+  }
+
+  /**
+   * Handle invalidation message received from another instance. Own messages
+   * are ignored.
+   *
+   * @param message Received message (may be null).
+   */
+  public static void handleMessage(SchemaCacheMessage message) {
+    if (message == null || INSTANCE_ID.equals(message.getInstanceId())) {
+      return;
+    }
+    LOG.trace("Schema record cache: received invalidation for '{}' from '{}'", message.getEntityId(), message.getSender());
+    invalidateLocally(message.getEntityId(), message.getLocations());
+  }
+
+  /**
+   * Configure maximum number of entries. A value less or equal to 0 disables
+   * caching.
+   *
+   * @param aMaxEntries Maximum number of entries.
+   */
+  public static void configure(int aMaxEntries) {
+    maxEntries = aMaxEntries;
+    LOG.info("Schema record cache: max. entries: '{}'", maxEntries);
+    synchronized (ENTRIES) {
+      shrink();
+    }
+  }
+
+  /**
+   * @param aSchemaRecordDao the schemaRecordDao to set
+   */
+  public static void setSchemaRecordDao(ISchemaRecordDao aSchemaRecordDao) {
+    schemaRecordDao = aSchemaRecordDao;
+    invalidateAll();
+  }
+
+  /**
+   * @param aUrl2PathDao the url2PathDao to set
+   */
+  public static void setUrl2PathDao(IUrl2PathDao aUrl2PathDao) {
+    url2PathDao = aUrl2PathDao;
+    invalidateAll();
+  }
+
+  /**
+   * @return the schemaRecordDao
+   */
+  static ISchemaRecordDao getSchemaRecordDao() {
+    return schemaRecordDao;
+  }
+
+  /**
+   * @return the url2PathDao
+   */
+  static IUrl2PathDao getUrl2PathDao() {
+    return url2PathDao;
+  }
+
+  /**
+   * @param aMessagingService the messagingService to set (may be null)
+   */
+  public static void setMessagingService(IMessagingService aMessagingService) {
+    messagingService = aMessagingService;
+  }
+
+  /**
+   * Get number of cache hits.
+   *
+   * @return the hits
+   */
+  public static long getHits() {
+    return HITS.get();
+  }
+
+  /**
+   * Get number of cache misses.
+   *
+   * @return the misses
+   */
+  public static long getMisses() {
+    return MISSES.get();
+  }
+
+  /**
+   * Get number of invalidated entries.
+   *
+   * @return the invalidations
+   */
+  public static long getInvalidations() {
+    return INVALIDATIONS.get();
+  }
+
+  /**
+   * Get number of cached entries.
+   *
+   * @return number of entries
+   */
+  public static int getSize() {
+    synchronized (ENTRIES) {
+      return ENTRIES.size();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T get(String key, Supplier<T> loader, Function<T, CacheEntry> entryFactory) {
+    if (maxEntries <= 0) {
+      return loader.get();
+    }
+    synchronized (ENTRIES) {
+      CacheEntry entry = ENTRIES.get(key);
+      if (entry != null) {
+        HITS.incrementAndGet();
+        LOG.trace("Schema record cache: hit for '{}'", key);
+        return (T) entry.value;
+      }
+    }
+    MISSES.incrementAndGet();
+    LOG.trace("Schema record cache: miss for '{}'", key);
+    long generation = GENERATION.get();
+    T value = loader.get();
+    if (value != null) {
+      // Store a copy as the loaded entity may be modified by the caller.
+      CacheEntry entry = entryFactory.apply(value);
+      synchronized (ENTRIES) {
+        if (generation == GENERATION.get()) {
+          ENTRIES.put(key, entry);
+          shrink();
+        }
+      }
+    }
+    return value;
+  }
+
+  private static void shrink() {
+    Iterator<String> iterator = ENTRIES.keySet().iterator();
+    while (iterator.hasNext() && ENTRIES.size() > Math.max(maxEntries, 0)) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  private static void broadcast(String schemaId, Set<String> locations) {
+    if (messagingService == null) {
+      return;
+    }
+    try {
+      messagingService.send(SchemaCacheMessage.factoryInvalidateMessage(schemaId, locations, INSTANCE_ID, ControllerUtils.getLocalHostname()));
+    } catch (RuntimeException ex) {
+      LOG.warn("Failed to broadcast invalidation of schema '{}'!", schemaId, ex);
+    }
+  }
+
+  private static String getSchemaIdWithoutVersion(String schemaId) {
+    return (schemaId == null) ? null : schemaId.split(SCHEMA_VERSION_SEPARATOR, -1)[0];
+  }
+
+  private static CacheEntry createSchemaRecordEntry(SchemaRecord schemaRecord) {
+    SchemaRecord copy = copy(schemaRecord);
+    return new CacheEntry(copy, copy.getSchemaIdWithoutVersion(), copy.getSchemaDocumentUri(), copy.getAlternateId());
+  }
+
+  private static CacheEntry createUrl2PathEntry(Url2Path url2Path) {
+    Url2Path copy = copy(url2Path);
+    return new CacheEntry(copy, null, copy.getUrl(), copy.getPath());
+  }
+
+  private static CacheEntry createUrl2PathsEntry(Url2Path[] url2Paths) {
+    Url2Path[] copy = new Url2Path[url2Paths.length];
+    List<String> locations = new ArrayList<>();
+    for (int index = 0; index < url2Paths.length; index++) {
+      copy[index] = copy(url2Paths[index]);
+      locations.add(copy[index].getUrl());
+      locations.add(copy[index].getPath());
+    }
+    return new CacheEntry(copy, null, locations.toArray(String[]::new));
+  }
+
+  private static SchemaRecord copy(SchemaRecord schemaRecord) {
+    SchemaRecord copy = null;
+    if (schemaRecord != null) {
+      copy = new SchemaRecord();
+      copy.setId(schemaRecord.getId());
+      copy.setSchemaId(schemaRecord.getSchemaId());
+      copy.setVersion(schemaRecord.getVersion());
+      copy.setType(schemaRecord.getType());
+      copy.setSchemaDocumentUri(schemaRecord.getSchemaDocumentUri());
+      copy.setDocumentHash(schemaRecord.getDocumentHash());
+      copy.setAlternateId(schemaRecord.getAlternateId());
+    }
+    return copy;
+  }
+
+  private static Url2Path copy(Url2Path url2Path) {
+    Url2Path copy = null;
+    if (url2Path != null) {
+      copy = new Url2Path();
+      copy.setUrl(url2Path.getUrl());
+      copy.setPath(url2Path.getPath());
+      copy.setVersion(url2Path.getVersion());
+      copy.setType(url2Path.getType());
+    }
+    return copy;
+  }
+
+  /**
+   * Entry of the cache.
+   */
+  private static final class CacheEntry {
+
+    private final Object value;
+    private final String schemaId;
+    private final Set<String> locations = new HashSet<>();
+
+    CacheEntry(Object value, String schemaId, String... locations) {
+      this.value = value;
+      this.schemaId = schemaId;
+      for (String location : locations) {
+        if (location != null) {
+          this.locations.add(location);
+        }
+      }
+    }
+
+    boolean matches(String aSchemaId, Collection<String> someLocations) {
+      boolean matches = (aSchemaId != null) && aSchemaId.equals(schemaId);
+      if (!matches && someLocations != null) {
+        for (String location : someLocations) {
+          if (locations.contains(location)) {
+            matches = true;
+            break;
+          }
+        }
+      }
+      return matches;
+    }
+  }
+}
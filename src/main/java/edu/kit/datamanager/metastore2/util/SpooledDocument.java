@@ -0,0 +1,267 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.exceptions.CustomInternalServerError;
+import edu.kit.datamanager.repo.configuration.RepoBaseConfiguration;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.TeeInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+
+/**
+ * Upload spooled to local disc in a single pass. While spooling the SHA-1 hash
+ * of the document is calculated and the stream may be consumed (e.g. by a
+ * validator) at the same time. The spooled document may be used as a
+ * MultipartFile afterwards. If the storage calls transferTo the spool file is
+ * moved (atomically if supported) to its final location. Otherwise the storage
+ * copies the spool file via getInputStream (one local read, the upload itself
+ * is never read again). In both cases the spool file is removed on close.
+ */
+public final class SpooledDocument implements MultipartFile, Closeable {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(SpooledDocument.class);
+  /**
+   * Name of the directory holding spooled documents (relative to base path).
+   */
+  public static final String SPOOL_DIRECTORY = ".spool";
+  /**
+   * Prefix of the hash.
+   */
+  public static final String HASH_PREFIX = "sha1:";
+
+  private static final String SPOOL_PREFIX = "upload_";
+
+  private static final String SPOOL_SUFFIX = ".tmp";
+
+  private final String name;
+
+  private final String originalFilename;
+
+  private final String contentType;
+
+  private final Path file;
+
+  private final long size;
+
+  private final String hash;
+
+  private boolean transferred = false;
+
+  private SpooledDocument(MultipartFile upload, Path file, long size, String hash) {
+    this.name = upload.getName();
+    this.originalFilename = upload.getOriginalFilename();
+    this.contentType = upload.getContentType();
+    this.file = file;
+    this.size = size;
+    this.hash = hash;
+  }
+
+  /**
+   * Spool upload to the spool directory of the given repository.
+   *
+   * @param configuration Configuration of the repository.
+   * @param upload Uploaded document.
+   * @param consumer Consumer reading the stream while spooling (may be null).
+   * @return Spooled document.
+   * @see #spool(java.nio.file.Path, org.springframework.web.multipart.MultipartFile, java.util.function.Consumer)
+   */
+  public static SpooledDocument spool(RepoBaseConfiguration configuration, MultipartFile upload, Consumer<InputStream> consumer) {
+    return spool(getSpoolDirectory(configuration), upload, consumer);
+  }
+
+  /**
+   * Spool upload to given directory. The stream of the upload is read only
+   * once. All bytes read are written to the spool file and digested. The
+   * consumer gets the same stream and does not have to read it completely.
+   * Remaining bytes are read afterwards. If the consumer throws an exception
+   * the spool file is removed and the exception is rethrown.
+   *
+   * @param spoolDirectory Directory for spooled files.
+   * @param upload Uploaded document.
+   * @param consumer Consumer reading the stream while spooling (may be null).
+   * @return Spooled document.
+   */
+  public static SpooledDocument spool(Path spoolDirectory, MultipartFile upload, Consumer<InputStream> consumer) {
+    Path spoolFile = null;
+    boolean success = false;
+    try {
+      Files.createDirectories(spoolDirectory);
+      spoolFile = Files.createTempFile(spoolDirectory, SPOOL_PREFIX, SPOOL_SUFFIX);
+      LOG.trace("Spool upload '{}' to '{}'.", upload.getOriginalFilename(), spoolFile);
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      long size;
+      try (InputStream inputStream = upload.getInputStream();
+              OutputStream outputStream = Files.newOutputStream(spoolFile);
+              InputStream teeStream = new TeeInputStream(new DigestInputStream(inputStream, digest), outputStream)) {
+        if (consumer != null) {
+          consumer.accept(CloseShieldInputStream.wrap(teeStream));
+        }
+        // Read all remaining bytes (if any).
+        IOUtils.consume(teeStream);
+      }
+      size = Files.size(spoolFile);
+      String hash = HASH_PREFIX + HexFormat.of().formatHex(digest.digest());
+      LOG.trace("Spooled {} bytes with hash '{}'.", size, hash);
+      success = true;
+      return new SpooledDocument(upload, spoolFile, size, hash);
+    } catch (IOException | NoSuchAlgorithmException ex) {
+      String message = "Failed to spool document '" + upload.getOriginalFilename() + "'!";
+      LOG.error(message, ex);
+      throw new CustomInternalServerError(message);
+    } finally {
+      if (!success && spoolFile != null) {
+        DownloadUtil.removeFile(spoolFile);
+      }
+    }
+  }
+
+  /**
+   * Get directory for spooled files of given repository. The spool directory
+   * is located inside the base path to allow atomic moves.
+   *
+   * @param configuration Configuration of the repository.
+   * @return Path to spool directory.
+   */
+  public static Path getSpoolDirectory(RepoBaseConfiguration configuration) {
+    try {
+      return Paths.get(configuration.getBasepath().toURI()).resolve(SPOOL_DIRECTORY);
+    } catch (URISyntaxException ex) {
+      String message = "Invalid base path '" + configuration.getBasepath() + "'!";
+      LOG.error(message, ex);
+      throw new CustomInternalServerError(message);
+    }
+  }
+
+  /**
+   * Get SHA-1 hash of the document (format: 'sha1:<hex>').
+   *
+   * @return the hash
+   */
+  public String getHash() {
+    return hash;
+  }
+
+  /**
+   * Get path of the spooled document.
+   *
+   * @return the path
+   */
+  public Path getPath() {
+    return file;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String getOriginalFilename() {
+    return originalFilename;
+  }
+
+  @Override
+  public String getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public long getSize() {
+    return size;
+  }
+
+  @Override
+  public byte[] getBytes() throws IOException {
+    return Files.readAllBytes(file);
+  }
+
+  /**
+   * Test if spool file was moved to its final location via transferTo.
+   *
+   * @return true if spool file was moved, false if it was copied (or not
+   * stored at all).
+   */
+  public boolean isTransferred() {
+    return transferred;
+  }
+
+  /**
+   * Open the spool file. Used by storages not calling transferTo which copy the
+   * document instead of moving it.
+   *
+   * @return Stream of the spooled document.
+   * @throws IOException Error reading spool file.
+   */
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return Files.newInputStream(file);
+  }
+
+  @Override
+  public void transferTo(File dest) throws IOException {
+    transferTo(dest.toPath());
+  }
+
+  @Override
+  public void transferTo(Path dest) throws IOException {
+    try {
+      Files.move(file, dest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException amnse) {
+      LOG.trace("Atomic move not supported -> move file.", amnse);
+      Files.move(file, dest, StandardCopyOption.REPLACE_EXISTING);
+    }
+    transferred = true;
+  }
+
+  /**
+   * Remove spooled file (if not already moved).
+   */
+  @Override
+  public void close() {
+    if (!transferred) {
+      LOG.trace("Spool file '{}' wasn't moved by storage (copied or not stored) -> remove it.", file);
+      DownloadUtil.removeFile(file);
+    }
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import edu.kit.datamanager.metastore2.dao.IDataResourceSnapshotDao;
+import edu.kit.datamanager.metastore2.domain.DataResourceSnapshot;
+import edu.kit.datamanager.repo.domain.DataResource;
+import io.swagger.v3.core.util.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Materialized snapshots of superseded versions of data resources (schema and
+ * metadata documents). A superseded version never changes, so the serialized
+ * data resource is stored once per (resourceId, version) and read instead of
+ * reconstructing the version from the audit log. Snapshots are written when a
+ * data resource is updated or (lazily) when a version is read from the audit
+ * log.
+ */
+public final class VersionSnapshotUtil {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(VersionSnapshotUtil.class);
+
+  private static IDataResourceSnapshotDao dataResourceSnapshotDao;
+
+  private static final AtomicLong HITS = new AtomicLong();
+
+  private static final AtomicLong MISSES = new AtomicLong();
+
+  /**
+   * Utility class with static methods only.
+   */
+  private VersionSnapshotUtil() {
+  }
+
+  /**
+   * Get snapshot of given version.
+   *
+   * @param resourceId Id of the data resource.
+   * @param version Version of the data resource.
+   * @return Data resource or empty if there is no snapshot.
+   */
+  public static Optional<DataResource> get(String resourceId, long version) {
+    Optional<DataResource> dataResource = Optional.empty();
+    if (dataResourceSnapshotDao != null) {
+      try {
+        dataResource = dataResourceSnapshotDao.findByResourceIdAndVersion(resourceId, version).
+                map(VersionSnapshotUtil::toDataResource);
+      } catch (DataAccessException dae) {
+        LOG.error("Failed to read snapshot of '" + resourceId + "' (version " + version + ")!", dae);
+      }
+    }
+    count(dataResource.isPresent() ? 1 : 0, 1);
+    return dataResource;
+  }
+
+  /**
+   * Get snapshots of all versions in given range with one query.
+   *
+   * @param resourceId Id of the data resource.
+   * @param lowestVersion Lowest version (inclusive).
+   * @param highestVersion Highest version (inclusive).
+   * @return Map holding the available snapshots with version as key.
+   */
+  public static Map<Long, DataResource> getVersions(String resourceId, long lowestVersion, long highestVersion) {
+    Map<Long, DataResource> versions = new HashMap<>();
+    if (dataResourceSnapshotDao == null || lowestVersion > highestVersion) {
+      return versions;
+    }
+    try {
+      for (DataResourceSnapshot snapshot : dataResourceSnapshotDao.findByResourceIdAndVersionBetweenOrderByVersionDesc(resourceId, lowestVersion, highestVersion)) {
+        DataResource dataResource = toDataResource(snapshot);
+        if (dataResource != null) {
+          versions.put(snapshot.getVersion(), dataResource);
+        }
+      }
+    } catch (DataAccessException dae) {
+      LOG.error("Failed to read snapshots of '" + resourceId + "'!", dae);
+    }
+    count(versions.size(), highestVersion - lowestVersion + 1);
+    return versions;
+  }
+
+  /**
+   * Store snapshot of a (superseded) version. An existing snapshot of the same
+   * version is replaced. Data resources exceeding the maximum length are not
+   * stored.
+   *
+   * @param dataResource Data resource holding id and version.
+   */
+  public static void put(DataResource dataResource) {
+    if (dataResourceSnapshotDao == null || dataResource == null || dataResource.getVersion() == null) {
+      return;
+    }
+    try {
+      String document = Json.mapper().writeValueAsString(dataResource);
+      if (document.length() > DataResourceSnapshot.MAX_DOCUMENT_LENGTH) {
+        LOG.debug("Data resource '{}' exceeds maximum length -> no snapshot.", dataResource.getId());
+        return;
+      }
+      Long version = Long.valueOf(dataResource.getVersion());
+      DataResourceSnapshot snapshot = dataResourceSnapshotDao.findByResourceIdAndVersion(dataResource.getId(), version).
+              orElseGet(DataResourceSnapshot::new);
+      snapshot.setResourceId(dataResource.getId());
+      snapshot.setVersion(version);
+      snapshot.setCreationDate(Instant.now());
+      snapshot.setDocument(document);
+      dataResourceSnapshotDao.save(snapshot);
+      LOG.trace("Store snapshot of '{}' (version {}).", dataResource.getId(), version);
+    } catch (JsonProcessingException | NumberFormatException ex) {
+      LOG.error("Failed to serialize data resource '" + dataResource.getId() + "'!", ex);
+    } catch (DataAccessException dae) {
+      // e.g. snapshot was stored concurrently.
+      LOG.debug("Failed to store snapshot of '{}'", dataResource.getId(), dae);
+    }
+  }
+
+  /**
+   * Store snapshot of the previous version if the update created a new
+   * version.
+   *
+   * @param previousVersion Copy of the data resource before the update.
+   * @param updatedVersion Data resource after the update.
+   */
+  public static void putIfSuperseded(DataResource previousVersion, DataResource updatedVersion) {
+    if (previousVersion != null && updatedVersion != null
+            && previousVersion.getVersion() != null && updatedVersion.getVersion() != null
+            && Long.parseLong(updatedVersion.getVersion()) > Long.parseLong(previousVersion.getVersion())) {
+      put(previousVersion);
+    }
+  }
+
+  /**
+   * Test for existing snapshot.
+   *
+   * @param resourceId Id of the data resource.
+   * @param version Version of the data resource.
+   * @return true if snapshot exists.
+   */
+  public static boolean exists(String resourceId, long version) {
+    return dataResourceSnapshotDao != null && dataResourceSnapshotDao.findByResourceIdAndVersion(resourceId, version).isPresent();
+  }
+
+  /**
+   * Remove all snapshots of the given data resource.
+   *
+   * @param resourceId Id of the data resource.
+   */
+  public static void invalidate(String resourceId) {
+    if (dataResourceSnapshotDao != null && resourceId != null) {
+      long noOfDeletedSnapshots = dataResourceSnapshotDao.deleteByResourceId(resourceId);
+      LOG.trace("Remove {} snapshot(s) of '{}'", noOfDeletedSnapshots, resourceId);
+    }
+  }
+
+  /**
+   * Get number of versions read from snapshots.
+   *
+   * @return the hits
+   */
+  public static long getHits() {
+    return HITS.get();
+  }
+
+  /**
+   * Get number of versions not available as snapshot.
+   *
+   * @return the misses
+   */
+  public static long getMisses() {
+    return MISSES.get();
+  }
+
+  /**
+   * Set the DAO for snapshots.
+   *
+   * @param aDataResourceSnapshotDao the dataResourceSnapshotDao to set
+   */
+  public static void setDataResourceSnapshotDao(IDataResourceSnapshotDao aDataResourceSnapshotDao) {
+    dataResourceSnapshotDao = aDataResourceSnapshotDao;
+  }
+
+  private static void count(long hits, long requests) {
+    HITS.addAndGet(hits);
+    MISSES.addAndGet(requests - hits);
+  }
+
+  private static DataResource toDataResource(DataResourceSnapshot snapshot) {
+    try {
+      return Json.mapper().readValue(snapshot.getDocument(), DataResource.class);
+    } catch (JsonProcessingException ex) {
+      LOG.error("Failed to read snapshot of '" + snapshot.getResourceId() + "' (version " + snapshot.getVersion() + ")!", ex);
+      return null;
+    }
+  }
+}
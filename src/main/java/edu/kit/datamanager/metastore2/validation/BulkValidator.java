@@ -0,0 +1,479 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.validation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.kit.datamanager.exceptions.BadArgumentException;
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.metastore2.util.MetricsUtil;
+import edu.kit.datamanager.metastore2.util.SpooledDocument;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Validates many metadata documents against one schema. The schema is resolved
+ * once and compiled once (see CompiledSchemaCache). Entries are read
+ * sequentially from a ZIP/tar archive or a multipart batch and validated in
+ * parallel on a bounded executor. The result of each entry is written as a
+ * single line of JSON (NDJSON) as soon as the entry is validated. The last line
+ * holds a summary.
+ * <pre>
+ * {"index":0,"name":"a.xml","valid":true}
+ * {"index":1,"name":"b.xml","valid":false,"errors":["..."]}
+ * {"summary":true,"total":2,"valid":1,"invalid":1}
+ * </pre>
+ */
+public class BulkValidator {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(BulkValidator.class);
+  /**
+   * Media type of the response.
+   */
+  public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+  /**
+   * Media type for ZIP archives.
+   */
+  public static final String ZIP_MEDIA_TYPE = "application/zip";
+  /**
+   * Media type for tar archives.
+   */
+  public static final String TAR_MEDIA_TYPE = "application/x-tar";
+  /**
+   * Media type for gzipped tar archives.
+   */
+  public static final String GZIP_MEDIA_TYPE = "application/gzip";
+  /**
+   * Default for number of threads used for validation.
+   */
+  public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+  /**
+   * Default for maximum size of a single entry (10 MB).
+   */
+  public static final long DEFAULT_MAX_ENTRY_SIZE = 10L * 1024L * 1024L;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static ExecutorService executor = null;
+
+  private static int threads = DEFAULT_THREADS;
+
+  private static long maxEntrySize = DEFAULT_MAX_ENTRY_SIZE;
+
+  private final SchemaRecord schemaRecord;
+
+  private final IValidator validator;
+
+  private final File schemaFile;
+
+  /**
+   * Constructor.
+   *
+   * @param schemaRecord Record of the schema.
+   * @param validator Validator applicable for the schema.
+   * @param schemaFile Schema document.
+   */
+  public BulkValidator(SchemaRecord schemaRecord, IValidator validator, File schemaFile) {
+    this.schemaRecord = getCacheableSchemaRecord(schemaRecord, schemaFile);
+    this.validator = validator;
+    this.schemaFile = schemaFile;
+  }
+
+  /**
+   * Configure executor and limits for all bulk validations.
+   *
+   * @param aThreads Number of threads used for validation.
+   * @param aMaxEntrySize Maximum size of a single entry in bytes.
+   */
+  public static synchronized void configure(int aThreads, long aMaxEntrySize) {
+    threads = (aThreads > 0) ? aThreads : DEFAULT_THREADS;
+    maxEntrySize = aMaxEntrySize;
+    if (executor != null) {
+      executor.shutdown();
+    }
+    executor = Executors.newFixedThreadPool(threads, new ValidationThreadFactory());
+    LOG.info("Bulk validation: threads: '{}', max. entry size: '{}' bytes", threads, maxEntrySize);
+  }
+
+  /**
+   * Get bounded executor shared by all bulk operations.
+   *
+   * @return executor
+   */
+  public static synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      configure(threads, maxEntrySize);
+    }
+    return executor;
+  }
+
+  /**
+   * Validate all entries and write the results as NDJSON. At most twice as
+   * many entries as threads are held in memory at once.
+   *
+   * @param entries Entries to validate.
+   * @param outputStream Stream for the results.
+   * @return Summary of the validation.
+   * @throws IOException Error reading entries or writing results.
+   */
+  public Summary validate(EntryReader entries, OutputStream outputStream) throws IOException {
+    ExecutorService validationExecutor = getExecutor();
+    int maxInFlight = 2 * threads;
+    Semaphore inFlight = new Semaphore(maxInFlight);
+    AtomicInteger noOfValidEntries = new AtomicInteger();
+    AtomicInteger noOfInvalidEntries = new AtomicInteger();
+    AtomicReference<IOException> writeError = new AtomicReference<>();
+    int index = 0;
+    String readError = null;
+    try {
+      Entry entry;
+      while (writeError.get() == null && (entry = entries.next()) != null) {
+        inFlight.acquire();
+        final Entry currentEntry = entry;
+        final int currentIndex = index++;
+        validationExecutor.execute(() -> {
+          try {
+            ObjectNode result = validateEntry(currentIndex, currentEntry);
+            if (result.get("valid").asBoolean()) {
+              noOfValidEntries.incrementAndGet();
+            } else {
+              noOfInvalidEntries.incrementAndGet();
+            }
+            writeLine(outputStream, result, writeError);
+          } finally {
+            inFlight.release();
+          }
+        });
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Bulk validation interrupted!");
+    } catch (IOException ex) {
+      LOG.error("Error reading entries!", ex);
+      readError = "Error reading entry " + index + ": " + ex.getMessage();
+    } finally {
+      // Wait for all pending validations.
+      inFlight.acquireUninterruptibly(maxInFlight);
+    }
+    if (writeError.get() != null) {
+      throw writeError.get();
+    }
+    Summary summary = new Summary(index, noOfValidEntries.get(), noOfInvalidEntries.get());
+    ObjectNode summaryNode = MAPPER.createObjectNode();
+    summaryNode.put("summary", true);
+    summaryNode.put("total", summary.getTotal());
+    summaryNode.put("valid", summary.getValid());
+    summaryNode.put("invalid", summary.getInvalid());
+    if (readError != null) {
+      summaryNode.put("error", readError);
+    }
+    writeLine(outputStream, summaryNode, writeError);
+    if (writeError.get() != null) {
+      throw writeError.get();
+    }
+    LOG.trace("Bulk validation finished: {}", summaryNode);
+    return summary;
+  }
+
+  private ObjectNode validateEntry(int index, Entry entry) {
+    ObjectNode result = MAPPER.createObjectNode();
+    result.put("index", index);
+    result.put("name", entry.name);
+    List<String> errors;
+    if (entry.error != null) {
+      errors = List.of(entry.error);
+    } else {
+      try {
+        ValidationResult validationResult = MetricsUtil.recordValidation(schemaRecord, () -> validator.validateMetadataDocument(schemaRecord, schemaFile, new ByteArrayInputStream(entry.content)));
+        errors = validationResult.getErrors();
+        if (!validationResult.isValid() && errors.isEmpty()) {
+          errors = List.of(String.valueOf(validationResult.getErrorMessage()));
+        }
+      } catch (RuntimeException ex) {
+        LOG.error("Error validating entry '" + entry.name + "'!", ex);
+        errors = List.of((ex.getMessage() != null) ? ex.getMessage() : ex.toString());
+      }
+    }
+    result.put("valid", errors.isEmpty());
+    if (!errors.isEmpty()) {
+      ArrayNode errorNode = result.putArray("errors");
+      errors.forEach(errorNode::add);
+    }
+    return result;
+  }
+
+  private static void writeLine(OutputStream outputStream, ObjectNode line, AtomicReference<IOException> writeError) {
+    synchronized (outputStream) {
+      if (writeError.get() == null) {
+        try {
+          outputStream.write(MAPPER.writeValueAsBytes(line));
+          outputStream.write('\n');
+          outputStream.flush();
+        } catch (IOException ex) {
+          LOG.warn("Error writing result -> abort bulk validation: {}", ex.getMessage());
+          writeError.compareAndSet(null, ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * Make sure that the schema is cacheable (schema record with document hash).
+   *
+   * @param schemaRecord Record of the schema.
+   * @param schemaFile Schema document.
+   * @return Schema record with document hash.
+   */
+  private static SchemaRecord getCacheableSchemaRecord(SchemaRecord schemaRecord, File schemaFile) {
+    if (schemaRecord == null || schemaRecord.getDocumentHash() != null) {
+      return schemaRecord;
+    }
+    SchemaRecord cacheableRecord = new SchemaRecord();
+    cacheableRecord.setSchemaId(schemaRecord.getSchemaId());
+    cacheableRecord.setVersion(schemaRecord.getVersion());
+    cacheableRecord.setType(schemaRecord.getType());
+    cacheableRecord.setSchemaDocumentUri(schemaRecord.getSchemaDocumentUri());
+    cacheableRecord.setAlternateId(schemaRecord.getAlternateId());
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      cacheableRecord.setDocumentHash(SpooledDocument.HASH_PREFIX + HexFormat.of().formatHex(digest.digest(FileUtils.readFileToByteArray(schemaFile))));
+    } catch (IOException | NoSuchAlgorithmException ex) {
+      LOG.warn("Can't determine hash of schema '{}' -> schema is compiled for each entry.", schemaFile);
+      return schemaRecord;
+    }
+    return cacheableRecord;
+  }
+
+  /**
+   * Create reader for entries of a multipart batch.
+   *
+   * @param documents All documents of the batch.
+   * @return Reader for all entries.
+   */
+  public static EntryReader fromMultipart(List<MultipartFile> documents) {
+    Iterator<MultipartFile> iterator = documents.iterator();
+    return () -> {
+      Entry entry = null;
+      if (iterator.hasNext()) {
+        MultipartFile document = iterator.next();
+        String name = (document.getOriginalFilename() != null) ? document.getOriginalFilename() : document.getName();
+        try (InputStream inputStream = document.getInputStream()) {
+          entry = readEntry(name, inputStream);
+        }
+      }
+      return entry;
+    };
+  }
+
+  /**
+   * Create reader for entries of an archive. Directories are skipped.
+   *
+   * @param mediaType Media type of the archive (ZIP, tar or gzipped tar).
+   * @param inputStream Stream of the archive.
+   * @return Reader for all entries.
+   * @throws IOException Error reading archive.
+   */
+  public static EntryReader fromArchive(String mediaType, InputStream inputStream) throws IOException {
+    String type = (mediaType != null) ? mediaType.split(";", -1)[0].trim().toLowerCase() : "";
+    switch (type) {
+      case ZIP_MEDIA_TYPE:
+        return fromZip(inputStream);
+      case TAR_MEDIA_TYPE:
+        return fromTar(inputStream);
+      case GZIP_MEDIA_TYPE:
+        return fromTar(new GZIPInputStream(inputStream));
+      default:
+        String message = "Unsupported archive type '" + mediaType + "'! Supported types: " + List.of(ZIP_MEDIA_TYPE, TAR_MEDIA_TYPE, GZIP_MEDIA_TYPE);
+        LOG.error(message);
+        throw new BadArgumentException(message);
+    }
+  }
+
+  private static EntryReader fromZip(InputStream inputStream) {
+    ZipInputStream zipStream = new ZipInputStream(inputStream);
+    return () -> {
+      ZipEntry zipEntry;
+      while ((zipEntry = zipStream.getNextEntry()) != null) {
+        if (!zipEntry.isDirectory()) {
+          return readEntry(zipEntry.getName(), zipStream);
+        }
+      }
+      return null;
+    };
+  }
+
+  private static EntryReader fromTar(InputStream inputStream) {
+    TarArchiveInputStream tarStream = new TarArchiveInputStream(inputStream);
+    return () -> {
+      TarArchiveEntry tarEntry;
+      while ((tarEntry = tarStream.getNextEntry()) != null) {
+        if (tarEntry.isFile()) {
+          return readEntry(tarEntry.getName(), tarStream);
+        }
+      }
+      return null;
+    };
+  }
+
+  /**
+   * Read content of an entry. Entries exceeding the maximum size are not read
+   * completely and are reported as invalid.
+   *
+   * @param name Name of the entry.
+   * @param inputStream Stream positioned at the content of the entry.
+   * @return Entry.
+   * @throws IOException Error reading entry.
+   */
+  static Entry readEntry(String name, InputStream inputStream) throws IOException {
+    int limit = (int) Math.min(maxEntrySize + 1, Integer.MAX_VALUE - 8L);
+    byte[] content = inputStream.readNBytes(limit);
+    if (content.length > maxEntrySize) {
+      return new Entry(name, null, "Entry exceeds maximum size of " + maxEntrySize + " bytes!");
+    }
+    return new Entry(name, content, null);
+  }
+
+  /**
+   * Reader for entries to validate.
+   */
+  @FunctionalInterface
+  public interface EntryReader {
+
+    /**
+     * Read next entry.
+     *
+     * @return next entry or null if there are no more entries.
+     * @throws IOException Error reading entry.
+     */
+    Entry next() throws IOException;
+  }
+
+  /**
+   * Single entry to validate.
+   */
+  public static final class Entry {
+
+    private final String name;
+
+    private final byte[] content;
+
+    private final String error;
+
+    Entry(String name, byte[] content, String error) {
+      this.name = name;
+      this.content = content;
+      this.error = error;
+    }
+
+    /**
+     * Get name of the entry.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return name;
+    }
+  }
+
+  /**
+   * Summary of a bulk validation.
+   */
+  public static final class Summary {
+
+    private final int total;
+
+    private final int valid;
+
+    private final int invalid;
+
+    Summary(int total, int valid, int invalid) {
+      this.total = total;
+      this.valid = valid;
+      this.invalid = invalid;
+    }
+
+    /**
+     * Get number of entries.
+     *
+     * @return the total
+     */
+    public int getTotal() {
+      return total;
+    }
+
+    /**
+     * Get number of valid entries.
+     *
+     * @return number of valid entries
+     */
+    public int getValid() {
+      return valid;
+    }
+
+    /**
+     * Get number of invalid entries.
+     *
+     * @return number of invalid entries
+     */
+    public int getInvalid() {
+      return invalid;
+    }
+  }
+
+  /**
+   * Thread factory for daemon threads with meaningful names.
+   */
+  private static final class ValidationThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "bulk-validation-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
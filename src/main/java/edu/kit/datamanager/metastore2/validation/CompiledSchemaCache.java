@@ -0,0 +1,298 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.validation;
+
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache for compiled schemas (e.g. XSD or JSON schema) used by the
+ * validators. Entries are keyed by schemaId, version and document hash of the
+ * schema record. The cache is limited by the number of entries and by the
+ * accumulated size of the underlying schema documents.
+ *
+ * @param <T> Type of the compiled schema.
+ */
+public class CompiledSchemaCache<T> {
+
+  /**
+   * Logger for messages.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(CompiledSchemaCache.class);
+  /**
+   * Separator for the parts of the key.
+   */
+  private static final String KEY_SEPARATOR = "#";
+  /**
+   * Separator between schemaId and version.
+   */
+  private static final String SCHEMA_ID_SEPARATOR = "/";
+  /**
+   * Default for maximum number of entries per cache.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 100;
+  /**
+   * Default for maximum size of all cached schema documents per cache (50 MB).
+   */
+  public static final long DEFAULT_MAX_SIZE = 50L * 1024L * 1024L;
+  /**
+   * All registered caches.
+   */
+  private static final List<CompiledSchemaCache<?>> ALL_CACHES = new CopyOnWriteArrayList<>();
+
+  private static int maxEntries = DEFAULT_MAX_ENTRIES;
+
+  private static long maxSize = DEFAULT_MAX_SIZE;
+
+  private final String name;
+
+  private final LinkedHashMap<String, CacheEntry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long currentSize = 0;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Constructor. The cache is registered for metrics and invalidation.
+   *
+   * @param name Name of the cache (e.g. 'xml', 'json').
+   */
+  public CompiledSchemaCache(String name) {
+    this.name = name;
+    ALL_CACHES.add(this);
+  }
+
+  /**
+   * Get compiled schema from cache. If not available the schema will be
+   * compiled and put into the cache. Schema records without schemaId, version
+   * or document hash (e.g. downloaded schemas) are compiled but not cached.
+   *
+   * @param schemaRecord Record of the schema.
+   * @param size Size of the schema document in bytes.
+   * @param compiler Compiles the schema if not cached.
+   * @return Compiled schema.
+   * @throws Exception Error while compiling schema.
+   */
+  public T get(SchemaRecord schemaRecord, long size, Callable<T> compiler) throws Exception {
+    String key = getKey(schemaRecord);
+    if (key == null || maxEntries <= 0) {
+      LOG.trace("Schema is not cacheable -> compile schema.");
+      return compiler.call();
+    }
+    synchronized (this) {
+      CacheEntry<T> entry = entries.get(key);
+      if (entry != null) {
+        hits.incrementAndGet();
+        LOG.trace("Cache '{}': hit for '{}'", name, key);
+        return entry.schema;
+      }
+    }
+    misses.incrementAndGet();
+    LOG.trace("Cache '{}': miss for '{}'", name, key);
+    // Compile outside the lock. Concurrent compilations of the same schema
+    // result in the same compiled schema.
+    T schema = compiler.call();
+    put(key, schema, size);
+    return schema;
+  }
+
+  /**
+   * Remove all entries of the given schema (all versions).
+   *
+   * @param schemaId SchemaId (with or without version).
+   */
+  public synchronized void invalidate(String schemaId) {
+    if (schemaId != null) {
+      String prefix = schemaId.split(SCHEMA_ID_SEPARATOR, -1)[0] + SCHEMA_ID_SEPARATOR;
+      Iterator<Map.Entry<String, CacheEntry<T>>> iterator = entries.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<String, CacheEntry<T>> entry = iterator.next();
+        if (entry.getKey().startsWith(prefix)) {
+          LOG.trace("Cache '{}': invalidate '{}'", name, entry.getKey());
+          currentSize -= entry.getValue().size;
+          iterator.remove();
+          evictions.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove all entries from cache.
+   */
+  public synchronized void invalidateAll() {
+    evictions.addAndGet(entries.size());
+    entries.clear();
+    currentSize = 0;
+  }
+
+  /**
+   * Remove all entries of the given schema from all registered caches.
+   *
+   * @param schemaId SchemaId (with or without version).
+   */
+  public static void invalidateSchema(String schemaId) {
+    for (CompiledSchemaCache<?> cache : ALL_CACHES) {
+      cache.invalidate(schemaId);
+    }
+  }
+
+  /**
+   * Get all registered caches.
+   *
+   * @return Unmodifiable list of all caches.
+   */
+  public static List<CompiledSchemaCache<?>> getAllCaches() {
+    return Collections.unmodifiableList(ALL_CACHES);
+  }
+
+  /**
+   * Configure limits for all caches. A value less or equal to 0 for the maximum
+   * number of entries disables caching.
+   *
+   * @param aMaxEntries Maximum number of entries per cache.
+   * @param aMaxSize Maximum size of all cached schema documents per cache.
+   */
+  public static void configure(int aMaxEntries, long aMaxSize) {
+    maxEntries = aMaxEntries;
+    maxSize = aMaxSize;
+    LOG.info("Compiled schema cache: max. entries: '{}', max. size: '{}' bytes", maxEntries, maxSize);
+    for (CompiledSchemaCache<?> cache : ALL_CACHES) {
+      cache.shrink();
+    }
+  }
+
+  /**
+   * Build key for schema record.
+   *
+   * @param schemaRecord Record of the schema.
+   * @return Key or null if schema record is not cacheable.
+   */
+  static String getKey(SchemaRecord schemaRecord) {
+    String key = null;
+    if (schemaRecord != null
+            && schemaRecord.getSchemaId() != null
+            && schemaRecord.getVersion() != null
+            && schemaRecord.getDocumentHash() != null) {
+      key = schemaRecord.getSchemaIdWithoutVersion() + SCHEMA_ID_SEPARATOR + schemaRecord.getVersion() + KEY_SEPARATOR + schemaRecord.getDocumentHash();
+    }
+    return key;
+  }
+
+  private synchronized void put(String key, T schema, long size) {
+    CacheEntry<T> old = entries.put(key, new CacheEntry<>(schema, size));
+    if (old != null) {
+      currentSize -= old.size;
+    }
+    currentSize += size;
+    shrink();
+  }
+
+  private synchronized void shrink() {
+    Iterator<Map.Entry<String, CacheEntry<T>>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext() && ((entries.size() > maxEntries) || (currentSize > maxSize))) {
+      Map.Entry<String, CacheEntry<T>> eldest = iterator.next();
+      LOG.trace("Cache '{}': evict '{}'", name, eldest.getKey());
+      currentSize -= eldest.getValue().size;
+      iterator.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  /**
+   * Get name of the cache.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get number of cache hits.
+   *
+   * @return the hits
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Get number of cache misses.
+   *
+   * @return the misses
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Get number of evicted entries.
+   *
+   * @return the evictions
+   */
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /**
+   * Get number of cached entries.
+   *
+   * @return number of entries
+   */
+  public synchronized int getSize() {
+    return entries.size();
+  }
+
+  /**
+   * Get accumulated size of all cached schema documents.
+   *
+   * @return size in bytes
+   */
+  public synchronized long getWeight() {
+    return currentSize;
+  }
+
+  /**
+   * Entry of the cache.
+   *
+   * @param <T> Type of the compiled schema.
+   */
+  private static final class CacheEntry<T> {
+
+    private final T schema;
+    private final long size;
+
+    CacheEntry(T schema, long size) {
+      this.schema = schema;
+      this.size = size;
+    }
+  }
+}
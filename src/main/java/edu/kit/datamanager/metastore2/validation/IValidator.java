@@ -16,6 +16,7 @@
 package edu.kit.datamanager.metastore2.validation;
 
 import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
 
 import java.io.File;
 import java.io.InputStream;
@@ -26,15 +27,6 @@ import java.io.InputStream;
  */
 public interface IValidator {
 
-  /**
-   * Get an instance of the validator.
-   *
-   * @return instance of validator.
-   */
-  default IValidator getInstance() {
-    return this;
-  }
-
   /**
    * Supports the given schema type.
    *
@@ -58,29 +50,38 @@ public interface IValidator {
   boolean supportsMimetype(String mimetype);
 
   /**
-   * Is given schema valid.
+   * Validate schema document. Implementations have to be stateless and
+   * thread-safe as one instance is shared by all requests.
    *
    * @param schemaStream Stream containing schema.
    *
-   * @return Schema is valid or not.
+   * @return Result of the validation.
    */
-  boolean isSchemaValid(InputStream schemaStream);
+  ValidationResult validateSchemaDocument(InputStream schemaStream);
 
   /**
-   * Validate metadata document with metadata schema. In case of invalid schema
-   * an explanation may be available via getErrorMessage.
+   * Validate metadata document with metadata schema. Implementations have to be
+   * stateless and thread-safe as one instance is shared by all requests.
    *
    * @param schemaFile File containing schema.
    * @param metadataDocumentStream Stream containing metadata document.
    * 
-   * @return valid or not.
+   * @return Result of the validation.
    */
-  boolean validateMetadataDocument(File schemaFile, InputStream metadataDocumentStream);
+  default ValidationResult validateMetadataDocument(File schemaFile, InputStream metadataDocumentStream) {
+    return validateMetadataDocument(null, schemaFile, metadataDocumentStream);
+  }
 
   /**
-   * Get the error message if available.
+   * Validate metadata document with metadata schema. The compiled schema may
+   * be reused for all documents validated against the same schema record.
+   *
+   * @param schemaRecord Record of the schema (schemaId, version and hash) or
+   * NULL if compiled schema should not be cached.
+   * @param schemaFile File containing schema.
+   * @param metadataDocumentStream Stream containing metadata document.
    *
-   * @return error message or NULL if validation was successful.
+   * @return Result of the validation.
    */
-  String getErrorMessage();
+  ValidationResult validateMetadataDocument(SchemaRecord schemaRecord, File schemaFile, InputStream metadataDocumentStream);
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.validation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of a validation. Holds the validation state and (in case of
+ * an invalid document) an error message and all single errors found.
+ */
+public final class ValidationResult {
+
+  /**
+   * Result of a successful validation.
+   */
+  private static final ValidationResult VALID = new ValidationResult(true, null, Collections.emptyList());
+
+  private final boolean valid;
+
+  private final String errorMessage;
+
+  private final List<String> errors;
+
+  private ValidationResult(boolean valid, String errorMessage, List<String> errors) {
+    this.valid = valid;
+    this.errorMessage = errorMessage;
+    this.errors = errors;
+  }
+
+  /**
+   * Get result for successful validation.
+   *
+   * @return valid result.
+   */
+  public static ValidationResult valid() {
+    return VALID;
+  }
+
+  /**
+   * Get result for failed validation.
+   *
+   * @param errorMessage Error message.
+   * @return invalid result.
+   */
+  public static ValidationResult invalid(String errorMessage) {
+    return invalid(errorMessage, (errorMessage == null) ? Collections.emptyList() : List.of(errorMessage));
+  }
+
+  /**
+   * Get result for failed validation.
+   *
+   * @param errorMessage Error message summarizing all errors.
+   * @param errors All single errors.
+   * @return invalid result.
+   */
+  public static ValidationResult invalid(String errorMessage, List<String> errors) {
+    return new ValidationResult(false, errorMessage, List.copyOf(errors));
+  }
+
+  /**
+   * Is validation successful.
+   *
+   * @return valid or not.
+   */
+  public boolean isValid() {
+    return valid;
+  }
+
+  /**
+   * Get the error message if available.
+   *
+   * @return error message or NULL if validation was successful.
+   */
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  /**
+   * Get all single errors.
+   *
+   * @return unmodifiable list of errors (empty if validation was successful).
+   */
+  public List<String> getErrors() {
+    return errors;
+  }
+
+  @Override
+  public String toString() {
+    return valid ? "ValidationResult{valid}" : "ValidationResult{invalid: " + errors + "}";
+  }
+}
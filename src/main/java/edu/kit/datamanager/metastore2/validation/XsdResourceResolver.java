@@ -0,0 +1,245 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.validation;
+
+import edu.kit.datamanager.metastore2.domain.Url2Path;
+import edu.kit.datamanager.metastore2.util.ExternalSchemaCache;
+import edu.kit.datamanager.metastore2.util.SchemaRecordCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolver for schema documents included or imported by an XSD. Remote schema
+ * documents are resolved in the following order:
+ * <ol>
+ * <li>Schema documents registered at this instance (table Url2Path, read via
+ * SchemaRecordCache).</li>
+ * <li>External schema cache (see ExternalSchemaCache) which downloads and
+ * revalidates the document if necessary.</li>
+ * </ol>
+ * If the external schema cache is disabled remote schema documents are
+ * resolved by the schema factory itself, as are local schema documents.
+ */
+public class XsdResourceResolver implements LSResourceResolver {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(XsdResourceResolver.class);
+
+  private static final AtomicLong HITS = new AtomicLong();
+
+  @Override
+  public LSInput resolveResource(String type, String namespaceURI, String publicId, String systemId, String baseURI) {
+    LSInput input = null;
+    URI resourceUri = getResourceUri(systemId, baseURI);
+    if (isRemote(resourceUri)) {
+      Path localFile = getLocalFile(resourceUri);
+      if (localFile != null) {
+        LOG.trace("Resolve '{}' -> '{}'", resourceUri, localFile);
+        // Keep the original URL as systemId. Relative includes of the resolved
+        // document are resolved against the original URL.
+        input = new LocalInput(publicId, resourceUri.toString(), baseURI, localFile);
+      }
+    }
+    return input;
+  }
+
+  /**
+   * Get local file for a remote schema document.
+   *
+   * @param resourceUri URL of the schema document.
+   * @return Path to the local file or null if not available.
+   */
+  private Path getLocalFile(URI resourceUri) {
+    String url = resourceUri.toString();
+    Optional<Url2Path> findByUrl = SchemaRecordCache.findByUrl(url);
+    if (findByUrl.isPresent()) {
+      Path registeredFile = Paths.get(URI.create(findByUrl.get().getPath()));
+      if (Files.isReadable(registeredFile)) {
+        HITS.incrementAndGet();
+        return registeredFile;
+      }
+    }
+    if (!ExternalSchemaCache.isEnabled()) {
+      return null;
+    }
+    try {
+      return ExternalSchemaCache.getResource(resourceUri);
+    } catch (RuntimeException ex) {
+      LOG.warn("Failed to get '{}' from external schema cache: {}", url, ex.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Build absolute URI of the resource.
+   *
+   * @param systemId SystemId of the resource (may be relative).
+   * @param baseURI URI of the referencing document (may be null).
+   * @return absolute URI or null if not resolvable.
+   */
+  static URI getResourceUri(String systemId, String baseURI) {
+    URI resourceUri = null;
+    if (systemId != null) {
+      try {
+        resourceUri = new URI(systemId);
+        if (!resourceUri.isAbsolute() && baseURI != null) {
+          resourceUri = new URI(baseURI).resolve(resourceUri);
+        }
+      } catch (URISyntaxException | IllegalArgumentException ex) {
+        LOG.trace("Can't resolve systemId '{}' (base: '{}')", systemId, baseURI);
+        resourceUri = null;
+      }
+    }
+    return resourceUri;
+  }
+
+  private static boolean isRemote(URI resourceUri) {
+    return resourceUri != null
+            && resourceUri.isAbsolute()
+            && ("http".equalsIgnoreCase(resourceUri.getScheme()) || "https".equalsIgnoreCase(resourceUri.getScheme()));
+  }
+
+  /**
+   * Get number of schema documents resolved via registered schema documents.
+   * (Hits of the external schema cache are counted there.)
+   *
+   * @return the hits
+   */
+  public static long getHits() {
+    return HITS.get();
+  }
+
+  /**
+   * Input reading a schema document from local disc.
+   */
+  private static final class LocalInput implements LSInput {
+
+    private String publicId;
+
+    private String systemId;
+
+    private String baseURI;
+
+    private final Path file;
+
+    LocalInput(String publicId, String systemId, String baseURI, Path file) {
+      this.publicId = publicId;
+      this.systemId = systemId;
+      this.baseURI = baseURI;
+      this.file = file;
+    }
+
+    @Override
+    public Reader getCharacterStream() {
+      return null;
+    }
+
+    @Override
+    public void setCharacterStream(Reader characterStream) {
+      // not supported
+    }
+
+    @Override
+    public InputStream getByteStream() {
+      try {
+        return Files.newInputStream(file);
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+
+    @Override
+    public void setByteStream(InputStream byteStream) {
+      // not supported
+    }
+
+    @Override
+    public String getStringData() {
+      return null;
+    }
+
+    @Override
+    public void setStringData(String stringData) {
+      // not supported
+    }
+
+    @Override
+    public String getSystemId() {
+      return systemId;
+    }
+
+    @Override
+    public void setSystemId(String systemId) {
+      this.systemId = systemId;
+    }
+
+    @Override
+    public String getPublicId() {
+      return publicId;
+    }
+
+    @Override
+    public void setPublicId(String publicId) {
+      this.publicId = publicId;
+    }
+
+    @Override
+    public String getBaseURI() {
+      return baseURI;
+    }
+
+    @Override
+    public void setBaseURI(String baseURI) {
+      this.baseURI = baseURI;
+    }
+
+    @Override
+    public String getEncoding() {
+      return null;
+    }
+
+    @Override
+    public void setEncoding(String encoding) {
+      // not supported
+    }
+
+    @Override
+    public boolean getCertifiedText() {
+      return false;
+    }
+
+    @Override
+    public void setCertifiedText(boolean certifiedText) {
+      // not supported
+    }
+  }
+}
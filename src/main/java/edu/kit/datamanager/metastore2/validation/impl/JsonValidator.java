@@ -5,10 +5,15 @@
  */
 package edu.kit.datamanager.metastore2.validation.impl;
 
+import com.networknt.schema.JsonSchema;
 import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
 import edu.kit.datamanager.metastore2.exception.JsonValidationException;
 import edu.kit.datamanager.metastore2.util.JsonUtils;
+import edu.kit.datamanager.metastore2.validation.CompiledSchemaCache;
 import edu.kit.datamanager.metastore2.validation.IValidator;
+import edu.kit.datamanager.metastore2.validation.ValidationResult;
+import jakarta.annotation.PostConstruct;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +23,8 @@ import org.springframework.stereotype.Component;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class for validating JSON files.
@@ -26,12 +33,19 @@ import java.io.InputStream;
 public class JsonValidator implements IValidator {
 
   private static final Logger LOG = LoggerFactory.getLogger(JsonValidator.class);
+  /**
+   * Cache for compiled JSON schemas.
+   */
+  private static final CompiledSchemaCache<JsonSchema> SCHEMA_CACHE = new CompiledSchemaCache<>("json");
 
-  private String errorMessage;
-
-  @Override
-  public IValidator getInstance() {
-    return new JsonValidator();
+  /**
+   * Prepare JSON schema factories and meta schemas of all supported versions
+   * at startup.
+   */
+  @PostConstruct
+  public void warmUp() {
+    LOG.trace("Warming up JSON schema factories.");
+    JsonUtils.warmUp();
   }
 
   @Override
@@ -45,48 +59,91 @@ public class JsonValidator implements IValidator {
   }
 
   @Override
-  public boolean isSchemaValid(InputStream schemaStream) {
+  public ValidationResult validateSchemaDocument(InputStream schemaStream) {
     LOG.trace("Checking JSON schema for validity.");
-    boolean result = false;
+    ValidationResult result;
     try {
-      result = JsonUtils.validateJsonSchemaDocument(schemaStream);
-      LOG.trace("Is JSON schema valid? -> {}", result);
+      boolean valid = JsonUtils.validateJsonSchemaDocument(schemaStream);
+      LOG.trace("Is JSON schema valid? -> {}", valid);
+      result = valid ? ValidationResult.valid() : ValidationResult.invalid(JsonUtils.ERROR_VALIDATING_SCHEMA);
     } catch (JsonValidationException jvex) {
       LOG.error("Failed to validate JSON schema.", jvex);
-      errorMessage = jvex.getMessage();
+      result = createInvalidResult(jvex.getMessage());
     }
     return result;
   }
 
   @Override
-  public boolean validateMetadataDocument(File schemaFile, InputStream metadataDocumentStream) {
+  public ValidationResult validateMetadataDocument(SchemaRecord schemaRecord, File schemaFile, InputStream metadataDocumentStream) {
     LOG.trace("Checking metadata document using schema at {}.", schemaFile);
-    boolean valid = false;
-    InputStream jsonSchemaDocumentStream;
+    ValidationResult result;
 
     try {
-      LOG.trace("Reading metadata document from stream.");
-      jsonSchemaDocumentStream = FileUtils.openInputStream(schemaFile);
+      LOG.trace("Obtaining compiled JSON schema.");
+      JsonSchema jsonSchema = SCHEMA_CACHE.get(schemaRecord, schemaFile.length(), () -> compileSchema(schemaFile));
 
       LOG.trace("Validate JSON document");
-      valid = JsonUtils.validateJson(metadataDocumentStream, jsonSchemaDocumentStream);
+      boolean valid = JsonUtils.validateJson(metadataDocumentStream, jsonSchema);
       LOG.trace("Is JSON document valid? -> {}", valid);
+      result = valid ? ValidationResult.valid() : ValidationResult.invalid(JsonUtils.ERROR_VALIDATING_JSON_DOCUMENT);
     } catch (NullPointerException npe) {
-      errorMessage = "Schema or document are not allowed to be NULL";
+      String errorMessage = "Schema or document are not allowed to be NULL";
       LOG.error(errorMessage);
+      result = ValidationResult.invalid(errorMessage);
     } catch (IOException ex) {
       LOG.error("Error reading schema at '{}'", schemaFile);
-      errorMessage = ex.getMessage();
+      result = ValidationResult.invalid(ex.getMessage());
     } catch (JsonValidationException jvex) {
       LOG.error("Failed to validate JSON document.", jvex);
-      errorMessage = jvex.getMessage();
+      result = createInvalidResult(jvex.getMessage());
+    } catch (Exception ex) {
+      LOG.error("Failed to compile JSON schema.", ex);
+      result = ValidationResult.invalid(ex.getMessage());
     }
 
-    return valid;
+    return result;
   }
 
-  @Override
-  public String getErrorMessage() {
-    return errorMessage;
+  /**
+   * Get cache holding compiled JSON schemas.
+   *
+   * @return cache for compiled schemas.
+   */
+  public static CompiledSchemaCache<JsonSchema> getSchemaCache() {
+    return SCHEMA_CACHE;
+  }
+
+  /**
+   * Read and compile JSON schema from file.
+   *
+   * @param schemaFile File containing schema.
+   * @return compiled schema.
+   * @throws IOException Error reading schema file.
+   */
+  private static JsonSchema compileSchema(File schemaFile) throws IOException {
+    LOG.trace("Reading JSON schema from file.");
+    try (InputStream jsonSchemaDocumentStream = FileUtils.openInputStream(schemaFile)) {
+      return JsonUtils.compileJsonSchema(jsonSchemaDocumentStream);
+    }
+  }
+
+  /**
+   * Create result for failed validation. The message starts with a headline
+   * followed by one line per error.
+   *
+   * @param errorMessage Error message.
+   * @return invalid result.
+   */
+  private static ValidationResult createInvalidResult(String errorMessage) {
+    List<String> errors = new ArrayList<>();
+    if (errorMessage != null) {
+      String[] lines = errorMessage.split("\n");
+      for (int index = (lines.length > 1) ? 1 : 0; index < lines.length; index++) {
+        if (!lines[index].isBlank()) {
+          errors.add(lines[index]);
+        }
+      }
+    }
+    return ValidationResult.invalid(errorMessage, errors);
   }
 }
@@ -6,13 +6,19 @@
 package edu.kit.datamanager.metastore2.validation.impl;
 
 import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.metastore2.validation.CompiledSchemaCache;
 import edu.kit.datamanager.metastore2.validation.IValidator;
+import edu.kit.datamanager.metastore2.validation.ValidationResult;
+import edu.kit.datamanager.metastore2.validation.XsdResourceResolver;
 import org.apache.xerces.impl.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.XMLConstants;
@@ -27,6 +33,8 @@ import javax.xml.validation.Validator;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class for validating XML files.
@@ -35,8 +43,22 @@ import java.io.InputStream;
 public class XmlValidator implements IValidator {
 
   private static final Logger LOG = LoggerFactory.getLogger(XmlValidator.class);
-
-  private String errorMessage;
+  /**
+   * Cache for compiled XML schemas.
+   */
+  private static final CompiledSchemaCache<Schema> SCHEMA_CACHE = new CompiledSchemaCache<>("xml");
+  /**
+   * Prefix for all error messages.
+   */
+  private static final String VALIDATION_ERROR = "Validation error: ";
+  /**
+   * Resolver for included/imported schema documents.
+   */
+  private static final XsdResourceResolver RESOURCE_RESOLVER = new XsdResourceResolver();
+  /**
+   * Schema factories are not thread safe -> one factory per thread.
+   */
+  private static final ThreadLocal<SchemaFactory> SCHEMA_FACTORIES = ThreadLocal.withInitial(XmlValidator::createSchemaFactory);
 
   @Override
   public boolean supportsSchemaType(MetadataSchemaRecord.SCHEMA_TYPE type) {
@@ -49,13 +71,8 @@ public class XmlValidator implements IValidator {
   }
 
   @Override
-  public IValidator getInstance() {
-    return new XmlValidator();
-  }
-
-  @Override
-  public boolean isSchemaValid(InputStream schemaStream) {
-    boolean result = false;
+  public ValidationResult validateSchemaDocument(InputStream schemaStream) {
+    ValidationResult result;
     LOG.trace("Checking schema for validity.");
     try {
       SAXParser saxParser = getSaxParser();
@@ -63,55 +80,73 @@ public class XmlValidator implements IValidator {
       saxParser.parse(schemaStream, errorHandler);
 
       LOG.trace("Schema seems to be valid.");
-      result = true;
+      result = ValidationResult.valid();
     } catch (ParserConfigurationException | SAXException | IOException e) {
       LOG.error("Failed to validate schema.", e);
-      errorMessage = "Validation error: " + e.getMessage();
+      result = ValidationResult.invalid(VALIDATION_ERROR + e.getMessage());
     }
     return result;
   }
 
   @Override
-  public boolean validateMetadataDocument(File schemaFile, InputStream metadataDocumentStream) {
-    boolean valid = false;
+  public ValidationResult validateMetadataDocument(SchemaRecord schemaRecord, File schemaFile, InputStream metadataDocumentStream) {
+    ValidationResult result;
     LOG.trace("Checking metdata document using schema at {}.", schemaFile);
     LOG.trace("Reading metadata document from stream.");
+    CollectingErrorHandler errorHandler = new CollectingErrorHandler();
     try {
-      SchemaFactory schemaFactory = getSchemaFactory();
-
-      LOG.trace("Creating schema instance.");
-      Schema schema;
-      schema = schemaFactory.newSchema(schemaFile);
+      LOG.trace("Obtaining schema instance.");
+      Schema schema = SCHEMA_CACHE.get(schemaRecord, schemaFile.length(), () -> getSchemaFactory().newSchema(schemaFile));
 
       LOG.trace("Obtaining validator.");
+      // Validators are not thread safe but cheap to create from a compiled schema.
       Validator validator = schema.newValidator();
+      validator.setErrorHandler(errorHandler);
 
       LOG.trace("Validating metadata file.");
       Source xmlFile = new StreamSource(metadataDocumentStream);
       validator.validate(xmlFile);
-
-      LOG.trace("Metadata document is valid according to schema.");
-      valid = true;
-    } catch (SAXException | IOException e) {
+    } catch (Exception e) {
       LOG.error("Failed to validate metadata document.", e);
-      errorMessage = "Validation error: " + e.getMessage();
+      errorHandler.errors.add((e.getMessage() != null) ? e.getMessage() : e.toString());
     }
-    return valid;
+    if (errorHandler.errors.isEmpty()) {
+      LOG.trace("Metadata document is valid according to schema.");
+      result = ValidationResult.valid();
+    } else {
+      result = ValidationResult.invalid(VALIDATION_ERROR + String.join("\n", errorHandler.errors), errorHandler.errors);
+    }
+    return result;
   }
 
-  @Override
-  public String getErrorMessage() {
-    return errorMessage;
+  /**
+   * Get cache holding compiled XML schemas.
+   *
+   * @return cache for compiled schemas.
+   */
+  public static CompiledSchemaCache<Schema> getSchemaCache() {
+    return SCHEMA_CACHE;
   }
 
   /**
-   * Get schema factory with disabled DTD parsing due to XXE vulnerabilty.
+   * Get schema factory of the current thread.
    *
    * @return schema factory
    */
   private SchemaFactory getSchemaFactory() {
+    return SCHEMA_FACTORIES.get();
+  }
+
+  /**
+   * Create schema factory resolving included/imported schema documents via
+   * registered schemas and external schema cache (see XsdResourceResolver).
+   *
+   * @return schema factory
+   */
+  private static SchemaFactory createSchemaFactory() {
     SchemaFactory schemaFactory;
     schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+    schemaFactory.setResourceResolver(RESOURCE_RESOLVER);
 
     return schemaFactory;
   }
@@ -132,4 +167,27 @@ public class XmlValidator implements IValidator {
 
     return parser;
   }
+
+  /**
+   * Error handler collecting all (non fatal) errors of a validation.
+   */
+  private static class CollectingErrorHandler implements ErrorHandler {
+
+    private final List<String> errors = new ArrayList<>();
+
+    @Override
+    public void warning(SAXParseException exception) {
+      LOG.trace("Warning while validating metadata document: {}", exception.getMessage());
+    }
+
+    @Override
+    public void error(SAXParseException exception) {
+      errors.add(exception.getMessage());
+    }
+
+    @Override
+    public void fatalError(SAXParseException exception) throws SAXException {
+      throw exception;
+    }
+  }
 }
@@ -16,6 +16,7 @@
 package edu.kit.datamanager.metastore2.web;
 
 import edu.kit.datamanager.metastore2.domain.ElasticWrapper;
+import edu.kit.datamanager.metastore2.validation.BulkValidator;
 import edu.kit.datamanager.repo.domain.ContentInformation;
 import edu.kit.datamanager.repo.domain.DataResource;
 import io.swagger.v3.oas.annotations.Operation;
@@ -40,6 +41,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URISyntaxException;
@@ -72,6 +74,34 @@ public interface IMetadataControllerV2 extends InfoContributor {
           final HttpServletResponse response,
           final UriComponentsBuilder uriBuilder) throws URISyntaxException;
 
+  @Operation(summary = "Ingest many metadata documents and their records.", description = "This endpoint allows to create many metadata records at once. "
+          + "Records and documents are provided as multipart batch (parts named 'record' and 'document' paired by their order). "
+          + "Items are grouped by schema, validated in parallel and stored in chunks within one transaction each. "
+          + "The status of each item is streamed back as a single line of JSON (NDJSON), "
+          + "e.g. {\"index\":0,\"name\":\"a.xml\",\"status\":201,\"id\":\"...\",\"version\":\"1\",\"etag\":\"...\"}. The last line holds a summary.",
+          responses = {
+            @ApiResponse(responseCode = "200", description = "OK and the status of all items (NDJSON)."),
+            @ApiResponse(responseCode = "400", description = "Bad Request is returned if the number of records and documents differs.")})
+  @RequestMapping(value = {"/batch"}, method = RequestMethod.POST, consumes = {MediaType.MULTIPART_FORM_DATA_VALUE}, produces = {BulkValidator.NDJSON_MEDIA_TYPE})
+  @ResponseBody
+  ResponseEntity<StreamingResponseBody> createRecords(
+          @Parameter(description = "Json representations of the datacite records.", required = true) @RequestPart(name = "record", required = true) final List<MultipartFile> dataciteRecords,
+          @Parameter(description = "The metadata documents associated with the records (same order as records).", required = true) @RequestPart(name = "document", required = true) final List<MultipartFile> documents,
+          final HttpServletRequest request,
+          final HttpServletResponse response);
+
+  @Operation(summary = "Ingest many metadata documents and their records from a stream.", description = "This endpoint allows to create many metadata records at once. "
+          + "Each line of the request body (NDJSON) holds one item, e.g. {\"name\":\"a.xml\",\"record\":{...},\"document\":\"<example>...</example>\"}. "
+          + "JSON documents may also be provided as object. The request body is read as a stream. "
+          + "The status of each item is streamed back as a single line of JSON (NDJSON). The last line holds a summary.",
+          responses = {
+            @ApiResponse(responseCode = "200", description = "OK and the status of all items (NDJSON).")})
+  @RequestMapping(value = {"/batch"}, method = RequestMethod.POST, consumes = {BulkValidator.NDJSON_MEDIA_TYPE}, produces = {BulkValidator.NDJSON_MEDIA_TYPE})
+  @ResponseBody
+  ResponseEntity<StreamingResponseBody> createRecordsFromStream(
+          final HttpServletRequest request,
+          final HttpServletResponse response);
+
   @Operation(summary = "Get a metadata record by id.", description = "Obtain a single record by its resource identifier. "
           + "Depending on a user's role, accessing a specific record may be allowed or forbidden. Furthermore, a specific version of the record can be returned "
           + "by providing a version number as request parameter.",
@@ -128,6 +158,8 @@ public interface IMetadataControllerV2 extends InfoContributor {
           + "Furthermore, a specific version of the metadata document can be returned by providing a version number as request parameter.",
           responses = {
             @ApiResponse(responseCode = "200", description = "OK and the metadata document is returned if the record exists and the user has sufficient permission."),
+            @ApiResponse(responseCode = "206", description = "Partial Content is returned if a range of the metadata document is requested (header 'Range')."),
+            @ApiResponse(responseCode = "304", description = "Not Modified is returned if the hash of the metadata document matches the provided ETag (header 'If-None-Match')."),
             @ApiResponse(responseCode = "404", description = "Not found is returned, if no record for the provided id or version was found.")})
 
   @RequestMapping(value = {"/{id}"}, method = {RequestMethod.GET})
@@ -164,11 +196,14 @@ public interface IMetadataControllerV2 extends InfoContributor {
           responses = {
             @ApiResponse(responseCode = "200", description = "OK is returned in case of a successful update, e.g. the record (if provided) was in the correct format and the document (if provided) matches the provided schema id."
                     + "The updated record is returned in the response.", content = @Content(schema = @Schema(implementation = DataResource.class))),
+            @ApiResponse(responseCode = "304", description = "Not Modified is returned if only a metadata document is provided and its hash (header 'If-None-Match') matches the hash of the current metadata document. "
+                    + "Nothing is updated in this case."),
             @ApiResponse(responseCode = "400", description = "Bad Request is returned if the provided metadata record is invalid or if the validation using the provided schema failed."),
             @ApiResponse(responseCode = "404", description = "Not Found is returned if no record for the provided id or no schema for the provided schema id was found.")})
   @RequestMapping(value = "/{id}", method = RequestMethod.PUT, consumes = {MediaType.MULTIPART_FORM_DATA_VALUE}, produces = {"application/json"})
   @Parameters({
-    @Parameter(name = "If-Match", description = "ETag of the object. Please use quotation marks!", required = true, in = ParameterIn.HEADER)
+    @Parameter(name = "If-Match", description = "ETag of the object. Please use quotation marks!", required = true, in = ParameterIn.HEADER),
+    @Parameter(name = "If-None-Match", description = "Hash of the provided metadata document (e.g. \"sha1:<hex>\"). If it matches the hash of the current document the update is skipped.", required = false, in = ParameterIn.HEADER)
   })
   ResponseEntity updateRecord(
           @Parameter(description = "The resource identifier.", required = true) @PathVariable("id") String id,
@@ -16,6 +16,7 @@
 package edu.kit.datamanager.metastore2.web;
 
 import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
+import edu.kit.datamanager.metastore2.validation.BulkValidator;
 import edu.kit.datamanager.repo.domain.ContentInformation;
 import edu.kit.datamanager.repo.domain.DataResource;
 import io.swagger.v3.oas.annotations.Operation;
@@ -41,6 +42,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.Instant;
@@ -130,11 +132,45 @@ public interface ISchemaRegistryControllerV2 extends InfoContributor {
                           WebRequest wr,
                           HttpServletResponse hsr);
 
+  @Operation(summary = "Validate many metadata documents.", description = "Validate all metadata documents of a multipart batch (all parts named 'document') "
+          + "using the addressed schema. The schema is resolved and compiled only once and the documents are validated in parallel. "
+          + "The result of each document is streamed back as a single line of JSON (NDJSON) as soon as the document is validated, "
+          + "e.g. {\"index\":0,\"name\":\"a.xml\",\"valid\":false,\"errors\":[...]}. The last line holds a summary.",
+          responses = {
+            @ApiResponse(responseCode = "200", description = "OK and the validation results of all documents (NDJSON)."),
+            @ApiResponse(responseCode = "404", description = "Not found is returned, if no schema for the provided schemaId and version was found.")
+          })
+  @RequestMapping(value = {"/{schemaId}/validate/bulk"}, method = {RequestMethod.POST}, consumes = {MediaType.MULTIPART_FORM_DATA_VALUE}, produces = {BulkValidator.NDJSON_MEDIA_TYPE})
+  @ResponseBody
+  ResponseEntity<StreamingResponseBody> validateBulk(@Parameter(description = "The record identifier or schema identifier.", required = true) @PathVariable(value = "schemaId") String id,
+                                                     @Parameter(description = "The version of the record.", required = false) @RequestParam(value = "version", required = false) Long version,
+                                                     @Parameter(description = "The metadata files to validate against the addressed schema.", required = true) @RequestPart(name = "document", required = true) final List<MultipartFile> documents,
+                                                     WebRequest wr,
+                                                     HttpServletResponse hsr);
+
+  @Operation(summary = "Validate all metadata documents of an archive.", description = "Validate all metadata documents of a ZIP or (gzipped) tar archive "
+          + "provided as request body using the addressed schema. The archive is read as a stream. "
+          + "The result of each document is streamed back as a single line of JSON (NDJSON) as soon as the document is validated. The last line holds a summary.",
+          responses = {
+            @ApiResponse(responseCode = "200", description = "OK and the validation results of all documents (NDJSON)."),
+            @ApiResponse(responseCode = "400", description = "Bad Request is returned, if the archive is not readable."),
+            @ApiResponse(responseCode = "404", description = "Not found is returned, if no schema for the provided schemaId and version was found.")
+          })
+  @RequestMapping(value = {"/{schemaId}/validate/bulk"}, method = {RequestMethod.POST}, consumes = {BulkValidator.ZIP_MEDIA_TYPE, BulkValidator.TAR_MEDIA_TYPE, BulkValidator.GZIP_MEDIA_TYPE}, produces = {BulkValidator.NDJSON_MEDIA_TYPE})
+  @ResponseBody
+  ResponseEntity<StreamingResponseBody> validateArchive(@Parameter(description = "The record identifier or schema identifier.", required = true) @PathVariable(value = "schemaId") String id,
+                                                        @Parameter(description = "The version of the record.", required = false) @RequestParam(value = "version", required = false) Long version,
+                                                        HttpServletRequest request,
+                                                        WebRequest wr,
+                                                        HttpServletResponse hsr);
+
   @Operation(summary = "Get a schema document by schema id.", description = "Obtain a single schema document identified by its schema id. "
           + "Depending on a user's role, accessing a specific record may be allowed or forbidden. "
           + "Furthermore, a specific version of the schema document can be returned by providing a version number as request parameter. If no version is specified, the most recent version is returned.",
           responses = {
             @ApiResponse(responseCode = "200", description = "OK and the schema document is returned if the record exists and the user has sufficient permission."),
+            @ApiResponse(responseCode = "206", description = "Partial Content is returned if a range of the schema document is requested (header 'Range')."),
+            @ApiResponse(responseCode = "304", description = "Not Modified is returned if the hash of the schema document matches the provided ETag (header 'If-None-Match')."),
             @ApiResponse(responseCode = "404", description = "Not found is returned, if no record for the provided id and version was found.")})
   @RequestMapping(value = {"/{schemaId}"}, method = {RequestMethod.GET}, produces = {"application/json", "application/xml"})
   @ResponseBody
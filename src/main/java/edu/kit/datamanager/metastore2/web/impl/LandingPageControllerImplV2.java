@@ -85,9 +85,7 @@ public class LandingPageControllerImplV2 implements ILandingPageControllerV2 {
     recordList.add(recordByIdAndVersion);
     if (version == null) {
       long totalNoOfElements = Long.parseLong(recordByIdAndVersion.getVersion());
-      for (long size = totalNoOfElements - 1; size > 0; size--) {
-        recordList.add(DataResourceRecordUtil.getSchemaRecordByIdAndVersion(schemaConfig, id, size));
-      }
+      recordList.addAll(DataResourceRecordUtil.getRecordVersions(schemaConfig, recordByIdAndVersion, totalNoOfElements - 1, totalNoOfElements - 1));
     }
 
     LOG.trace("Fix URL for all schema records");
@@ -121,9 +119,7 @@ public class LandingPageControllerImplV2 implements ILandingPageControllerV2 {
     recordList.add(recordByIdAndVersion);
     if (version == null) {
       long totalNoOfElements = Long.parseLong(recordByIdAndVersion.getVersion());
-      for (long size = totalNoOfElements - 1; size > 0; size--) {
-        recordList.add(DataResourceRecordUtil.getMetadataRecordByIdAndVersion(metadataConfig, id, size));
-      }
+      recordList.addAll(DataResourceRecordUtil.getRecordVersions(metadataConfig, recordByIdAndVersion, totalNoOfElements - 1, totalNoOfElements - 1));
     }
     List<MetadataRecord> resultList = new ArrayList<>();
     for (DataResource item : recordList) {
@@ -20,21 +20,21 @@ import edu.kit.datamanager.entities.RepoUserRole;
 import edu.kit.datamanager.entities.messaging.MetadataResourceMessage;
 import edu.kit.datamanager.exceptions.AccessForbiddenException;
 import edu.kit.datamanager.exceptions.BadArgumentException;
-import edu.kit.datamanager.exceptions.ResourceNotFoundException;
-import edu.kit.datamanager.exceptions.UnprocessableEntityException;
 import edu.kit.datamanager.metastore2.configuration.ApplicationProperties;
 import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
 import edu.kit.datamanager.metastore2.dao.ILinkedMetadataRecordDao;
 import edu.kit.datamanager.metastore2.dao.ISchemaRecordDao;
 import edu.kit.datamanager.metastore2.domain.ElasticWrapper;
-import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.metastore2.service.MetaStoreStatistics;
 import edu.kit.datamanager.metastore2.util.ActuatorUtil;
+import edu.kit.datamanager.metastore2.util.BatchIngester;
 import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.metastore2.util.DocumentResponseUtil;
 import edu.kit.datamanager.metastore2.util.MetadataRecordUtil;
+import edu.kit.datamanager.metastore2.validation.BulkValidator;
 import edu.kit.datamanager.metastore2.web.IMetadataControllerV2;
 import edu.kit.datamanager.repo.domain.ContentInformation;
 import edu.kit.datamanager.repo.domain.DataResource;
-import edu.kit.datamanager.repo.domain.RelatedIdentifier;
 import edu.kit.datamanager.service.IMessagingService;
 import edu.kit.datamanager.service.impl.LogfileMessagingService;
 import edu.kit.datamanager.util.AuthenticationHelper;
@@ -51,15 +51,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.info.Info;
 import org.springframework.context.annotation.Bean;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -68,22 +69,19 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.file.Path;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.UnaryOperator;
 
-import static edu.kit.datamanager.entities.Identifier.IDENTIFIER_TYPE.INTERNAL;
-
 /**
  * Controller for metadata documents.
  */
@@ -114,6 +112,12 @@ public class MetadataControllerImplV2 implements IMetadataControllerV2 {
   @Autowired
   private MeterRegistry meterRegistry;
 
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private MetaStoreStatistics metaStoreStatistics;
+
   /**
    * Optional messagingService bean may or may not be available, depending on a
    * service's configuration. If messaging capabilities are disabled, this bean
@@ -178,29 +182,7 @@ public class MetadataControllerImplV2 implements IMetadataControllerV2 {
     }
 
     DataResourceRecordUtil.validateRelatedResources4MetadataDocuments(metadataRecord);
-
-    LOG.debug("Test for existing metadata record for given schema and resource");
-    RelatedIdentifier schemaIdentifier;
-    schemaIdentifier = DataResourceRecordUtil.getSchemaIdentifier(metadataRecord);
-    switch (schemaIdentifier.getIdentifierType()) {
-      case INTERNAL:
-        // nothing to do
-        break;
-      case URL:
-        SchemaRecord schemaRecord = schemaRecordDao.findByAlternateId(schemaIdentifier.getValue());
-        if (schemaRecord == null) {
-          String message = "External URLs are not supported yet!\n"
-                  + "But '" + schemaIdentifier.getValue() + "' seems not to be an internal one!\n"
-                  + "Hint: Maybe version number is missing (e.g.: [...]?version=1";
-          LOG.error(message);
-          throw new ResourceNotFoundException(message);
-        }
-        schemaIdentifier.setValue(schemaRecord.getSchemaId());
-        schemaIdentifier.setIdentifierType(INTERNAL);
-        break;
-      default:
-        throw new UnprocessableEntityException("Schema referenced by '" + schemaIdentifier.getIdentifierType().toString() + "' is not supported yet!");
-    }
+    DataResourceRecordUtil.resolveSchemaIdentifier4Create(metadataRecord);
 
     DataResource result = DataResourceRecordUtil.createDataResourceRecord4Metadata(metadataConfig, recordDocument, document);
     LOG.trace("Get dataresource: '{}'", result);
@@ -213,13 +195,66 @@ public class MetadataControllerImplV2 implements IMetadataControllerV2 {
     URI locationUri;
     locationUri = WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(this.getClass()).getRecordById(result.getId(), Long.valueOf(result.getVersion()), null, null)).toUri();
 
+    sendCreateEvent(result, AuthenticationHelper.getPrincipal());
+
+    return ResponseEntity.created(locationUri).eTag("\"" + eTag + "\"").body(result);
+  }
+
+  @Override
+  public ResponseEntity<StreamingResponseBody> createRecords(
+          @RequestPart(name = "record") final List<MultipartFile> recordDocuments,
+          @RequestPart(name = "document") final List<MultipartFile> documents,
+          HttpServletRequest request,
+          HttpServletResponse response) {
+    LOG.trace("Performing createRecords({} record(s), {} document(s)).", recordDocuments.size(), documents.size());
+    return streamIngestResults(BatchIngester.fromMultipart(recordDocuments, documents));
+  }
+
+  @Override
+  public ResponseEntity<StreamingResponseBody> createRecordsFromStream(
+          HttpServletRequest request,
+          HttpServletResponse response) {
+    LOG.trace("Performing createRecordsFromStream().");
+    BatchIngester.ItemReader items;
+    try {
+      items = BatchIngester.fromNdjson(request.getInputStream());
+    } catch (IOException ex) {
+      String message = "Error reading request body!";
+      LOG.error(message, ex);
+      throw new BadArgumentException(message);
+    }
+    return streamIngestResults(items);
+  }
+
+  /**
+   * Ingest all items and stream the status (NDJSON) of each item.
+   *
+   * @param items Items to ingest.
+   * @return Response streaming one line per item.
+   */
+  private ResponseEntity<StreamingResponseBody> streamIngestResults(BatchIngester.ItemReader items) {
+    String principal = AuthenticationHelper.getPrincipal();
+    BatchIngester batchIngester = new BatchIngester(metadataConfig,
+            transactionManager,
+            applicationProperties.getBatchIngestChunkSize(),
+            result -> sendCreateEvent(result, principal));
+    StreamingResponseBody body = outputStream -> batchIngester.ingest(items, outputStream);
+    return ResponseEntity.ok().contentType(MediaType.valueOf(BulkValidator.NDJSON_MEDIA_TYPE)).body(body);
+  }
+
+  /**
+   * Send CREATE event and count created record.
+   *
+   * @param result Created record.
+   * @param principal Principal creating the record.
+   */
+  private void sendCreateEvent(DataResource result, String principal) {
     LOG.trace("Sending CREATE event.");
     messagingService.orElse(new LogfileMessagingService()).
-            send(MetadataResourceMessage.factoryCreateMetadataMessage(result, AuthenticationHelper.getPrincipal(), ControllerUtils.getLocalHostname()));
+            send(MetadataResourceMessage.factoryCreateMetadataMessage(result, principal, ControllerUtils.getLocalHostname()));
     String language = result.getLanguage() != null ? result.getLanguage() : "unknown";
     DistributionSummary.builder("metastore_metadata_records_created").tags("language", language).register(meterRegistry).record(1);
-
-    return ResponseEntity.created(locationUri).eTag("\"" + eTag + "\"").body(result);
+    metaStoreStatistics.metadataDocumentCreated(result);
   }
 
   @Override
@@ -297,12 +332,9 @@ public class MetadataControllerImplV2 implements IMetadataControllerV2 {
   ) {
     LOG.trace("Performing getMetadataDocumentById({}, {}).", id, version);
 
-    Path metadataDocumentPath = DataResourceRecordUtil.getMetadataDocumentByIdAndVersion(metadataConfig, id, version);
+    ContentInformation contentInformation = DataResourceRecordUtil.getContentInformationByIdAndVersion(metadataConfig, id, version);
 
-    return ResponseEntity.
-            ok().
-            header(HttpHeaders.CONTENT_LENGTH, String.valueOf(metadataDocumentPath.toFile().length())).
-            body(new FileSystemResource(metadataDocumentPath.toFile()));
+    return DocumentResponseUtil.createDocumentResponse(contentInformation, null, version, metadataConfig.isAuthEnabled(), wr);
   }
 
   @Override
@@ -335,11 +367,8 @@ public class MetadataControllerImplV2 implements IMetadataControllerV2 {
     //if security is enabled, include principal in query
     LOG.debug("Performing query for records.");
     DataResource recordByIdAndVersion = DataResourceRecordUtil.getMetadataRecordByIdAndVersion(metadataConfig, id, null);
-    List<DataResource> recordList = new ArrayList<>();
     long totalNoOfElements = Long.parseLong(recordByIdAndVersion.getVersion());
-    for (long version = totalNoOfElements - pgbl.getOffset(), size = 0; version > 0 && size < pgbl.getPageSize(); version--, size++) {
-      recordList.add(DataResourceRecordUtil.getMetadataRecordByIdAndVersion(metadataConfig, id, version));
-    }
+    List<DataResource> recordList = DataResourceRecordUtil.getRecordVersions(metadataConfig, recordByIdAndVersion, totalNoOfElements - pgbl.getOffset(), pgbl.getPageSize());
 
     String contentRange = ControllerUtils.getContentRangeHeader(pgbl.getPageNumber(), pgbl.getPageSize(), totalNoOfElements);
 
@@ -399,6 +428,17 @@ public class MetadataControllerImplV2 implements IMetadataControllerV2 {
     UnaryOperator<String> getById;
     getById = t -> WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(this.getClass()).getRecordById(t, null, request, response)).toString();
     String eTag = ControllerUtils.getEtagFromHeader(request);
+    String documentHash = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if ((metadataRecord == null) && (document != null) && (documentHash != null)) {
+      // Skip update if document is unchanged (no need to read/validate any document)
+      DataResource currentDataResource = DataResourceRecordUtil.getRecordById(metadataConfig, id);
+      ControllerUtils.checkEtag(eTag, currentDataResource);
+      if (DataResourceRecordUtil.isDocumentHashUnchanged(metadataConfig, currentDataResource, documentHash)) {
+        LOG.trace("Metadata document is unchanged. Returning HTTP NOT_MODIFIED.");
+        URI locationUri = DataResourceRecordUtil.getMetadataDocumentUri(currentDataResource.getId(), currentDataResource.getVersion());
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).location(locationUri).eTag("\"" + currentDataResource.getEtag() + "\"").build();
+      }
+    }
     DataResource updateDataResource = DataResourceRecordUtil.updateDataResource4MetadataDocument(metadataConfig, id, eTag, metadataRecord, document, getById);
 
     LOG.trace("Metadata record successfully persisted. Updating document URI and returning result.");
@@ -440,6 +480,7 @@ public class MetadataControllerImplV2 implements IMetadataControllerV2 {
               send(MetadataResourceMessage.factoryUpdateMetadataMessage(dataResourceAfterDeletion, AuthenticationHelper.getPrincipal(), ControllerUtils.getLocalHostname()));
       String language = dataResourceAfterDeletion.getLanguage() != null ? dataResourceAfterDeletion.getLanguage() : "unknown";
       DistributionSummary.builder("metastore_metadata_records_updated").tags("language", language, "version", dataResourceAfterDeletion.getVersion()).register(meterRegistry).record(1);
+      metaStoreStatistics.metadataDocumentRevoked(dataResourceBeforeDeletion);
     } else {
       LOG.trace("Sending DELETE event.");
       messagingService.orElse(new LogfileMessagingService()).
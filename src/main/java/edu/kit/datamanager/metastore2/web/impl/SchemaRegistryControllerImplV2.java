@@ -18,12 +18,16 @@ package edu.kit.datamanager.metastore2.web.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.kit.datamanager.exceptions.BadArgumentException;
 import edu.kit.datamanager.exceptions.ResourceNotFoundException;
 import edu.kit.datamanager.metastore2.configuration.ApplicationProperties;
 import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
+import edu.kit.datamanager.metastore2.service.MetaStoreStatistics;
 import edu.kit.datamanager.metastore2.util.ActuatorUtil;
 import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.metastore2.util.DocumentResponseUtil;
 import edu.kit.datamanager.metastore2.util.MetadataSchemaRecordUtil;
+import edu.kit.datamanager.metastore2.validation.BulkValidator;
 import edu.kit.datamanager.metastore2.web.ISchemaRegistryControllerV2;
 import edu.kit.datamanager.repo.dao.IDataResourceDao;
 import edu.kit.datamanager.repo.domain.ContentInformation;
@@ -36,12 +40,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.info.Info;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -53,13 +55,12 @@ import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -84,19 +85,24 @@ public class SchemaRegistryControllerImplV2 implements ISchemaRegistryController
 
   private final IDataResourceDao dataResourceDao;
 
+  private final MetaStoreStatistics metaStoreStatistics;
+
   /**
    * Constructor for schema documents controller.
    *
    * @param applicationProperties Configuration for controller.
    * @param schemaConfig Configuration for metadata documents repository.
    * @param dataResourceDao DAO for data resources.
+   * @param metaStoreStatistics Statistics of the repository.
    */
   public SchemaRegistryControllerImplV2(ApplicationProperties applicationProperties,
           MetastoreConfiguration schemaConfig,
-          IDataResourceDao dataResourceDao) {
+          IDataResourceDao dataResourceDao,
+          MetaStoreStatistics metaStoreStatistics) {
     this.applicationProperties = applicationProperties;
     this.schemaConfig = schemaConfig;
     this.dataResourceDao = dataResourceDao;
+    this.metaStoreStatistics = metaStoreStatistics;
     DataResourceRecordUtil.setDataResourceDao(this.dataResourceDao);
     LOG.info("------------------------------------------------------");
     LOG.info("------{}", schemaConfig);
@@ -126,6 +132,7 @@ public class SchemaRegistryControllerImplV2 implements ISchemaRegistryController
     }
 
     LOG.trace("Schema record successfully persisted.");
+    metaStoreStatistics.schemaDocumentCreated();
     URI locationUri;
     locationUri = SchemaRegistryControllerImplV2.getSchemaDocumentUri(dataResourceRecord);
     LOG.trace("Set locationUri to '{}'", locationUri);
@@ -196,18 +203,8 @@ public class SchemaRegistryControllerImplV2 implements ISchemaRegistryController
     DataResource schemaRecord = DataResourceRecordUtil.getSchemaRecordByIdAndVersion(schemaConfig, schemaId, version);
     ContentInformation contentInfo = DataResourceRecordUtil.getContentInformationByIdAndVersion(schemaConfig, schemaRecord.getId(), Long.valueOf(schemaRecord.getVersion()));
     MediaType contentType = MediaType.valueOf(contentInfo.getMediaType());
-    URI pathToFile = URI.create(contentInfo.getContentUri());
-    Path schemaDocumentPath = Paths.get(pathToFile);
-    if (!Files.exists(schemaDocumentPath) || !Files.isRegularFile(schemaDocumentPath) || !Files.isReadable(schemaDocumentPath)) {
-      LOG.trace("Schema document at path {} either does not exist or is no file or is not readable. Returning HTTP NOT_FOUND.", schemaDocumentPath);
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Schema document on server either does not exist or is no file or is not readable.");
-    }
 
-    return ResponseEntity.
-            ok().
-            contentType(contentType).
-            header(HttpHeaders.CONTENT_LENGTH, String.valueOf(schemaDocumentPath.toFile().length())).
-            body(new FileSystemResource(schemaDocumentPath.toFile()));
+    return DocumentResponseUtil.createDocumentResponse(contentInfo, contentType, version, schemaConfig.isAuthEnabled(), wr);
   }
 
   public ResponseEntity<List<DataResource>> getAllVersions(
@@ -225,9 +222,7 @@ public class SchemaRegistryControllerImplV2 implements ISchemaRegistryController
     try {
       recordByIdAndVersion = DataResourceRecordUtil.getRecordById(schemaConfig, id);
       totalNoOfElements = Long.parseLong(recordByIdAndVersion.getVersion());
-      for (long version = totalNoOfElements - pgbl.getOffset(), size = 0; version > 0 && size < pgbl.getPageSize(); version--, size++) {
-        recordList.add(DataResourceRecordUtil.getSchemaRecordByIdAndVersion(schemaConfig, id, version));
-      }
+      recordList.addAll(DataResourceRecordUtil.getRecordVersions(schemaConfig, recordByIdAndVersion, totalNoOfElements - pgbl.getOffset(), pgbl.getPageSize()));
     } catch (ResourceNotFoundException rnfe) {
       LOG.info("Schema ID '{}' is unkown. Return empty list...", id);
     }
@@ -249,6 +244,48 @@ public class SchemaRegistryControllerImplV2 implements ISchemaRegistryController
     return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
   }
 
+  @Override
+  public ResponseEntity<StreamingResponseBody> validateBulk(@PathVariable(value = "schemaId") String schemaId,
+          @RequestParam(value = "version", required = false) Long version,
+          List<MultipartFile> documents,
+          WebRequest wr,
+          HttpServletResponse hsr) {
+    LOG.trace("Performing validateBulk({}, {}, {} documents).", schemaId, version, documents.size());
+    BulkValidator bulkValidator = DataResourceRecordUtil.createBulkValidator(schemaConfig, schemaId, version);
+    return streamValidationResults(bulkValidator, BulkValidator.fromMultipart(documents));
+  }
+
+  @Override
+  public ResponseEntity<StreamingResponseBody> validateArchive(@PathVariable(value = "schemaId") String schemaId,
+          @RequestParam(value = "version", required = false) Long version,
+          HttpServletRequest request,
+          WebRequest wr,
+          HttpServletResponse hsr) {
+    LOG.trace("Performing validateArchive({}, {}, {}).", schemaId, version, request.getContentType());
+    BulkValidator bulkValidator = DataResourceRecordUtil.createBulkValidator(schemaConfig, schemaId, version);
+    BulkValidator.EntryReader entries;
+    try {
+      entries = BulkValidator.fromArchive(request.getContentType(), request.getInputStream());
+    } catch (IOException ex) {
+      String message = "Error reading archive!";
+      LOG.error(message, ex);
+      throw new BadArgumentException(message);
+    }
+    return streamValidationResults(bulkValidator, entries);
+  }
+
+  /**
+   * Stream validation results (NDJSON) of all entries.
+   *
+   * @param bulkValidator Validator holding the schema.
+   * @param entries Entries to validate.
+   * @return Response streaming one line per entry.
+   */
+  private ResponseEntity<StreamingResponseBody> streamValidationResults(BulkValidator bulkValidator, BulkValidator.EntryReader entries) {
+    StreamingResponseBody body = outputStream -> bulkValidator.validate(entries, outputStream);
+    return ResponseEntity.ok().contentType(MediaType.valueOf(BulkValidator.NDJSON_MEDIA_TYPE)).body(body);
+  }
+
   @Override
   public ResponseEntity<List<DataResource>> getRecords(@RequestParam(value = "schemaId", required = false) String schemaId,
           @RequestParam(value = "mimeType", required = false) List<String> mimeTypes,
@@ -315,6 +352,8 @@ public class SchemaRegistryControllerImplV2 implements ISchemaRegistryController
     String eTag = ControllerUtils.getEtagFromHeader(request);
 
     MetadataSchemaRecordUtil.deleteMetadataSchemaRecord(schemaConfig, schemaId, eTag, getById);
+    // Schemas are rarely deleted -> read statistics from database on next access.
+    metaStoreStatistics.invalidate();
 
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.oaipmh.util;
+
+import jakarta.xml.bind.Marshaller;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.parsers.DocumentBuilder;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.openarchives.oai._2.OAIPMHtype;
+import org.openarchives.oai._2.RequestType;
+import org.openarchives.oai._2.VerbType;
+import org.w3c.dom.Document;
+
+/**
+ * Tests for class JaxbUtil.
+ */
+public class JaxbUtilTest {
+
+  private static final String OAI_NAMESPACE = "http://www.openarchives.org/OAI/2.0/";
+
+  private OAIPMHtype createResponse(String baseUrl) {
+    OAIPMHtype response = new OAIPMHtype();
+    RequestType request = new RequestType();
+    request.setVerb(VerbType.IDENTIFY);
+    request.setValue(baseUrl);
+    response.setRequest(request);
+    return response;
+  }
+
+  /**
+   * Test of getContext and getMarshaller method, of class JaxbUtil.
+   */
+  @Test
+  public void testReuse() throws Exception {
+    System.out.println("testReuse");
+    assertSame(JaxbUtil.getContext(OAIPMHtype.class), JaxbUtil.getContext(OAIPMHtype.class));
+    Marshaller marshaller = JaxbUtil.getMarshaller(OAIPMHtype.class, true);
+    assertSame(marshaller, JaxbUtil.getMarshaller(OAIPMHtype.class, false));
+    assertEquals(Boolean.FALSE, marshaller.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    DocumentBuilder documentBuilder = JaxbUtil.getDocumentBuilder();
+    assertSame(documentBuilder, JaxbUtil.getDocumentBuilder());
+    assertTrue(documentBuilder.isNamespaceAware());
+    // Other threads get their own instances.
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Marshaller> otherMarshaller = executor.submit(() -> JaxbUtil.getMarshaller(OAIPMHtype.class, true));
+      assertNotSame(marshaller, otherMarshaller.get());
+      Future<DocumentBuilder> otherBuilder = executor.submit(JaxbUtil::getDocumentBuilder);
+      assertNotSame(documentBuilder, otherBuilder.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Test of marshalToDocument method, of class JaxbUtil.
+   */
+  @Test
+  public void testMarshalToDocument() throws Exception {
+    System.out.println("testMarshalToDocument");
+    Document document = JaxbUtil.marshalToDocument(createResponse("http://example.org/oaipmh"));
+    assertEquals("OAI-PMH", document.getDocumentElement().getLocalName());
+    assertEquals(OAI_NAMESPACE, document.getDocumentElement().getNamespaceURI());
+    assertEquals("http://example.org/oaipmh", document.getElementsByTagNameNS(OAI_NAMESPACE, "request").item(0).getTextContent());
+  }
+
+  /**
+   * Test of marshal and parse method, of class JaxbUtil.
+   */
+  @Test
+  public void testMarshalAndParse() throws Exception {
+    System.out.println("testMarshalAndParse");
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    JaxbUtil.marshal(createResponse("http://example.org/oaipmh"), bout, true);
+    String xml = bout.toString(StandardCharsets.UTF_8);
+    assertTrue(xml.contains("\n"));
+    Document document = JaxbUtil.parse(new ByteArrayInputStream(bout.toByteArray()));
+    assertEquals("OAI-PMH", document.getDocumentElement().getLocalName());
+    assertEquals(OAI_NAMESPACE, document.getDocumentElement().getNamespaceURI());
+    // Parsing twice with the same builder.
+    document = JaxbUtil.parse(new ByteArrayInputStream(bout.toByteArray()));
+    assertEquals(OAI_NAMESPACE, document.getDocumentElement().getNamespaceURI());
+  }
+}
@@ -8,6 +8,7 @@ package edu.kit.datamanager.metastore2.oaipmh.web;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.kit.datamanager.entities.PERMISSION;
 import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
+import edu.kit.datamanager.metastore2.dao.ICrosswalkDocumentDao;
 import edu.kit.datamanager.metastore2.dao.IDataRecordDao;
 import edu.kit.datamanager.metastore2.dao.ILinkedMetadataRecordDao;
 import edu.kit.datamanager.metastore2.dao.IMetadataFormatDao;
@@ -15,6 +16,7 @@ import edu.kit.datamanager.metastore2.dao.ISchemaRecordDao;
 import edu.kit.datamanager.metastore2.domain.MetadataRecord;
 import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
 import edu.kit.datamanager.metastore2.domain.ResourceIdentifier;
+import edu.kit.datamanager.metastore2.oaipmh.util.CrosswalkCache;
 import edu.kit.datamanager.repo.dao.IAllIdentifiersDao;
 import edu.kit.datamanager.repo.dao.IContentInformationDao;
 import edu.kit.datamanager.repo.dao.IDataResourceDao;
@@ -55,6 +57,7 @@ import org.openarchives.oai._2.HeaderType;
 import org.openarchives.oai._2.OAIPMHerrorcodeType;
 import org.openarchives.oai._2.OAIPMHtype;
 import org.openarchives.oai._2.RecordType;
+import org.openarchives.oai._2.ResumptionTokenType;
 import org.openarchives.oai._2.VerbType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
@@ -184,6 +187,8 @@ public class OaiPmhControllerTest {
   private MetastoreConfiguration metadataConfig;
   @Autowired
   private IMetadataFormatDao metadataFormatDao;
+  @Autowired
+  private ICrosswalkDocumentDao crosswalkDocumentDao;
   @Rule
   public JUnitRestDocumentation restDocumentation = new JUnitRestDocumentation();
 
@@ -203,6 +208,7 @@ public class OaiPmhControllerTest {
     dataRecordDao.deleteAll();
     allIdentifiersDao.deleteAll();
     metadataFormatDao.deleteAll();
+    crosswalkDocumentDao.deleteAll();
 
     try {
       // setup mockMvc
@@ -683,6 +689,12 @@ public class OaiPmhControllerTest {
     checkInvalidResponseListRecords(null, null, SCHEMA_ID_1, "invalidToken", OAIPMHerrorcodeType.BAD_RESUMPTION_TOKEN);
     String invalidToken = new String(Base64.encodeBase64("3.0/24".getBytes()));
     checkInvalidResponseListRecords(null, null, SCHEMA_ID_1, invalidToken, OAIPMHerrorcodeType.BAD_RESUMPTION_TOKEN);
+    // Resumption token holds the metadata prefix and the size of the complete list.
+    MvcResult firstPage = this.mockMvc.perform(get("/oaipmh").param("verb", VerbType.LIST_RECORDS.value()).param("metadataPrefix", "oai_dc")).andDo(print()).andExpect(status().isOk()).andReturn();
+    ResumptionTokenType firstToken = getResponse(firstPage, false).getListRecords().getResumptionToken();
+    Assert.assertEquals(9, firstToken.getCompleteListSize().intValue());
+    Assert.assertEquals(3, firstToken.getCursor().intValue());
+    checkInvalidResponseListRecords(null, null, SCHEMA_ID_1, firstToken.getValue(), OAIPMHerrorcodeType.BAD_RESUMPTION_TOKEN);
         checkInvalidResponseListRecords("today", null, null, null, OAIPMHerrorcodeType.BAD_ARGUMENT);
   }
 
@@ -782,6 +794,35 @@ public class OaiPmhControllerTest {
 
   }
 
+  @Test
+  public void testCrosswalkCache() throws Exception {
+    System.out.println("testCrosswalkCache");
+    ingestSchemaRecord(SCHEMA_ID_1, MetadataSchemaRecord.SCHEMA_TYPE.XML, String.format(SCHEMA, SCHEMA_ID_1));
+    ingestMetadataRecord(SCHEMA_ID_1, String.format(XML_DOCUMENT, SCHEMA_ID_1, "Title 1"));
+    ingestMetadataRecord(SCHEMA_ID_1, String.format(XML_DOCUMENT, SCHEMA_ID_1, "Title 2"));
+    long hits = CrosswalkCache.getHits();
+    long misses = CrosswalkCache.getMisses();
+    // First harvest fills the cache.
+    Set<String> identifiers = checkResponseListRecords("oai_dc", null, null, 2);
+    Assert.assertEquals(2, crosswalkDocumentDao.count());
+    Assert.assertEquals(hits, CrosswalkCache.getHits());
+    Assert.assertEquals(misses + 2, CrosswalkCache.getMisses());
+    // Second harvest uses the cache.
+    Assert.assertEquals(identifiers, checkResponseListRecords("oai_dc", null, null, 2));
+    Assert.assertEquals(hits + 2, CrosswalkCache.getHits());
+    Assert.assertEquals(misses + 2, CrosswalkCache.getMisses());
+    // Other prefix
+    String id = identifiers.iterator().next();
+    checkResponseGetRecord(id, "datacite");
+    Assert.assertEquals(3, crosswalkDocumentDao.count());
+    checkResponseGetRecord(id, "datacite");
+    Assert.assertEquals(hits + 3, CrosswalkCache.getHits());
+    // Invalidate all documents of the record.
+    CrosswalkCache.invalidate(id);
+    Assert.assertEquals(1, crosswalkDocumentDao.count());
+    Assert.assertTrue(CrosswalkCache.getHitRatio() > 0.0);
+  }
+
   private void checkResponseGetRecord(String id, String metadataPrefix) throws Exception {
     MockHttpServletRequestBuilder param = get("/oaipmh").param("verb", VerbType.GET_RECORD.value());
     param = param.param("metadataPrefix", metadataPrefix);
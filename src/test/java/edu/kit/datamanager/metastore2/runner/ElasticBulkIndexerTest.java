@@ -0,0 +1,227 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.runner;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.kit.datamanager.metastore2.domain.ElasticWrapper;
+import edu.kit.datamanager.repo.domain.DataResource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for class ElasticBulkIndexer using a local HTTP stub for elasticsearch.
+ */
+public class ElasticBulkIndexerTest {
+
+  private static final String SUCCESS = "{\"took\":1,\"errors\":false,\"items\":[]}";
+
+  private HttpServer server;
+
+  private final Deque<Response> responses = new ConcurrentLinkedDeque<>();
+
+  private final List<String> requests = new ArrayList<>();
+
+  private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/_bulk", this::handle);
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    synchronized (requests) {
+      requests.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+    }
+    Response response = responses.isEmpty() ? new Response(200, SUCCESS) : responses.poll();
+    byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(response.status, body.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(body);
+    }
+  }
+
+  private String getUrl() {
+    return "http://localhost:" + server.getAddress().getPort() + "/";
+  }
+
+  private ElasticWrapper createWrapper(String id) {
+    DataResource resource = DataResource.factoryNewDataResource(id);
+    resource.setLastUpdate(Instant.now());
+    ElasticWrapper wrapper = new ElasticWrapper(resource);
+    wrapper.setMetadataDocument(mapper.createObjectNode().put("title", "document " + id));
+    return wrapper;
+  }
+
+  /**
+   * Test of add method, of class ElasticBulkIndexer, with limits.
+   */
+  @Test
+  public void testAddWithLimits() throws Exception {
+    System.out.println("testAddWithLimits");
+    try (ElasticBulkIndexer instance = new ElasticBulkIndexer(getUrl(), 2, ElasticBulkIndexer.DEFAULT_MAX_BYTES, mapper)) {
+      for (int index = 1; index <= 5; index++) {
+        instance.add("metastore-test", createWrapper("id" + index));
+      }
+      // 2 full bulk requests sent.
+      assertEquals(2, requests.size());
+      instance.close();
+      assertEquals(3, requests.size());
+      assertEquals(5, instance.getNoOfIndexedDocuments());
+      assertEquals(0, instance.getNoOfFailedDocuments());
+    }
+    String firstRequest = requests.get(0);
+    String[] lines = firstRequest.split("\n");
+    assertEquals(4, lines.length);
+    assertEquals("metastore-test", mapper.readTree(lines[0]).path("index").path("_index").asText());
+    assertEquals("id1", mapper.readTree(lines[0]).path("index").path("_id").asText());
+    assertEquals("document id1", mapper.readTree(lines[1]).path("metadataDocument").path("title").asText());
+    // Byte limit: each document is sent separately.
+    requests.clear();
+    try (ElasticBulkIndexer instance = new ElasticBulkIndexer(getUrl(), 100, 10, mapper)) {
+      instance.add("metastore-test", createWrapper("id1"));
+      instance.add("metastore-test", createWrapper("id2"));
+      assertEquals(2, requests.size());
+    }
+  }
+
+  /**
+   * Test of back-off of class ElasticBulkIndexer.
+   */
+  @Test
+  public void testBackoff() throws Exception {
+    System.out.println("testBackoff");
+    // Whole request rejected.
+    responses.add(new Response(429, "{\"error\":\"rejected\"}"));
+    // Second document rejected, third document invalid.
+    responses.add(new Response(200, "{\"errors\":true,\"items\":["
+            + "{\"index\":{\"_id\":\"id1\",\"status\":201}},"
+            + "{\"index\":{\"_id\":\"id2\",\"status\":429}},"
+            + "{\"index\":{\"_id\":\"id3\",\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\"}}}]}"));
+    try (ElasticBulkIndexer instance = new ElasticBulkIndexer(getUrl(), 10, ElasticBulkIndexer.DEFAULT_MAX_BYTES, mapper)) {
+      instance.setBackoff(1, 3);
+      instance.add("metastore-test", createWrapper("id1"));
+      instance.add("metastore-test", createWrapper("id2"));
+      instance.add("metastore-test", createWrapper("id3"));
+      instance.flush();
+      assertEquals(3, requests.size());
+      // Only rejected document is resent.
+      assertTrue(requests.get(2).contains("\"id2\""));
+      assertFalse(requests.get(2).contains("\"id1\""));
+      assertEquals(2, instance.getNoOfIndexedDocuments());
+      assertEquals(1, instance.getNoOfFailedDocuments());
+      assertEquals(List.of("id3: 400 mapper_parsing_exception"), instance.getFailures());
+    }
+    // Give up after max retries.
+    requests.clear();
+    for (int index = 0; index < 5; index++) {
+      responses.add(new Response(429, "{\"error\":\"rejected\"}"));
+    }
+    try (ElasticBulkIndexer instance = new ElasticBulkIndexer(getUrl(), 10, ElasticBulkIndexer.DEFAULT_MAX_BYTES, mapper)) {
+      instance.setBackoff(1, 2);
+      instance.add("metastore-test", createWrapper("id1"));
+      instance.flush();
+      assertEquals(3, requests.size());
+      assertEquals(0, instance.getNoOfIndexedDocuments());
+      assertEquals(1, instance.getNoOfFailedDocuments());
+      assertEquals(1, instance.getFailures().size());
+    }
+  }
+
+  /**
+   * Test of flush method, of class ElasticBulkIndexer, with failing bulk
+   * request. Failures are reported and indexing continues.
+   */
+  @Test
+  public void testFailingRequest() throws Exception {
+    System.out.println("testFailingRequest");
+    responses.add(new Response(400, "{\"error\":\"illegal_argument_exception\"}"));
+    try (ElasticBulkIndexer instance = new ElasticBulkIndexer(getUrl(), 2, ElasticBulkIndexer.DEFAULT_MAX_BYTES, mapper)) {
+      instance.setBackoff(1, 3);
+      instance.add("metastore-test", createWrapper("id1"));
+      instance.add("metastore-test", createWrapper("id2"));
+      instance.add("metastore-test", createWrapper("id3"));
+      instance.flush();
+      // Failed request is not resent.
+      assertEquals(2, requests.size());
+      assertEquals(1, instance.getNoOfIndexedDocuments());
+      assertEquals(2, instance.getNoOfFailedDocuments());
+      assertEquals(List.of("id1: 400 bulk request failed", "id2: 400 bulk request failed"), instance.getFailures());
+    }
+  }
+
+  /**
+   * Test of back-off of class ElasticBulkIndexer with several versions of the
+   * same document. A rejected version is not resent if a later version was
+   * indexed.
+   */
+  @Test
+  public void testBackoffWithSupersededVersion() throws Exception {
+    System.out.println("testBackoffWithSupersededVersion");
+    responses.add(new Response(200, "{\"errors\":true,\"items\":["
+            + "{\"index\":{\"_id\":\"id1\",\"status\":429}},"
+            + "{\"index\":{\"_id\":\"id1\",\"status\":200}},"
+            + "{\"index\":{\"_id\":\"id2\",\"status\":429}}]}"));
+    try (ElasticBulkIndexer instance = new ElasticBulkIndexer(getUrl(), 10, ElasticBulkIndexer.DEFAULT_MAX_BYTES, mapper)) {
+      instance.setBackoff(1, 3);
+      instance.add("metastore-test", createWrapper("id1"));
+      instance.add("metastore-test", createWrapper("id1"));
+      instance.add("metastore-test", createWrapper("id2"));
+      instance.flush();
+      assertEquals(2, requests.size());
+      // Only id2 is resent.
+      assertFalse(requests.get(1).contains("\"id1\""));
+      assertTrue(requests.get(1).contains("\"id2\""));
+      assertEquals(2, instance.getNoOfIndexedDocuments());
+      assertEquals(0, instance.getNoOfFailedDocuments());
+    }
+  }
+
+  /**
+   * Response of the HTTP stub.
+   */
+  private static final class Response {
+
+    private final int status;
+    private final String body;
+
+    Response(int status, String body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+}
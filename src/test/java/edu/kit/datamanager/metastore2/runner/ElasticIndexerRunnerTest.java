@@ -20,10 +20,12 @@ import edu.kit.datamanager.entities.PERMISSION;
 import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
 import edu.kit.datamanager.metastore2.dao.IDataRecordDao;
 import edu.kit.datamanager.metastore2.dao.ILinkedMetadataRecordDao;
+import edu.kit.datamanager.metastore2.dao.IReindexCheckpointDao;
 import edu.kit.datamanager.metastore2.dao.ISchemaRecordDao;
 import edu.kit.datamanager.metastore2.dao.IUrl2PathDao;
 import edu.kit.datamanager.metastore2.domain.MetadataRecord;
 import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
+import edu.kit.datamanager.metastore2.domain.ReindexCheckpoint;
 import edu.kit.datamanager.metastore2.domain.ResourceIdentifier;
 import edu.kit.datamanager.repo.dao.IAllIdentifiersDao;
 import edu.kit.datamanager.repo.dao.IContentInformationDao;
@@ -37,6 +39,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
@@ -129,6 +132,10 @@ public class ElasticIndexerRunnerTest {
   @Autowired
   private IUrl2PathDao url2PathDao;
   @Autowired
+  private IReindexCheckpointDao reindexCheckpointDao;
+  @Autowired
+  private ReindexProgress reindexProgress;
+  @Autowired
   private MetastoreConfiguration metadataConfig;
   @Rule
   public JUnitRestDocumentation restDocumentation = new JUnitRestDocumentation();
@@ -276,6 +283,52 @@ public class ElasticIndexerRunnerTest {
     Assert.assertTrue(true);
   }
 
+  @Test
+  public void testElasticRunnerWithBatchesAndResume() throws Exception {
+    String schemaId = "elastic3";
+    ingestSchemaRecord(schemaId);
+    ingestMetadataRecord(schemaId);
+    eir.run("--reindex", "-i", schemaId, "--batchSize", "1", "--threads", "2");
+    ReindexCheckpoint checkpoint = reindexCheckpointDao.findById(schemaId).get();
+    long noOfDocuments = dataRecordDao.countBySchemaIdAndLastUpdateAfter(schemaId, Instant.EPOCH);
+    Assert.assertTrue(checkpoint.isFinished());
+    Assert.assertEquals(noOfDocuments, checkpoint.getNoOfProcessedRecords());
+    Assert.assertEquals(ReindexProgress.STATE.FINISHED, reindexProgress.getState());
+    Assert.assertEquals(noOfDocuments, reindexProgress.getNoOfProcessedRecords());
+    // Resume finished reindexing -> nothing to do.
+    eir.run("--reindex", "-i", schemaId, "--resume");
+    Assert.assertEquals(0, reindexProgress.getNoOfProcessedRecords());
+    Assert.assertEquals(noOfDocuments, reindexCheckpointDao.findById(schemaId).get().getNoOfProcessedRecords());
+    // Restart reindexing without resume.
+    eir.run("--reindex", "-i", schemaId);
+    Assert.assertEquals(noOfDocuments, reindexProgress.getNoOfProcessedRecords());
+  }
+
+  @Test
+  public void testElasticRunnerWithBulkAndDisabledSearch() throws Exception {
+    String schemaId = "elastic4";
+    ingestSchemaRecord(schemaId);
+    ingestMetadataRecord(schemaId);
+    // Search is disabled -> messages are sent instead.
+    eir.run("--reindex", "-i", schemaId, "--bulk", "--bulkMaxBytes", "1024");
+    Assert.assertEquals(ReindexProgress.STATE.FINISHED, reindexProgress.getState());
+    Assert.assertTrue(reindexCheckpointDao.findById(schemaId).get().isFinished());
+  }
+
+  @Test
+  public void testElasticRunnerWithMoreThanOnePageOfSchemas() throws Exception {
+    // Indices are determined page by page (20 schemas per page).
+    int noOfSchemas = 25;
+    for (int index = 1; index <= noOfSchemas; index++) {
+      ingestSchemaRecord("elastic_page_" + index);
+    }
+    eir.run("--reindex", "--threads", "3");
+    for (int index = 1; index <= noOfSchemas; index++) {
+      Assert.assertTrue("elastic_page_" + index, reindexCheckpointDao.findById("elastic_page_" + index).get().isFinished());
+    }
+    Assert.assertEquals(ReindexProgress.STATE.FINISHED, reindexProgress.getState());
+  }
+
   private String ingestSchemaRecord(String schemaId) throws Exception {
     MetadataSchemaRecord schemaRecord = new MetadataSchemaRecord();
     schemaRecord.setSchemaId(schemaId);
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.runner;
+
+import java.time.Duration;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for class ReindexProgress.
+ */
+public class ReindexProgressTest {
+
+  /**
+   * Test of progress of class ReindexProgress.
+   */
+  @Test
+  public void testProgress() throws Exception {
+    System.out.println("testProgress");
+    ReindexProgress instance = new ReindexProgress();
+    assertEquals(ReindexProgress.STATE.IDLE, instance.getState());
+    assertNull(instance.getEstimatedTimeRemaining());
+    instance.start();
+    instance.startSchema("schema1", 100, 0);
+    instance.startSchema("schema2", 50, 25);
+    assertEquals(ReindexProgress.STATE.RUNNING, instance.getState());
+    assertEquals(150, instance.getNoOfExpectedRecords());
+    Thread.sleep(10);
+    instance.addProcessedRecords("schema1", 60);
+    instance.addProcessedRecords("schema2", 15);
+    assertEquals(75, instance.getNoOfProcessedRecords());
+    assertTrue(instance.getRecordsPerSecond() > 0.0);
+    Duration eta = instance.getEstimatedTimeRemaining();
+    assertNotNull(eta);
+    assertFalse(eta.isNegative());
+    instance.finishSchema("schema2", "FAILED");
+    instance.finish();
+    assertEquals(ReindexProgress.STATE.FINISHED, instance.getState());
+    assertEquals(Duration.ZERO, instance.getEstimatedTimeRemaining());
+    Map<String, Object> progress = instance.progress();
+    assertEquals(ReindexProgress.STATE.FINISHED, progress.get("state"));
+    assertEquals(75L, progress.get("processedRecords"));
+    Map<String, Object> schemas = (Map<String, Object>) progress.get("schemas");
+    assertEquals(2, schemas.size());
+    Map<String, Object> schema2 = (Map<String, Object>) schemas.get("schema2");
+    assertEquals("FAILED", schema2.get("state"));
+    assertEquals(15L, schema2.get("processedRecords"));
+    assertEquals(25L, schema2.get("processedInPreviousRuns"));
+    assertTrue(instance.getSummary().startsWith("Reindexed 75/150 records"));
+  }
+}
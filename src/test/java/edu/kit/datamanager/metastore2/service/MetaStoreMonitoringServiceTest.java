@@ -50,7 +50,7 @@ public class MetaStoreMonitoringServiceTest {
     monitoringConfiguration.setServiceName(PREFIX_METRICS);
     metaStoreMonitoringConfiguration = new MetaStoreMonitoringConfiguration();
     MonitoringUtil.setMonitoringConfiguration(monitoringConfiguration);
-    metrics = new MetaStoreMonitoringService(monitoringConfiguration, metaStoreMonitoringConfiguration);
+    metrics = new MetaStoreMonitoringService(monitoringConfiguration, metaStoreMonitoringConfiguration, new MetaStoreStatistics(metaStoreMonitoringConfiguration));
   }
 
   @Test
@@ -65,7 +65,7 @@ public class MetaStoreMonitoringServiceTest {
       MonitoringConfiguration monitoringConfiguration = new MonitoringConfiguration();
       monitoringConfiguration.setEnabled(false);
       monitoringConfiguration.setServiceName(PREFIX_METRICS);
-      MetaStoreMonitoringService metrics = new MetaStoreMonitoringService(monitoringConfiguration, metaStoreMonitoringConfiguration);
+      MetaStoreMonitoringService metrics = new MetaStoreMonitoringService(monitoringConfiguration, metaStoreMonitoringConfiguration, new MetaStoreStatistics(metaStoreMonitoringConfiguration));
       metrics.updateMetrics();
       monitoringConfiguration.setEnabled(true);
       metrics.updateMetrics();
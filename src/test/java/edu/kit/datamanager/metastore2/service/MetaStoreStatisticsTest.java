@@ -0,0 +1,156 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.service;
+
+import edu.kit.datamanager.metastore2.configuration.MetaStoreMonitoringConfiguration;
+import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.repo.domain.DataResource;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.mockito.ArgumentMatchers;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+/**
+ * Tests for class MetaStoreStatistics.
+ */
+public class MetaStoreStatisticsTest {
+
+  private MetaStoreMonitoringConfiguration metaStoreMonitoringConfiguration;
+
+  private MetaStoreStatistics instance;
+
+  @Before
+  public void setUp() {
+    metaStoreMonitoringConfiguration = new MetaStoreMonitoringConfiguration();
+    instance = new MetaStoreStatistics(metaStoreMonitoringConfiguration);
+  }
+
+  private void mockDatabase(MockedStatic<DataResourceRecordUtil> dataResourceRecordUtilMockedStatic, long noOfMetadataDocuments, long noOfSchemaDocuments, Map<String, Long> documentsPerSchema) {
+    dataResourceRecordUtilMockedStatic.when(DataResourceRecordUtil::getNoOfMetadataDocuments).thenReturn(noOfMetadataDocuments);
+    dataResourceRecordUtilMockedStatic.when(DataResourceRecordUtil::getNoOfSchemaDocuments).thenReturn(noOfSchemaDocuments);
+    dataResourceRecordUtilMockedStatic.when(DataResourceRecordUtil::collectDocumentsPerSchema).thenReturn(documentsPerSchema);
+  }
+
+  /**
+   * Statistics are read once and cached afterwards.
+   */
+  @Test
+  public void testCachedStatistics() {
+    System.out.println("testCachedStatistics");
+    try (MockedStatic<DataResourceRecordUtil> dataResourceRecordUtilMockedStatic = Mockito.mockStatic(DataResourceRecordUtil.class)) {
+      mockDatabase(dataResourceRecordUtilMockedStatic, 10, 2, Map.of("schema1", 4L, "schema2", 6L));
+      assertEquals(10, instance.getNoOfMetadataDocuments());
+      assertEquals(2, instance.getNoOfSchemaDocuments());
+      assertEquals(6, instance.getNoOfDocuments("schema2"));
+      assertEquals(0, instance.getNoOfDocuments("unknown"));
+      // Database is not queried again.
+      mockDatabase(dataResourceRecordUtilMockedStatic, 20, 3, Map.of("schema1", 4L, "schema2", 6L, "schema3", 10L));
+      assertEquals(10, instance.getNoOfMetadataDocuments());
+      assertEquals(2, instance.getNoOfSchemaDocuments());
+      assertEquals(Map.of("schema1", 4L, "schema2", 6L), instance.getDocumentsPerSchema());
+      dataResourceRecordUtilMockedStatic.verify(DataResourceRecordUtil::getNoOfMetadataDocuments, Mockito.times(1));
+      // Reconciliation reads database.
+      instance.reconcile();
+      assertEquals(20, instance.getNoOfMetadataDocuments());
+      assertEquals(3, instance.getNoOfSchemaDocuments());
+      assertEquals(10, instance.getNoOfDocuments("schema3"));
+      // Invalidation forces reading database on next access.
+      mockDatabase(dataResourceRecordUtilMockedStatic, 30, 3, Map.of("schema3", 20L));
+      instance.invalidate();
+      assertEquals(30, instance.getNoOfMetadataDocuments());
+      assertEquals(Map.of("schema3", 20L), instance.getDocumentsPerSchema());
+    }
+  }
+
+  /**
+   * Statistics older than the maximum age are read again.
+   */
+  @Test
+  public void testStaleStatistics() throws Exception {
+    System.out.println("testStaleStatistics");
+    metaStoreMonitoringConfiguration.setStatisticsMaxAge(0);
+    try (MockedStatic<DataResourceRecordUtil> dataResourceRecordUtilMockedStatic = Mockito.mockStatic(DataResourceRecordUtil.class)) {
+      mockDatabase(dataResourceRecordUtilMockedStatic, 10, 2, Map.of());
+      assertEquals(10, instance.getNoOfMetadataDocuments());
+      mockDatabase(dataResourceRecordUtilMockedStatic, 20, 2, Map.of());
+      Thread.sleep(10);
+      assertEquals(20, instance.getNoOfMetadataDocuments());
+    }
+  }
+
+  /**
+   * Statistics are updated by create/delete hooks.
+   */
+  @Test
+  public void testHooks() {
+    System.out.println("testHooks");
+    DataResource dataResource = DataResource.factoryNewDataResource("anyId");
+    try (MockedStatic<DataResourceRecordUtil> dataResourceRecordUtilMockedStatic = Mockito.mockStatic(DataResourceRecordUtil.class)) {
+      mockDatabase(dataResourceRecordUtilMockedStatic, 10, 2, Map.of("schema1", 4L));
+      dataResourceRecordUtilMockedStatic.when(() -> DataResourceRecordUtil.getSchemaIdOfMetadataRecord(ArgumentMatchers.any())).thenReturn("schema1");
+      // Hooks are ignored before statistics are read.
+      instance.metadataDocumentCreated(dataResource);
+      instance.schemaDocumentCreated();
+      dataResourceRecordUtilMockedStatic.verify(() -> DataResourceRecordUtil.getSchemaIdOfMetadataRecord(ArgumentMatchers.any()), Mockito.never());
+      instance.reconcile();
+      instance.metadataDocumentCreated(dataResource);
+      instance.metadataDocumentCreated(dataResource);
+      instance.schemaDocumentCreated();
+      assertEquals(12, instance.getNoOfMetadataDocuments());
+      assertEquals(3, instance.getNoOfSchemaDocuments());
+      assertEquals(6, instance.getNoOfDocuments("schema1"));
+      // Revoked documents are still available.
+      instance.metadataDocumentRevoked(dataResource);
+      assertEquals(12, instance.getNoOfMetadataDocuments());
+      assertEquals(5, instance.getNoOfDocuments("schema1"));
+      // Unknown schema -> reconcile on next access.
+      dataResourceRecordUtilMockedStatic.when(() -> DataResourceRecordUtil.getSchemaIdOfMetadataRecord(ArgumentMatchers.any())).thenThrow(new IllegalStateException());
+      instance.metadataDocumentCreated(dataResource);
+      assertEquals(10, instance.getNoOfMetadataDocuments());
+      assertEquals(4, instance.getNoOfDocuments("schema1"));
+    }
+  }
+
+  /**
+   * Deleted documents are counted until they are purged.
+   */
+  @Test
+  public void testDeleteAndReconcile() {
+    System.out.println("testDeleteAndReconcile");
+    DataResource dataResource = DataResource.factoryNewDataResource("anyId");
+    try (MockedStatic<DataResourceRecordUtil> dataResourceRecordUtilMockedStatic = Mockito.mockStatic(DataResourceRecordUtil.class)) {
+      mockDatabase(dataResourceRecordUtilMockedStatic, 10, 2, Map.of("schema1", 10L));
+      dataResourceRecordUtilMockedStatic.when(() -> DataResourceRecordUtil.getSchemaIdOfMetadataRecord(ArgumentMatchers.any())).thenReturn("schema1");
+      instance.reconcile();
+      // Revoke and delete document -> document stays in database (state 'GONE').
+      instance.metadataDocumentRevoked(dataResource);
+      assertEquals(10, instance.getNoOfMetadataDocuments());
+      assertEquals(9, instance.getNoOfDocuments("schema1"));
+      mockDatabase(dataResourceRecordUtilMockedStatic, 10, 2, Map.of("schema1", 9L));
+      instance.reconcile();
+      assertEquals(10, instance.getNoOfMetadataDocuments());
+      assertEquals(9, instance.getNoOfDocuments("schema1"));
+      // Purge removes document from database.
+      mockDatabase(dataResourceRecordUtilMockedStatic, 9, 2, Map.of("schema1", 9L));
+      instance.invalidate();
+      assertEquals(9, instance.getNoOfMetadataDocuments());
+      assertEquals(9, instance.getNoOfDocuments("schema1"));
+    }
+  }
+}
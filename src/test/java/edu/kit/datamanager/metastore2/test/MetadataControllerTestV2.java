@@ -6,21 +6,27 @@
 package edu.kit.datamanager.metastore2.test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import edu.kit.datamanager.entities.Identifier;
 import edu.kit.datamanager.entities.Identifier.IDENTIFIER_TYPE;
 import edu.kit.datamanager.entities.PERMISSION;
 import edu.kit.datamanager.metastore2.configuration.MetastoreConfiguration;
 import edu.kit.datamanager.metastore2.dao.IDataRecordDao;
+import edu.kit.datamanager.metastore2.dao.IDataResourceSnapshotDao;
 import edu.kit.datamanager.metastore2.dao.ILinkedMetadataRecordDao;
 import edu.kit.datamanager.metastore2.dao.ISchemaRecordDao;
 import edu.kit.datamanager.metastore2.domain.ResourceIdentifier;
+import edu.kit.datamanager.metastore2.runner.SnapshotBackfillRunner;
 import edu.kit.datamanager.metastore2.util.DataResourceRecordUtil;
+import edu.kit.datamanager.metastore2.util.DocumentCodec;
+import edu.kit.datamanager.metastore2.util.VersionSnapshotUtil;
 import edu.kit.datamanager.repo.dao.IAllIdentifiersDao;
 import edu.kit.datamanager.repo.dao.IContentInformationDao;
 import edu.kit.datamanager.repo.dao.IDataResourceDao;
 import edu.kit.datamanager.repo.domain.*;
 import edu.kit.datamanager.repo.domain.acl.AclEntry;
+import io.micrometer.core.instrument.Metrics;
 import org.hamcrest.Matchers;
 import org.javers.core.Javers;
 import org.junit.Assert;
@@ -51,26 +57,34 @@ import org.springframework.test.context.transaction.TransactionalTestExecutionLi
 import org.springframework.test.context.web.ServletTestExecutionListener;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static edu.kit.datamanager.metastore2.test.CreateSchemaUtil.*;
 import edu.kit.datamanager.repo.domain.Date;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.documentationConfiguration;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -210,6 +224,10 @@ public class MetadataControllerTestV2 {
   @Autowired
   private IAllIdentifiersDao allIdentifiersDao;
   @Autowired
+  private IDataResourceSnapshotDao dataResourceSnapshotDao;
+  @Autowired
+  private SnapshotBackfillRunner snapshotBackfillRunner;
+  @Autowired
   private MetastoreConfiguration metadataConfig;
   @Autowired
   private MetastoreConfiguration schemaConfig;
@@ -228,6 +246,7 @@ public class MetadataControllerTestV2 {
     schemaRecordDao.deleteAll();
     dataRecordDao.deleteAll();
     allIdentifiersDao.deleteAll();
+    dataResourceSnapshotDao.deleteAll();
 
     try {
       // setup mockMvc
@@ -276,6 +295,69 @@ public class MetadataControllerTestV2 {
             file(metadataFile)).andDo(print()).andExpect(status().isCreated()).andExpect(redirectedUrlPattern("http://*:*/**/*?version=1")).andReturn();
   }
 
+  @Test
+  public void testCreateRecords() throws Exception {
+    String schemaId = SCHEMA_ID;
+    ObjectMapper mapper = new ObjectMapper();
+    MockMultipartHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.multipart(API_METADATA_PATH + "batch");
+    for (int index = 0; index < 3; index++) {
+      // Second item references an unknown schema.
+      DataResource record = SchemaRegistryControllerTestV2.createDataResource4Document("testCreateRecords_" + index, (index == 1) ? INVALID_SCHEMA : schemaId);
+      requestBuilder.file(new MockMultipartFile("record", "metadata-record.json", "application/json", mapper.writeValueAsString(record).getBytes()));
+      requestBuilder.file(new MockMultipartFile("document", "metadata_" + index + ".xml", "application/xml", DC_DOCUMENT.getBytes()));
+    }
+    MvcResult result = this.mockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+    String content = this.mockMvc.perform(asyncDispatch(result)).andDo(print()).andExpect(status().isOk()).
+            andExpect(content().contentType("application/x-ndjson")).andReturn().getResponse().getContentAsString();
+    String[] lines = content.split("\n");
+    Assert.assertEquals(4, lines.length);
+    Assert.assertTrue(lines[0].contains("\"name\":\"metadata_0.xml\",\"status\":201"));
+    Assert.assertTrue(lines[1].contains("\"name\":\"metadata_1.xml\",\"status\":422"));
+    Assert.assertTrue(lines[2].contains("\"name\":\"metadata_2.xml\",\"status\":201"));
+    Assert.assertEquals("{\"summary\":true,\"total\":3,\"created\":2,\"failed\":1}", lines[3]);
+    // Records are available afterwards.
+    String createdId = mapper.readTree(lines[0]).get("id").asText();
+    this.mockMvc.perform(get(API_METADATA_PATH + createdId).header("Accept", MediaType.APPLICATION_XML_VALUE)).andDo(print()).andExpect(status().isOk()).andExpect(content().string(DC_DOCUMENT));
+  }
+
+  @Test
+  public void testCreateRecordsWithDifferentNumberOfParts() throws Exception {
+    String schemaId = SCHEMA_ID;
+    ObjectMapper mapper = new ObjectMapper();
+    DataResource record = SchemaRegistryControllerTestV2.createDataResource4Document("testCreateRecordsWithDifferentNumberOfParts", schemaId);
+    this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_METADATA_PATH + "batch").
+            file(new MockMultipartFile("record", "metadata-record.json", "application/json", mapper.writeValueAsString(record).getBytes())).
+            file(new MockMultipartFile("document", "metadata_1.xml", "application/xml", DC_DOCUMENT.getBytes())).
+            file(new MockMultipartFile("document", "metadata_2.xml", "application/xml", DC_DOCUMENT.getBytes()))).
+            andDo(print()).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testCreateRecordsFromStream() throws Exception {
+    String schemaId = SCHEMA_ID;
+    ObjectMapper mapper = new ObjectMapper();
+    StringBuilder ndjson = new StringBuilder();
+    for (int index = 0; index < 2; index++) {
+      DataResource record = SchemaRegistryControllerTestV2.createDataResource4Document("testCreateRecordsFromStream_" + index, schemaId);
+      ObjectNode line = mapper.createObjectNode();
+      line.put("name", "item_" + index);
+      line.set("record", mapper.valueToTree(record));
+      line.put("document", DC_DOCUMENT);
+      ndjson.append(mapper.writeValueAsString(line)).append('\n');
+    }
+    ndjson.append("{ no json }\n");
+    MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.post(API_METADATA_PATH + "batch").
+            contentType("application/x-ndjson").
+            content(ndjson.toString())).andExpect(request().asyncStarted()).andReturn();
+    String content = this.mockMvc.perform(asyncDispatch(result)).andDo(print()).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    String[] lines = content.split("\n");
+    Assert.assertEquals(4, lines.length);
+    Assert.assertTrue(lines[0].contains("\"name\":\"item_0\",\"status\":201"));
+    Assert.assertTrue(lines[1].contains("\"name\":\"item_1\",\"status\":201"));
+    Assert.assertTrue(lines[2].contains("\"name\":\"line 3\",\"status\":400"));
+    Assert.assertEquals("{\"summary\":true,\"total\":3,\"created\":2,\"failed\":1}", lines[3]);
+  }
+
   @Test
   public void testCreateRecordWithHttpSchema() throws Exception {
     ingestHttpJsonSchemaRecord();
@@ -1419,6 +1501,119 @@ public class MetadataControllerTestV2 {
     Assert.assertEquals(dcMetadata, content);
   }
 
+  @Test
+  public void testGetMetadataDocumentWithCachingHeaders() throws Exception {
+    String metadataRecordId = createDCMetadataRecord();
+    MvcResult result = this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).accept(MediaType.APPLICATION_XML)).andDo(print()).andExpect(status().isOk()).andReturn();
+    String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+    Assert.assertNotNull(etag);
+    Assert.assertTrue(etag.startsWith("\"sha1:"));
+    Assert.assertNotNull(result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+    Assert.assertEquals("no-cache", result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL));
+    Assert.assertEquals("bytes", result.getResponse().getHeader(HttpHeaders.ACCEPT_RANGES));
+    // Unchanged document
+    result = this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).
+            header(HttpHeaders.IF_NONE_MATCH, etag).
+            accept(MediaType.APPLICATION_XML)).andDo(print()).andExpect(status().isNotModified()).andReturn();
+    Assert.assertEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+    Assert.assertEquals(0, result.getResponse().getContentLength());
+    Assert.assertTrue(hasVary(result, HttpHeaders.ACCEPT));
+    // Versioned document is immutable
+    result = this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).
+            param("version", "1").
+            accept(MediaType.APPLICATION_XML)).andDo(print()).andExpect(status().isOk()).andReturn();
+    String cacheControl = result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL);
+    Assert.assertTrue(cacheControl.contains("max-age=31536000"));
+    Assert.assertTrue(cacheControl.contains("immutable"));
+    Assert.assertTrue(hasVary(result, HttpHeaders.ACCEPT));
+    Assert.assertEquals(DC_DOCUMENT, result.getResponse().getContentAsString());
+    // Range request
+    result = this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).
+            header(HttpHeaders.RANGE, "bytes=0-9").
+            accept(MediaType.APPLICATION_XML)).andDo(print()).andExpect(status().isPartialContent()).andReturn();
+    Assert.assertEquals(DC_DOCUMENT.substring(0, 10), result.getResponse().getContentAsString());
+  }
+
+  @Test
+  public void testGetCompressedMetadataDocument() throws Exception {
+    DocumentCodec.configure(DocumentCodec.CODEC_GZIP);
+    try {
+      String metadataRecordId = createDCMetadataRecord();
+      Path metadataDocumentPath = DataResourceRecordUtil.getMetadataDocumentByIdAndVersion(metadataConfig, metadataRecordId, 1L);
+      Assert.assertTrue(DocumentCodec.isEncoded(metadataDocumentPath));
+      // Client doesn't accept gzip
+      MvcResult result = this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).accept(MediaType.APPLICATION_XML)).andDo(print()).andExpect(status().isOk()).andReturn();
+      Assert.assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+      Assert.assertTrue(hasVary(result, HttpHeaders.ACCEPT));
+      Assert.assertTrue(hasVary(result, HttpHeaders.ACCEPT_ENCODING));
+      Assert.assertEquals(DC_DOCUMENT, result.getResponse().getContentAsString());
+      // Client accepts gzip
+      result = this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).
+              header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate").
+              accept(MediaType.APPLICATION_XML)).andDo(print()).andExpect(status().isOk()).andReturn();
+      Assert.assertEquals(DocumentCodec.CODEC_GZIP, result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+      String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+      Assert.assertTrue(etag.endsWith("-gzip\""));
+      try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+        Assert.assertEquals(DC_DOCUMENT, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).
+              header(HttpHeaders.ACCEPT_ENCODING, "gzip").
+              header(HttpHeaders.IF_NONE_MATCH, etag).
+              accept(MediaType.APPLICATION_XML)).andDo(print()).andExpect(status().isNotModified());
+      // Update with same document -> no new version
+      ObjectMapper mapper = new ObjectMapper();
+      result = this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).
+              accept(DataResourceRecordUtil.DATA_RESOURCE_MEDIA_TYPE)).andDo(print()).andExpect(status().isOk()).andReturn();
+      String recordEtag = result.getResponse().getHeader("ETag");
+      DataResource record = mapper.readValue(result.getResponse().getContentAsString(), DataResource.class);
+      MockMultipartFile recordFile = new MockMultipartFile("record", "metadata-record.json", "application/json", mapper.writeValueAsString(record).getBytes());
+      MockMultipartFile metadataFile = new MockMultipartFile("document", "metadata.xml", "application/xml", DC_DOCUMENT.getBytes());
+      result = this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_METADATA_PATH + metadataRecordId).
+              file(recordFile).
+              file(metadataFile).
+              header("If-Match", recordEtag).
+              with(putMultipart())).andDo(print()).andExpect(status().isOk()).andReturn();
+      DataResource record2 = mapper.readValue(result.getResponse().getContentAsString(), DataResource.class);
+      Assert.assertEquals("Version shouldn't change!", record.getVersion(), record2.getVersion());
+      // ETag of compressed document also identifies unchanged document
+      result = this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).
+              accept(DataResourceRecordUtil.DATA_RESOURCE_MEDIA_TYPE)).andDo(print()).andExpect(status().isOk()).andReturn();
+      recordEtag = result.getResponse().getHeader("ETag");
+      this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_METADATA_PATH + metadataRecordId).
+              file(metadataFile).
+              header("If-Match", recordEtag).
+              header(HttpHeaders.IF_NONE_MATCH, etag).
+              with(putMultipart())).andDo(print()).andExpect(status().isNotModified());
+      // Update with new document -> new version
+      recordFile = new MockMultipartFile("record", "metadata-record.json", "application/json", result.getResponse().getContentAsByteArray());
+      metadataFile = new MockMultipartFile("document", "metadata.xml", "application/xml", DC_DOCUMENT_VERSION_2.getBytes());
+      this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_METADATA_PATH + metadataRecordId).
+              file(recordFile).
+              file(metadataFile).
+              header("If-Match", recordEtag).
+              with(putMultipart())).andDo(print()).andExpect(status().isOk());
+      // Both versions are served compressed or decompressed
+      for (String version : new String[]{"1", null}) {
+        MockHttpServletRequestBuilder request = get(API_METADATA_PATH + metadataRecordId).accept(MediaType.APPLICATION_XML);
+        if (version != null) {
+          request = request.param("version", version);
+        }
+        String expectedDocument = (version != null) ? DC_DOCUMENT : DC_DOCUMENT_VERSION_2;
+        result = this.mockMvc.perform(request).andDo(print()).andExpect(status().isOk()).andReturn();
+        Assert.assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertEquals(expectedDocument, result.getResponse().getContentAsString());
+        result = this.mockMvc.perform(request.header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andDo(print()).andExpect(status().isOk()).andReturn();
+        Assert.assertEquals(DocumentCodec.CODEC_GZIP, result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+          Assert.assertEquals(expectedDocument, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+      }
+    } finally {
+      DocumentCodec.configure(DocumentCodec.CODEC_NONE);
+    }
+  }
+
   @Test
   public void testGetMetadataDocumentWithUnknownSchema() throws Exception {
     createDCMetadataRecord();
@@ -1779,6 +1974,50 @@ public class MetadataControllerTestV2 {
     Assert.assertTrue(record.getLastUpdate().isBefore(record2.getLastUpdate()));
   }
 
+  @Test
+  public void testUpdateRecordWithUnchangedDocumentHash() throws Exception {
+    String id = "testUpdateRecordWithUnchangedDocumentHash";
+    ObjectMapper mapper = new ObjectMapper();
+    CreateSchemaUtil.ingestXmlMetadataDocumentV2(mockMvc, SCHEMA_ID, 1L, id, DC_DOCUMENT, schemaConfig.getJwtSecret());
+    MvcResult result = this.mockMvc.perform(get(API_METADATA_PATH + id).header("Accept", DataResourceRecordUtil.DATA_RESOURCE_MEDIA_TYPE)).andDo(print()).andExpect(status().isOk()).andReturn();
+    String etag = result.getResponse().getHeader("ETag");
+    DataResource record = mapper.readValue(result.getResponse().getContentAsString(), DataResource.class);
+    String documentHash = "sha1:" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(DC_DOCUMENT.getBytes()));
+    MockMultipartFile metadataFile = new MockMultipartFile("document", "metadata.xml", "application/xml", DC_DOCUMENT.getBytes());
+    // Unchanged document -> nothing to do
+    result = this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_METADATA_PATH + id).
+            file(metadataFile).
+            header("If-Match", etag).
+            header("If-None-Match", "\"" + documentHash + "\"").
+            with(putMultipart())).
+            andDo(print()).
+            andExpect(status().isNotModified()).
+            andReturn();
+    Assert.assertEquals(etag, result.getResponse().getHeader("ETag"));
+    Assert.assertTrue(result.getResponse().getContentAsString().isEmpty());
+    // Wrong ETag is still not allowed.
+    this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_METADATA_PATH + id).
+            file(metadataFile).
+            header("If-Match", etag + "unknown").
+            header("If-None-Match", "\"" + documentHash + "\"").
+            with(putMultipart())).
+            andDo(print()).
+            andExpect(status().isPreconditionFailed()).
+            andReturn();
+    // Changed document -> new version
+    metadataFile = new MockMultipartFile("document", "metadata.xml", "application/xml", DC_DOCUMENT_VERSION_2.getBytes());
+    result = this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_METADATA_PATH + id).
+            file(metadataFile).
+            header("If-Match", etag).
+            header("If-None-Match", "\"sha1:" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(DC_DOCUMENT_VERSION_2.getBytes())) + "\"").
+            with(putMultipart())).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andReturn();
+    DataResource record2 = mapper.readValue(result.getResponse().getContentAsString(), DataResource.class);
+    Assert.assertEquals(Long.parseLong(record.getVersion()), Long.parseLong(record2.getVersion()) - 1L);// version should be 1 higher
+  }
+
   @Test
   public void testUpdateRecordWithoutRecord4Json() throws Exception {
     String metadataRecordId = "testUpdateRecordWithoutRecord4Json";
@@ -2345,6 +2584,106 @@ public class MetadataControllerTestV2 {
     }
   }
 
+  @Test
+  public void testGetRecordByIdAndOlderVersion() throws Exception {
+    String id = null;
+    for (long version = 1; version <= 3; version++) {
+      id = ingestMetadataRecordWithVersion(id, version);
+    }
+    ObjectMapper mapper = new ObjectMapper();
+    for (long version = 1; version <= 3; version++) {
+      MvcResult result = this.mockMvc.perform(get(API_METADATA_PATH + id).param("version", Long.toString(version)).header("Accept", DataResourceRecordUtil.DATA_RESOURCE_MEDIA_TYPE)).andDo(print()).andExpect(status().isOk()).andReturn();
+      DataResource record = mapper.readValue(result.getResponse().getContentAsString(), DataResource.class);
+      Assert.assertEquals(id, record.getId());
+      Assert.assertEquals(Long.toString(version), record.getVersion());
+    }
+    this.mockMvc.perform(get(API_METADATA_PATH + id).param("version", "0")).andDo(print()).andExpect(status().isNotFound());
+    this.mockMvc.perform(get(API_METADATA_PATH + id).param("version", "4")).andDo(print()).andExpect(status().isNotFound());
+    // Both lookups (current version and older version) are timed.
+    Assert.assertNotNull(Metrics.globalRegistry.find(DataResourceRecordUtil.METRIC_RECORD_LOOKUP).tag("lookup", "current").timer());
+    Assert.assertNotNull(Metrics.globalRegistry.find(DataResourceRecordUtil.METRIC_RECORD_LOOKUP).tag("lookup", "version").timer());
+  }
+
+  @Test
+  public void testGetOlderVersionAfterMetadataOnlyUpdates() throws Exception {
+    // Version 1: metadata updated twice
+    String id = ingestMetadataRecordWithVersion(null, 1);
+    id = ingestNewMetadataRecord(id, 1);
+    id = ingestNewMetadataRecord(id, 2);
+    // Version 2: metadata updated once
+    id = ingestMetadataRecordWithVersion(id, 2);
+    id = ingestNewMetadataRecord(id, 3);
+    // Version 3
+    id = ingestMetadataRecordWithVersion(id, 3);
+    String[] expectedRelatedResource = {RELATED_RESOURCE_STRING + 2, RELATED_RESOURCE_STRING + 3, RELATED_RESOURCE_STRING + 3};
+    String[] expectedDocument = {DC_DOCUMENT, DC_DOCUMENT + "  ", DC_DOCUMENT + "   "};
+    ObjectMapper mapper = new ObjectMapper();
+    // Read from snapshots and (without snapshots) from audit log.
+    for (boolean withSnapshots : new boolean[]{true, false}) {
+      if (!withSnapshots) {
+        dataResourceSnapshotDao.deleteByResourceId(id);
+      }
+      for (int version = 1; version <= 3; version++) {
+        MvcResult result = this.mockMvc.perform(get(API_METADATA_PATH + id).param("version", Integer.toString(version)).header("Accept", DataResourceRecordUtil.DATA_RESOURCE_MEDIA_TYPE)).andDo(print()).andExpect(status().isOk()).andReturn();
+        DataResource record = mapper.readValue(result.getResponse().getContentAsString(), DataResource.class);
+        Assert.assertEquals(Integer.toString(version), record.getVersion());
+        Assert.assertEquals(expectedRelatedResource[version - 1], DataResourceRecordUtil.getRelatedIdentifier(record, DataResourceRecordUtil.RELATED_DATA_RESOURCE_TYPE).getValue());
+        result = this.mockMvc.perform(get(API_METADATA_PATH + id).param("version", Integer.toString(version)).accept(MediaType.APPLICATION_XML)).andDo(print()).andExpect(status().isOk()).andReturn();
+        Assert.assertEquals(expectedDocument[version - 1], result.getResponse().getContentAsString());
+      }
+    }
+    // All versions read from audit log
+    dataResourceSnapshotDao.deleteByResourceId(id);
+    this.mockMvc.perform(get(API_METADATA_PATH).param("id", id).header(HttpHeaders.ACCEPT, "application/json")).andDo(print()).andExpect(status().isOk()).andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(3))).andExpect(MockMvcResultMatchers.jsonPath("$[1].relatedIdentifiers[?(@.relationType == 'IS_METADATA_FOR')].value").value(RELATED_RESOURCE_STRING + 3)).andExpect(MockMvcResultMatchers.jsonPath("$[2].relatedIdentifiers[?(@.relationType == 'IS_METADATA_FOR')].value").value(RELATED_RESOURCE_STRING + 2));
+    // Backfill stores the latest state of each version.
+    dataResourceSnapshotDao.deleteByResourceId(id);
+    Assert.assertEquals(2, snapshotBackfillRunner.backfillSnapshots(dataResourceDao.findById(id).get()));
+    for (int version = 1; version <= 2; version++) {
+      DataResource snapshot = VersionSnapshotUtil.get(id, version).get();
+      Assert.assertEquals(Integer.toString(version), snapshot.getVersion());
+      Assert.assertEquals(expectedRelatedResource[version - 1], DataResourceRecordUtil.getRelatedIdentifier(snapshot, DataResourceRecordUtil.RELATED_DATA_RESOURCE_TYPE).getValue());
+    }
+  }
+
+  @Test
+  public void testGetAllVersionsFromSnapshots() throws Exception {
+    String id = null;
+    for (long version = 1; version <= 3; version++) {
+      id = ingestMetadataRecordWithVersion(id, version);
+    }
+    // Only superseded versions are stored as snapshot.
+    Assert.assertEquals(2, dataResourceSnapshotDao.countByResourceId(id));
+    this.mockMvc.perform(get(API_METADATA_PATH).param("id", id).header(HttpHeaders.ACCEPT, "application/json")).andDo(print()).andExpect(status().isOk()).andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(3))).andExpect(MockMvcResultMatchers.jsonPath("$[0].version").value("3")).andExpect(MockMvcResultMatchers.jsonPath("$[2].version").value("1"));
+    // Paging
+    this.mockMvc.perform(get(API_METADATA_PATH).param("id", id).param("page", "1").param("size", "2").header(HttpHeaders.ACCEPT, "application/json")).andDo(print()).andExpect(status().isOk()).andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1))).andExpect(MockMvcResultMatchers.jsonPath("$[0].version").value("1"));
+    // Without snapshots versions are read from audit and snapshots are restored.
+    dataResourceSnapshotDao.deleteByResourceId(id);
+    this.mockMvc.perform(get(API_METADATA_PATH).param("id", id).header(HttpHeaders.ACCEPT, "application/json")).andDo(print()).andExpect(status().isOk()).andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(3)));
+    Assert.assertEquals(2, dataResourceSnapshotDao.countByResourceId(id));
+    // Backfill
+    dataResourceSnapshotDao.deleteByResourceId(id);
+    Assert.assertEquals(2, snapshotBackfillRunner.backfillSnapshots(dataResourceDao.findById(id).get()));
+    Assert.assertEquals(0, snapshotBackfillRunner.backfillSnapshots(dataResourceDao.findById(id).get()));
+    Assert.assertEquals(2, dataResourceSnapshotDao.countByResourceId(id));
+  }
+
+  @Test
+  public void testCollectDocumentsPerSchema() throws Exception {
+    String metadataRecordId = createDCMetadataRecord();
+    createDCMetadataRecord();
+    // A document with several versions is counted only once.
+    ingestMetadataRecordWithVersion(metadataRecordId, 2);
+    Map<String, Long> documentsPerSchema = DataResourceRecordUtil.collectDocumentsPerSchema();
+    Assert.assertEquals(2L, documentsPerSchema.get(SCHEMA_ID).longValue());
+    Assert.assertFalse(documentsPerSchema.containsKey(JSON_SCHEMA_ID));
+    // Deleted documents are ignored.
+    MvcResult result = this.mockMvc.perform(get(API_METADATA_PATH + metadataRecordId).header("Accept", DataResourceRecordUtil.DATA_RESOURCE_MEDIA_TYPE)).andDo(print()).andExpect(status().isOk()).andReturn();
+    String etag = result.getResponse().getHeader("ETag");
+    this.mockMvc.perform(delete(API_METADATA_PATH + metadataRecordId).header("If-Match", etag)).andDo(print()).andExpect(status().isNoContent());
+    documentsPerSchema = DataResourceRecordUtil.collectDocumentsPerSchema();
+    Assert.assertEquals(1L, documentsPerSchema.get(SCHEMA_ID).longValue());
+  }
+
   @Test
   public void testIssue52() throws Exception {
     String metadataRecordId = createDCMetadataRecord();
@@ -2798,6 +3137,12 @@ public class MetadataControllerTestV2 {
     };
   }
 
+  private static boolean hasVary(MvcResult result, String header) {
+    return result.getResponse().getHeaders(HttpHeaders.VARY).stream().
+            flatMap(value -> Arrays.stream(value.split(","))).
+            anyMatch(value -> value.trim().equalsIgnoreCase(header));
+  }
+
   private void ingestHttpJsonSchemaRecord() throws Exception {
     String schemaId = JSON_HTTP_SCHEMA_ID;
     DataResource record = SchemaRegistryControllerTestV2.createDataResource4JsonSchema(schemaId);
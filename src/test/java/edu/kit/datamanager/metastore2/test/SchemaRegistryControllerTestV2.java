@@ -66,6 +66,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
@@ -74,6 +75,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.apache.commons.lang.StringUtils;
 
 import static org.junit.Assert.assertEquals;
@@ -773,6 +776,23 @@ public class SchemaRegistryControllerTestV2 {
     Assert.assertEquals(KIT_SCHEMA, content);
   }
 
+  @Test
+  public void testGetSchemaDocumentWithCachingHeaders() throws Exception {
+    String schemaId = "testGetSchemaDocumentWithCachingHeaders".toLowerCase(Locale.getDefault());
+    ingestXmlDataResource(schemaId);
+    MvcResult result = this.mockMvc.perform(get(API_SCHEMA_PATH + schemaId).param("version", "1")).andDo(print()).andExpect(status().isOk()).andReturn();
+    String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+    Assert.assertNotNull(etag);
+    Assert.assertTrue(result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+    Assert.assertEquals(KIT_SCHEMA, result.getResponse().getContentAsString());
+    // Unchanged document
+    this.mockMvc.perform(get(API_SCHEMA_PATH + schemaId).param("version", "1").header(HttpHeaders.IF_NONE_MATCH, etag)).andDo(print()).andExpect(status().isNotModified()).andReturn();
+    this.mockMvc.perform(get(API_SCHEMA_PATH + schemaId).header(HttpHeaders.IF_NONE_MATCH, "\"sha1:unknown\"")).andDo(print()).andExpect(status().isOk()).andReturn();
+    // Range request
+    result = this.mockMvc.perform(get(API_SCHEMA_PATH + schemaId).header(HttpHeaders.RANGE, "bytes=5-14")).andDo(print()).andExpect(status().isPartialContent()).andReturn();
+    Assert.assertEquals(KIT_SCHEMA.substring(5, 15), result.getResponse().getContentAsString());
+  }
+
   @Test
   public void testGetSchemaDocumentWithMissingSchemaFile() throws Exception {
     String schemaId = "testGetSchemaDocumentWithMissingSchemaFile".toLowerCase(Locale.getDefault());
@@ -843,6 +863,57 @@ public class SchemaRegistryControllerTestV2 {
     this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_SCHEMA_PATH + schemaId + "/validate").file("document", JSON_DOCUMENT.getBytes())).andDo(print()).andExpect(status().isUnprocessableEntity()).andReturn();
   }
 
+  @Test
+  public void testValidateBulk() throws Exception {
+    String schemaId = "testValidateBulk".toLowerCase(Locale.getDefault());
+    ingestXmlDataResource(schemaId);
+    MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_SCHEMA_PATH + schemaId + "/validate/bulk").
+            file(new MockMultipartFile("document", "valid.xml", MediaType.APPLICATION_XML_VALUE, KIT_DOCUMENT.getBytes())).
+            file(new MockMultipartFile("document", "invalid.xml", MediaType.APPLICATION_XML_VALUE, INVALID_KIT_DOCUMENT.getBytes())).
+            file(new MockMultipartFile("document", "valid_2.xml", MediaType.APPLICATION_XML_VALUE, KIT_DOCUMENT.getBytes()))).
+            andExpect(request().asyncStarted()).andReturn();
+    String content = this.mockMvc.perform(asyncDispatch(result)).andDo(print()).andExpect(status().isOk()).
+            andExpect(content().contentType("application/x-ndjson")).andReturn().getResponse().getContentAsString();
+    String[] lines = content.split("\n");
+    Assert.assertEquals(4, lines.length);
+    for (int index = 0; index < 3; index++) {
+      Assert.assertEquals(lines[index].contains("invalid.xml"), lines[index].contains("\"valid\":false"));
+    }
+    Assert.assertEquals("{\"summary\":true,\"total\":3,\"valid\":2,\"invalid\":1}", lines[3]);
+  }
+
+  @Test
+  public void testValidateBulkArchive() throws Exception {
+    String schemaId = "testValidateBulkArchive".toLowerCase(Locale.getDefault());
+    ingestXmlDataResource(schemaId);
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (ZipOutputStream zipStream = new ZipOutputStream(archive)) {
+      zipStream.putNextEntry(new ZipEntry("valid.xml"));
+      zipStream.write(KIT_DOCUMENT.getBytes());
+      zipStream.putNextEntry(new ZipEntry("invalid.xml"));
+      zipStream.write(INVALID_KIT_DOCUMENT.getBytes());
+    }
+    MvcResult result = this.mockMvc.perform(post(API_SCHEMA_PATH + schemaId + "/validate/bulk?version=1").
+            contentType("application/zip").content(archive.toByteArray())).
+            andExpect(request().asyncStarted()).andReturn();
+    String content = this.mockMvc.perform(asyncDispatch(result)).andDo(print()).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    Assert.assertTrue(content.endsWith("{\"summary\":true,\"total\":2,\"valid\":1,\"invalid\":1}\n"));
+  }
+
+  @Test
+  public void testValidateBulkUnknownSchemaId() throws Exception {
+    this.mockMvc.perform(MockMvcRequestBuilders.multipart(API_SCHEMA_PATH + INVALID_SCHEMA_ID + "/validate/bulk").
+            file("document", KIT_DOCUMENT.getBytes())).andDo(print()).andExpect(status().isNotFound()).andReturn();
+  }
+
+  @Test
+  public void testValidateBulkUnsupportedArchive() throws Exception {
+    String schemaId = "testValidateBulkUnsupportedArchive".toLowerCase(Locale.getDefault());
+    ingestXmlDataResource(schemaId);
+    this.mockMvc.perform(post(API_SCHEMA_PATH + schemaId + "/validate/bulk").
+            contentType("application/x-7z-compressed").content(KIT_DOCUMENT.getBytes())).andDo(print()).andExpect(status().isUnsupportedMediaType()).andReturn();
+  }
+
   @Test
   public void testValidateWithMissingSchemaFile() throws Exception {
     String schemaId = "testValidateWithMissingSchemaFile";
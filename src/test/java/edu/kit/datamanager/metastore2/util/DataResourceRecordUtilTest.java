@@ -36,8 +36,10 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.Set;
 import java.util.stream.Stream;
 import org.junit.After;
@@ -319,4 +321,18 @@ public class DataResourceRecordUtilTest {
     MultipartFile mpf = new MockMultipartFile("hallo.txt", "noContent".getBytes());
     boolean result = DataResourceRecordUtil.checkDocumentForChanges(ci, mpf);
   }
+
+  @Test
+  public void testCheckDocumentForChangesWithHash() throws Exception {
+    ContentInformation ci = new ContentInformation();
+    // File is not accessible -> only hash is used
+    ci.setContentUri("file:///tmp/somethingTotallyStrange");
+    ci.setHash("sha1:" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest("noContent".getBytes())));
+    MultipartFile mpf = new MockMultipartFile("hallo.txt", "noContent".getBytes());
+    assertTrue(DataResourceRecordUtil.checkDocumentForChanges(ci, mpf));
+    mpf = new MockMultipartFile("hallo.txt", "otherContent".getBytes());
+    assertFalse(DataResourceRecordUtil.checkDocumentForChanges(ci, mpf));
+    ci.setHash("md5:" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest("otherContent".getBytes())));
+    assertTrue(DataResourceRecordUtil.checkDocumentForChanges(ci, mpf));
+  }
 }
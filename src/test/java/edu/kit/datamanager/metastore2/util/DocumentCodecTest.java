@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.repo.dao.IContentInformationDao;
+import edu.kit.datamanager.repo.domain.ContentInformation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for class DocumentCodec.
+ */
+public class DocumentCodecTest {
+
+  private static final String DOCUMENT = "<?xml version=\"1.0\"?><example><title>Any title</title><description>Any description</description></example>";
+
+  private Path storageDirectory;
+
+  private IContentInformationDao contentInformationDao;
+
+  @Before
+  public void setUp() throws IOException {
+    storageDirectory = Files.createTempDirectory("DocumentCodecTest");
+    contentInformationDao = DocumentCodec.getContentInformationDao();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    DocumentCodec.configure(DocumentCodec.CODEC_NONE);
+    DocumentCodec.setContentInformationDao(contentInformationDao);
+    FileUtils.deleteDirectory(storageDirectory.toFile());
+  }
+
+  private Path createDocument(String name, String content) throws IOException {
+    Path document = storageDirectory.resolve(name);
+    Files.writeString(document, content, StandardCharsets.UTF_8);
+    return document;
+  }
+
+  /**
+   * Test of compress and newInputStream method, of class DocumentCodec.
+   */
+  @Test
+  public void testCompressAndRead() throws Exception {
+    System.out.println("testCompressAndRead");
+    Path document = createDocument("document.xml", DOCUMENT);
+    assertFalse(DocumentCodec.isEncoded(document));
+    try (InputStream inputStream = DocumentCodec.newInputStream(document)) {
+      assertEquals(DOCUMENT, IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+    }
+    DocumentCodec.compress(document);
+    assertTrue(DocumentCodec.isEncoded(document));
+    // Only the compressed document should be left.
+    assertEquals(1, storageDirectory.toFile().list().length);
+    try (InputStream inputStream = DocumentCodec.newInputStream(document)) {
+      assertEquals(DOCUMENT, IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Test of encode method, of class DocumentCodec.
+   */
+  @Test
+  public void testEncode() throws Exception {
+    System.out.println("testEncode");
+    IContentInformationDao dao = mock(IContentInformationDao.class);
+    when(dao.save(any(ContentInformation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    DocumentCodec.setContentInformationDao(dao);
+    Path document = createDocument("document.xml", DOCUMENT);
+    ContentInformation contentInformation = new ContentInformation();
+    contentInformation.setContentUri(document.toUri().toString());
+    // Codec disabled
+    ContentInformation result = DocumentCodec.encode(contentInformation);
+    assertNull(result.getMetadata());
+    assertEquals(DocumentCodec.CODEC_NONE, DocumentCodec.getCodec(document));
+    // Codec enabled
+    DocumentCodec.configure("GZIP");
+    assertEquals(DocumentCodec.CODEC_GZIP, DocumentCodec.getCodec());
+    result = DocumentCodec.encode(contentInformation);
+    assertEquals(DocumentCodec.CODEC_GZIP, result.getMetadata().get(DocumentCodec.CODEC_KEY));
+    assertEquals(DocumentCodec.CODEC_GZIP, DocumentCodec.getCodec(document));
+    verify(dao).save(contentInformation);
+    // Encode twice
+    DocumentCodec.encode(contentInformation);
+    try (InputStream inputStream = DocumentCodec.newInputStream(document)) {
+      assertEquals(DOCUMENT, IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+    }
+    // Recording codec fails -> document is still detected as compressed
+    Path otherDocument = createDocument("otherDocument.xml", DOCUMENT);
+    ContentInformation otherContentInformation = new ContentInformation();
+    otherContentInformation.setContentUri(otherDocument.toUri().toString());
+    when(dao.save(otherContentInformation)).thenThrow(new IllegalStateException("Database not available"));
+    assertSame(otherContentInformation, DocumentCodec.encode(otherContentInformation));
+    assertEquals(DocumentCodec.CODEC_GZIP, DocumentCodec.getCodec(otherDocument));
+    // Unsupported codec
+    DocumentCodec.configure("zstd");
+    assertEquals(DocumentCodec.CODEC_NONE, DocumentCodec.getCodec());
+  }
+
+  /**
+   * Test of isAccepted method, of class DocumentCodec.
+   */
+  @Test
+  public void testIsAccepted() {
+    System.out.println("testIsAccepted");
+    assertFalse(DocumentCodec.isAccepted(DocumentCodec.CODEC_GZIP, null));
+    assertFalse(DocumentCodec.isAccepted(DocumentCodec.CODEC_NONE, "gzip"));
+    assertTrue(DocumentCodec.isAccepted(DocumentCodec.CODEC_GZIP, "gzip"));
+    assertTrue(DocumentCodec.isAccepted(DocumentCodec.CODEC_GZIP, "deflate, GZIP;q=0.8, br"));
+    assertFalse(DocumentCodec.isAccepted(DocumentCodec.CODEC_GZIP, "deflate, br"));
+    assertFalse(DocumentCodec.isAccepted(DocumentCodec.CODEC_GZIP, "gzip;q=0"));
+    assertTrue(DocumentCodec.isAccepted(DocumentCodec.CODEC_GZIP, "*"));
+    assertFalse(DocumentCodec.isAccepted(DocumentCodec.CODEC_GZIP, "*, gzip;q=0.0"));
+    assertFalse(DocumentCodec.isAccepted(DocumentCodec.CODEC_GZIP, "identity"));
+  }
+}
@@ -16,9 +16,12 @@
 package edu.kit.datamanager.metastore2.util;
 
 import com.google.common.io.Files;
+import com.sun.net.httpserver.HttpServer;
 import edu.kit.datamanager.exceptions.CustomInternalServerError;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
@@ -188,6 +191,54 @@ public class DownloadUtilTest {
     }
   }
 
+  /**
+   * Test of downloadResource method with local HTTP server. Content is
+   * streamed to disc and type is guessed from the first bytes.
+   */
+  @Test
+  public void testDownloadResourceStreamed() throws Exception {
+    System.out.println("testDownloadResourceStreamed");
+    // JSON document larger than internal buffer.
+    StringBuilder content = new StringBuilder("{\"key\": \"");
+    content.append("a".repeat(100000)).append("\"}");
+    byte[] body = content.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/schema", exchange -> {
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream outputStream = exchange.getResponseBody()) {
+        outputStream.write(body);
+      }
+    });
+    server.start();
+    try {
+      URI resourceURL = new URI("http://localhost:" + server.getAddress().getPort() + "/schema");
+      Optional<Path> result = DownloadUtil.downloadResource(resourceURL);
+      assertTrue("No file available!", result.isPresent());
+      assertTrue("Wrong suffix for file '" + result.get() + "'!", result.get().toString().endsWith(DownloadUtil.DEFAULT_SUFFIX + ".json"));
+      assertArrayEquals(body, java.nio.file.Files.readAllBytes(result.get()));
+      assertTrue("Can't delete file '" + result.get() + "'!", result.get().toFile().delete());
+      // Resource too large
+      DownloadUtil.configure(body.length - 1);
+      try {
+        DownloadUtil.downloadResource(resourceURL);
+        fail();
+      } catch (CustomInternalServerError ie) {
+        assertTrue(ie.getMessage().contains("Error downloading resource"));
+      }
+      // Local resource too large
+      DownloadUtil.configure(10);
+      try {
+        DownloadUtil.downloadResource(new File("src/test/resources/examples/simple.json").toURI());
+        fail();
+      } catch (CustomInternalServerError ie) {
+        assertTrue(ie.getMessage().contains("Error downloading resource"));
+      }
+    } finally {
+      DownloadUtil.configure(DownloadUtil.DEFAULT_MAX_SIZE);
+      server.stop(0);
+    }
+  }
+
   /**
    * Test of downloadResource method, of class GemmaMapping.
    */
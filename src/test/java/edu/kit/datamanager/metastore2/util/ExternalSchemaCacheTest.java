@@ -0,0 +1,226 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.kit.datamanager.exceptions.CustomInternalServerError;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for class ExternalSchemaCache using a local HTTP server.
+ */
+public class ExternalSchemaCacheTest {
+
+  private static final String SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"><xs:element name=\"example\"/></xs:schema>";
+
+  private static final String SCHEMA_V2 = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"><xs:element name=\"example2\"/></xs:schema>";
+
+  private HttpServer server;
+
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private final AtomicInteger notModified = new AtomicInteger();
+
+  private volatile String content = SCHEMA;
+
+  private volatile String etag = "\"v1\"";
+
+  private volatile CountDownLatch latch = null;
+
+  private Path workingDirectory;
+
+  private Path cacheDirectory;
+
+  private String baseUrl;
+
+  @Before
+  public void setUp() throws IOException {
+    workingDirectory = Files.createTempDirectory("ExternalSchemaCacheTest");
+    cacheDirectory = workingDirectory.resolve(ExternalSchemaCache.CACHE_DIRECTORY);
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/schemas/", this::handle);
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort() + "/schemas/";
+    ExternalSchemaCache.configure(cacheDirectory, ExternalSchemaCache.DEFAULT_TTL, ExternalSchemaCache.DEFAULT_MAX_SIZE);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.stop(0);
+    ExternalSchemaCache.configure(null, ExternalSchemaCache.DEFAULT_TTL, ExternalSchemaCache.DEFAULT_MAX_SIZE);
+    FileUtils.deleteDirectory(workingDirectory.toFile());
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    try {
+      if (latch != null) {
+        latch.await(10, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    if (exchange.getRequestURI().getPath().endsWith("missing.xsd")) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      notModified.incrementAndGet();
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+    byte[] body = content.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/xml");
+    exchange.getResponseHeaders().add("ETag", etag);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(body);
+    }
+  }
+
+  /**
+   * Test of getResource method, of class ExternalSchemaCache. Document is
+   * downloaded only once.
+   */
+  @Test
+  public void testGetResource() throws Exception {
+    System.out.println("testGetResource");
+    long hits = ExternalSchemaCache.getHits();
+    Path path = ExternalSchemaCache.getResource(URI.create(baseUrl + "schema.xsd"));
+    assertEquals(SCHEMA, Files.readString(path));
+    assertTrue(ExternalSchemaCache.isCachedFile(path));
+    assertEquals(path, ExternalSchemaCache.getResource(URI.create(baseUrl + "schema.xsd")));
+    assertEquals(1, requests.get());
+    assertEquals(hits + 1, ExternalSchemaCache.getHits());
+    // Document survives restart (server is no longer available).
+    server.stop(0);
+    ExternalSchemaCache.configure(cacheDirectory, ExternalSchemaCache.DEFAULT_TTL, ExternalSchemaCache.DEFAULT_MAX_SIZE);
+    assertEquals(SCHEMA, Files.readString(ExternalSchemaCache.getResource(URI.create(baseUrl + "schema.xsd"))));
+    assertEquals(1, requests.get());
+    // Files outside cache are not managed.
+    assertFalse(ExternalSchemaCache.isCachedFile(workingDirectory.resolve("any.xsd")));
+  }
+
+  /**
+   * Test of revalidation after TTL.
+   */
+  @Test
+  public void testRevalidation() throws Exception {
+    System.out.println("testRevalidation");
+    ExternalSchemaCache.configure(cacheDirectory, 0, ExternalSchemaCache.DEFAULT_MAX_SIZE);
+    long revalidations = ExternalSchemaCache.getRevalidations();
+    Path path = ExternalSchemaCache.getResource(URI.create(baseUrl + "schema.xsd"));
+    assertEquals(path, ExternalSchemaCache.getResource(URI.create(baseUrl + "schema.xsd")));
+    assertEquals(2, requests.get());
+    assertEquals(1, notModified.get());
+    assertEquals(revalidations + 1, ExternalSchemaCache.getRevalidations());
+    // Document has changed.
+    content = SCHEMA_V2;
+    etag = "\"v2\"";
+    path = ExternalSchemaCache.getResource(URI.create(baseUrl + "schema.xsd"));
+    assertEquals(SCHEMA_V2, Files.readString(path));
+    // Server not available -> use cached document.
+    server.stop(0);
+    assertEquals(SCHEMA_V2, Files.readString(ExternalSchemaCache.getResource(URI.create(baseUrl + "schema.xsd"))));
+  }
+
+  /**
+   * Test of getResource method with unknown URL.
+   */
+  @Test
+  public void testGetMissingResource() throws Exception {
+    System.out.println("testGetMissingResource");
+    try {
+      ExternalSchemaCache.getResource(URI.create(baseUrl + "missing.xsd"));
+      fail("Exception expected!");
+    } catch (CustomInternalServerError cise) {
+      assertTrue(cise.getMessage().contains("missing.xsd"));
+    }
+    // Temporary files are removed.
+    try (var files = Files.list(cacheDirectory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  /**
+   * Test of concurrent requests for the same URL.
+   */
+  @Test
+  public void testSingleFlight() throws Exception {
+    System.out.println("testSingleFlight");
+    latch = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Path>> results = new ArrayList<>();
+      for (int index = 0; index < 4; index++) {
+        results.add(executor.submit(() -> ExternalSchemaCache.getResource(URI.create(baseUrl + "schema.xsd"))));
+      }
+      Thread.sleep(500);
+      latch.countDown();
+      Path path = results.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<Path> result : results) {
+        assertEquals(path, result.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, requests.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Test of eviction of least recently used documents.
+   */
+  @Test
+  public void testEviction() throws Exception {
+    System.out.println("testEviction");
+    long evictions = ExternalSchemaCache.getEvictions();
+    Path first = ExternalSchemaCache.getResource(URI.create(baseUrl + "first.xsd"));
+    Path second = ExternalSchemaCache.getResource(URI.create(baseUrl + "second.xsd"));
+    // Mark documents as not used for a while ('first' is the eldest one).
+    Files.setLastModifiedTime(cacheDirectory.resolve(ExternalSchemaCache.getHash(baseUrl + "first.xsd") + ".properties"), FileTime.from(Instant.now().minusSeconds(7200)));
+    Files.setLastModifiedTime(cacheDirectory.resolve(ExternalSchemaCache.getHash(baseUrl + "second.xsd") + ".properties"), FileTime.from(Instant.now().minusSeconds(3600)));
+    ExternalSchemaCache.configure(cacheDirectory, ExternalSchemaCache.DEFAULT_TTL, Files.size(second));
+    assertFalse(Files.exists(first));
+    assertTrue(Files.exists(second));
+    assertEquals(Files.size(second), ExternalSchemaCache.getSize());
+    assertEquals(evictions + 1, ExternalSchemaCache.getEvictions());
+  }
+}
@@ -89,6 +89,19 @@ public class JsonUtilsFailingTest {
 
   }
 
+  @Test
+  public void testValidateJsonSchemaDocumentWithoutNetwork() {
+    System.out.println("testValidateJsonSchemaDocumentWithoutNetwork");
+    try ( MockedStatic<SimpleServiceClient> utilities = Mockito.mockStatic(SimpleServiceClient.class)) {
+      utilities.when(() -> SimpleServiceClient.create(any(String.class)))
+              .thenThrow(new NullPointerException());
+      JsonUtils.warmUp();
+      // Meta schemas are read from classpath.
+      assertTrue(JsonUtils.validateJsonSchemaDocument(jsonSchemaWithversiondraft201909, VersionFlag.V201909));
+      utilities.verifyNoInteractions();
+    }
+  }
+
   /**
    * Test of validateJsonSchemaDocument method, of class JsonUtils.
    *
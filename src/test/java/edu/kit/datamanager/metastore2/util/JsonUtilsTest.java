@@ -9,8 +9,14 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.SpecVersion;
 import edu.kit.datamanager.metastore2.exception.JsonValidationException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -732,4 +738,77 @@ public class JsonUtilsTest {
       }
     }
   }
+
+  /**
+   * Test of getSchema method, of class JsonUtils.
+   */
+  @Test
+  public void testGetSchemaFromClasspath() throws Exception {
+    System.out.println("testGetSchemaFromClasspath");
+    for (SpecVersion.VersionFlag version : new SpecVersion.VersionFlag[]{SpecVersion.VersionFlag.V4, SpecVersion.VersionFlag.V6, SpecVersion.VersionFlag.V7, SpecVersion.VersionFlag.V201909, SpecVersion.VersionFlag.V202012}) {
+      String metaSchema = JsonUtils.getSchema(version);
+      assertNotNull(metaSchema);
+      assertTrue(metaSchema.contains("\"$schema\""));
+      assertSame(JsonUtils.getSchemaFactory(version), JsonUtils.getSchemaFactory(version));
+      assertSame(JsonUtils.getMetaSchema(version), JsonUtils.getMetaSchema(version));
+    }
+  }
+
+  /**
+   * Test of getMetaSchemaLocation method, of class JsonUtils.
+   */
+  @Test
+  public void testGetMetaSchemaLocation() {
+    System.out.println("testGetMetaSchemaLocation");
+    assertEquals("classpath:draft-04/schema", JsonUtils.getMetaSchemaLocation("http://json-schema.org/draft-04/schema#"));
+    assertEquals("classpath:draft/2020-12/schema", JsonUtils.getMetaSchemaLocation("https://json-schema.org/draft/2020-12/schema"));
+    assertEquals("classpath:draft/2019-09/meta/core", JsonUtils.getMetaSchemaLocation("https://json-schema.org/draft/2019-09/meta/core"));
+    assertEquals("http://www.example.org/schema/json", JsonUtils.getMetaSchemaLocation("http://www.example.org/schema/json"));
+  }
+
+  /**
+   * Test of validateJson method with bytes, of class JsonUtils.
+   */
+  @Test
+  public void testValidateJsonAsBytes() throws IOException {
+    System.out.println("testValidateJsonAsBytes");
+    JsonSchema jsonSchema = JsonUtils.compileJsonSchema(IOUtils.toInputStream(moreComplexExample, ENCODING));
+    assertTrue(JsonUtils.validateJson(validJsonDocument.getBytes(ENCODING), jsonSchema));
+    try {
+      JsonUtils.validateJson(invalidJsonDocument1.getBytes(ENCODING), jsonSchema);
+      fail();
+    } catch (JsonValidationException jvex) {
+      assertTrue(jvex.getMessage().contains(JsonUtils.ERROR_VALIDATING_JSON_DOCUMENT));
+    }
+  }
+
+  /**
+   * Test of validateJson method with several threads, of class JsonUtils.
+   */
+  @Test
+  public void testValidateJsonConcurrently() throws Exception {
+    System.out.println("testValidateJsonConcurrently");
+    JsonSchema jsonSchema = JsonUtils.compileJsonSchema(IOUtils.toInputStream(moreComplexExample, ENCODING));
+    byte[] validDocument = validJsonDocument.getBytes(ENCODING);
+    byte[] invalidDocument = invalidJsonDocument2.getBytes(ENCODING);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int index = 0; index < 200; index++) {
+        final boolean valid = (index % 2 == 0);
+        results.add(executor.submit(() -> {
+          try {
+            return JsonUtils.validateJson(new ByteArrayInputStream(valid ? validDocument : invalidDocument), jsonSchema) == valid;
+          } catch (JsonValidationException jvex) {
+            return !valid;
+          }
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.metastore2.validation.ValidationResult;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Tests for class MetricsUtil.
+ */
+public class MetricsUtilTest {
+
+  private SimpleMeterRegistry meterRegistry;
+
+  @Before
+  public void setUp() {
+    // Global registry records only if at least one registry is added.
+    meterRegistry = new SimpleMeterRegistry();
+    Metrics.addRegistry(meterRegistry);
+    MetricsUtil.configure(2);
+  }
+
+  @After
+  public void tearDown() {
+    MetricsUtil.configure(MetricsUtil.DEFAULT_MAX_NO_OF_SCHEMA_IDS);
+    RequestContextHolder.resetRequestAttributes();
+    Metrics.removeRegistry(meterRegistry);
+    meterRegistry.close();
+  }
+
+  private SchemaRecord createSchemaRecord(String schemaId) {
+    SchemaRecord schemaRecord = new SchemaRecord();
+    schemaRecord.setSchemaId(schemaId + "/1");
+    schemaRecord.setVersion(1L);
+    schemaRecord.setType(MetadataSchemaRecord.SCHEMA_TYPE.XML);
+    return schemaRecord;
+  }
+
+  /**
+   * Test of getSchemaIdTag method, of class MetricsUtil.
+   */
+  @Test
+  public void testGetSchemaIdTag() {
+    System.out.println("testGetSchemaIdTag");
+    assertEquals(MetricsUtil.NONE, MetricsUtil.getSchemaIdTag(null));
+    assertEquals("schema1", MetricsUtil.getSchemaIdTag("schema1"));
+    assertEquals("schema2", MetricsUtil.getSchemaIdTag("schema2"));
+    // Maximum number of schema ids reached.
+    assertEquals(MetricsUtil.OTHER, MetricsUtil.getSchemaIdTag("schema3"));
+    assertEquals("schema1", MetricsUtil.getSchemaIdTag("schema1"));
+  }
+
+  /**
+   * Test of recordValidation method, of class MetricsUtil.
+   */
+  @Test
+  public void testRecordValidation() {
+    System.out.println("testRecordValidation");
+    SchemaRecord schemaRecord = createSchemaRecord("metrics_validation");
+    assertTrue(MetricsUtil.recordValidation(schemaRecord, ValidationResult::valid).isValid());
+    assertFalse(MetricsUtil.recordValidation(schemaRecord, () -> ValidationResult.invalid("invalid")).isValid());
+    try {
+      MetricsUtil.recordValidation(schemaRecord, () -> {
+        throw new IllegalStateException("error");
+      });
+      fail("Exception expected!");
+    } catch (IllegalStateException ise) {
+      assertEquals("error", ise.getMessage());
+    }
+    for (String outcome : new String[]{"valid", "invalid", "error"}) {
+      Timer timer = meterRegistry.find(MetricsUtil.METRIC_VALIDATION).tags(MetricsUtil.TAG_SCHEMA_ID, "metrics_validation", MetricsUtil.TAG_SCHEMA_TYPE, "XML", MetricsUtil.TAG_OUTCOME, outcome).timer();
+      assertNotNull(timer);
+      assertEquals(1, timer.count());
+    }
+  }
+
+  /**
+   * Test of recordStorage method, of class MetricsUtil, with schema taken from
+   * current request.
+   */
+  @Test
+  public void testRecordStorageWithSchemaOfRequest() {
+    System.out.println("testRecordStorageWithSchemaOfRequest");
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v2/metadata");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    MetricsUtil.setSchema(createSchemaRecord("metrics_storage"));
+    assertEquals("stored", MetricsUtil.recordStorage(MetricsUtil.STEP_CONTENT, null, () -> "stored"));
+    Timer timer = meterRegistry.find(MetricsUtil.METRIC_STORAGE).tags(MetricsUtil.TAG_SCHEMA_ID, "metrics_storage", MetricsUtil.TAG_STEP, MetricsUtil.STEP_CONTENT, MetricsUtil.TAG_OUTCOME, "success").timer();
+    assertNotNull(timer);
+    assertEquals(1, timer.count());
+    // Request is tagged with the same schema.
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v2/metadata");
+    request.setContent(new byte[100]);
+    MetricsUtil.recordRequest(request, 201, 1000000L);
+    timer = meterRegistry.find(MetricsUtil.METRIC_REQUEST).tags(MetricsUtil.TAG_ENDPOINT, "POST /api/v2/metadata", MetricsUtil.TAG_SCHEMA_ID, "metrics_storage", MetricsUtil.TAG_SCHEMA_TYPE, "XML", MetricsUtil.TAG_OUTCOME, "SUCCESS").timer();
+    assertNotNull(timer);
+    assertEquals(1, timer.count());
+    assertEquals(100.0, meterRegistry.find(MetricsUtil.METRIC_REQUEST_SIZE).tags(MetricsUtil.TAG_ENDPOINT, "POST /api/v2/metadata").summary().totalAmount(), 0.0);
+  }
+
+  /**
+   * Test of recordRequest method, of class MetricsUtil, with schema id taken
+   * from path.
+   */
+  @Test
+  public void testRecordRequestWithSchemaIdInPath() {
+    System.out.println("testRecordRequestWithSchemaIdInPath");
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/schemas/metrics_path");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v2/schemas/{schemaId}");
+    request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("schemaId", "metrics_path"));
+    MetricsUtil.recordRequest(request, 200, 1000000L);
+    Timer timer = meterRegistry.find(MetricsUtil.METRIC_REQUEST).tags(MetricsUtil.TAG_ENDPOINT, "GET /api/v2/schemas/{schemaId}", MetricsUtil.TAG_SCHEMA_ID, "metrics_path", MetricsUtil.TAG_SCHEMA_TYPE, MetricsUtil.NONE, MetricsUtil.TAG_OUTCOME, "SUCCESS").timer();
+    assertNotNull(timer);
+    assertEquals(1, timer.count());
+  }
+
+  /**
+   * Test of recordRequest method, of class MetricsUtil, with unknown schema id
+   * in path.
+   */
+  @Test
+  public void testRecordRequestWithUnknownSchemaIdInPath() {
+    System.out.println("testRecordRequestWithUnknownSchemaIdInPath");
+    for (String schemaId : new String[]{"unknown1", "unknown2", "unknown3"}) {
+      MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/schemas/" + schemaId);
+      request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v2/schemas/{schemaId}");
+      request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("schemaId", schemaId));
+      MetricsUtil.recordRequest(request, 404, 1000000L);
+    }
+    Timer timer = meterRegistry.find(MetricsUtil.METRIC_REQUEST).tags(MetricsUtil.TAG_ENDPOINT, "GET /api/v2/schemas/{schemaId}", MetricsUtil.TAG_SCHEMA_ID, MetricsUtil.NONE, MetricsUtil.TAG_OUTCOME, "CLIENT_ERROR").timer();
+    assertNotNull(timer);
+    assertEquals(3, timer.count());
+    // Unknown schema ids don't occupy the schema ids available for tags.
+    assertEquals("schema1", MetricsUtil.getSchemaIdTag("schema1"));
+    assertEquals("schema2", MetricsUtil.getSchemaIdTag("schema2"));
+  }
+}
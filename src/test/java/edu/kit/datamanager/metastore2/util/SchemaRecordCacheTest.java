@@ -0,0 +1,217 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.entities.messaging.SchemaCacheMessage;
+import edu.kit.datamanager.metastore2.dao.ISchemaRecordDao;
+import edu.kit.datamanager.metastore2.dao.IUrl2PathDao;
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import edu.kit.datamanager.metastore2.domain.Url2Path;
+import edu.kit.datamanager.service.IMessagingService;
+import java.util.List;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for class SchemaRecordCache.
+ */
+public class SchemaRecordCacheTest {
+
+  private ISchemaRecordDao schemaRecordDao;
+
+  private IUrl2PathDao url2PathDao;
+
+  private ISchemaRecordDao previousSchemaRecordDao;
+
+  private IUrl2PathDao previousUrl2PathDao;
+
+  @Before
+  public void setUp() {
+    // Restore DAOs afterwards as they are shared with the application context.
+    previousSchemaRecordDao = SchemaRecordCache.getSchemaRecordDao();
+    previousUrl2PathDao = SchemaRecordCache.getUrl2PathDao();
+    schemaRecordDao = mock(ISchemaRecordDao.class);
+    url2PathDao = mock(IUrl2PathDao.class);
+    SchemaRecordCache.setSchemaRecordDao(schemaRecordDao);
+    SchemaRecordCache.setUrl2PathDao(url2PathDao);
+    SchemaRecordCache.setMessagingService(null);
+    SchemaRecordCache.configure(SchemaRecordCache.DEFAULT_MAX_ENTRIES);
+  }
+
+  @After
+  public void tearDown() {
+    SchemaRecordCache.setSchemaRecordDao(previousSchemaRecordDao);
+    SchemaRecordCache.setUrl2PathDao(previousUrl2PathDao);
+    SchemaRecordCache.setMessagingService(null);
+    SchemaRecordCache.configure(SchemaRecordCache.DEFAULT_MAX_ENTRIES);
+  }
+
+  private SchemaRecord createSchemaRecord(String schemaId, long version) {
+    SchemaRecord schemaRecord = new SchemaRecord();
+    schemaRecord.setSchemaId(schemaId + "/" + version);
+    schemaRecord.setVersion(version);
+    schemaRecord.setSchemaDocumentUri("file:///tmp/" + schemaId + "_" + version + ".xsd");
+    schemaRecord.setAlternateId("http://localhost:8040/api/v2/schemas/" + schemaId + "?version=" + version);
+    return schemaRecord;
+  }
+
+  private Url2Path createUrl2Path(String url, String path) {
+    Url2Path url2Path = new Url2Path();
+    url2Path.setUrl(url);
+    url2Path.setPath(path);
+    url2Path.setVersion(1L);
+    return url2Path;
+  }
+
+  /**
+   * Test of findBySchemaId and findLatestVersion methods, of class
+   * SchemaRecordCache.
+   */
+  @Test
+  public void testFindSchemaRecord() {
+    System.out.println("testFindSchemaRecord");
+    when(schemaRecordDao.findBySchemaId("schema/1")).thenReturn(createSchemaRecord("schema", 1L));
+    when(schemaRecordDao.findFirstBySchemaIdStartsWithOrderByVersionDesc("schema/")).thenReturn(createSchemaRecord("schema", 2L));
+    long hits = SchemaRecordCache.getHits();
+    long misses = SchemaRecordCache.getMisses();
+    SchemaRecord result = SchemaRecordCache.findBySchemaId("schema/1");
+    assertEquals("schema/1", result.getSchemaId());
+    // Modifications of the caller do not affect the cache.
+    result.setSchemaDocumentUri("modified");
+    result = SchemaRecordCache.findBySchemaId("schema/1");
+    assertEquals("file:///tmp/schema_1.xsd", result.getSchemaDocumentUri());
+    assertEquals(2L, SchemaRecordCache.findLatestVersion("schema").getVersion().longValue());
+    assertEquals(2L, SchemaRecordCache.findLatestVersion("schema").getVersion().longValue());
+    verify(schemaRecordDao, times(1)).findBySchemaId("schema/1");
+    verify(schemaRecordDao, times(1)).findFirstBySchemaIdStartsWithOrderByVersionDesc("schema/");
+    assertEquals(2, SchemaRecordCache.getHits() - hits);
+    assertEquals(2, SchemaRecordCache.getMisses() - misses);
+    assertEquals(2, SchemaRecordCache.getSize());
+    // Unknown records are not cached.
+    assertNull(SchemaRecordCache.findBySchemaId("unknown/1"));
+    assertNull(SchemaRecordCache.findBySchemaId("unknown/1"));
+    verify(schemaRecordDao, times(2)).findBySchemaId("unknown/1");
+  }
+
+  /**
+   * Test of findByUrl and findByPath methods, of class SchemaRecordCache.
+   */
+  @Test
+  public void testFindUrl2Path() {
+    System.out.println("testFindUrl2Path");
+    Url2Path url2Path = createUrl2Path("http://example.org/schema.xsd", "file:///tmp/schema.xsd");
+    when(url2PathDao.findByUrl("http://example.org/schema.xsd")).thenReturn(Optional.of(url2Path));
+    when(url2PathDao.findByPath("file:///tmp/schema.xsd")).thenReturn(List.of(url2Path));
+    when(url2PathDao.findByUrl("http://example.org/unknown.xsd")).thenReturn(Optional.empty());
+    for (int index = 0; index < 3; index++) {
+      assertEquals("file:///tmp/schema.xsd", SchemaRecordCache.findByUrl("http://example.org/schema.xsd").get().getPath());
+      assertEquals(1, SchemaRecordCache.findByPath("file:///tmp/schema.xsd").size());
+      assertTrue(SchemaRecordCache.findByUrl("http://example.org/unknown.xsd").isEmpty());
+    }
+    verify(url2PathDao, times(1)).findByUrl("http://example.org/schema.xsd");
+    verify(url2PathDao, times(1)).findByPath("file:///tmp/schema.xsd");
+    verify(url2PathDao, times(3)).findByUrl("http://example.org/unknown.xsd");
+    // Invalidate via location
+    SchemaRecordCache.invalidate(null, List.of("file:///tmp/schema.xsd"));
+    assertEquals(0, SchemaRecordCache.getSize());
+  }
+
+  /**
+   * Test of invalidate method, of class SchemaRecordCache.
+   */
+  @Test
+  public void testInvalidate() {
+    System.out.println("testInvalidate");
+    SchemaRecord schemaRecord = createSchemaRecord("schema", 1L);
+    when(schemaRecordDao.findBySchemaId("schema/1")).thenReturn(schemaRecord);
+    when(schemaRecordDao.findByAlternateId(schemaRecord.getAlternateId())).thenReturn(schemaRecord);
+    when(schemaRecordDao.findBySchemaId("schema_2/1")).thenReturn(createSchemaRecord("schema_2", 1L));
+    Url2Path url2Path = createUrl2Path(schemaRecord.getAlternateId(), schemaRecord.getSchemaDocumentUri());
+    when(url2PathDao.findByUrl(schemaRecord.getAlternateId())).thenReturn(Optional.of(url2Path));
+    SchemaRecordCache.findBySchemaId("schema/1");
+    SchemaRecordCache.findByAlternateId(schemaRecord.getAlternateId());
+    SchemaRecordCache.findBySchemaId("schema_2/1");
+    SchemaRecordCache.findByUrl(schemaRecord.getAlternateId());
+    assertEquals(4, SchemaRecordCache.getSize());
+    IMessagingService messagingService = mock(IMessagingService.class);
+    SchemaRecordCache.setMessagingService(messagingService);
+    SchemaRecordCache.invalidate("schema/3", List.of(schemaRecord.getSchemaDocumentUri()));
+    // Only entries of 'schema_2' are left.
+    assertEquals(1, SchemaRecordCache.getSize());
+    ArgumentCaptor<SchemaCacheMessage> message = ArgumentCaptor.forClass(SchemaCacheMessage.class);
+    verify(messagingService, times(1)).send(message.capture());
+    assertEquals("schema", message.getValue().getEntityId());
+    assertEquals(SchemaRecordCache.INSTANCE_ID, message.getValue().getInstanceId());
+    assertTrue(message.getValue().getLocations().contains(schemaRecord.getSchemaDocumentUri()));
+    // Loading again after invalidation.
+    SchemaRecordCache.findBySchemaId("schema/1");
+    verify(schemaRecordDao, times(2)).findBySchemaId("schema/1");
+    SchemaRecordCache.invalidateAll();
+    assertEquals(0, SchemaRecordCache.getSize());
+  }
+
+  /**
+   * Test of handleMessage method, of class SchemaRecordCache.
+   */
+  @Test
+  public void testHandleMessage() throws Exception {
+    System.out.println("testHandleMessage");
+    when(schemaRecordDao.findBySchemaId("schema/1")).thenReturn(createSchemaRecord("schema", 1L));
+    SchemaRecordCache.findBySchemaId("schema/1");
+    assertEquals(1, SchemaRecordCache.getSize());
+    // Own messages are ignored.
+    SchemaCacheMessage message = SchemaCacheMessage.factoryInvalidateMessage("schema", List.of("file:///tmp/schema_1.xsd"), SchemaRecordCache.INSTANCE_ID, "me");
+    SchemaRecordCache.handleMessage(SchemaCacheMessage.fromJson(message.toJson()));
+    assertEquals(1, SchemaRecordCache.getSize());
+    message = SchemaCacheMessage.factoryInvalidateMessage("schema", List.of("file:///tmp/schema_1.xsd"), "otherInstance", "other");
+    SchemaCacheMessage received = SchemaCacheMessage.fromJson(message.toJson());
+    assertEquals("otherInstance", received.getInstanceId());
+    assertEquals(1, received.getLocations().size());
+    SchemaRecordCache.handleMessage(received);
+    assertEquals(0, SchemaRecordCache.getSize());
+    // Invalid messages are ignored.
+    SchemaRecordCache.handleMessage(SchemaCacheMessage.fromJson("no json"));
+  }
+
+  /**
+   * Test of configure method, of class SchemaRecordCache.
+   */
+  @Test
+  public void testConfigure() {
+    System.out.println("testConfigure");
+    for (int index = 1; index <= 3; index++) {
+      when(schemaRecordDao.findBySchemaId("schema" + index + "/1")).thenReturn(createSchemaRecord("schema" + index, 1L));
+      SchemaRecordCache.findBySchemaId("schema" + index + "/1");
+    }
+    assertEquals(3, SchemaRecordCache.getSize());
+    SchemaRecordCache.configure(2);
+    assertEquals(2, SchemaRecordCache.getSize());
+    // Eldest entry was removed.
+    SchemaRecordCache.findBySchemaId("schema1/1");
+    verify(schemaRecordDao, times(2)).findBySchemaId("schema1/1");
+    // Disable cache
+    SchemaRecordCache.configure(0);
+    assertEquals(0, SchemaRecordCache.getSize());
+    SchemaRecordCache.findBySchemaId("schema2/1");
+    SchemaRecordCache.findBySchemaId("schema2/1");
+    verify(schemaRecordDao, times(3)).findBySchemaId("schema2/1");
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.util;
+
+import edu.kit.datamanager.exceptions.UnprocessableEntityException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.springframework.mock.web.MockMultipartFile;
+
+/**
+ * Tests for class SpooledDocument.
+ */
+public class SpooledDocumentTest {
+
+  private static final String DOCUMENT = "<?xml version=\"1.0\"?><example>Any content</example>";
+
+  private Path spoolDirectory;
+
+  @Before
+  public void setUp() throws IOException {
+    spoolDirectory = Files.createTempDirectory("SpooledDocumentTest");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(spoolDirectory.toFile());
+  }
+
+  /**
+   * Test of spool method, of class SpooledDocument.
+   */
+  @Test
+  public void testSpool() throws Exception {
+    System.out.println("testSpool");
+    byte[] content = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+    MockMultipartFile upload = new MockMultipartFile("document", "example.xml", "application/xml", content);
+    StringBuilder consumed = new StringBuilder();
+    try (SpooledDocument instance = SpooledDocument.spool(spoolDirectory, upload, stream -> {
+      try {
+        // Read only parts of the document.
+        byte[] buffer = new byte[10];
+        int length = stream.read(buffer);
+        consumed.append(new String(buffer, 0, length, StandardCharsets.UTF_8));
+        stream.close();
+      } catch (IOException ex) {
+        fail(ex.getMessage());
+      }
+    })) {
+      assertEquals(DOCUMENT.substring(0, 10), consumed.toString());
+      assertEquals(content.length, instance.getSize());
+      assertFalse(instance.isEmpty());
+      assertEquals("example.xml", instance.getOriginalFilename());
+      assertEquals("application/xml", instance.getContentType());
+      assertArrayEquals(content, instance.getBytes());
+      String expectedHash = SpooledDocument.HASH_PREFIX + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(content));
+      assertEquals(expectedHash, instance.getHash());
+      assertTrue(Files.exists(instance.getPath()));
+      assertEquals(spoolDirectory, instance.getPath().getParent());
+      Path spooledFile = instance.getPath();
+      instance.close();
+      assertFalse(Files.exists(spooledFile));
+    }
+  }
+
+  /**
+   * Test of spool method, of class SpooledDocument, with failing consumer.
+   */
+  @Test
+  public void testSpoolWithFailingConsumer() throws Exception {
+    System.out.println("testSpoolWithFailingConsumer");
+    MockMultipartFile upload = new MockMultipartFile("document", "example.xml", "application/xml", DOCUMENT.getBytes(StandardCharsets.UTF_8));
+    try {
+      SpooledDocument.spool(spoolDirectory, upload, stream -> {
+        throw new UnprocessableEntityException("invalid");
+      });
+      fail("Exception expected!");
+    } catch (UnprocessableEntityException uee) {
+      assertEquals("invalid", uee.getMessage());
+    }
+    // spool file should be removed.
+    assertEquals(0, spoolDirectory.toFile().list().length);
+  }
+
+  /**
+   * Test of transferTo method, of class SpooledDocument.
+   */
+  @Test
+  public void testTransferTo() throws Exception {
+    System.out.println("testTransferTo");
+    MockMultipartFile upload = new MockMultipartFile("document", "example.xml", "application/xml", DOCUMENT.getBytes(StandardCharsets.UTF_8));
+    File target = spoolDirectory.resolve("target.xml").toFile();
+    try (SpooledDocument instance = SpooledDocument.spool(spoolDirectory, upload, null)) {
+      instance.transferTo(target);
+      assertTrue(instance.isTransferred());
+      assertFalse(Files.exists(instance.getPath()));
+    }
+    assertEquals(DOCUMENT, FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Test of getInputStream method, of class SpooledDocument, for storages
+   * copying the document instead of calling transferTo.
+   */
+  @Test
+  public void testCopyViaInputStream() throws Exception {
+    System.out.println("testCopyViaInputStream");
+    MockMultipartFile upload = new MockMultipartFile("document", "example.xml", "application/xml", DOCUMENT.getBytes(StandardCharsets.UTF_8));
+    Path target = spoolDirectory.resolve("target.xml");
+    Path spoolFile;
+    try (SpooledDocument instance = SpooledDocument.spool(spoolDirectory, upload, null)) {
+      spoolFile = instance.getPath();
+      try (InputStream inputStream = instance.getInputStream()) {
+        Files.copy(inputStream, target);
+      }
+      assertFalse(instance.isTransferred());
+      assertTrue(Files.exists(spoolFile));
+    }
+    // spool file should be removed, copy is kept.
+    assertFalse(Files.exists(spoolFile));
+    assertEquals(DOCUMENT, Files.readString(target, StandardCharsets.UTF_8));
+  }
+}
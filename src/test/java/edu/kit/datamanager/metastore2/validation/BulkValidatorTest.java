@@ -0,0 +1,210 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.kit.datamanager.exceptions.BadArgumentException;
+import edu.kit.datamanager.metastore2.validation.impl.XmlValidator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Tests for class BulkValidator.
+ */
+public class BulkValidatorTest {
+
+  private final File schemaFile = new File("src/test/resources/examples/xml/example.xsd");
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private byte[] validDocument;
+
+  private byte[] invalidDocument;
+
+  private BulkValidator instance;
+
+  @Before
+  public void setUp() throws IOException {
+    validDocument = Files.readAllBytes(new File("src/test/resources/examples/xml/example.xml").toPath());
+    invalidDocument = Files.readAllBytes(new File("src/test/resources/examples/xml/invalidExample.xml").toPath());
+    BulkValidator.configure(2, BulkValidator.DEFAULT_MAX_ENTRY_SIZE);
+    instance = new BulkValidator(null, new XmlValidator(), schemaFile);
+  }
+
+  @After
+  public void tearDown() {
+    BulkValidator.configure(BulkValidator.DEFAULT_THREADS, BulkValidator.DEFAULT_MAX_ENTRY_SIZE);
+  }
+
+  private List<JsonNode> readLines(ByteArrayOutputStream outputStream) throws IOException {
+    List<JsonNode> lines = new ArrayList<>();
+    for (String line : outputStream.toString(StandardCharsets.UTF_8).split("\n")) {
+      lines.add(mapper.readTree(line));
+    }
+    return lines;
+  }
+
+  private Map<String, JsonNode> getResultsByName(List<JsonNode> lines) {
+    Map<String, JsonNode> results = new HashMap<>();
+    for (JsonNode line : lines.subList(0, lines.size() - 1)) {
+      results.put(line.get("name").asText(), line);
+    }
+    return results;
+  }
+
+  /**
+   * Test of validate method, of class BulkValidator, with multipart batch.
+   */
+  @Test
+  public void testValidateMultipart() throws Exception {
+    System.out.println("testValidateMultipart");
+    List<MultipartFile> documents = new ArrayList<>();
+    int noOfDocuments = 20;
+    for (int index = 0; index < noOfDocuments; index++) {
+      byte[] content = (index % 4 == 3) ? invalidDocument : validDocument;
+      documents.add(new MockMultipartFile("document", "document_" + index + ".xml", "application/xml", content));
+    }
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BulkValidator.Summary summary = instance.validate(BulkValidator.fromMultipart(documents), outputStream);
+    assertEquals(noOfDocuments, summary.getTotal());
+    assertEquals(15, summary.getValid());
+    assertEquals(5, summary.getInvalid());
+    List<JsonNode> lines = readLines(outputStream);
+    assertEquals(noOfDocuments + 1, lines.size());
+    JsonNode summaryLine = lines.get(noOfDocuments);
+    assertTrue(summaryLine.get("summary").asBoolean());
+    assertEquals(noOfDocuments, summaryLine.get("total").asInt());
+    Map<String, JsonNode> results = getResultsByName(lines);
+    assertEquals(noOfDocuments, results.size());
+    assertTrue(results.get("document_0.xml").get("valid").asBoolean());
+    assertFalse(results.get("document_3.xml").get("valid").asBoolean());
+    assertTrue(results.get("document_3.xml").get("errors").size() > 0);
+    assertEquals(3, results.get("document_3.xml").get("index").asInt());
+  }
+
+  /**
+   * Test of validate method, of class BulkValidator, with ZIP archive.
+   */
+  @Test
+  public void testValidateZip() throws Exception {
+    System.out.println("testValidateZip");
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (ZipOutputStream zipStream = new ZipOutputStream(archive)) {
+      zipStream.putNextEntry(new ZipEntry("folder/"));
+      zipStream.closeEntry();
+      zipStream.putNextEntry(new ZipEntry("folder/valid.xml"));
+      zipStream.write(validDocument);
+      zipStream.closeEntry();
+      zipStream.putNextEntry(new ZipEntry("invalid.xml"));
+      zipStream.write(invalidDocument);
+      zipStream.closeEntry();
+    }
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BulkValidator.Summary summary = instance.validate(BulkValidator.fromArchive("application/zip", new ByteArrayInputStream(archive.toByteArray())), outputStream);
+    assertEquals(2, summary.getTotal());
+    assertEquals(1, summary.getValid());
+    Map<String, JsonNode> results = getResultsByName(readLines(outputStream));
+    assertTrue(results.get("folder/valid.xml").get("valid").asBoolean());
+    assertFalse(results.get("invalid.xml").get("valid").asBoolean());
+  }
+
+  /**
+   * Test of validate method, of class BulkValidator, with (gzipped) tar
+   * archive.
+   */
+  @Test
+  public void testValidateTar() throws Exception {
+    System.out.println("testValidateTar");
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (TarArchiveOutputStream tarStream = new TarArchiveOutputStream(new GZIPOutputStream(archive))) {
+      for (String name : new String[]{"valid.xml", "invalid.xml"}) {
+        byte[] content = name.startsWith("valid") ? validDocument : invalidDocument;
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(content.length);
+        tarStream.putArchiveEntry(entry);
+        tarStream.write(content);
+        tarStream.closeArchiveEntry();
+      }
+    }
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BulkValidator.Summary summary = instance.validate(BulkValidator.fromArchive("application/gzip", new ByteArrayInputStream(archive.toByteArray())), outputStream);
+    assertEquals(2, summary.getTotal());
+    assertEquals(1, summary.getValid());
+    assertEquals(1, summary.getInvalid());
+  }
+
+  /**
+   * Test of validate method, of class BulkValidator, with entries exceeding
+   * the maximum size.
+   */
+  @Test
+  public void testValidateTooLargeEntry() throws Exception {
+    System.out.println("testValidateTooLargeEntry");
+    BulkValidator.configure(2, 10);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    List<MultipartFile> documents = List.of(new MockMultipartFile("document", "large.xml", "application/xml", validDocument));
+    BulkValidator.Summary summary = instance.validate(BulkValidator.fromMultipart(documents), outputStream);
+    assertEquals(1, summary.getInvalid());
+    JsonNode result = readLines(outputStream).get(0);
+    assertTrue(result.get("errors").get(0).asText().contains("maximum size"));
+  }
+
+  /**
+   * Test of validate method, of class BulkValidator, with broken archive.
+   */
+  @Test
+  public void testValidateBrokenArchive() throws Exception {
+    System.out.println("testValidateBrokenArchive");
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BulkValidator.EntryReader entries = () -> {
+      throw new IOException("broken");
+    };
+    BulkValidator.Summary summary = instance.validate(entries, outputStream);
+    assertEquals(0, summary.getTotal());
+    List<JsonNode> lines = readLines(outputStream);
+    assertEquals(1, lines.size());
+    assertTrue(lines.get(0).get("error").asText().contains("broken"));
+  }
+
+  /**
+   * Test of fromArchive method, of class BulkValidator, with unsupported type.
+   */
+  @Test(expected = BadArgumentException.class)
+  public void testUnsupportedArchive() throws Exception {
+    System.out.println("testUnsupportedArchive");
+    BulkValidator.fromArchive("application/json", new ByteArrayInputStream(new byte[0]));
+  }
+}
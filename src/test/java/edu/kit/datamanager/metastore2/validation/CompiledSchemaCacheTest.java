@@ -0,0 +1,130 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.validation;
+
+import edu.kit.datamanager.metastore2.domain.SchemaRecord;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for class CompiledSchemaCache.
+ */
+public class CompiledSchemaCacheTest {
+
+  private CompiledSchemaCache<String> instance;
+
+  @Before
+  public void setUp() {
+    CompiledSchemaCache.configure(CompiledSchemaCache.DEFAULT_MAX_ENTRIES, CompiledSchemaCache.DEFAULT_MAX_SIZE);
+    instance = new CompiledSchemaCache<>("test");
+  }
+
+  @After
+  public void tearDown() {
+    CompiledSchemaCache.configure(CompiledSchemaCache.DEFAULT_MAX_ENTRIES, CompiledSchemaCache.DEFAULT_MAX_SIZE);
+  }
+
+  private SchemaRecord createSchemaRecord(String schemaId, long version, String hash) {
+    SchemaRecord schemaRecord = new SchemaRecord();
+    schemaRecord.setSchemaId(schemaId + "/" + version);
+    schemaRecord.setVersion(version);
+    schemaRecord.setDocumentHash(hash);
+    return schemaRecord;
+  }
+
+  /**
+   * Test of get method, of class CompiledSchemaCache.
+   */
+  @Test
+  public void testGetHitAndMiss() throws Exception {
+    System.out.println("testGetHitAndMiss");
+    AtomicInteger noOfCompilations = new AtomicInteger();
+    SchemaRecord schemaRecord = createSchemaRecord("schema", 1L, "sha1:1234");
+    String result = instance.get(schemaRecord, 10, () -> "compiled" + noOfCompilations.incrementAndGet());
+    assertEquals("compiled1", result);
+    result = instance.get(schemaRecord, 10, () -> "compiled" + noOfCompilations.incrementAndGet());
+    assertEquals("compiled1", result);
+    assertEquals(1, noOfCompilations.get());
+    assertEquals(1, instance.getHits());
+    assertEquals(1, instance.getMisses());
+    assertEquals(1, instance.getSize());
+    assertEquals(10, instance.getWeight());
+    // New hash results in new entry.
+    schemaRecord.setDocumentHash("sha1:5678");
+    result = instance.get(schemaRecord, 10, () -> "compiled" + noOfCompilations.incrementAndGet());
+    assertEquals("compiled2", result);
+    assertEquals(2, instance.getSize());
+  }
+
+  /**
+   * Test of get method with records which are not cacheable.
+   */
+  @Test
+  public void testGetNotCacheable() throws Exception {
+    System.out.println("testGetNotCacheable");
+    AtomicInteger noOfCompilations = new AtomicInteger();
+    instance.get(null, 10, () -> "compiled" + noOfCompilations.incrementAndGet());
+    instance.get(null, 10, () -> "compiled" + noOfCompilations.incrementAndGet());
+    SchemaRecord schemaRecord = createSchemaRecord("schema", 1L, null);
+    instance.get(schemaRecord, 10, () -> "compiled" + noOfCompilations.incrementAndGet());
+    assertEquals(3, noOfCompilations.get());
+    assertEquals(0, instance.getSize());
+  }
+
+  /**
+   * Test of limits of class CompiledSchemaCache.
+   */
+  @Test
+  public void testEviction() throws Exception {
+    System.out.println("testEviction");
+    CompiledSchemaCache.configure(2, 100);
+    instance.get(createSchemaRecord("schema1", 1L, "hash"), 10, () -> "schema1");
+    instance.get(createSchemaRecord("schema2", 1L, "hash"), 10, () -> "schema2");
+    // Access schema1 -> schema2 is the eldest entry.
+    instance.get(createSchemaRecord("schema1", 1L, "hash"), 10, () -> "schema1");
+    instance.get(createSchemaRecord("schema3", 1L, "hash"), 10, () -> "schema3");
+    assertEquals(2, instance.getSize());
+    assertEquals(1, instance.getEvictions());
+    assertEquals("schema1", instance.get(createSchemaRecord("schema1", 1L, "hash"), 10, () -> "recompiled"));
+    assertEquals("recompiled", instance.get(createSchemaRecord("schema2", 1L, "hash"), 10, () -> "recompiled"));
+    // Size limit
+    instance.get(createSchemaRecord("schema4", 1L, "hash"), 95, () -> "schema4");
+    assertEquals(1, instance.getSize());
+    assertEquals(95, instance.getWeight());
+  }
+
+  /**
+   * Test of invalidateSchema method, of class CompiledSchemaCache.
+   */
+  @Test
+  public void testInvalidateSchema() throws Exception {
+    System.out.println("testInvalidateSchema");
+    instance.get(createSchemaRecord("schema", 1L, "hash"), 10, () -> "schema_v1");
+    instance.get(createSchemaRecord("schema", 2L, "hash"), 10, () -> "schema_v2");
+    instance.get(createSchemaRecord("schema_2", 1L, "hash"), 10, () -> "schema_2");
+    assertEquals(3, instance.getSize());
+    CompiledSchemaCache.invalidateSchema("schema");
+    assertEquals(1, instance.getSize());
+    assertEquals(10, instance.getWeight());
+    assertEquals(2, instance.getEvictions());
+    instance.invalidateAll();
+    assertEquals(0, instance.getSize());
+    assertEquals(0, instance.getWeight());
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2025 Karlsruhe Institute of Technology.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.kit.datamanager.metastore2.validation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.kit.datamanager.metastore2.dao.IUrl2PathDao;
+import edu.kit.datamanager.metastore2.domain.Url2Path;
+import edu.kit.datamanager.metastore2.util.ExternalSchemaCache;
+import edu.kit.datamanager.metastore2.util.SchemaRecordCache;
+import edu.kit.datamanager.metastore2.validation.impl.XmlValidator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for class XsdResourceResolver.
+ */
+public class XsdResourceResolverTest {
+
+  private static final String MAIN_SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\""
+          + " xmlns:c=\"http://example.org/common\" targetNamespace=\"http://example.org/main\" elementFormDefault=\"qualified\">"
+          + "<xs:import namespace=\"http://example.org/common\" schemaLocation=\"%s\"/>"
+          + "<xs:element name=\"example\" type=\"c:nameType\"/>"
+          + "</xs:schema>";
+
+  private static final String COMMON_SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\""
+          + " targetNamespace=\"http://example.org/common\">"
+          + "<xs:include schemaLocation=\"types.xsd\"/>"
+          + "</xs:schema>";
+
+  private static final String TYPES_SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\""
+          + " targetNamespace=\"http://example.org/common\">"
+          + "<xs:simpleType name=\"nameType\"><xs:restriction base=\"xs:string\"><xs:maxLength value=\"5\"/></xs:restriction></xs:simpleType>"
+          + "</xs:schema>";
+
+  private static final String VALID_DOCUMENT = "<example xmlns=\"http://example.org/main\">abc</example>";
+
+  private static final String INVALID_DOCUMENT = "<example xmlns=\"http://example.org/main\">abcdefgh</example>";
+
+  private HttpServer server;
+
+  private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+  private Path workingDirectory;
+
+  private Path cacheDirectory;
+
+  private String baseUrl;
+
+  private IUrl2PathDao url2PathDao;
+
+  @Before
+  public void setUp() throws IOException {
+    workingDirectory = Files.createTempDirectory("XsdResourceResolverTest");
+    cacheDirectory = workingDirectory.resolve(ExternalSchemaCache.CACHE_DIRECTORY);
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/schemas/common.xsd", exchange -> handle(exchange, COMMON_SCHEMA));
+    server.createContext("/schemas/types.xsd", exchange -> handle(exchange, TYPES_SCHEMA));
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort() + "/schemas/";
+    url2PathDao = mock(IUrl2PathDao.class);
+    when(url2PathDao.findByUrl(anyString())).thenReturn(Optional.empty());
+    SchemaRecordCache.setUrl2PathDao(url2PathDao);
+    SchemaRecordCache.configure(SchemaRecordCache.DEFAULT_MAX_ENTRIES);
+    ExternalSchemaCache.configure(cacheDirectory, ExternalSchemaCache.DEFAULT_TTL, ExternalSchemaCache.DEFAULT_MAX_SIZE);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.stop(0);
+    SchemaRecordCache.setUrl2PathDao(null);
+    ExternalSchemaCache.configure(null, ExternalSchemaCache.DEFAULT_TTL, ExternalSchemaCache.DEFAULT_MAX_SIZE);
+    FileUtils.deleteDirectory(workingDirectory.toFile());
+  }
+
+  private void handle(HttpExchange exchange, String content) throws IOException {
+    requests.computeIfAbsent(exchange.getRequestURI().getPath(), k -> new AtomicInteger()).incrementAndGet();
+    byte[] body = content.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/xml");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(body);
+    }
+  }
+
+  private int getNoOfRequests(String file) {
+    AtomicInteger noOfRequests = requests.get("/schemas/" + file);
+    return (noOfRequests == null) ? 0 : noOfRequests.get();
+  }
+
+  private ValidationResult validate(Path schemaFile, String document) {
+    return new XmlValidator().validateMetadataDocument(schemaFile.toFile(), new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private Path writeMainSchema() throws IOException {
+    Path schemaFile = workingDirectory.resolve("main.xsd");
+    Files.writeString(schemaFile, String.format(MAIN_SCHEMA, baseUrl + "common.xsd"));
+    return schemaFile;
+  }
+
+  /**
+   * Test of resolveResource method, of class XsdResourceResolver. Imported
+   * schema documents are downloaded only once (via external schema cache).
+   */
+  @Test
+  public void testResolveViaExternalSchemaCache() throws Exception {
+    System.out.println("testResolveViaExternalSchemaCache");
+    Path schemaFile = writeMainSchema();
+    long downloads = ExternalSchemaCache.getDownloads();
+    assertTrue(validate(schemaFile, VALID_DOCUMENT).isValid());
+    assertFalse(validate(schemaFile, INVALID_DOCUMENT).isValid());
+    assertTrue(validate(schemaFile, VALID_DOCUMENT).isValid());
+    assertEquals(1, getNoOfRequests("common.xsd"));
+    assertEquals(1, getNoOfRequests("types.xsd"));
+    assertEquals(downloads + 2, ExternalSchemaCache.getDownloads());
+    assertTrue(ExternalSchemaCache.isCachedFile(ExternalSchemaCache.getResource(URI.create(baseUrl + "common.xsd"))));
+    assertTrue(ExternalSchemaCache.isCachedFile(ExternalSchemaCache.getResource(URI.create(baseUrl + "types.xsd"))));
+    // Cache survives restart (server is no longer available).
+    server.stop(0);
+    ExternalSchemaCache.configure(cacheDirectory, ExternalSchemaCache.DEFAULT_TTL, ExternalSchemaCache.DEFAULT_MAX_SIZE);
+    assertTrue(validate(schemaFile, VALID_DOCUMENT).isValid());
+    assertFalse(validate(schemaFile, INVALID_DOCUMENT).isValid());
+  }
+
+  /**
+   * Test of resolveResource method, of class XsdResourceResolver, with
+   * registered schema document.
+   */
+  @Test
+  public void testResolveRegisteredSchema() throws Exception {
+    System.out.println("testResolveRegisteredSchema");
+    Path commonFile = workingDirectory.resolve("registered_common.xsd");
+    Files.writeString(commonFile, COMMON_SCHEMA);
+    Url2Path url2Path = new Url2Path();
+    url2Path.setUrl(baseUrl + "common.xsd");
+    url2Path.setPath(commonFile.toUri().toString());
+    when(url2PathDao.findByUrl(url2Path.getUrl())).thenReturn(Optional.of(url2Path));
+    Path schemaFile = writeMainSchema();
+    assertTrue(validate(schemaFile, VALID_DOCUMENT).isValid());
+    assertEquals(0, getNoOfRequests("common.xsd"));
+    // Relative include is resolved against the registered URL.
+    assertEquals(1, getNoOfRequests("types.xsd"));
+    // Registered schema documents are read via schema record cache.
+    assertTrue(validate(schemaFile, VALID_DOCUMENT).isValid());
+    verify(url2PathDao, times(1)).findByUrl(url2Path.getUrl());
+  }
+
+  /**
+   * Test of resolveResource method, of class XsdResourceResolver, with
+   * disabled external schema cache.
+   */
+  @Test
+  public void testResolveWithoutExternalSchemaCache() throws Exception {
+    System.out.println("testResolveWithoutExternalSchemaCache");
+    ExternalSchemaCache.configure(null, ExternalSchemaCache.DEFAULT_TTL, ExternalSchemaCache.DEFAULT_MAX_SIZE);
+    XsdResourceResolver instance = new XsdResourceResolver();
+    assertNull(instance.resolveResource(null, null, null, baseUrl + "common.xsd", null));
+    assertNull(instance.resolveResource(null, null, null, "types.xsd", workingDirectory.toUri().toString()));
+    assertEquals(0, getNoOfRequests("common.xsd"));
+  }
+
+  /**
+   * Test of getResourceUri method, of class XsdResourceResolver.
+   */
+  @Test
+  public void testGetResourceUri() {
+    System.out.println("testGetResourceUri");
+    assertNull(XsdResourceResolver.getResourceUri(null, baseUrl));
+    assertEquals(URI.create(baseUrl + "types.xsd"), XsdResourceResolver.getResourceUri("types.xsd", baseUrl + "common.xsd"));
+    assertEquals(URI.create("https://example.org/any.xsd"), XsdResourceResolver.getResourceUri("https://example.org/any.xsd", baseUrl));
+    assertEquals(URI.create("types.xsd"), XsdResourceResolver.getResourceUri("types.xsd", null));
+    assertNull(XsdResourceResolver.getResourceUri("invalid uri", null));
+  }
+}
@@ -6,6 +6,7 @@
 package edu.kit.datamanager.metastore2.validation.impl;
 
 import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
+import edu.kit.datamanager.metastore2.validation.ValidationResult;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -91,7 +92,7 @@ public class JsonValidatorTest {
   }
 
   /**
-   * Test of isSchemaValid method, of class JsonValidator.
+   * Test of validateSchemaDocument method, of class JsonValidator.
    */
   @Test
   public void testIsSchemaValid() {
@@ -100,12 +101,12 @@ public class JsonValidatorTest {
     schemaStream = new ByteArrayInputStream(jsonSchemaWithversiondraft201909.getBytes());
     JsonValidator instance = new JsonValidator();
     boolean expResult = true;
-    boolean result = instance.isSchemaValid(schemaStream);
+    boolean result = instance.validateSchemaDocument(schemaStream).isValid();
     assertEquals(expResult, result);
   }
 
   /**
-   * Test of isSchemaValid method, of class JsonValidator.
+   * Test of validateSchemaDocument method, of class JsonValidator.
    */
   @Test
   public void testIsSchemaValidWithEmptySchema() {
@@ -114,7 +115,7 @@ public class JsonValidatorTest {
     schemaStream = new ByteArrayInputStream("{}".getBytes());
     JsonValidator instance = new JsonValidator();
     boolean expResult = false;
-    boolean result = instance.isSchemaValid(schemaStream);
+    boolean result = instance.validateSchemaDocument(schemaStream).isValid();
     assertEquals(expResult, result);
   }
 
@@ -129,9 +130,10 @@ public class JsonValidatorTest {
     metadataDocumentStream = new ByteArrayInputStream("{}".getBytes());
     JsonValidator instance = new JsonValidator();
     boolean expResult = false;
-    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+    ValidationResult validationResult = instance.validateMetadataDocument(schemaFile, metadataDocumentStream).isValid();
+    boolean result = validationResult.isValid();
     assertEquals(expResult, result);
-    assertNotNull(instance.getErrorMessage());
+    assertNotNull(validationResult.getErrorMessage());
   }
 
   /**
@@ -145,7 +147,7 @@ public class JsonValidatorTest {
     metadataDocumentStream = new ByteArrayInputStream("{}".getBytes());
     JsonValidator instance = new JsonValidator();
     boolean expResult = false;
-    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream).isValid();
     assertEquals(expResult, result);
   }
 
@@ -160,7 +162,7 @@ public class JsonValidatorTest {
     metadataDocumentStream = new ByteArrayInputStream("{}".getBytes());
     JsonValidator instance = new JsonValidator();
     boolean expResult = false;
-    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream).isValid();
     assertEquals(expResult, result);
   }
 
@@ -172,9 +174,10 @@ public class JsonValidatorTest {
     schemaStream = null;
     JsonValidator instance = new JsonValidator();
     boolean expResult = false;
-    boolean result = instance.validateMetadataDocument(schemaFile, schemaStream);
+    ValidationResult validationResult = instance.validateMetadataDocument(schemaFile, schemaStream);
+    boolean result = validationResult.isValid();
     assertEquals(expResult, result);
-    assertNotNull(instance.getErrorMessage());
+    assertNotNull(validationResult.getErrorMessage());
   }
   @Test
   public void testValidateMetadataDocumentWithNullDocument() throws IOException {
@@ -183,7 +186,7 @@ public class JsonValidatorTest {
     InputStream metadataDocumentStream = null;
     JsonValidator instance = new JsonValidator();
     boolean expResult = false;
-    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream).isValid();
     assertEquals(expResult, result);
   }
   @Test
@@ -194,7 +197,7 @@ public class JsonValidatorTest {
     metadataDocumentStream = new ByteArrayInputStream("{}".getBytes());
     JsonValidator instance = new JsonValidator();
     boolean expResult = true;
-    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream).isValid();
     assertEquals(expResult, result);
   }
 
@@ -206,21 +209,26 @@ public class JsonValidatorTest {
     metadataDocumentStream = new ByteArrayInputStream(validDocument.getBytes());
     JsonValidator instance = new JsonValidator();
     boolean expResult = true;
-    boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+    ValidationResult validationResult = instance.validateMetadataDocument(schemaFile, metadataDocumentStream).isValid();
+    boolean result = validationResult.isValid();
     assertEquals(expResult, result);
-    assertNull(instance.getErrorMessage());
+    assertNull(validationResult.getErrorMessage());
   }
 
   /**
-   * Test of getErrorMessage method, of class JsonValidator.
+   * Test of getErrorMessage method, of class ValidationResult.
    */
   @Test
   public void testGetErrorMessage() {
     System.out.println("getErrorMessage");
+    File schemaFile = new File(jsonSchemaFile);
+    InputStream metadataDocumentStream = new ByteArrayInputStream("{\"id\": \"noNumber\"}".getBytes());
     JsonValidator instance = new JsonValidator();
-    String expResult = null;
-    String result = instance.getErrorMessage();
-    assertEquals(expResult, result);
+    ValidationResult validationResult = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+    assertFalse(validationResult.isValid());
+    assertNotNull(validationResult.getErrorMessage());
+    assertEquals(1, validationResult.getErrors().size());
+    assertTrue(validationResult.getErrors().get(0).contains("id"));
   }
 
 }
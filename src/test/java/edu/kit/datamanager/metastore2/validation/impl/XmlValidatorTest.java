@@ -6,6 +6,7 @@ package edu.kit.datamanager.metastore2.validation.impl;
 
 import edu.kit.datamanager.metastore2.domain.MetadataSchemaRecord;
 import edu.kit.datamanager.metastore2.validation.IValidator;
+import edu.kit.datamanager.metastore2.validation.ValidationResult;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -69,14 +70,21 @@ public class XmlValidatorTest {
     }
 
     /**
-     * Test of getInstance method, of class XmlValidator.
+     * Test of validateMetadataDocument method, of class XmlValidator, using
+     * the same instance for valid and invalid documents.
      */
     @Test
-    public void testGetInstance() {
-        System.out.println("getInstance");
-        XmlValidator instance = new XmlValidator();
-        IValidator result = instance.getInstance();
-        assertNotNull(result);
+    public void testSharedInstance() throws FileNotFoundException {
+        System.out.println("testSharedInstance");
+        IValidator instance = new XmlValidator();
+        ValidationResult invalid = instance.validateMetadataDocument(schemaFile, new FileInputStream(invalidXmlFile));
+        ValidationResult valid = instance.validateMetadataDocument(schemaFile, new FileInputStream(xmlFile));
+        assertFalse(invalid.isValid());
+        assertNotNull(invalid.getErrorMessage());
+        assertFalse(invalid.getErrors().isEmpty());
+        assertTrue(valid.isValid());
+        assertNull(valid.getErrorMessage());
+        assertTrue(valid.getErrors().isEmpty());
     }
 
     /**
@@ -86,9 +94,9 @@ public class XmlValidatorTest {
     public void testIsSchemaValid() throws FileNotFoundException {
         System.out.println("isSchemaValid");
         InputStream schemaStream = new FileInputStream(schemaFile);
-        IValidator instance = new XmlValidator().getInstance();
+        IValidator instance = new XmlValidator();
         boolean expResult = true;
-        boolean result = instance.isSchemaValid(schemaStream);
+        boolean result = instance.validateSchemaDocument(schemaStream).isValid();
         assertEquals(expResult, result);
     }
 
@@ -99,9 +107,9 @@ public class XmlValidatorTest {
     public void testIsSchemaValid_OAI_DC() throws FileNotFoundException {
         System.out.println("isSchemaValid");
        InputStream schemaStream = new FileInputStream(schema_oai_dc);
-        IValidator instance = new XmlValidator().getInstance();
+        IValidator instance = new XmlValidator();
         boolean expResult = true;
-        boolean result = instance.isSchemaValid(schemaStream);
+        boolean result = instance.validateSchemaDocument(schemaStream).isValid();
         assertEquals(expResult, result);
     }
 
@@ -113,11 +121,12 @@ public class XmlValidatorTest {
     public void testIsSchemaValidForbiddenSchema() throws FileNotFoundException {
         System.out.println("isSchemaValid");
        InputStream schemaStream = new FileInputStream(invalidSchemaWithDoctype);
-        IValidator instance = new XmlValidator().getInstance();
+        IValidator instance = new XmlValidator();
         boolean expResult = false;
-        boolean result = instance.isSchemaValid(schemaStream);
+        ValidationResult validationResult = instance.validateSchemaDocument(schemaStream);
+        boolean result = validationResult.isValid();
         assertEquals(expResult, result);
-        assertTrue("Error message should contain DOCTYPE", instance.getErrorMessage().contains("DOCTYPE"));
+        assertTrue("Error message should contain DOCTYPE", validationResult.getErrorMessage().contains("DOCTYPE"));
     }
 
     /**
@@ -130,9 +139,9 @@ public class XmlValidatorTest {
         assertTrue("Xml file is not available!", xmlFile.exists());
 
         InputStream metadataDocumentStream = new FileInputStream(xmlFile);
-        IValidator instance = new XmlValidator().getInstance();
+        IValidator instance = new XmlValidator();
         boolean expResult = true;
-        boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+        boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream).isValid();
         assertEquals(expResult, result);
     }
 
@@ -146,9 +155,9 @@ public class XmlValidatorTest {
         assertTrue("Xml file is not available!", xmlFile_oai_dc.exists());
 
         InputStream metadataDocumentStream = new FileInputStream(xmlFile_oai_dc);
-        IValidator instance = new XmlValidator().getInstance();
+        IValidator instance = new XmlValidator();
         boolean expResult = true;
-        boolean result = instance.validateMetadataDocument(schema_oai_dc, metadataDocumentStream);
+        boolean result = instance.validateMetadataDocument(schema_oai_dc, metadataDocumentStream).isValid();
         assertEquals(expResult, result);
     }
 
@@ -161,14 +170,14 @@ public class XmlValidatorTest {
         assertTrue("Schema file is not available!", schemaFile.exists());
         assertTrue("Xml file is not available!", invalidXmlFile.exists());
         InputStream metadataDocumentStream = new FileInputStream(invalidXmlFile);
-        IValidator instance = new XmlValidator().getInstance();
+        IValidator instance = new XmlValidator();
         boolean expResult = false;
-        boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+        boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream).isValid();
         assertEquals(expResult, result);
     }
 
     /**
-     * Test of getErrorMessage method, of class XmlValidator.
+     * Test of getErrorMessage method, of class ValidationResult.
      */
     @Test
     public void testGetErrorMessage() throws FileNotFoundException {
@@ -176,11 +185,13 @@ public class XmlValidatorTest {
         assertTrue("Schema file is not available!", schemaFile.exists());
         assertTrue("Xml file is not available!", invalidXmlFile.exists());
         InputStream metadataDocumentStream = new FileInputStream(invalidXmlFile);
-        IValidator instance = new XmlValidator().getInstance();
+        IValidator instance = new XmlValidator();
         boolean expResult = false;
-        boolean result = instance.validateMetadataDocument(schemaFile, metadataDocumentStream);
+        ValidationResult validationResult = instance.validateMetadataDocument(schemaFile, metadataDocumentStream).isValid();
+        boolean result = validationResult.isValid();
         assertEquals(expResult, result);
-        String errorMessage = instance.getErrorMessage();
+        String errorMessage = validationResult.getErrorMessage();
         assertNotNull(errorMessage);
+        assertFalse(validationResult.getErrors().isEmpty());
     }
 }